@@ -17,7 +17,9 @@ import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -61,16 +63,24 @@ public class FilterAnnotationsBySpan
       item.getContents(Text.class)
           .forEach(
               c -> {
+                // Annotations often share bounds (e.g. tokens and entities), so only test each
+                // span once
+                Map<SpanBounds, Boolean> matches = new HashMap<>();
+
                 List<Annotation> toRemove =
                     c.getAnnotations()
                         .getByBounds(SpanBounds.class)
                         .filter(
-                            a -> {
-                              String val = c.getText(a).orElse(null);
-                              if (val == null) return false;
-
-                              return spanPatterns.stream().anyMatch(p -> p.matcher(val).matches());
-                            })
+                            a ->
+                                matches.computeIfAbsent(
+                                    a.getBounds(SpanBounds.class).get(),
+                                    b -> {
+                                      String val = b.getData(c).orElse(null);
+                                      if (val == null) return false;
+
+                                      return spanPatterns.stream()
+                                          .anyMatch(p -> p.matcher(val).matches());
+                                    }))
                         .collect(Collectors.toList());
 
                 c.getAnnotations().delete(toRemove);
@@ -16,8 +16,8 @@ import io.annot8.common.components.AbstractProcessor;
 import io.annot8.common.components.AbstractProcessorDescriptor;
 import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.components.base.text.utils.SpanIndex;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -82,12 +82,7 @@ public class MergeAdjacentSpanBounds
 
                 for (String type : types) {
                   List<Annotation> annotations =
-                      c.getAnnotations()
-                          .getByBoundsAndType(SpanBounds.class, type)
-                          .sorted(
-                              Comparator.comparing(
-                                  a -> a.getBounds(SpanBounds.class).get().getBegin()))
-                          .collect(Collectors.toList());
+                      SpanIndex.forType(c, type).getAll().collect(Collectors.toList());
 
                   if (annotations.size() < 2) continue;
 
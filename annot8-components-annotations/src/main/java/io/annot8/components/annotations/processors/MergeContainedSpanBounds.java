@@ -16,6 +16,7 @@ import io.annot8.common.components.AbstractProcessor;
 import io.annot8.common.components.AbstractProcessorDescriptor;
 import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.components.base.text.utils.SpanIndex;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -84,8 +85,13 @@ public class MergeContainedSpanBounds
                           .collect(Collectors.toList());
                   if (annotations.size() <= 1) continue;
 
+                  Map<Annotation, Integer> positions = new HashMap<>();
+                  for (int i = 0; i < annotations.size(); i++) positions.put(annotations.get(i), i);
+
+                  SpanIndex index = new SpanIndex(annotations);
+
                   Map<Annotation, List<Annotation>> groups = new HashMap<>();
-                  List<Annotation> grouped = new ArrayList<>();
+                  Set<Annotation> grouped = new HashSet<>();
 
                   for (int i = annotations.size() - 1; i >= 0; i--) {
                     Annotation a1 = annotations.get(i);
@@ -93,17 +99,19 @@ public class MergeContainedSpanBounds
 
                     SpanBounds s1 = a1.getBounds(SpanBounds.class).get();
 
-                    for (int j = 0; j < i; j++) {
-                      Annotation a2 = annotations.get(j);
-                      SpanBounds s2 = a2.getBounds(SpanBounds.class).get();
-
-                      if (s1.isWithin(s2)) {
-                        List<Annotation> g = groups.getOrDefault(a1, new ArrayList<>());
-                        g.add(a2);
-                        groups.put(a1, g);
-
-                        grouped.add(a2);
-                      }
+                    // Only shorter annotations (earlier in the list) are merged into a1, in the
+                    // order they appear in the list
+                    int position = i;
+                    List<Annotation> contained =
+                        index
+                            .getBetween(s1.getBegin(), s1.getEnd())
+                            .filter(a2 -> positions.get(a2) < position)
+                            .sorted(Comparator.comparing(positions::get))
+                            .collect(Collectors.toList());
+
+                    if (!contained.isEmpty()) {
+                      groups.computeIfAbsent(a1, k -> new ArrayList<>()).addAll(contained);
+                      grouped.addAll(contained);
                     }
                   }
 
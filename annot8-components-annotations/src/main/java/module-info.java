@@ -5,6 +5,7 @@ module io.annot8.components.annotations {
   requires jakarta.json.bind;
   requires org.slf4j;
   requires io.annot8.components.base;
+  requires io.annot8.components.base.text;
   requires io.annot8.conventions;
 
   exports io.annot8.components.annotations.processors;
@@ -7,6 +7,8 @@ import io.annot8.api.exceptions.ProcessingException;
 import io.annot8.api.stores.AnnotationStore;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
+import java.util.Collections;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,9 +37,16 @@ public abstract class AbstractRegexProcessor extends AbstractTextProcessor {
       throw new BadConfigurationException("Parameter 'pattern' must not be null");
     }
 
+    annotateMatches(content, pattern.matcher(content.getData()));
+  }
+
+  /**
+   * Create annotations for each match found by the matcher, which may be restricted to a region of
+   * the content
+   */
+  void annotateMatches(Text content, Matcher m) {
     AnnotationStore annotationStore = content.getAnnotations();
 
-    Matcher m = pattern.matcher(content.getData());
     while (m.find()) {
       if (!acceptMatch(m)) {
         continue;
@@ -59,6 +68,26 @@ public abstract class AbstractRegexProcessor extends AbstractTextProcessor {
     }
   }
 
+  /**
+   * Literal strings, at least one of which appears in every match of the pattern (ignoring case).
+   *
+   * <p>Used by {@link CombinedRegexProcessor} to avoid running the pattern on text that can't
+   * contain a match. Defaults to an empty set, meaning the pattern is always run.
+   */
+  protected Set<String> getAnchors() {
+    return Collections.emptySet();
+  }
+
+  /**
+   * Whether matches of the pattern never contain whitespace (as matched by {@code \s}).
+   *
+   * <p>Used by {@link CombinedRegexProcessor} to only run the pattern on the whitespace delimited
+   * tokens that contain an anchor. Defaults to false.
+   */
+  protected boolean isWithinToken() {
+    return false;
+  }
+
   protected void addProperties(Annotation.Builder builder, Matcher m) {
     // Do nothing
   }
@@ -10,4 +10,8 @@ public abstract class AbstractTextProcessor extends AbstractContentProcessor<Tex
   protected AbstractTextProcessor() {
     super(Text.class);
   }
+
+  protected AbstractTextProcessor(int concurrency) {
+    super(Text.class, concurrency);
+  }
 }
@@ -0,0 +1,167 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.base.text.processors;
+
+import io.annot8.api.exceptions.BadConfigurationException;
+import io.annot8.common.data.content.Text;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Runs a number of regex processors over each piece of text, using a single pass to decide where
+ * each of their patterns needs to run.
+ *
+ * <p>The text is scanned once for the {@link AbstractRegexProcessor#getAnchors() anchors} of all
+ * processors. A processor with anchors is skipped if none of them appear in the text. If its
+ * matches are also {@link AbstractRegexProcessor#isWithinToken() within a token}, then its pattern
+ * only runs on the whitespace delimited tokens containing an anchor, rather than the whole text.
+ * Processors without anchors always run on the whole text.
+ *
+ * <p>Matching within a token uses transparent, non-anchoring bounds, so lookarounds and word
+ * boundaries see the surrounding text. The annotations created are therefore the same as running
+ * each processor separately.
+ */
+public class CombinedRegexProcessor extends AbstractTextProcessor {
+
+  private final List<AbstractRegexProcessor> processors;
+
+  // Anchors (lower case) indexed by their first character, with the processor they belong to.
+  // ASCII characters are looked up in an array to avoid boxing on every character of the text.
+  @SuppressWarnings("unchecked")
+  private final List<Anchor>[] asciiAnchors = new List[128];
+
+  private final Map<Character, List<Anchor>> otherAnchors = new HashMap<>();
+  private boolean hasAnchors = false;
+
+  public CombinedRegexProcessor(List<? extends AbstractRegexProcessor> processors) {
+    this.processors = new ArrayList<>(processors);
+
+    for (int i = 0; i < this.processors.size(); i++) {
+      AbstractRegexProcessor p = this.processors.get(i);
+      if (p.pattern == null) {
+        throw new BadConfigurationException("Parameter 'pattern' must not be null");
+      }
+
+      for (String anchor : p.getAnchors()) {
+        if (anchor.isEmpty()) continue;
+
+        String lower = anchor.toLowerCase(Locale.ROOT);
+        char first = lower.charAt(0);
+
+        List<Anchor> anchors;
+        if (first < asciiAnchors.length) {
+          if (asciiAnchors[first] == null) asciiAnchors[first] = new ArrayList<>();
+          anchors = asciiAnchors[first];
+        } else {
+          anchors = otherAnchors.computeIfAbsent(first, c -> new ArrayList<>());
+        }
+
+        anchors.add(new Anchor(lower, i));
+        hasAnchors = true;
+      }
+    }
+  }
+
+  @Override
+  protected void process(Text content) {
+    String text = content.getData();
+    Candidates candidates = findCandidates(text);
+
+    for (int i = 0; i < processors.size(); i++) {
+      AbstractRegexProcessor p = processors.get(i);
+      Matcher m = p.pattern.matcher(text);
+
+      if (p.getAnchors().isEmpty()) {
+        p.annotateMatches(content, m);
+      } else if (!candidates.found[i]) {
+        // No anchors in the text, so no matches
+      } else if (!p.isWithinToken()) {
+        p.annotateMatches(content, m);
+      } else {
+        m.useTransparentBounds(true).useAnchoringBounds(false);
+        for (int[] window : candidates.windows.get(i)) {
+          m.region(window[0], window[1]);
+          p.annotateMatches(content, m);
+        }
+      }
+    }
+  }
+
+  /** Scan the text once, finding which processors have anchors in the text and where */
+  private Candidates findCandidates(String text) {
+    Candidates candidates = new Candidates(processors.size());
+    if (!hasAnchors) return candidates;
+
+    int length = text.length();
+    int tokenStart = 0;
+    while (tokenStart < length) {
+      // Skip whitespace to the start of the next token
+      while (tokenStart < length && isWhitespace(text.charAt(tokenStart))) tokenStart++;
+      if (tokenStart >= length) break;
+
+      int tokenEnd = tokenStart;
+      while (tokenEnd < length && !isWhitespace(text.charAt(tokenEnd))) tokenEnd++;
+
+      for (int pos = tokenStart; pos < tokenEnd; pos++) {
+        List<Anchor> anchors = anchorsFor(Character.toLowerCase(text.charAt(pos)));
+        if (anchors == null) continue;
+
+        for (Anchor anchor : anchors) {
+          if (text.regionMatches(true, pos, anchor.text, 0, anchor.text.length()))
+            candidates.add(anchor.processor, tokenStart, tokenEnd);
+        }
+      }
+
+      tokenStart = tokenEnd;
+    }
+
+    return candidates;
+  }
+
+  private List<Anchor> anchorsFor(char c) {
+    return c < asciiAnchors.length ? asciiAnchors[c] : otherAnchors.get(c);
+  }
+
+  /** Whitespace as matched by \s, which can't appear in a match within a token */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  @Override
+  public void close() {
+    processors.forEach(AbstractRegexProcessor::close);
+    super.close();
+  }
+
+  private static class Anchor {
+    private final String text;
+    private final int processor;
+
+    private Anchor(String text, int processor) {
+      this.text = text;
+      this.processor = processor;
+    }
+  }
+
+  private static class Candidates {
+    private final boolean[] found;
+    private final List<List<int[]>> windows;
+
+    private Candidates(int processors) {
+      found = new boolean[processors];
+      windows = new ArrayList<>(processors);
+      for (int i = 0; i < processors; i++) windows.add(new ArrayList<>());
+    }
+
+    private void add(int processor, int start, int end) {
+      found[processor] = true;
+
+      // Tokens are visited in order, so only need to check the last window for duplicates
+      List<int[]> w = windows.get(processor);
+      if (w.isEmpty() || w.get(w.size() - 1)[0] != start) w.add(new int[] {start, end});
+    }
+  }
+}
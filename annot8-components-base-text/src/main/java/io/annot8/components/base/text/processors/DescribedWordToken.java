@@ -13,6 +13,7 @@ import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.common.data.utils.SortUtils;
+import io.annot8.components.base.text.utils.SpanIndex;
 import io.annot8.components.stopwords.resources.NoOpStopwords;
 import io.annot8.components.stopwords.resources.Stopwords;
 import io.annot8.conventions.AnnotationTypes;
@@ -75,31 +76,40 @@ public class DescribedWordToken
 
     @Override
     protected void process(Text content) {
+      SpanIndex tokens = SpanIndex.forType(content, AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN);
+
       content
           .getAnnotations()
           .getByBoundsAndType(SpanBounds.class, AnnotationTypes.ANNOTATION_TYPE_SENTENCE)
           .forEach(
               sentence -> {
                 SpanBounds sentenceSpan = sentence.getBounds(SpanBounds.class).get();
-                content
+                tokens
                     .getBetween(sentenceSpan.getBegin(), sentenceSpan.getEnd())
-                    .filter(a -> AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN.equals(a.getType()))
                     .filter(
                         a ->
                             rootTokens.stream()
                                 .anyMatch(s -> s.equalsIgnoreCase(content.getText(a).orElse(""))))
-                    .forEach(a -> findDescriptorsAndCreate(content, sentenceSpan, a));
+                    .forEach(a -> findDescriptorsAndCreate(content, tokens, sentenceSpan, a));
               });
     }
 
     protected void findDescriptorsAndCreate(
         Text content, SpanBounds sentence, Annotation rootWord) {
+      findDescriptorsAndCreate(
+          content,
+          SpanIndex.forType(content, AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN),
+          sentence,
+          rootWord);
+    }
+
+    protected void findDescriptorsAndCreate(
+        Text content, SpanIndex tokens, SpanBounds sentence, Annotation rootWord) {
       SpanBounds rootSpan = rootWord.getBounds(SpanBounds.class).get();
 
       int begin =
-          content
+          tokens
               .getBetween(sentence.getBegin(), rootSpan.getBegin())
-              .filter(a -> AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN.equals(a.getType()))
               .sorted(SortUtils.SORT_BY_SPANBOUNDS.reversed())
               .takeWhile(
                   a -> {
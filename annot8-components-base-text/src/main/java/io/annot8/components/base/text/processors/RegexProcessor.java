@@ -13,5 +13,6 @@ public class RegexProcessor extends AbstractRegexProcessor {
 
   public RegexProcessor(RegexSettings regexSettings) {
     super(regexSettings.getRegex(), regexSettings.getGroup(), regexSettings.getType());
+    setConcurrency(regexSettings.getConcurrency());
   }
 }
@@ -11,6 +11,7 @@ public class RegexSettings implements Settings {
   private final Pattern regex;
   private final int group;
   private final String type;
+  private int concurrency = 1;
 
   @JsonbCreator
   public RegexSettings(
@@ -37,8 +38,19 @@ public class RegexSettings implements Settings {
     return type;
   }
 
+  @Description(
+      value = "The maximum number of Text content from a single item to process at once",
+      defaultValue = "1")
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public void setConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+  }
+
   @Override
   public boolean validate() {
-    return regex != null && group >= 0 && type != null && !type.isBlank();
+    return regex != null && group >= 0 && type != null && !type.isBlank() && concurrency > 0;
   }
 }
@@ -0,0 +1,169 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.base.text.utils;
+
+import io.annot8.api.annotations.Annotation;
+import io.annot8.api.data.Content;
+import io.annot8.common.data.bounds.SpanBounds;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An index over annotations with {@link SpanBounds}, for finding the annotations between, covering
+ * or overlapping a span without checking every annotation.
+ *
+ * <p>Annotations are held in an array sorted by begin (then end), which is treated as an implicit
+ * balanced binary tree: the middle of any range is the parent of the middles of the two halves
+ * either side of it. Each node records the maximum end of the annotations beneath it, so that
+ * subtrees which can't contain a match are skipped. Building the index is O(n log n), and queries
+ * are O(log n + k) for k results.
+ *
+ * <p>The index is a snapshot, and doesn't reflect annotations that are added to or removed from the
+ * content after it is built. Results are always returned in begin order.
+ *
+ * <p>The queries mirror those on {@link io.annot8.common.data.content.Text}: {@link
+ * #getBetween(int, int)} returns annotations within the span, {@link #getCovers(int, int)} returns
+ * annotations containing the span, and {@link #getOverlaps(int, int)} returns annotations that
+ * overlap or touch the span, as per {@link SpanBounds#isOverlaps(SpanBounds)}.
+ */
+public class SpanIndex {
+
+  private final Annotation[] annotations;
+  private final int[] begins;
+  private final int[] ends;
+  private final int[] maxEnds;
+
+  /**
+   * Create an index over the given annotations. Annotations without {@link SpanBounds} are ignored.
+   */
+  public SpanIndex(Collection<Annotation> annotations) {
+    this(annotations.stream());
+  }
+
+  /**
+   * Create an index over the given annotations. Annotations without {@link SpanBounds} are ignored.
+   */
+  public SpanIndex(Stream<Annotation> annotations) {
+    List<Entry> entries =
+        annotations
+            .map(a -> a.getBounds(SpanBounds.class).map(b -> new Entry(a, b)).orElse(null))
+            .filter(e -> e != null)
+            .sorted(Comparator.comparingInt((Entry e) -> e.begin).thenComparingInt(e -> e.end))
+            .collect(Collectors.toList());
+
+    int n = entries.size();
+    this.annotations = new Annotation[n];
+    this.begins = new int[n];
+    this.ends = new int[n];
+    this.maxEnds = new int[n];
+
+    for (int i = 0; i < n; i++) {
+      Entry e = entries.get(i);
+      this.annotations[i] = e.annotation;
+      this.begins[i] = e.begin;
+      this.ends[i] = e.end;
+    }
+
+    computeMaxEnds(0, n);
+  }
+
+  /** Create an index over all annotations of the given type, with {@link SpanBounds}, on content */
+  public static SpanIndex forType(Content<?> content, String type) {
+    return new SpanIndex(content.getAnnotations().getByBoundsAndType(SpanBounds.class, type));
+  }
+
+  /** All of the annotations in the index, in begin order */
+  public Stream<Annotation> getAll() {
+    return Stream.of(annotations);
+  }
+
+  /** The number of annotations in the index */
+  public int size() {
+    return annotations.length;
+  }
+
+  /** Annotations which are within (begin, end), inclusive */
+  public Stream<Annotation> getBetween(int begin, int end) {
+    List<Annotation> results = new ArrayList<>();
+
+    // Only annotations starting within the span can be within it, and they are contiguous
+    for (int i = firstBeginAtLeast(begin); i < begins.length && begins[i] <= end; i++) {
+      if (ends[i] <= end) results.add(annotations[i]);
+    }
+
+    return results.stream();
+  }
+
+  /** Annotations which contain (begin, end), inclusive */
+  public Stream<Annotation> getCovers(int begin, int end) {
+    List<Annotation> results = new ArrayList<>();
+    search(0, annotations.length, begin, end, results);
+
+    return results.stream();
+  }
+
+  /** Annotations which overlap or touch (begin, end) */
+  public Stream<Annotation> getOverlaps(int begin, int end) {
+    List<Annotation> results = new ArrayList<>();
+    search(0, annotations.length, end, begin, results);
+
+    return results.stream();
+  }
+
+  /** Find, in order, annotations in [lo, hi) beginning by maxBegin and ending from minEnd */
+  private void search(int lo, int hi, int maxBegin, int minEnd, List<Annotation> results) {
+    if (lo >= hi) return;
+
+    int mid = (lo + hi) >>> 1;
+    if (maxEnds[mid] < minEnd) return;
+
+    search(lo, mid, maxBegin, minEnd, results);
+
+    // Everything to the right begins at or after mid, so can be skipped if mid begins too late
+    if (begins[mid] > maxBegin) return;
+
+    if (ends[mid] >= minEnd) results.add(annotations[mid]);
+
+    search(mid + 1, hi, maxBegin, minEnd, results);
+  }
+
+  private int computeMaxEnds(int lo, int hi) {
+    if (lo >= hi) return Integer.MIN_VALUE;
+
+    int mid = (lo + hi) >>> 1;
+    int max = Math.max(ends[mid], Math.max(computeMaxEnds(lo, mid), computeMaxEnds(mid + 1, hi)));
+    maxEnds[mid] = max;
+
+    return max;
+  }
+
+  private int firstBeginAtLeast(int begin) {
+    int lo = 0;
+    int hi = begins.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (begins[mid] < begin) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+
+    return lo;
+  }
+
+  private static class Entry {
+    private final Annotation annotation;
+    private final int begin;
+    private final int end;
+
+    private Entry(Annotation annotation, SpanBounds bounds) {
+      this.annotation = annotation;
+      this.begin = bounds.getBegin();
+      this.end = bounds.getEnd();
+    }
+  }
+}
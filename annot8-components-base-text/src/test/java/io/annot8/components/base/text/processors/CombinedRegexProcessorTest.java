@@ -0,0 +1,90 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.base.text.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.annot8.api.annotations.Annotation;
+import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.common.data.content.Text;
+import io.annot8.testing.testimpl.TestItem;
+import io.annot8.testing.testimpl.content.TestStringContent;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class CombinedRegexProcessorTest {
+
+  @Test
+  public void testWithinToken() {
+    // Lookbehind and word boundaries must see the text outside the token
+    AnchoredProcessor hashtag = new AnchoredProcessor("(?<= )#[a-z]+\\b", "hashtag", "#", true);
+
+    assertEquals(List.of("hashtag 2-5", "hashtag 11-14"), annotate("a #ab x#cd #ef", hashtag));
+  }
+
+  @Test
+  public void testSkippedWithoutAnchors() {
+    // The anchor is deliberately wrong, to show the pattern isn't run
+    AnchoredProcessor numbers = new AnchoredProcessor("[0-9]+", "number", "!", false);
+    assertEquals(List.of(), annotate("123 456", numbers));
+
+    assertEquals(List.of("number 0-3", "number 5-8"), annotate("123! 456", numbers));
+  }
+
+  @Test
+  public void testNoAnchors() {
+    RegexProcessor numbers = new RegexProcessor(Pattern.compile("[0-9]+"), 0, "number");
+    RegexProcessor words = new RegexProcessor(Pattern.compile("[a-z]+"), 0, "word");
+
+    assertEquals(List.of("number 0-3", "word 4-7"), annotate("123 abc", numbers, words));
+  }
+
+  private static List<String> annotate(String text, AbstractRegexProcessor... processors) {
+    TestItem item = new TestItem();
+    Text content =
+        item.createContent(TestStringContent.class).withDescription("test").withData(text).save();
+
+    try (CombinedRegexProcessor p = new CombinedRegexProcessor(List.of(processors))) {
+      p.process(item);
+    }
+
+    return content
+        .getAnnotations()
+        .getAll()
+        .map(CombinedRegexProcessorTest::describe)
+        .sorted((a, b) -> Integer.compare(begin(a), begin(b)))
+        .collect(Collectors.toList());
+  }
+
+  private static String describe(Annotation a) {
+    SpanBounds b = a.getBounds(SpanBounds.class).orElseThrow();
+    return a.getType() + " " + b.getBegin() + "-" + b.getEnd();
+  }
+
+  private static int begin(String description) {
+    return Integer.parseInt(description.substring(description.indexOf(' ') + 1).split("-")[0]);
+  }
+
+  private static class AnchoredProcessor extends AbstractRegexProcessor {
+    private final String anchor;
+    private final boolean withinToken;
+
+    private AnchoredProcessor(String regex, String type, String anchor, boolean withinToken) {
+      super(Pattern.compile(regex), type);
+      this.anchor = anchor;
+      this.withinToken = withinToken;
+    }
+
+    @Override
+    protected Set<String> getAnchors() {
+      return Set.of(anchor);
+    }
+
+    @Override
+    protected boolean isWithinToken() {
+      return withinToken;
+    }
+  }
+}
@@ -12,6 +12,7 @@ import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.testing.testimpl.TestItem;
 import io.annot8.testing.testimpl.content.TestStringContent;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -39,6 +40,31 @@ public class RegexProcessorTest {
     }
   }
 
+  @Test
+  public void testRegexConcurrently() {
+    RegexSettings rs = new RegexSettings(Pattern.compile("[0-9]+"), 0, "number");
+    rs.setConcurrency(4);
+    Assertions.assertTrue(rs.validate());
+
+    try (Processor p = new RegexProcessor(rs)) {
+      Item item = new TestItem();
+      List<Text> contents = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        contents.add(
+            item.createContent(TestStringContent.class)
+                .withDescription("test " + i)
+                .withData("x + " + i + " = 42")
+                .save());
+      }
+
+      p.process(item);
+
+      for (Text content : contents) {
+        Assertions.assertEquals(2, content.getAnnotations().getAll().count());
+      }
+    }
+  }
+
   private void assertProcessorCorrectness(Processor processor) throws Annot8Exception {
     Item item = new TestItem();
     Text content =
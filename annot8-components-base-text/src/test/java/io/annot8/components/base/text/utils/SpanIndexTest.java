@@ -0,0 +1,120 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.base.text.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.annot8.api.annotations.Annotation;
+import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.common.data.content.Text;
+import io.annot8.testing.testimpl.TestItem;
+import io.annot8.testing.testimpl.content.TestStringContent;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class SpanIndexTest {
+
+  @Test
+  public void testQueries() {
+    Text content = createContent();
+    Annotation a = create(content, "token", 0, 5);
+    Annotation b = create(content, "token", 6, 10);
+    Annotation c = create(content, "token", 11, 15);
+    Annotation sentence = create(content, "sentence", 0, 15);
+    create(content, "other", 6, 10);
+
+    SpanIndex tokens = SpanIndex.forType(content, "token");
+    assertEquals(3, tokens.size());
+    assertEquals(List.of(a, b, c), list(tokens.getAll()));
+
+    assertEquals(List.of(a, b), list(tokens.getBetween(0, 10)));
+    assertEquals(List.of(b), list(tokens.getBetween(6, 10)));
+    assertEquals(List.of(c), list(tokens.getBetween(7, 15)));
+    assertEquals(List.of(), list(tokens.getBetween(7, 14)));
+
+    assertEquals(List.of(b), list(tokens.getCovers(7, 9)));
+    assertEquals(List.of(), list(tokens.getCovers(4, 7)));
+
+    assertEquals(List.of(a, b), list(tokens.getOverlaps(4, 7)));
+    assertEquals(List.of(b, c), list(tokens.getOverlaps(10, 11)));
+
+    SpanIndex all = new SpanIndex(content.getAnnotations().getAll());
+    assertEquals(List.of(sentence), list(all.getCovers(4, 7)));
+  }
+
+  @Test
+  public void testEmpty() {
+    SpanIndex index = new SpanIndex(List.of());
+
+    assertEquals(0, index.size());
+    assertEquals(List.of(), list(index.getBetween(0, 10)));
+    assertEquals(List.of(), list(index.getCovers(0, 10)));
+    assertEquals(List.of(), list(index.getOverlaps(0, 10)));
+  }
+
+  @Test
+  public void testMatchesLinearScan() {
+    Random random = new Random(18);
+    Text content = createContent();
+
+    for (int i = 0; i < 500; i++) {
+      int begin = random.nextInt(1000);
+      int length = random.nextInt(10) == 0 ? random.nextInt(500) : random.nextInt(20);
+      create(content, "token", begin, begin + length);
+    }
+
+    List<Annotation> annotations = list(content.getAnnotations().getAll());
+    SpanIndex index = new SpanIndex(annotations);
+
+    for (int i = 0; i < 500; i++) {
+      int begin = random.nextInt(1000);
+      int end = begin + random.nextInt(50);
+
+      assertEquals(
+          linearScan(annotations, s -> s.getBegin() >= begin && s.getEnd() <= end),
+          list(index.getBetween(begin, end)));
+      assertEquals(
+          linearScan(annotations, s -> s.getBegin() <= begin && s.getEnd() >= end),
+          list(index.getCovers(begin, end)));
+      assertEquals(
+          linearScan(annotations, s -> s.isOverlaps(new SpanBounds(begin, end))),
+          list(index.getOverlaps(begin, end)));
+    }
+  }
+
+  private static List<Annotation> linearScan(
+      List<Annotation> annotations, Predicate<SpanBounds> predicate) {
+    return annotations.stream()
+        .filter(a -> predicate.test(a.getBounds(SpanBounds.class).get()))
+        .sorted(
+            Comparator.comparingInt(
+                    (Annotation a) -> a.getBounds(SpanBounds.class).get().getBegin())
+                .thenComparingInt(a -> a.getBounds(SpanBounds.class).get().getEnd()))
+        .collect(Collectors.toList());
+  }
+
+  private static List<Annotation> list(Stream<Annotation> annotations) {
+    return annotations.collect(Collectors.toList());
+  }
+
+  private static Text createContent() {
+    return new TestItem()
+        .createContent(TestStringContent.class)
+        .withDescription("test")
+        .withData("Hello world, it's me")
+        .save();
+  }
+
+  private static Annotation create(Text content, String type, int begin, int end) {
+    return content
+        .getAnnotations()
+        .create()
+        .withType(type)
+        .withBounds(new SpanBounds(begin, end))
+        .save();
+  }
+}
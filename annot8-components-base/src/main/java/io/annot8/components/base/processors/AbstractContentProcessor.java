@@ -5,8 +5,13 @@ import io.annot8.api.components.responses.ProcessorResponse;
 import io.annot8.api.data.Content;
 import io.annot8.api.data.Item;
 import io.annot8.common.components.AbstractProcessor;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A base class for building processors which act on a specific class of content
@@ -17,11 +22,18 @@ import java.util.List;
  * <p>All content is processed if it has the correct class. Any exceptions thrown are collated and
  * returned together (after other content has been processed).
  *
+ * <p>By default, content is processed sequentially. If a concurrency greater than 1 is set, then
+ * the content of each item is processed in parallel using a pool of that many threads. Subclasses
+ * which enable this must be able to process different content concurrently. Exceptions are returned
+ * in the same order as the content, regardless of the order in which processing completed.
+ *
  * @param <T> the content class processed
  */
 public abstract class AbstractContentProcessor<T extends Content<?>> extends AbstractProcessor {
 
   private final Class<T> contentClazz;
+  private int concurrency = 1;
+  private ForkJoinPool pool = null;
 
   /**
    * New instances
@@ -32,24 +44,92 @@ public abstract class AbstractContentProcessor<T extends Content<?>> extends Abs
     this.contentClazz = contentClazz;
   }
 
+  /**
+   * New instances, processing the content of each item concurrently
+   *
+   * @param contentClazz the content to process
+   * @param concurrency the maximum number of content to process at once
+   */
+  protected AbstractContentProcessor(final Class<T> contentClazz, final int concurrency) {
+    this.contentClazz = contentClazz;
+    setConcurrency(concurrency);
+  }
+
+  /**
+   * Set the maximum number of content from a single item to process at once
+   *
+   * @param concurrency the maximum number of content to process at once, or 1 to process content
+   *     sequentially
+   */
+  protected void setConcurrency(final int concurrency) {
+    this.concurrency = Math.max(1, concurrency);
+  }
+
+  protected int getConcurrency() {
+    return concurrency;
+  }
+
   @Override
   public ProcessorResponse process(Item item) {
-    List<Exception> exceptions = new LinkedList<>();
-
-    item.getContents(contentClazz)
-        .filter(this::accept)
-        .forEach(
-            c -> {
-              try {
-                process(c);
-              } catch (Exception e) {
-                exceptions.add(e);
-              }
-            });
+    List<T> contents =
+        item.getContents(contentClazz).filter(this::accept).collect(Collectors.toList());
+
+    List<Exception> exceptions;
+    if (concurrency <= 1 || contents.size() <= 1) {
+      exceptions = new ArrayList<>();
+      for (T c : contents) {
+        Exception e = tryProcess(c);
+        if (e != null) exceptions.add(e);
+      }
+    } else {
+      exceptions = processConcurrently(contents);
+    }
 
     return exceptions.isEmpty() ? ProcessorResponse.ok() : ProcessorResponse.itemError(exceptions);
   }
 
+  private List<Exception> processConcurrently(List<T> contents) {
+    Exception[] exceptions = new Exception[contents.size()];
+
+    // A parallel stream run from within a ForkJoinPool uses that pool, so is bounded by its size
+    getPool()
+        .submit(
+            () ->
+                IntStream.range(0, contents.size())
+                    .parallel()
+                    .forEach(i -> exceptions[i] = tryProcess(contents.get(i))))
+        .join();
+
+    return Arrays.stream(exceptions).filter(Objects::nonNull).collect(Collectors.toList());
+  }
+
+  private Exception tryProcess(T content) {
+    try {
+      process(content);
+      return null;
+    } catch (Exception e) {
+      return e;
+    }
+  }
+
+  private synchronized ForkJoinPool getPool() {
+    if (pool == null) pool = new ForkJoinPool(concurrency);
+
+    return pool;
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (pool != null) {
+        pool.shutdown();
+        pool = null;
+      }
+    }
+
+    super.close();
+  }
+
   /**
    * Should this content be processed?
    *
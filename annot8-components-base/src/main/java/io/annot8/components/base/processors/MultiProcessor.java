@@ -1,17 +1,63 @@
 /* Annot8 (annot8.io) - Licensed under Apache-2.0. */
 package io.annot8.components.base.processors;
 
+import io.annot8.api.capabilities.AnnotationCapability;
+import io.annot8.api.capabilities.Capabilities;
+import io.annot8.api.capabilities.Capability;
+import io.annot8.api.capabilities.ContentCapability;
+import io.annot8.api.capabilities.GroupCapability;
 import io.annot8.api.components.Processor;
 import io.annot8.api.components.responses.ProcessorResponse;
 import io.annot8.api.data.Item;
+import io.annot8.api.exceptions.ProcessingException;
 import io.annot8.common.components.AbstractProcessor;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Runs a number of child processors on each item, as if they were a single processor.
+ *
+ * <p>By default, children are run one after another in the order they were added. If a parallelism
+ * greater than 1 is set, then children which don't depend on each other are run concurrently.
+ * Dependencies are worked out from the {@link Capabilities} of each child: a child depends on an
+ * earlier child if it processes something the earlier child creates or deletes, or deletes
+ * something the earlier child processes or creates. Children added without capabilities depend on,
+ * and are depended on by, every other child.
+ *
+ * <p>Children in the same stage share the same {@link Item}, and create content, annotations and
+ * groups through it concurrently. Running in parallel therefore requires an Item implementation
+ * whose stores are thread safe, which must be confirmed with {@link #setThreadSafeItems(boolean)}.
+ * Otherwise, children are run one after another regardless of the parallelism.
+ *
+ * <p>If stop on error is set, then no further children are run once a child returns an item error
+ * or discards the item.
+ *
+ * <p>The time taken by each child is recorded in the {@code child} timer, tagged with the index and
+ * name of the child.
+ */
 public class MultiProcessor extends AbstractProcessor {
 
   private Collection<Processor> processors;
+  private final List<Capabilities> capabilities = new ArrayList<>();
+
+  private int parallelism = 1;
+  private boolean stopOnError = false;
+  private boolean threadSafeItems = false;
+  private final AtomicBoolean warnedNotThreadSafe = new AtomicBoolean(false);
+
+  private List<List<Integer>> stages = null;
+  private ForkJoinPool pool = null;
 
   public MultiProcessor() {
     this.processors = new ArrayList<>();
@@ -25,17 +71,90 @@ public class MultiProcessor extends AbstractProcessor {
     this.processors = processors;
   }
 
+  /**
+   * Create a new instance, with the capabilities of each processor used to decide which processors
+   * can run concurrently
+   *
+   * @param processors the processors, in the order they should run, and their capabilities. A
+   *     {@link LinkedHashMap} is required so that the order is preserved.
+   */
+  public MultiProcessor(LinkedHashMap<Processor, Capabilities> processors) {
+    this.processors = new ArrayList<>(processors.keySet());
+    this.capabilities.addAll(processors.values());
+  }
+
   protected void addProcessor(Processor processor) {
+    addProcessor(processor, null);
+  }
+
+  protected void addProcessor(Processor processor, Capabilities processorCapabilities) {
     this.processors.add(processor);
+    this.capabilities.add(processorCapabilities);
+
+    synchronized (this) {
+      stages = null;
+    }
+  }
+
+  /**
+   * Set the maximum number of child processors to run at once
+   *
+   * <p>Values greater than 1 only take effect if {@link #setThreadSafeItems(boolean)} is also set.
+   *
+   * @param parallelism the maximum number of children to run at once, or 1 to run them in order
+   */
+  public void setParallelism(int parallelism) {
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * Confirm that the items passed to this processor, including their content, annotation and group
+   * stores, are safe to modify from several threads at once, so that children can run in parallel
+   */
+  public void setThreadSafeItems(boolean threadSafeItems) {
+    this.threadSafeItems = threadSafeItems;
+  }
+
+  /**
+   * Set whether to stop running child processors once one returns an item error or discards the
+   * item
+   */
+  public void setStopOnError(boolean stopOnError) {
+    this.stopOnError = stopOnError;
   }
 
   @Override
   public ProcessorResponse process(Item item) {
+    List<Processor> children = new ArrayList<>(processors);
+    List<ProcessorResponse> responses = new ArrayList<>();
+
+    if (parallelism > 1 && !threadSafeItems && warnedNotThreadSafe.compareAndSet(false, true)) {
+      log()
+          .warn(
+              "Parallelism of {} ignored, as items haven't been confirmed to be thread safe",
+              parallelism);
+    }
+
+    if (parallelism <= 1 || !threadSafeItems) {
+      for (int i = 0; i < children.size(); i++) {
+        ProcessorResponse response = processChild(i, children.get(i), item);
+        responses.add(response);
+
+        if (shouldStop(item, List.of(response))) break;
+      }
+    } else {
+      for (List<Integer> stage : getStages(children.size())) {
+        List<ProcessorResponse> stageResponses = processStage(stage, children, item);
+        responses.addAll(stageResponses);
+
+        if (shouldStop(item, stageResponses)) break;
+      }
+    }
+
     boolean error = false;
     Collection<Exception> exceptions = new ArrayList<>();
 
-    for (Processor p : processors) {
-      ProcessorResponse response = p.process(item);
+    for (ProcessorResponse response : responses) {
       if (response.getStatus() != ProcessorResponse.Status.OK) {
         error = true;
         exceptions.addAll(response.getExceptions());
@@ -49,8 +168,145 @@ public class MultiProcessor extends AbstractProcessor {
     return ProcessorResponse.ok();
   }
 
+  private boolean shouldStop(Item item, List<ProcessorResponse> responses) {
+    if (!stopOnError) return false;
+
+    return item.isDiscarded()
+        || responses.stream().anyMatch(r -> r.getStatus() == ProcessorResponse.Status.ITEM_ERROR);
+  }
+
+  private List<ProcessorResponse> processStage(
+      List<Integer> stage, List<Processor> children, Item item) {
+    if (stage.size() == 1) {
+      int i = stage.get(0);
+      return List.of(processChild(i, children.get(i), item));
+    }
+
+    ForkJoinPool p = getPool();
+    List<Future<ProcessorResponse>> futures =
+        stage.stream()
+            .map(i -> p.submit(() -> processChild(i, children.get(i), item)))
+            .collect(Collectors.toList());
+
+    List<ProcessorResponse> responses = new ArrayList<>(futures.size());
+    for (Future<ProcessorResponse> future : futures) {
+      try {
+        responses.add(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ProcessingException("Interrupted whilst waiting for child processor", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+        throw new ProcessingException("Child processor failed", e.getCause());
+      }
+    }
+
+    return responses;
+  }
+
+  private ProcessorResponse processChild(int index, Processor processor, Item item) {
+    long start = System.nanoTime();
+    try {
+      return processor.process(item);
+    } finally {
+      metrics()
+          .timer("child", "index", Integer.toString(index), "processor", name(processor))
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static String name(Processor processor) {
+    Class<?> clazz = processor.getClass();
+
+    // Most processors are nested classes called Processor, so include the enclosing class
+    if (clazz.getEnclosingClass() != null)
+      return clazz.getEnclosingClass().getSimpleName() + "." + clazz.getSimpleName();
+
+    return clazz.getSimpleName();
+  }
+
+  /**
+   * Group the children into stages, where each child is in a later stage than all the children it
+   * depends on. Children within a stage can run concurrently.
+   */
+  private synchronized List<List<Integer>> getStages(int count) {
+    if (stages != null) return stages;
+
+    int[] stageOf = new int[count];
+    List<List<Integer>> grouped = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      int stage = 0;
+      for (int j = 0; j < i; j++) {
+        if (dependsOn(capabilitiesOf(i), capabilitiesOf(j)))
+          stage = Math.max(stage, stageOf[j] + 1);
+      }
+
+      stageOf[i] = stage;
+      if (grouped.size() <= stage) grouped.add(new ArrayList<>());
+      grouped.get(stage).add(i);
+    }
+
+    stages = grouped;
+    return stages;
+  }
+
+  private Capabilities capabilitiesOf(int index) {
+    return index < capabilities.size() ? capabilities.get(index) : null;
+  }
+
+  /** Whether a child with the later capabilities must run after one with the earlier */
+  static boolean dependsOn(Capabilities later, Capabilities earlier) {
+    if (later == null || earlier == null) return true;
+
+    return overlaps(later.processes(), earlier.creates())
+        || overlaps(later.processes(), earlier.deletes())
+        || overlaps(later.deletes(), earlier.processes())
+        || overlaps(later.deletes(), earlier.creates())
+        || overlaps(later.creates(), earlier.deletes());
+  }
+
+  private static boolean overlaps(Stream<Capability> a, Stream<Capability> b) {
+    List<Capability> bList = b.collect(Collectors.toList());
+    if (bList.isEmpty()) return false;
+
+    return a.anyMatch(ca -> bList.stream().anyMatch(cb -> matches(ca, cb)));
+  }
+
+  private static boolean matches(Capability a, Capability b) {
+    if (a instanceof AnnotationCapability && b instanceof AnnotationCapability) {
+      return ((AnnotationCapability) a).getType().equals(((AnnotationCapability) b).getType());
+    } else if (a instanceof GroupCapability && b instanceof GroupCapability) {
+      return ((GroupCapability) a).getType().equals(((GroupCapability) b).getType());
+    } else if (a instanceof ContentCapability && b instanceof ContentCapability) {
+      Class<?> ta = ((ContentCapability) a).getType();
+      Class<?> tb = ((ContentCapability) b).getType();
+      return ta.isAssignableFrom(tb) || tb.isAssignableFrom(ta);
+    }
+
+    return false;
+  }
+
+  private synchronized ForkJoinPool getPool() {
+    if (pool == null) pool = new ForkJoinPool(parallelism);
+
+    return pool;
+  }
+
+  /** The stages the children will run in, by index, when running in parallel */
+  List<List<Integer>> getStages() {
+    return Collections.unmodifiableList(getStages(processors.size()));
+  }
+
   @Override
   public void close() {
+    synchronized (this) {
+      if (pool != null) {
+        pool.shutdown();
+        pool = null;
+      }
+    }
+
     for (Processor p : processors) {
       p.close();
     }
@@ -0,0 +1,147 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.base.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of instances of a resource that isn't thread safe, such as a model or a native
+ * library handle, so that several threads can each use their own instance.
+ *
+ * <p>Instances are created lazily, up to the maximum size of the pool, when there isn't an idle
+ * instance available. Once the maximum has been reached, callers wait for an instance to be
+ * released. Every instance acquired must be released, typically in a finally block.
+ *
+ * <p>When the pool is closed, idle instances are destroyed immediately, and instances still in use
+ * are destroyed as they are released. Callers waiting for an instance are woken, and throw an
+ * {@link IllegalStateException}.
+ *
+ * @param <T> the type of instance held in the pool
+ */
+public class InstancePool<T> implements AutoCloseable {
+
+  private final int maxSize;
+  private final Supplier<T> factory;
+  private final Consumer<T> destroyer;
+
+  private final Deque<T> idle = new ArrayDeque<>();
+  private int waiting = 0;
+  private int created = 0;
+  private boolean closed = false;
+
+  /**
+   * Create a new pool, whose instances don't need to be destroyed
+   *
+   * @param maxSize the maximum number of instances to create
+   * @param factory creates a new instance
+   */
+  public InstancePool(int maxSize, Supplier<T> factory) {
+    this(maxSize, factory, t -> {});
+  }
+
+  /**
+   * Create a new pool
+   *
+   * @param maxSize the maximum number of instances to create
+   * @param factory creates a new instance
+   * @param destroyer frees any resources held by an instance, when the pool is closed
+   */
+  public InstancePool(int maxSize, Supplier<T> factory, Consumer<T> destroyer) {
+    this.maxSize = Math.max(1, maxSize);
+    this.factory = factory;
+    this.destroyer = destroyer;
+  }
+
+  /**
+   * Acquire an instance, creating a new one if none are idle and the pool isn't full, or otherwise
+   * waiting for one to be released
+   *
+   * @throws InterruptedException if interrupted while waiting for an instance
+   * @throws IllegalStateException if the pool has been closed, including while waiting
+   */
+  public T acquire() throws InterruptedException {
+    synchronized (this) {
+      while (true) {
+        if (closed) throw new IllegalStateException("Pool has been closed");
+
+        T instance = idle.poll();
+        if (instance != null) return instance;
+
+        if (created < maxSize) {
+          created++;
+          break;
+        }
+
+        waiting++;
+        try {
+          wait();
+        } finally {
+          waiting--;
+        }
+      }
+    }
+
+    try {
+      return factory.get();
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        created--;
+        // A waiting caller can now create an instance instead
+        notifyAll();
+      }
+      throw e;
+    }
+  }
+
+  /** Return an instance previously acquired from this pool */
+  public void release(T instance) {
+    synchronized (this) {
+      if (!closed) {
+        idle.add(instance);
+        notifyAll();
+        return;
+      }
+    }
+
+    destroyer.accept(instance);
+  }
+
+  /** The maximum number of instances in the pool */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /** The number of instances that have been created, whether idle or in use */
+  public synchronized int getSize() {
+    return created;
+  }
+
+  /** The number of idle instances */
+  public synchronized int getIdle() {
+    return idle.size();
+  }
+
+  /** The number of callers waiting for an instance to be released */
+  public synchronized int getWaiting() {
+    return waiting;
+  }
+
+  @Override
+  public void close() {
+    List<T> toDestroy = new ArrayList<>();
+    synchronized (this) {
+      closed = true;
+      toDestroy.addAll(idle);
+      idle.clear();
+
+      // Waiting callers will find the pool closed, and throw
+      notifyAll();
+    }
+
+    toDestroy.forEach(destroyer);
+  }
+}
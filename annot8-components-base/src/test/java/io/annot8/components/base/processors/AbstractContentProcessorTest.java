@@ -6,11 +6,16 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
 
+import io.annot8.api.components.responses.ProcessorResponse;
 import io.annot8.api.data.Item;
 import io.annot8.api.exceptions.ProcessingException;
 import io.annot8.common.data.content.Text;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -53,6 +58,36 @@ class AbstractContentProcessorTest {
     }
   }
 
+  @Test
+  public void testConcurrentProcessing() {
+    Item item = Mockito.mock(Item.class);
+    List<Text> contents = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Text t = Mockito.mock(Text.class);
+      when(t.getData()).thenReturn(Integer.toString(i));
+      contents.add(t);
+    }
+    when(item.getContents(Text.class)).thenReturn(contents.stream());
+
+    try (ConcurrentContentProcessor processor = new ConcurrentContentProcessor(4)) {
+      ProcessorResponse response = processor.process(item);
+
+      assertEquals(50, processor.processed.size());
+      assertTrue(processor.threads.size() > 1);
+      assertTrue(processor.threads.size() <= 4);
+
+      // Exceptions are returned in content order
+      List<String> messages =
+          response.getExceptions().stream().map(Exception::getMessage).collect(Collectors.toList());
+      List<String> expected =
+          IntStream.range(0, 50)
+              .filter(i -> i % 10 == 0)
+              .mapToObj(Integer::toString)
+              .collect(Collectors.toList());
+      assertEquals(expected, messages);
+    }
+  }
+
   private Item getMockedItem() {
     Item item = Mockito.mock(Item.class);
     Text toProcess = Mockito.mock(Text.class);
@@ -89,6 +124,31 @@ class AbstractContentProcessorTest {
     }
   }
 
+  private static class ConcurrentContentProcessor extends AbstractContentProcessor<Text> {
+
+    private final Set<String> processed = ConcurrentHashMap.newKeySet();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    public ConcurrentContentProcessor(int concurrency) {
+      super(Text.class, concurrency);
+    }
+
+    @Override
+    protected void process(Text content) {
+      threads.add(Thread.currentThread().getName());
+      processed.add(content.getData());
+
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      if (Integer.parseInt(content.getData()) % 10 == 0)
+        throw new ProcessingException(content.getData());
+    }
+  }
+
   private class ErrorContentProcessor extends AbstractContentProcessor<Text> {
 
     public ErrorContentProcessor() {
@@ -0,0 +1,200 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.base.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.annot8.api.capabilities.Capabilities;
+import io.annot8.api.components.Processor;
+import io.annot8.api.components.responses.ProcessorResponse;
+import io.annot8.api.data.Item;
+import io.annot8.common.components.capabilities.SimpleCapabilities;
+import io.annot8.common.components.metering.NamedMetrics;
+import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.common.data.content.Text;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class MultiProcessorTest {
+
+  private static final Capabilities CREATES_A = annotator("a");
+  private static final Capabilities CREATES_B = annotator("b");
+  private static final Capabilities PROCESSES_A =
+      new SimpleCapabilities.Builder()
+          .withProcessesAnnotations("a", SpanBounds.class)
+          .withCreatesAnnotations("c", SpanBounds.class)
+          .build();
+
+  @Test
+  public void testSequential() {
+    StringBuffer order = new StringBuffer();
+
+    try (MultiProcessor mp =
+        new MultiProcessor(
+            i -> record(order, "1"), i -> record(order, "2"), i -> record(order, "3"))) {
+      assertEquals(ProcessorResponse.Status.OK, mp.process(Mockito.mock(Item.class)).getStatus());
+    }
+
+    assertEquals("123", order.toString());
+  }
+
+  @Test
+  public void testStages() {
+    LinkedHashMap<Processor, Capabilities> processors = new LinkedHashMap<>();
+    processors.put(i -> ProcessorResponse.ok(), CREATES_A);
+    processors.put(i -> ProcessorResponse.ok(), CREATES_B);
+    processors.put(i -> ProcessorResponse.ok(), PROCESSES_A);
+    processors.put(i -> ProcessorResponse.ok(), null);
+    processors.put(i -> ProcessorResponse.ok(), CREATES_A);
+
+    try (MultiProcessor mp = new MultiProcessor(processors)) {
+      assertEquals(List.of(List.of(0, 1), List.of(2), List.of(3), List.of(4)), mp.getStages());
+    }
+  }
+
+  @Test
+  public void testDependsOn() {
+    assertFalse(MultiProcessor.dependsOn(CREATES_B, CREATES_A));
+    assertTrue(MultiProcessor.dependsOn(PROCESSES_A, CREATES_A));
+    assertFalse(MultiProcessor.dependsOn(PROCESSES_A, CREATES_B));
+    assertTrue(MultiProcessor.dependsOn(CREATES_A, null));
+
+    Capabilities deletesA =
+        new SimpleCapabilities.Builder().withDeletesAnnotations("a", SpanBounds.class).build();
+    assertTrue(MultiProcessor.dependsOn(deletesA, PROCESSES_A));
+
+    Capabilities createsText =
+        new SimpleCapabilities.Builder().withCreatesContent(Text.class).build();
+    assertTrue(MultiProcessor.dependsOn(CREATES_A, createsText));
+  }
+
+  @Test
+  public void testParallel() {
+    // Each processor waits for the other, so will only succeed if they run concurrently
+    CountDownLatch latch = new CountDownLatch(2);
+    Processor waiting =
+        i -> {
+          latch.countDown();
+          try {
+            return latch.await(5, TimeUnit.SECONDS)
+                ? ProcessorResponse.ok()
+                : ProcessorResponse.processingError();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ProcessorResponse.processingError();
+          }
+        };
+
+    LinkedHashMap<Processor, Capabilities> processors = new LinkedHashMap<>();
+    processors.put(waiting, CREATES_A);
+    processors.put(i -> waiting.process(i), CREATES_B);
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    try (MultiProcessor mp = new MultiProcessor(processors)) {
+      mp.setParallelism(2);
+      mp.setThreadSafeItems(true);
+      mp.setMetrics(new NamedMetrics(registry, "test", MultiProcessor.class));
+
+      assertEquals(ProcessorResponse.Status.OK, mp.process(Mockito.mock(Item.class)).getStatus());
+    }
+
+    List<Timer> timers =
+        registry.getMeters().stream()
+            .filter(m -> m.getId().getName().endsWith("child"))
+            .map(Timer.class::cast)
+            .collect(Collectors.toList());
+    assertEquals(2, timers.size());
+    timers.forEach(t -> assertEquals(1, t.count()));
+  }
+
+  @Test
+  public void testParallelRequiresThreadSafeItems() {
+    StringBuffer order = new StringBuffer();
+
+    LinkedHashMap<Processor, Capabilities> processors = new LinkedHashMap<>();
+    processors.put(
+        i -> {
+          try {
+            Thread.sleep(50);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return record(order, "1");
+        },
+        CREATES_A);
+    processors.put(i -> record(order, "2"), CREATES_B);
+
+    try (MultiProcessor mp = new MultiProcessor(processors)) {
+      mp.setParallelism(2);
+      assertEquals(ProcessorResponse.Status.OK, mp.process(Mockito.mock(Item.class)).getStatus());
+    }
+
+    assertEquals("12", order.toString());
+  }
+
+  @Test
+  public void testStopOnError() {
+    AtomicBoolean called = new AtomicBoolean(false);
+    Processor error = i -> ProcessorResponse.itemError();
+    Processor after =
+        i -> {
+          called.set(true);
+          return ProcessorResponse.ok();
+        };
+
+    try (MultiProcessor mp = new MultiProcessor(error, after)) {
+      mp.setStopOnError(true);
+      assertEquals(
+          ProcessorResponse.Status.PROCESSOR_ERROR,
+          mp.process(Mockito.mock(Item.class)).getStatus());
+    }
+    assertFalse(called.get());
+
+    try (MultiProcessor mp = new MultiProcessor(error, after)) {
+      mp.process(Mockito.mock(Item.class));
+    }
+    assertTrue(called.get());
+  }
+
+  @Test
+  public void testStopOnDiscard() {
+    Item item = Mockito.mock(Item.class);
+    Mockito.when(item.isDiscarded()).thenReturn(true);
+
+    AtomicBoolean called = new AtomicBoolean(false);
+    try (MultiProcessor mp =
+        new MultiProcessor(
+            i -> ProcessorResponse.ok(),
+            i -> {
+              called.set(true);
+              return ProcessorResponse.ok();
+            })) {
+      mp.setStopOnError(true);
+      mp.process(item);
+    }
+
+    assertFalse(called.get());
+  }
+
+  private static ProcessorResponse record(StringBuffer order, String name) {
+    order.append(name);
+    return ProcessorResponse.ok();
+  }
+
+  private static Capabilities annotator(String type) {
+    return new SimpleCapabilities.Builder()
+        .withProcessesContent(Text.class)
+        .withCreatesAnnotations(type, SpanBounds.class)
+        .build();
+  }
+}
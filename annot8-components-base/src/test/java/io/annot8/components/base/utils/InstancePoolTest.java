@@ -0,0 +1,131 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.base.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class InstancePoolTest {
+
+  @Test
+  public void testCreatesLazilyAndReuses() throws Exception {
+    AtomicInteger counter = new AtomicInteger();
+    InstancePool<Integer> pool = new InstancePool<>(2, counter::incrementAndGet);
+    assertEquals(0, pool.getSize());
+
+    Integer a = pool.acquire();
+    assertEquals(1, pool.getSize());
+
+    pool.release(a);
+    assertEquals(1, pool.getIdle());
+    assertSame(a, pool.acquire());
+
+    Integer b = pool.acquire();
+    assertEquals(2, pool.getSize());
+    assertEquals(2, counter.get());
+
+    pool.release(a);
+    pool.release(b);
+    pool.close();
+  }
+
+  @Test
+  public void testWaitsWhenFull() throws Exception {
+    InstancePool<Object> pool = new InstancePool<>(1, Object::new);
+    Object a = pool.acquire();
+
+    CompletableFuture<Object> waiter =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return pool.acquire();
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (pool.getWaiting() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+    assertEquals(1, pool.getWaiting());
+    assertEquals(1, pool.getSize());
+
+    pool.release(a);
+    assertSame(a, waiter.get(5, TimeUnit.SECONDS));
+    assertEquals(0, pool.getWaiting());
+  }
+
+  @Test
+  public void testFailedCreationDoesNotCount() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    InstancePool<Object> pool =
+        new InstancePool<>(
+            1,
+            () -> {
+              if (attempts.incrementAndGet() == 1) throw new IllegalArgumentException("Failed");
+              return new Object();
+            });
+
+    assertThrows(IllegalArgumentException.class, pool::acquire);
+    assertEquals(0, pool.getSize());
+
+    pool.acquire();
+    assertEquals(1, pool.getSize());
+  }
+
+  @Test
+  public void testCloseDestroys() throws Exception {
+    List<Object> destroyed = new ArrayList<>();
+    InstancePool<Object> pool = new InstancePool<>(2, Object::new, destroyed::add);
+
+    Object a = pool.acquire();
+    Object b = pool.acquire();
+    pool.release(a);
+
+    pool.close();
+    assertEquals(List.of(a), destroyed);
+
+    pool.release(b);
+    assertEquals(List.of(a, b), destroyed);
+
+    assertThrows(IllegalStateException.class, pool::acquire);
+    assertEquals(0, pool.getIdle());
+  }
+
+  @Test
+  public void testCloseWakesWaiters() throws Exception {
+    InstancePool<Object> pool = new InstancePool<>(1, Object::new);
+    Object a = pool.acquire();
+
+    CompletableFuture<Object> waiter =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return pool.acquire();
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (pool.getWaiting() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+    assertEquals(1, pool.getWaiting());
+
+    pool.close();
+
+    ExecutionException e =
+        assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof IllegalStateException);
+    assertEquals(0, pool.getWaiting());
+
+    pool.release(a);
+  }
+}
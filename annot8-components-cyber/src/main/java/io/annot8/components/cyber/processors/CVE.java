@@ -15,6 +15,7 @@ import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractRegexProcessor;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.PropertyKeys;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -48,6 +49,16 @@ public class CVE extends AbstractProcessorDescriptor<CVE.Processor, NoSettings>
           AnnotationTypes.ANNOTATION_TYPE_VULNERABILITY);
     }
 
+    @Override
+    protected Set<String> getAnchors() {
+      return Set.of("CVE-");
+    }
+
+    @Override
+    protected boolean isWithinToken() {
+      return true;
+    }
+
     @Override
     protected void addProperties(Builder builder, Matcher m) {
       builder.withProperty("year", Integer.parseInt(m.group(1)));
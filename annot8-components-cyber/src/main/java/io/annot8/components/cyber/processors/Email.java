@@ -14,6 +14,7 @@ import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractRegexProcessor;
 import io.annot8.conventions.AnnotationTypes;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,6 +46,16 @@ public class Email extends AbstractProcessorDescriptor<Email.Processor, NoSettin
           AnnotationTypes.ANNOTATION_TYPE_EMAIL);
     }
 
+    @Override
+    protected Set<String> getAnchors() {
+      return Set.of("@");
+    }
+
+    @Override
+    protected boolean isWithinToken() {
+      return true;
+    }
+
     @Override
     protected void addProperties(Annotation.Builder builder, Matcher m) {
       builder.withProperty("username", m.group(1)).withProperty("domain", m.group(2));
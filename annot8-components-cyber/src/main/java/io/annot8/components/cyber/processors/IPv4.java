@@ -15,6 +15,7 @@ import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractRegexProcessor;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.PropertyKeys;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -48,6 +49,16 @@ public class IPv4 extends AbstractProcessorDescriptor<IPv4.Processor, NoSettings
           AnnotationTypes.ANNOTATION_TYPE_IPADDRESS);
     }
 
+    @Override
+    protected Set<String> getAnchors() {
+      return Set.of(".");
+    }
+
+    @Override
+    protected boolean isWithinToken() {
+      return true;
+    }
+
     @Override
     protected void addProperties(Builder builder, Matcher m) {
       builder.withProperty(PropertyKeys.PROPERTY_KEY_VERSION, 4);
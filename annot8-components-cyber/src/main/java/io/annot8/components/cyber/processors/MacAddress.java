@@ -16,6 +16,7 @@ import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractRegexProcessor;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.PropertyKeys;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -51,6 +52,16 @@ public class MacAddress extends AbstractProcessorDescriptor<MacAddress.Processor
           AnnotationTypes.ANNOTATION_TYPE_MACADDRESS);
     }
 
+    @Override
+    protected Set<String> getAnchors() {
+      return Set.of("-", ":", ".");
+    }
+
+    @Override
+    protected boolean isWithinToken() {
+      return true;
+    }
+
     @Override
     protected void addProperties(Builder builder, Matcher m) {
       String norm = m.group(0).toUpperCase().replaceAll("[^0-9A-F]", "");
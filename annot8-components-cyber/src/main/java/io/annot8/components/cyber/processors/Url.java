@@ -15,6 +15,7 @@ import io.annot8.components.base.text.processors.AbstractRegexProcessor;
 import io.annot8.conventions.AnnotationTypes;
 import jakarta.json.bind.annotation.JsonbCreator;
 import jakarta.json.bind.annotation.JsonbProperty;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /** Extract Urls with the option of doing so in a lenient fashion */
@@ -50,8 +51,22 @@ public class Url extends AbstractProcessorDescriptor<Url.Processor, Url.Settings
             "\\b(?<!@)(http://www\\.|https://www\\.|http://|https://)?[a-z0-9]+([\\-.][a-z0-9]+)*\\.[a-z]{2,5}(:[0-9]{1,5})?([?/]\\S*)?\\b",
             Pattern.CASE_INSENSITIVE);
 
+    private final boolean lenient;
+
     public Processor(boolean lenient) {
       super(lenient ? LENIENT_URL_PATTERN : URL_PATTERN, 0, AnnotationTypes.ANNOTATION_TYPE_URL);
+      this.lenient = lenient;
+    }
+
+    @Override
+    protected Set<String> getAnchors() {
+      return lenient ? Set.of(".") : Set.of("://", "www");
+    }
+
+    @Override
+    protected boolean isWithinToken() {
+      // The strict pattern allows any character after www
+      return lenient;
     }
   }
 
@@ -0,0 +1,97 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.cyber.processors;
+
+import io.annot8.api.components.Processor;
+import io.annot8.common.data.content.Text;
+import io.annot8.components.base.text.processors.CombinedRegexProcessor;
+import io.annot8.testing.testimpl.TestItem;
+import io.annot8.testing.testimpl.content.TestStringContent;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares running the cyber regex processors one after another with running them through a {@link
+ * CombinedRegexProcessor}, on documents where matches are dense and where they are sparse.
+ *
+ * <p>Not run as part of the tests. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CombinedRegexBenchmark {
+
+  private static final String PROSE =
+      "The committee met on Tuesday to discuss the proposals, and agreed that further work was"
+          + " needed before any decision could be made on the future of the scheme. ";
+
+  @Param({"dense", "sparse"})
+  private String density;
+
+  @Param({"1000"})
+  private int fragments;
+
+  private String text;
+  private List<Processor> separate;
+  private Processor combined;
+  private TestItem item;
+  private Text content;
+
+  @Setup(Level.Trial)
+  public void setupTrial() {
+    if ("dense".equals(density)) {
+      text = CombinedRegexTest.generate(fragments, 1);
+    } else {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < fragments; i++) {
+        sb.append(PROSE);
+        if (i % 100 == 0) sb.append(CombinedRegexTest.FRAGMENTS[0]).append(' ');
+      }
+      text = sb.toString();
+    }
+
+    separate = List.copyOf(CombinedRegexTest.processors());
+    combined = new CombinedRegexProcessor(CombinedRegexTest.processors());
+  }
+
+  @Setup(Level.Invocation)
+  public void setupInvocation() {
+    item = new TestItem();
+    content =
+        item.createContent(TestStringContent.class).withDescription("test").withData(text).save();
+  }
+
+  @Benchmark
+  public long separate() {
+    for (Processor p : separate) p.process(item);
+    return content.getAnnotations().getAll().count();
+  }
+
+  @Benchmark
+  public long combined() {
+    combined.process(item);
+    return content.getAnnotations().getAll().count();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CombinedRegexBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
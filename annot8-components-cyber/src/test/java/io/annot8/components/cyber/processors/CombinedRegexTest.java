@@ -0,0 +1,108 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.cyber.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.annot8.api.annotations.Annotation;
+import io.annot8.api.components.Processor;
+import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.common.data.content.Text;
+import io.annot8.components.base.text.processors.AbstractRegexProcessor;
+import io.annot8.components.base.text.processors.CombinedRegexProcessor;
+import io.annot8.testing.testimpl.TestItem;
+import io.annot8.testing.testimpl.content.TestStringContent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/** Checks that combining the cyber regex processors gives the same annotations as running them */
+public class CombinedRegexTest {
+
+  static final String[] FRAGMENTS = {
+    "Contact sally@example.com or bob.smith@mail.example.co.uk for details.",
+    "Server 192.168.0.1 and 10.0.0.255 were seen, but not 999.1.1.1 or 1.2.3.",
+    "The IPv6 address 2001:db8::ff00:42:8329 and fe80::1 were also seen.",
+    "MAC addresses 00:1A:2b:3c:4D:5e, 00-1a-2b-3c-4d-5e and 001a.2b3c.4d5e.",
+    "See CVE-2021-44228 and cve-2014-0160 (not CVE-20-1 or XCVE-2021-1).",
+    "Visit https://www.example.com/path?q=1, www.test.org or ftp://files.example.net/a.",
+    "The time was 12:30:45 on 1.2.2020, and the version was v1.2.3-beta.",
+    "Nothing interesting here at all, just a sentence with some words in it.",
+    "Edge cases:@foo@bar.com,(192.168.1.1)\t::1\nwww example.com",
+  };
+
+  @Test
+  public void testSameAnnotations() {
+    String text = generate(2000, 1);
+
+    List<String> separate = annotate(text, processors());
+    List<String> combined = annotate(text, List.of(new CombinedRegexProcessor(processors())));
+
+    assertTrue(separate.size() > 1000);
+    assertEquals(separate, combined);
+  }
+
+  @Test
+  public void testNoAnchors() {
+    String text = "Nothing to see here";
+
+    assertEquals(List.of(), annotate(text, List.of(new CombinedRegexProcessor(processors()))));
+  }
+
+  static List<AbstractRegexProcessor> processors() {
+    return List.of(
+        new Email.Processor(),
+        new IPv4.Processor(),
+        new IPv6.Processor(),
+        new MacAddress.Processor(),
+        new CVE.Processor(),
+        new Url.Processor(false),
+        new Url.Processor(true));
+  }
+
+  static String generate(int fragments, long seed) {
+    Random random = new Random(seed);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < fragments; i++) {
+      sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)])
+          .append(random.nextBoolean() ? " " : "\n");
+    }
+
+    return sb.toString();
+  }
+
+  private static List<String> annotate(String text, List<? extends Processor> processors) {
+    TestItem item = new TestItem();
+    Text content =
+        item.createContent(TestStringContent.class).withDescription("test").withData(text).save();
+
+    for (Processor p : processors) {
+      p.process(item);
+      p.close();
+    }
+
+    return content
+        .getAnnotations()
+        .getAll()
+        .map(CombinedRegexTest::describe)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private static String describe(Annotation a) {
+    SpanBounds b = a.getBounds(SpanBounds.class).orElseThrow();
+    return a.getType()
+        + " "
+        + b.getBegin()
+        + "-"
+        + b.getEnd()
+        + " "
+        + new TreeMap<>(a.getProperties().getAll())
+            .entrySet().stream()
+                .map(e -> e.getKey() + "=" + Arrays.deepToString(new Object[] {e.getValue()}))
+                .collect(Collectors.joining(","));
+  }
+}
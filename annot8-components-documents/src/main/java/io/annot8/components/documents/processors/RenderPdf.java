@@ -19,8 +19,17 @@ import io.annot8.common.data.content.InputStreamContent;
 import io.annot8.conventions.PropertyKeys;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
@@ -34,7 +43,7 @@ public class RenderPdf
     extends AbstractProcessorDescriptor<RenderPdf.Processor, RenderPdf.Settings> {
   @Override
   protected Processor createComponent(Context context, RenderPdf.Settings settings) {
-    return new Processor(settings.getDpi());
+    return new Processor(settings.getDpi(), settings.getWindowSize());
   }
 
   @Override
@@ -46,11 +55,32 @@ public class RenderPdf
         .build();
   }
 
+  /**
+   * By default, every page is rendered up front. If a window size is set, then pages are instead
+   * rendered when the data of their Image content is requested (for instance by OCR), and only the
+   * most recently rendered pages, up to the window size, are held in memory for each document.
+   * Other pages are released once the consumer has finished with them, and are rendered again if
+   * they are requested again.
+   *
+   * <p>In windowed mode, each document (and, for FileContent, its file handle) is kept open until
+   * its Image content is garbage collected or the processor is closed. The memory used by rendered
+   * pages is therefore bounded by the window size for each open document, not across the pipeline.
+   * Pages that can't be rendered are only detected when their data is requested, at which point an
+   * {@link UncheckedIOException} is thrown.
+   */
   public static class Processor extends AbstractProcessor {
     private final int dpi;
+    private final int windowSize;
+    private final Set<PdfPages> openDocuments =
+        Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 
     public Processor(int dpi) {
+      this(dpi, 0);
+    }
+
+    public Processor(int dpi, int windowSize) {
       this.dpi = dpi;
+      this.windowSize = windowSize;
     }
 
     @Override
@@ -67,15 +97,7 @@ public class RenderPdf
                   return;
                 }
 
-                if (document != null) {
-                  renderPdf(item, c.getId(), document);
-
-                  try {
-                    document.close();
-                  } catch (IOException e) {
-                    // Do nothing, we're closing anyway
-                  }
-                }
+                if (document != null) render(item, c.getId(), document);
               });
 
       item.getContents(InputStreamContent.class)
@@ -97,20 +119,27 @@ public class RenderPdf
                   return;
                 }
 
-                if (document != null) {
-                  renderPdf(item, c.getId(), document);
-
-                  try {
-                    document.close();
-                  } catch (IOException e) {
-                    // Do nothing, we're closing anyway
-                  }
-                }
+                if (document != null) render(item, c.getId(), document);
               });
 
       return ProcessorResponse.ok();
     }
 
+    private void render(Item item, String parentId, PDDocument document) {
+      if (windowSize > 0) {
+        renderPdfLazily(item, parentId, document);
+        return;
+      }
+
+      renderPdf(item, parentId, document);
+
+      try {
+        document.close();
+      } catch (IOException e) {
+        // Do nothing, we're closing anyway
+      }
+    }
+
     private void renderPdf(Item item, String parentId, PDDocument document) {
       PDFRenderer pdfRenderer = new PDFRenderer(document);
       for (int page = 0; page < document.getNumberOfPages(); page++) {
@@ -122,28 +151,135 @@ public class RenderPdf
           continue;
         }
 
-        item.createContent(Image.class)
-            .withData(bImg)
-            .withDescription(
-                "Rendered page "
-                    + (page + 1)
-                    + " of "
-                    + document.getNumberOfPages()
-                    + " from "
-                    + parentId)
-            .withProperty(PropertyKeys.PROPERTY_KEY_PAGE, page)
-            .withProperty(PropertyKeys.PROPERTY_KEY_PARENT, parentId)
-            .save();
+        createImage(item, parentId, page, document.getNumberOfPages(), () -> bImg);
+      }
+    }
+
+    private void renderPdfLazily(Item item, String parentId, PDDocument document) {
+      PdfPages pages = new PdfPages(document, dpi, windowSize);
+      openDocuments.add(pages);
+
+      int pageCount = document.getNumberOfPages();
+      for (int page = 0; page < pageCount; page++) {
+        int p = page;
+        try {
+          // Check the page can be read, without rendering it
+          document.getPage(page);
+        } catch (RuntimeException e) {
+          log().error("Unable to read page {} from {}", page + 1, parentId, e);
+          continue;
+        }
+
+        createImage(
+            item,
+            parentId,
+            page,
+            pageCount,
+            () -> {
+              try {
+                return pages.render(p);
+              } catch (IOException ioe) {
+                throw new UncheckedIOException(
+                    "Unable to render page " + (p + 1) + " from " + parentId, ioe);
+              }
+            });
+      }
+    }
+
+    private void createImage(
+        Item item, String parentId, int page, int pageCount, Supplier<BufferedImage> data) {
+      item.createContent(Image.class)
+          .withData(data)
+          .withDescription("Rendered page " + (page + 1) + " of " + pageCount + " from " + parentId)
+          .withProperty(PropertyKeys.PROPERTY_KEY_PAGE, page)
+          .withProperty(PropertyKeys.PROPERTY_KEY_PARENT, parentId)
+          .save();
+    }
+
+    @Override
+    public void close() {
+      synchronized (openDocuments) {
+        openDocuments.forEach(PdfPages::close);
+        openDocuments.clear();
+      }
+
+      super.close();
+    }
+  }
+
+  /**
+   * Renders the pages of an open PDF document on demand, holding on to the most recently rendered
+   * pages. The document is closed when this is closed, or once it is no longer reachable.
+   */
+  static class PdfPages implements Closeable {
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final PDFRenderer renderer;
+    private final int dpi;
+    private final Map<Integer, BufferedImage> window;
+    private final Cleaner.Cleanable cleanable;
+
+    PdfPages(PDDocument document, int dpi, int windowSize) {
+      this.renderer = new PDFRenderer(document);
+      this.dpi = dpi;
+      this.window =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+              return size() > windowSize;
+            }
+          };
+      this.cleanable = CLEANER.register(this, new DocumentCloser(document));
+    }
+
+    /** Get the rendered page, rendering it if it isn't in the window */
+    synchronized BufferedImage render(int page) throws IOException {
+      BufferedImage image = window.get(page);
+      if (image == null) {
+        image = renderer.renderImageWithDPI(page, dpi, ImageType.RGB);
+        window.put(page, image);
+      }
+
+      return image;
+    }
+
+    /** The number of rendered pages currently held */
+    synchronized int getWindowSize() {
+      return window.size();
+    }
+
+    @Override
+    public synchronized void close() {
+      window.clear();
+      cleanable.clean();
+    }
+  }
+
+  /** Closes a document, without holding a reference to the {@link PdfPages} that used it */
+  private static class DocumentCloser implements Runnable {
+    private final PDDocument document;
+
+    private DocumentCloser(PDDocument document) {
+      this.document = document;
+    }
+
+    @Override
+    public void run() {
+      try {
+        document.close();
+      } catch (IOException e) {
+        // Do nothing, we're closing anyway
       }
     }
   }
 
   public static class Settings implements io.annot8.api.settings.Settings {
     private int dpi = 300;
+    private int windowSize = 0;
 
     @Override
     public boolean validate() {
-      return dpi > 0;
+      return dpi > 0 && windowSize >= 0;
     }
 
     @Description("The DPI to render the PDFs at")
@@ -154,5 +290,15 @@ public class RenderPdf
     public void setDpi(int dpi) {
       this.dpi = dpi;
     }
+
+    @Description(
+        "If greater than 0, render pages when they are needed rather than up front, holding at most this many rendered pages in memory per document")
+    public int getWindowSize() {
+      return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+      this.windowSize = windowSize;
+    }
   }
 }
@@ -7,10 +7,17 @@ import io.annot8.api.data.Item;
 import io.annot8.common.data.content.FileContent;
 import io.annot8.common.data.content.Image;
 import io.annot8.common.data.content.InputStreamContent;
+import io.annot8.conventions.PropertyKeys;
 import io.annot8.testing.testimpl.TestItem;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.jupiter.api.Test;
 
 public class RenderPdfTest {
@@ -46,6 +53,70 @@ public class RenderPdfTest {
     }
   }
 
+  @Test
+  public void testWindowed() throws Exception {
+    URL uPdf = PdfExtractorTest.class.getResource("testDocument.pdf");
+    File fPdf = Paths.get(uPdf.toURI()).toFile();
+
+    Item eager = new TestItem();
+    eager.createContent(FileContent.class).withData(fPdf).save();
+    try (RenderPdf.Processor p = new RenderPdf.Processor(100)) {
+      p.process(eager);
+    }
+
+    Item lazy = new TestItem();
+    lazy.createContent(FileContent.class).withData(fPdf).save();
+    try (RenderPdf.Processor p = new RenderPdf.Processor(100, 1)) {
+      p.process(lazy);
+
+      List<Image> expected = images(eager);
+      List<Image> actual = images(lazy);
+      assertEquals(2, actual.size());
+
+      for (int i = 0; i < 2; i++) {
+        BufferedImage e = expected.get(i).getData();
+        BufferedImage a = actual.get(i).getData();
+        assertEquals(e.getWidth(), a.getWidth());
+        assertEquals(e.getHeight(), a.getHeight());
+        assertEquals(
+            e.getRGB(e.getWidth() / 2, e.getHeight() / 2),
+            a.getRGB(a.getWidth() / 2, a.getHeight() / 2));
+      }
+    }
+
+    // Once the processor is closed, the document is closed and pages can no longer be rendered
+    assertThrows(UncheckedIOException.class, () -> images(lazy).get(0).getData());
+  }
+
+  @Test
+  public void testPdfPagesWindow() throws Exception {
+    URL uPdf = PdfExtractorTest.class.getResource("testDocument.pdf");
+    File fPdf = Paths.get(uPdf.toURI()).toFile();
+
+    try (RenderPdf.PdfPages pages = new RenderPdf.PdfPages(PDDocument.load(fPdf), 50, 1)) {
+      BufferedImage first = pages.render(0);
+      assertSame(first, pages.render(0));
+      assertEquals(1, pages.getWindowSize());
+
+      pages.render(1);
+      assertEquals(1, pages.getWindowSize());
+
+      // The first page has been released from the window, so is rendered again
+      assertNotSame(first, pages.render(0));
+    }
+  }
+
+  private static List<Image> images(Item item) {
+    return item.getContents(Image.class)
+        .sorted(
+            Comparator.comparingInt(
+                i ->
+                    i.getProperties()
+                        .get(PropertyKeys.PROPERTY_KEY_PAGE, Integer.class)
+                        .orElseThrow()))
+        .collect(Collectors.toList());
+  }
+
   @Test
   public void testSettings() {
     RenderPdf.Settings s = new RenderPdf.Settings();
@@ -56,6 +127,14 @@ public class RenderPdfTest {
 
     s.setDpi(-10);
     assertFalse(s.validate());
+
+    s.setDpi(100);
+    s.setWindowSize(4);
+    assertEquals(4, s.getWindowSize());
+    assertTrue(s.validate());
+
+    s.setWindowSize(-1);
+    assertFalse(s.validate());
   }
 
   @Test
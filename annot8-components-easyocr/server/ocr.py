@@ -1,7 +1,8 @@
 from fastapi import FastAPI, Response, File
-from typing import Optional
+from typing import List, Optional
 from pydantic import BaseModel
 import easyocr
+import threading
 
 class Config(BaseModel):
     langs: Optional[str] = "en"
@@ -10,13 +11,25 @@ class Config(BaseModel):
 
 app = FastAPI()
 
+# Sync endpoints are run on a thread pool, and the reader isn't safe to use from several threads
+lock = threading.Lock()
+
 @app.post("/init")
 def init(config: Config):
     langs = config.langs.split(",")
     global reader
-    reader = easyocr.Reader(langs, download_enabled=config.download, gpu=config.gpu)
+    with lock:
+        reader = easyocr.Reader(langs, download_enabled=config.download, gpu=config.gpu)
     
+def read(file):
+    with lock:
+        results = reader.readtext(file, detail=0, paragraph=True, y_ths = -0.01, x_ths = 10.0)
+    return "\n\n".join(results)
+
 @app.post("/ocr")
 def index(file: bytes = File(...)):
-    results = reader.readtext(file, detail=0, paragraph=True, y_ths = -0.01, x_ths = 10.0)
-    return Response(content="\n\n".join(results), media_type="text/plain")
+    return Response(content=read(file), media_type="text/plain")
+
+@app.post("/ocr/batch")
+def batch(files: List[bytes] = File(...)):
+    return [read(file) for file in files]
@@ -20,7 +20,6 @@ import java.math.BigInteger;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpRequest.BodyPublisher;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
@@ -29,10 +28,24 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Base class for processors that OCR files and images using an EasyOCR server.
+ *
+ * <p>Requests to the server are sent asynchronously, so that the next file or image is prepared
+ * while earlier requests are in flight, with at most the configured number of requests in flight at
+ * once across all items. If the batch size is greater than 1, then several files and images from
+ * the same item are sent in a single request to the {@code /ocr/batch} endpoint, which must be
+ * supported by the server.
+ */
 public abstract class AbstractEasyOCRProcessor extends AbstractProcessor {
 
   public static final String VERSION = "EasyOCR";
@@ -42,6 +55,8 @@ public abstract class AbstractEasyOCRProcessor extends AbstractProcessor {
 
   private final int delay;
   private final int retries;
+  private final int batchSize;
+  private final Semaphore inFlight;
 
   public static Capabilities capabilities() {
     return new SimpleCapabilities.Builder()
@@ -56,8 +71,20 @@ public abstract class AbstractEasyOCRProcessor extends AbstractProcessor {
   }
 
   protected AbstractEasyOCRProcessor(int delay, int retries) {
+    this(delay, retries, 1, 1);
+  }
+
+  /**
+   * @param delay the delay in milliseconds between attempts to initialize the server
+   * @param retries the number of attempts to make to initialize the server
+   * @param concurrency the maximum number of OCR requests to have in flight at once
+   * @param batchSize the maximum number of files and images to send in a single OCR request
+   */
+  protected AbstractEasyOCRProcessor(int delay, int retries, int concurrency, int batchSize) {
     this.delay = delay;
     this.retries = retries;
+    this.batchSize = Math.max(1, batchSize);
+    this.inFlight = new Semaphore(Math.max(1, concurrency));
     objectMapper = new ObjectMapper();
     httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
   }
@@ -102,7 +129,7 @@ public abstract class AbstractEasyOCRProcessor extends AbstractProcessor {
 
   private HttpResponse<String> postJSON(String uri, Object data) throws IOException {
     try {
-      String requestBody = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(data);
+      String requestBody = objectMapper.writeValueAsString(data);
       log().trace("Sending request to {} with body {}", uri, requestBody);
       HttpRequest request =
           HttpRequest.newBuilder(URI.create(uri))
@@ -133,113 +160,166 @@ public abstract class AbstractEasyOCRProcessor extends AbstractProcessor {
   public ProcessorResponse process(Item item) {
     List<Exception> exceptions = new LinkedList<>();
 
-    item.getContents(FileContent.class)
-        .forEach(
-            c -> {
-              try {
-                processFile(item, c);
-              } catch (Exception e) {
-                log().error(e.getLocalizedMessage(), e);
-                exceptions.add(e);
-              }
-            });
+    List<Content<?>> contents = new ArrayList<>();
+    item.getContents(FileContent.class).forEach(contents::add);
+    item.getContents(Image.class).forEach(contents::add);
+
+    // Send every request before waiting for any of the responses
+    List<Request> requests = new ArrayList<>();
+    for (int i = 0; i < contents.size(); i += batchSize) {
+      Request request = new Request(contents.subList(i, Math.min(contents.size(), i + batchSize)));
+      try {
+        request.response = send(request);
+      } catch (Exception e) {
+        request.response = CompletableFuture.failedFuture(e);
+      }
+      requests.add(request);
+    }
 
-    item.getContents(Image.class)
-        .forEach(
-            c -> {
-              try {
-                processImage(item, c);
-              } catch (Exception e) {
-                log().error(e.getLocalizedMessage(), e);
-                exceptions.add(e);
-              }
-            });
+    for (Request request : requests) {
+      List<String> ocr;
+      try {
+        ocr = request.response.join();
+      } catch (CompletionException e) {
+        Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        log().error(cause.getLocalizedMessage(), cause);
+        exceptions.add(cause);
+        continue;
+      }
+
+      for (int i = 0; i < request.contents.size(); i++) {
+        log().trace("OCR for item: {}\n{}", item.getId(), ocr.get(i));
+        createTextContent(item, ocr.get(i), request.contents.get(i));
+      }
+    }
 
     return exceptions.isEmpty() ? ProcessorResponse.ok() : ProcessorResponse.itemError(exceptions);
   }
 
-  private String processContent(String id, BodyPublisher publisher, String boundary) {
-    try {
-      HttpRequest request =
-          HttpRequest.newBuilder(URI.create(getUrl("/ocr")))
-              .timeout(Duration.ofMinutes(2))
-              .header("Content-Type", "multipart/form-data;boundary=" + boundary)
-              .POST(publisher)
-              .build();
-      HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+  /**
+   * Send the request once there is capacity to do so, returning the OCR'd text for each of its
+   * contents when the response is received
+   */
+  private CompletableFuture<List<String>> send(Request r) throws IOException {
+    String id = r.getId();
+    boolean batch = r.contents.size() > 1;
 
-      if (response.statusCode() != 200) {
-        throw new ProcessingException(
-            String.format(
-                "Failed to run OCR on %s: %s - %s", id, response.statusCode(), response.body()));
-      }
+    String boundary = newBoundary();
+    List<byte[]> body = new ArrayList<>();
+    for (Content<?> c : r.contents) {
+      log().debug("Running EasyOCR on {}", c.getId());
+      addPart(body, batch ? "files" : "file", c, boundary);
+    }
+    body.add(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
 
-      return response.body();
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create(getUrl(batch ? "/ocr/batch" : "/ocr")))
+            .timeout(Duration.ofMinutes(2))
+            .header("Content-Type", "multipart/form-data;boundary=" + boundary)
+            .POST(BodyPublishers.ofByteArrays(body))
+            .build();
+
+    try {
+      inFlight.acquire();
     } catch (InterruptedException ie) {
       Thread.currentThread().interrupt();
       throw new ProcessingException(String.format("Failed to run OCR on %s", id), ie);
-    } catch (IOException ioe) {
-      throw new ProcessingException(String.format("Failed to run OCR on %s", id), ioe);
     }
-  }
-
-  @SuppressWarnings("java:S2245")
-  private String newBoundary() {
-    return new BigInteger(256, new Random()).toString();
-  }
 
-  private void processFile(Item item, FileContent c) throws IOException {
-    log().debug("Running EasyOCR on {}", c.getId());
+    CompletableFuture<HttpResponse<String>> response;
+    try {
+      response = httpClient.sendAsync(request, BodyHandlers.ofString());
+    } catch (RuntimeException e) {
+      inFlight.release();
+      throw e;
+    }
 
-    String boundary = newBoundary();
-    String ocr = processContent(c.getId(), fromPath(c.getData().toPath(), boundary), boundary);
-    log().trace("OCR for item: {}\n{}", item.getId(), ocr);
-    createTextContent(item, ocr, c);
-  }
+    return response
+        .whenComplete((res, e) -> inFlight.release())
+        .handle(
+            (res, e) -> {
+              if (e != null) {
+                throw new ProcessingException(String.format("Failed to run OCR on %s", id), e);
+              }
 
-  private void processImage(Item item, Image c) throws IOException {
-    log().debug("Running EasyOCR on {}", c.getId());
+              if (res.statusCode() != 200) {
+                throw new ProcessingException(
+                    String.format(
+                        "Failed to run OCR on %s: %s - %s", id, res.statusCode(), res.body()));
+              }
 
-    String boundary = newBoundary();
-    String ocr = processContent(c.getId(), fromImage(c, boundary), boundary);
-    log().trace("OCR for item: {}\n{}", item.getId(), ocr);
-    createTextContent(item, ocr, c);
+              return batch ? readBatch(id, res.body(), r.contents.size()) : List.of(res.body());
+            });
   }
 
-  private static BodyPublisher fromPath(Path path, String boundary) throws IOException {
-    String mimeType = Files.probeContentType(path);
-    String filename = path.getFileName().toString();
-    byte[] data = Files.readAllBytes(path);
+  private List<String> readBatch(String id, String body, int expected) {
+    String[] results;
+    try {
+      results = objectMapper.readValue(body, String[].class);
+    } catch (IOException ioe) {
+      throw new ProcessingException(String.format("Failed to read OCR for %s", id), ioe);
+    }
+
+    if (results.length != expected) {
+      throw new ProcessingException(
+          String.format(
+              "Failed to run OCR on %s: expected %d results but got %d",
+              id, expected, results.length));
+    }
 
-    return bodyPublisher(filename, mimeType, data, boundary);
+    return Arrays.asList(results);
   }
 
-  private static BodyPublisher fromImage(Image image, String boundary) throws IOException {
+  @SuppressWarnings("java:S2245")
+  private String newBoundary() {
+    return new BigInteger(256, new Random()).toString();
+  }
 
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    image.saveAsPng(baos);
-    byte[] data = baos.toByteArray();
-    String mimeType = "image/png";
+  private static void addPart(List<byte[]> body, String name, Content<?> c, String boundary)
+      throws IOException {
+    String filename;
+    String mimeType;
+    byte[] data;
+
+    if (c instanceof FileContent) {
+      Path path = ((FileContent) c).getData().toPath();
+      filename = path.getFileName().toString();
+      mimeType = Files.probeContentType(path);
+      data = Files.readAllBytes(path);
+    } else {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ((Image) c).saveAsPng(baos);
+      filename = c.getId() + "-ocr.png";
+      mimeType = "image/png";
+      data = baos.toByteArray();
+    }
 
-    return bodyPublisher(image.getId() + "-ocr.png", mimeType, data, boundary);
+    body.add(
+        ("--"
+                + boundary
+                + "\r\nContent-Disposition: form-data; name=\""
+                + name
+                + "\"; filename=\""
+                + filename
+                + "\"\r\nContent-Type: "
+                + mimeType
+                + "\r\n\r\n")
+            .getBytes(StandardCharsets.UTF_8));
+    body.add(data);
+    body.add("\r\n".getBytes(StandardCharsets.UTF_8));
   }
 
-  private static BodyPublisher bodyPublisher(
-      String filename, String mimeType, byte[] data, String boundary) {
-
-    byte[] separator =
-        ("--" + boundary + "\r\nContent-Disposition: form-data; name=")
-            .getBytes(StandardCharsets.UTF_8);
+  /** A single request to the server, for one or more contents */
+  private static class Request {
+    private final List<Content<?>> contents;
+    private CompletableFuture<List<String>> response;
 
-    var byteArrays = new ArrayList<byte[]>();
-    byteArrays.add(separator);
-    byteArrays.add(
-        ("\"file\"; filename=\"" + filename + "\"\r\nContent-Type: " + mimeType + "\r\n\r\n")
-            .getBytes(StandardCharsets.UTF_8));
-    byteArrays.add(data);
-    byteArrays.add("\r\n".getBytes(StandardCharsets.UTF_8));
+    private Request(List<Content<?>> contents) {
+      this.contents = contents;
+    }
 
-    byteArrays.add(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
-    return BodyPublishers.ofByteArrays(byteArrays);
+    private String getId() {
+      return contents.stream().map(Content::getId).collect(Collectors.joining(", "));
+    }
   }
 }
@@ -36,9 +36,10 @@ public class LocalEasyOCR
       String.join(
           System.getProperty("line.separator"),
           "from fastapi import FastAPI, Response, File",
-          "from typing import Optional",
+          "from typing import List, Optional",
           "from pydantic import BaseModel",
           "import easyocr",
+          "import threading",
           "",
           "class Config(BaseModel):",
           "    langs: Optional[str] = \"en\"",
@@ -47,18 +48,30 @@ public class LocalEasyOCR
           "",
           "app = FastAPI()",
           "",
+          "# Sync endpoints are run on a thread pool, and the reader isn't safe to use from several threads",
+          "lock = threading.Lock()",
+          "",
           "reader = easyocr.Reader([\"en\"], download_enabled=False, gpu=False)",
           "",
           "@app.post(\"/init\")",
           "def init(config: Config):",
           "    langs = config.langs.split(\",\")",
           "    global reader",
-          "    reader = easyocr.Reader(langs, download_enabled=config.download, gpu=config.gpu)",
+          "    with lock:",
+          "        reader = easyocr.Reader(langs, download_enabled=config.download, gpu=config.gpu)",
+          "",
+          "def read(file):",
+          "    with lock:",
+          "        results = reader.readtext(file, detail=0, paragraph=True, y_ths = -0.01, x_ths = 10.0)",
+          "    return \"\\n\\n\".join(results)",
           "",
           "@app.post(\"/ocr\")",
           "def index(file: bytes = File(...)):",
-          "    results = reader.readtext(file, detail=0, paragraph=True, y_ths = -0.01, x_ths = 10.0)",
-          "    return Response(content=\"\\n\\n\".join(results), media_type=\"text/plain\")");
+          "    return Response(content=read(file), media_type=\"text/plain\")",
+          "",
+          "@app.post(\"/ocr/batch\")",
+          "def batch(files: List[bytes] = File(...)):",
+          "    return [read(file) for file in files]");
   // @formatter:on
 
   // Copy the python code from the jar so it can be called more easily
@@ -87,6 +100,7 @@ public class LocalEasyOCR
     private Process process;
 
     public Processor(Settings settings) {
+      super(1000, 10, settings.getConcurrency(), settings.getBatchSize());
       this.settings = settings;
       pool = Executors.newSingleThreadExecutor();
       startEasyOCR();
@@ -164,15 +178,19 @@ public class LocalEasyOCR
     private static final boolean DEFAULT_GPU = false;
     private static final String DEFAULT_LANGS = "en";
     private static final int DEFAULT_PORT = 8000;
+    private static final int DEFAULT_CONCURRENCY = 1;
+    private static final int DEFAULT_BATCH_SIZE = 1;
 
     private boolean download = DEFAULT_DOWNLOAD;
     private boolean gpu = DEFAULT_GPU;
     private String langs = DEFAULT_LANGS;
     private int port = DEFAULT_PORT;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
     @Override
     public boolean validate() {
-      return langs != null;
+      return langs != null && concurrency >= 1 && batchSize >= 1;
     }
 
     @Description("Set true to allow language models to be downloaded")
@@ -212,11 +230,32 @@ public class LocalEasyOCR
       return port;
     }
 
+    @Description("The maximum number of OCR requests to have in flight at once")
+    public int getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+    }
+
+    @Description(
+        "The maximum number of files and images from an item to send in a single OCR request")
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
     public static class Builder {
       private List<String> langs = new ArrayList<>();
       private boolean download = DEFAULT_DOWNLOAD;
       private boolean gpu = DEFAULT_GPU;
       private int port = DEFAULT_PORT;
+      private int concurrency = DEFAULT_CONCURRENCY;
+      private int batchSize = DEFAULT_BATCH_SIZE;
 
       public Builder withDownload(boolean download) {
         this.download = download;
@@ -238,6 +277,16 @@ public class LocalEasyOCR
         return this;
       }
 
+      public Builder withConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+        return this;
+      }
+
+      public Builder withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+      }
+
       public Settings build() {
         Settings settings = new Settings();
         settings.setDownload(download);
@@ -246,6 +295,8 @@ public class LocalEasyOCR
           settings.setLangs(String.join(",", langs));
         }
         settings.setPort(port);
+        settings.setConcurrency(concurrency);
+        settings.setBatchSize(batchSize);
         return settings;
       }
     }
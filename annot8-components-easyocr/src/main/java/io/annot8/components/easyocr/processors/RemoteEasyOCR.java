@@ -39,7 +39,7 @@ public class RemoteEasyOCR
     }
 
     public Processor(Settings settings, int delay, int retries) {
-      super(delay, retries);
+      super(delay, retries, settings.getConcurrency(), settings.getBatchSize());
       this.settings = settings;
       startEasyOCR();
     }
@@ -76,12 +76,16 @@ public class RemoteEasyOCR
     private static final boolean DEFAULT_DOWNLOAD = false;
     private static final boolean DEFAULT_GPU = false;
     private static final String DEFAULT_LANGS = "en";
+    private static final int DEFAULT_CONCURRENCY = 1;
+    private static final int DEFAULT_BATCH_SIZE = 1;
 
     private String url;
     private boolean initialize = DEFAULT_INITIALIZE;
     private boolean download = DEFAULT_DOWNLOAD;
     private boolean gpu = DEFAULT_GPU;
     private String langs = DEFAULT_LANGS;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
     @Override
     public boolean validate() {
@@ -90,7 +94,7 @@ public class RemoteEasyOCR
       } catch (MalformedURLException e) {
         return false;
       }
-      return langs != null && url != null;
+      return langs != null && url != null && concurrency >= 1 && batchSize >= 1;
     }
 
     public void setUrl(String url) {
@@ -140,12 +144,33 @@ public class RemoteEasyOCR
       return langs;
     }
 
+    @Description("The maximum number of OCR requests to have in flight at once")
+    public int getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+    }
+
+    @Description(
+        "The maximum number of files and images from an item to send in a single OCR request. If greater than 1, the server must support the /ocr/batch endpoint")
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
     public static class Builder {
       private List<String> langs = new ArrayList<>();
       private boolean initialize = DEFAULT_INITIALIZE;
       private boolean download = DEFAULT_DOWNLOAD;
       private boolean gpu = DEFAULT_GPU;
       private String url;
+      private int concurrency = DEFAULT_CONCURRENCY;
+      private int batchSize = DEFAULT_BATCH_SIZE;
 
       public Builder initialize() {
         this.initialize = true;
@@ -172,6 +197,16 @@ public class RemoteEasyOCR
         return this;
       }
 
+      public Builder withConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+        return this;
+      }
+
+      public Builder withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+      }
+
       public Settings build() {
         Settings settings = new Settings();
         settings.setInitialize(initialize);
@@ -181,6 +216,8 @@ public class RemoteEasyOCR
           settings.setLangs(String.join(",", langs));
         }
         settings.setUrl(url);
+        settings.setConcurrency(concurrency);
+        settings.setBatchSize(batchSize);
         return settings;
       }
     }
@@ -10,6 +10,8 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static io.annot8.components.easyocr.processors.TestUtil.*;
 import static io.annot8.components.easyocr.processors.TestUtil.checkCanProcessImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -18,6 +20,15 @@ import com.github.tomakehurst.wiremock.junit5.WireMockTest;
 import io.annot8.api.components.Processor;
 import io.annot8.api.data.Item;
 import io.annot8.api.exceptions.BadConfigurationException;
+import io.annot8.common.data.content.Image;
+import io.annot8.common.data.content.Text;
+import io.annot8.conventions.PropertyKeys;
+import io.annot8.testing.testimpl.TestItem;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
 @WireMockTest
@@ -134,4 +145,109 @@ public class AbstractEasyOCRTest {
       assertTrue(ocr.process(file).hasExceptions());
     }
   }
+
+  @Test
+  public void testConcurrentImages(WireMockRuntimeInfo wmRuntimeInfo) throws Exception {
+    stubFor(
+        post("/ocr")
+            .willReturn(
+                ok().withHeader("Content-Type", "text/plain")
+                    .withBody("Annot8 Test Image")
+                    .withFixedDelay(300)));
+    String url = wmRuntimeInfo.getHttpBaseUrl();
+
+    Item item = images(6);
+
+    long start = System.currentTimeMillis();
+    try (Processor ocr =
+        new RemoteEasyOCR.Processor(
+            RemoteEasyOCR.Settings.builder().withUrl(url).withConcurrency(3).build())) {
+      assertFalse(ocr.process(item).hasExceptions());
+    }
+    long elapsed = System.currentTimeMillis() - start;
+
+    // Sequential requests would take at least 1800ms
+    assertTrue(elapsed < 1800, "Took " + elapsed + "ms");
+
+    verify(exactly(6), postRequestedFor(urlEqualTo("/ocr")));
+    assertEquals(Set.copyOf(imageIds(item)), textsByParent(item).keySet());
+  }
+
+  @Test
+  public void testBatch(WireMockRuntimeInfo wmRuntimeInfo) throws Exception {
+    stubFor(
+        post("/ocr/batch")
+            .willReturn(
+                ok().withHeader("Content-Type", "application/json")
+                    .withBody("[\"First\", \"Second\"]")));
+    stubFor(
+        post("/ocr").willReturn(ok().withHeader("Content-Type", "text/plain").withBody("Third")));
+    String url = wmRuntimeInfo.getHttpBaseUrl();
+
+    Item item = images(3);
+
+    try (Processor ocr =
+        new RemoteEasyOCR.Processor(
+            RemoteEasyOCR.Settings.builder().withUrl(url).withBatchSize(2).build())) {
+      assertFalse(ocr.process(item).hasExceptions());
+    }
+
+    verify(
+        exactly(1),
+        postRequestedFor(urlEqualTo("/ocr/batch"))
+            .withHeader("Content-Type", containing("multipart/form-data;boundary="))
+            .withRequestBody(containing("name=\"files\";"))
+            .withRequestBody(containing("Content-Type: image/png")));
+    verify(exactly(1), postRequestedFor(urlEqualTo("/ocr")));
+
+    // Results are matched to the contents in the order they were sent
+    List<String> ids = imageIds(item);
+    assertEquals(
+        Map.of(ids.get(0), "First", ids.get(1), "Second", ids.get(2), "Third"),
+        textsByParent(item));
+  }
+
+  @Test
+  public void testBatchMismatch(WireMockRuntimeInfo wmRuntimeInfo) throws Exception {
+    stubFor(
+        post("/ocr/batch")
+            .willReturn(
+                ok().withHeader("Content-Type", "application/json").withBody("[\"First\"]")));
+    String url = wmRuntimeInfo.getHttpBaseUrl();
+
+    Item item = images(2);
+
+    try (Processor ocr =
+        new RemoteEasyOCR.Processor(
+            RemoteEasyOCR.Settings.builder().withUrl(url).withBatchSize(2).build())) {
+      assertTrue(ocr.process(item).hasExceptions());
+    }
+
+    assertEquals(0, item.getContents(Text.class).count());
+  }
+
+  private static Item images(int count) {
+    Item item = new TestItem();
+    for (int i = 0; i < count; i++) {
+      item.createContent(Image.class)
+          .withData(new BufferedImage(i + 1, 1, BufferedImage.TYPE_BYTE_GRAY))
+          .save();
+    }
+    return item;
+  }
+
+  private static List<String> imageIds(Item item) {
+    return item.getContents(Image.class).map(Image::getId).collect(Collectors.toList());
+  }
+
+  private static Map<String, String> textsByParent(Item item) {
+    return item.getContents(Text.class)
+        .collect(
+            Collectors.toMap(
+                t ->
+                    t.getProperties()
+                        .get(PropertyKeys.PROPERTY_KEY_PARENT, String.class)
+                        .orElseThrow(),
+                Text::getData));
+  }
 }
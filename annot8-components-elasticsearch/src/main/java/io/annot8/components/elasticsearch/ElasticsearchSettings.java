@@ -4,11 +4,16 @@ package io.annot8.components.elasticsearch;
 import io.annot8.api.settings.Description;
 import io.annot8.api.settings.Settings;
 import jakarta.json.bind.annotation.JsonbTransient;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.elasticsearch.client.RestClientBuilder;
 
 public class ElasticsearchSettings implements Settings {
   private String hostname = "localhost";
@@ -19,6 +24,17 @@ public class ElasticsearchSettings implements Settings {
   private boolean forceString = false;
   private String username = null;
   private String password = null;
+  private boolean batching = false;
+  private int batchSize = 1000;
+  private long batchBytes = 5L * 1024 * 1024;
+  private long batchLinger = 1000;
+  private int maxInFlightRequests = 2;
+  private List<String> hosts = new ArrayList<>();
+  private int maxConnections = RestClientBuilder.DEFAULT_MAX_CONN_TOTAL;
+  private int maxConnectionsPerHost = RestClientBuilder.DEFAULT_MAX_CONN_PER_ROUTE;
+  private int maxRetries = 3;
+  private long initialBackoff = 100;
+  private long maxBackoff = 10000;
 
   public ElasticsearchSettings() {
     // Do nothing - use default values
@@ -67,7 +83,27 @@ public class ElasticsearchSettings implements Settings {
         && scheme != null
         && !scheme.isEmpty()
         && index != null
-        && !index.isEmpty();
+        && !index.isEmpty()
+        && (!batching
+            || (batchSize > 0 && batchBytes > 0 && batchLinger > 0 && maxInFlightRequests > 0))
+        && hosts != null
+        && hosts.stream().allMatch(ElasticsearchSettings::isValidHost)
+        && maxConnections > 0
+        && maxConnectionsPerHost > 0
+        && maxRetries >= 0
+        && initialBackoff >= 0
+        && maxBackoff >= initialBackoff;
+  }
+
+  private static boolean isValidHost(String host) {
+    if (host == null || host.isBlank()) return false;
+
+    try {
+      toHttpHost(host, "http", 9200);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
   }
 
   @JsonbTransient
@@ -75,6 +111,34 @@ public class ElasticsearchSettings implements Settings {
     return new HttpHost(hostname, port, scheme);
   }
 
+  /**
+   * The hosts to connect to, which are those in {@link #getHosts()} if any are set, and otherwise
+   * the single host given by {@link #host()}.
+   */
+  @JsonbTransient
+  public List<HttpHost> hosts() {
+    if (hosts == null || hosts.isEmpty()) return List.of(host());
+
+    return hosts.stream().map(h -> toHttpHost(h, scheme, port)).collect(Collectors.toList());
+  }
+
+  /**
+   * Parse a host given as {@code hostname}, {@code hostname:port} or {@code
+   * scheme://hostname[:port]}, where IPv6 addresses are enclosed in square brackets (e.g. {@code
+   * [::1]:9200}), using the given scheme and port where they aren't specified
+   */
+  private static HttpHost toHttpHost(String host, String defaultScheme, int defaultPort) {
+    String h = host.trim();
+    URI uri = URI.create(h.contains("://") ? h : defaultScheme + "://" + h);
+
+    // The host is null if the authority couldn't be parsed as a hostname and port
+    if (uri.getHost() == null || uri.getPort() > 65535)
+      throw new IllegalArgumentException("Invalid Elasticsearch host " + host);
+
+    return new HttpHost(
+        uri.getHost(), uri.getPort() == -1 ? defaultPort : uri.getPort(), uri.getScheme());
+  }
+
   @Description(value = "The hostname of the Elasticsearch server", defaultValue = "localhost")
   public String getHostname() {
     return hostname;
@@ -157,6 +221,134 @@ public class ElasticsearchSettings implements Settings {
     this.password = password;
   }
 
+  @Description(
+      value =
+          "Should index requests be batched across items and sent asynchronously, rather than sent once per item?",
+      defaultValue = "false")
+  public boolean isBatching() {
+    return batching;
+  }
+
+  public void setBatching(boolean batching) {
+    this.batching = batching;
+  }
+
+  @Description(
+      value = "If batching, the maximum number of documents to send in a single bulk request",
+      defaultValue = "1000")
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  @Description(
+      value =
+          "If batching, the approximate maximum size in bytes of the documents in a single bulk request",
+      defaultValue = "5242880")
+  public long getBatchBytes() {
+    return batchBytes;
+  }
+
+  public void setBatchBytes(long batchBytes) {
+    this.batchBytes = batchBytes;
+  }
+
+  @Description(
+      value =
+          "If batching, the maximum time in milliseconds that a document will wait before being sent",
+      defaultValue = "1000")
+  public long getBatchLinger() {
+    return batchLinger;
+  }
+
+  public void setBatchLinger(long batchLinger) {
+    this.batchLinger = batchLinger;
+  }
+
+  @Description(
+      value =
+          "If batching, the maximum number of bulk requests in flight at once, after which processing will block",
+      defaultValue = "2")
+  public int getMaxInFlightRequests() {
+    return maxInFlightRequests;
+  }
+
+  public void setMaxInFlightRequests(int maxInFlightRequests) {
+    this.maxInFlightRequests = maxInFlightRequests;
+  }
+
+  @Description(
+      value =
+          "A list of Elasticsearch hosts (hostname, hostname:port or scheme://hostname:port) to spread requests across. If set, these are used instead of hostname and port, with port and scheme used where not specified",
+      defaultValue = "[]")
+  public List<String> getHosts() {
+    return hosts;
+  }
+
+  public void setHosts(List<String> hosts) {
+    this.hosts = hosts;
+  }
+
+  @Description(
+      value = "The maximum number of connections to Elasticsearch across all hosts",
+      defaultValue = "30")
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public void setMaxConnections(int maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+
+  @Description(
+      value = "The maximum number of connections to each Elasticsearch host",
+      defaultValue = "10")
+  public int getMaxConnectionsPerHost() {
+    return maxConnectionsPerHost;
+  }
+
+  public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+    this.maxConnectionsPerHost = maxConnectionsPerHost;
+  }
+
+  @Description(
+      value =
+          "The number of times to retry requests (or individual documents) that Elasticsearch rejects because it is overloaded",
+      defaultValue = "3")
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public void setMaxRetries(int maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  @Description(
+      value =
+          "The time in milliseconds to wait before the first retry, which doubles for each subsequent retry",
+      defaultValue = "100")
+  public long getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  public void setInitialBackoff(long initialBackoff) {
+    this.initialBackoff = initialBackoff;
+  }
+
+  @Description(
+      value = "The maximum time in milliseconds to wait before retrying",
+      defaultValue = "10000")
+  public long getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  public void setMaxBackoff(long maxBackoff) {
+    this.maxBackoff = maxBackoff;
+  }
+
   public CredentialsProvider credentials() {
     if (isNullOrEmpty(getUsername()) || isNullOrEmpty(getPassword())) return null;
 
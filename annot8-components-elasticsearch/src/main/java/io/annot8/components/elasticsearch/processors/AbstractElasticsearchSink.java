@@ -5,9 +5,6 @@ import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.ErrorCause;
 import co.elastic.clients.elasticsearch._types.mapping.Property;
 import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
-import co.elastic.clients.elasticsearch.core.BulkRequest;
-import co.elastic.clients.elasticsearch.core.BulkResponse;
-import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
 import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
 import co.elastic.clients.elasticsearch.core.bulk.OperationType;
@@ -26,7 +23,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import org.apache.http.HttpHost;
 import org.apache.http.client.CredentialsProvider;
 import org.elasticsearch.client.RestClient;
@@ -37,13 +33,34 @@ public abstract class AbstractElasticsearchSink extends AbstractProcessor {
   protected final String index;
   protected final boolean forceString;
 
+  private final JacksonJsonpMapper jsonpMapper = new JacksonJsonpMapper();
+  private final RetryingBulkClient bulkClient;
+  private BulkBatcher batcher = null;
+
   public AbstractElasticsearchSink(ElasticsearchSettings settings) {
     this(
-        List.of(settings.host()),
+        settings.hosts(),
         settings.getIndex(),
         settings.isDeleteIndex(),
         settings.isForceString(),
-        settings.credentials());
+        settings.credentials(),
+        settings.getMaxConnections(),
+        settings.getMaxConnectionsPerHost(),
+        settings.getMaxRetries(),
+        settings.getInitialBackoff(),
+        settings.getMaxBackoff());
+
+    if (settings.isBatching()) {
+      batcher =
+          new BulkBatcher(
+              bulkClient,
+              settings.getBatchSize(),
+              settings.getBatchBytes(),
+              settings.getBatchLinger(),
+              settings.getMaxInFlightRequests(),
+              log(),
+              this::onBatchedFailure);
+    }
   }
 
   public AbstractElasticsearchSink(
@@ -52,19 +69,68 @@ public abstract class AbstractElasticsearchSink extends AbstractProcessor {
       boolean deleteIndex,
       boolean forceString,
       CredentialsProvider credentials) {
+    this(
+        hosts,
+        index,
+        deleteIndex,
+        forceString,
+        credentials,
+        RestClientBuilder.DEFAULT_MAX_CONN_TOTAL,
+        RestClientBuilder.DEFAULT_MAX_CONN_PER_ROUTE);
+  }
+
+  public AbstractElasticsearchSink(
+      List<HttpHost> hosts,
+      String index,
+      boolean deleteIndex,
+      boolean forceString,
+      CredentialsProvider credentials,
+      int maxConnections,
+      int maxConnectionsPerHost) {
+    this(
+        hosts,
+        index,
+        deleteIndex,
+        forceString,
+        credentials,
+        maxConnections,
+        maxConnectionsPerHost,
+        0,
+        0,
+        0);
+  }
+
+  private AbstractElasticsearchSink(
+      List<HttpHost> hosts,
+      String index,
+      boolean deleteIndex,
+      boolean forceString,
+      CredentialsProvider credentials,
+      int maxConnections,
+      int maxConnectionsPerHost,
+      int maxRetries,
+      long initialBackoff,
+      long maxBackoff) {
 
+    // Requests are spread across the hosts by the client, which also stops routing requests to any
+    // host that fails until it has recovered
     RestClientBuilder builder = RestClient.builder(hosts.toArray(new HttpHost[0]));
 
-    if (credentials != null) {
-      builder.setHttpClientConfigCallback(
-          httpClientBuilder -> httpClientBuilder.setDefaultCredentialsProvider(credentials));
-    }
+    builder.setHttpClientConfigCallback(
+        httpClientBuilder -> {
+          httpClientBuilder.setMaxConnTotal(maxConnections);
+          httpClientBuilder.setMaxConnPerRoute(maxConnectionsPerHost);
+
+          if (credentials != null) httpClientBuilder.setDefaultCredentialsProvider(credentials);
+
+          return httpClientBuilder;
+        });
 
     RestClient restClient = builder.build();
 
-    ElasticsearchTransport transport =
-        new RestClientTransport(restClient, new JacksonJsonpMapper());
+    ElasticsearchTransport transport = new RestClientTransport(restClient, jsonpMapper);
     client = new ElasticsearchClient(transport);
+    bulkClient = new RetryingBulkClient(client, maxRetries, initialBackoff, maxBackoff, log());
 
     this.index = index;
     this.forceString = forceString;
@@ -120,13 +186,13 @@ public abstract class AbstractElasticsearchSink extends AbstractProcessor {
       return ProcessorResponse.ok();
     }
 
-    BulkRequest bulkRequest =
-        new BulkRequest.Builder()
-            .operations(
-                requests.stream()
-                    .map(io -> new BulkOperation.Builder().index(io).build())
-                    .collect(Collectors.toList()))
-            .build();
+    if (batcher != null) {
+      log()
+          .debug(
+              "Adding {} index requests for item {} to the batch", requests.size(), item.getId());
+      batcher.add(item.getId(), requests);
+      return ProcessorResponse.ok();
+    }
 
     List<Exception> exceptions = new ArrayList<>();
     try {
@@ -135,9 +201,9 @@ public abstract class AbstractElasticsearchSink extends AbstractProcessor {
               "Performing bulk request to index item {} ({} index requests)",
               item.getId(),
               requests.size());
-      BulkResponse response = client.bulk(bulkRequest);
+      for (BulkResponseItem bulkItemResponse : bulkClient.bulk(requests)) {
+        if (bulkItemResponse == null) continue;
 
-      for (BulkResponseItem bulkItemResponse : response.items()) {
         ErrorCause error = bulkItemResponse.error();
         if (error != null) {
           log()
@@ -191,6 +257,24 @@ public abstract class AbstractElasticsearchSink extends AbstractProcessor {
     }
   }
 
+  /**
+   * Called from a background thread when batching is enabled and a document fails to be indexed,
+   * with the ID of the item that the document was created from.
+   *
+   * <p>By default, failures are counted in the metrics as they have already been logged.
+   */
+  protected void onBatchedFailure(String itemId, Exception e) {
+    metrics().counter("batchedFailures").increment();
+  }
+
+  @Override
+  public void close() {
+    if (batcher != null) {
+      batcher.close();
+      batcher = null;
+    }
+  }
+
   /**
    * Return a map of {@link Property} to use for the property part of the index mapping, or an empty
    * optional if no explicit mapping should be set.
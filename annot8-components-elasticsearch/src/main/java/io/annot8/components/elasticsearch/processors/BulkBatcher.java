@@ -0,0 +1,252 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.elasticsearch.processors;
+
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
+import io.annot8.api.exceptions.ProcessingException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+
+/**
+ * Buffers index operations across items, and sends them to Elasticsearch as bulk requests from a
+ * background executor.
+ *
+ * <p>A bulk request is sent when the buffer reaches the configured number of documents or
+ * approximate size (estimated from the document structure, rather than by serialising it twice), or
+ * when the oldest buffered document has waited for the linger time. At most {@code maxInFlight}
+ * requests are sent or queued at once, after which {@link #add(String, List)} blocks until a
+ * request completes.
+ *
+ * <p>As the item has already been accepted by the time its documents are sent, failures are
+ * reported through a callback along with the ID of the item that created the failed document.
+ */
+class BulkBatcher implements AutoCloseable {
+
+  private final RetryingBulkClient client;
+  private final int maxDocuments;
+  private final long maxBytes;
+  private final long lingerMs;
+  private final Logger log;
+  private final BiConsumer<String, Exception> onFailure;
+
+  private final ExecutorService senders;
+  private final ScheduledExecutorService lingerScheduler;
+  private final Semaphore inFlight;
+
+  private List<PendingOperation> buffer = new ArrayList<>();
+  private long bufferBytes = 0;
+  private long bufferStarted = 0;
+
+  BulkBatcher(
+      RetryingBulkClient client,
+      int maxDocuments,
+      long maxBytes,
+      long lingerMs,
+      int maxInFlight,
+      Logger log,
+      BiConsumer<String, Exception> onFailure) {
+    this.client = client;
+    this.maxDocuments = maxDocuments;
+    this.maxBytes = maxBytes;
+    this.lingerMs = lingerMs;
+    this.log = log;
+    this.onFailure = onFailure;
+
+    senders = Executors.newFixedThreadPool(maxInFlight);
+    inFlight = new Semaphore(maxInFlight);
+
+    lingerScheduler = Executors.newSingleThreadScheduledExecutor();
+    long period = Math.max(1, lingerMs / 2);
+    lingerScheduler.scheduleAtFixedRate(
+        this::flushIfLingered, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Add the index operations for an item to the buffer, sending a bulk request if the buffer is
+   * full. Blocks if the maximum number of requests are already in flight.
+   */
+  void add(String itemId, List<IndexOperation<?>> operations) {
+    List<List<PendingOperation>> toSend = new ArrayList<>();
+
+    synchronized (this) {
+      for (IndexOperation<?> operation : operations) {
+        if (buffer.isEmpty()) bufferStarted = System.currentTimeMillis();
+
+        buffer.add(new PendingOperation(itemId, operation));
+        bufferBytes += estimateSize(operation);
+
+        if (buffer.size() >= maxDocuments || bufferBytes >= maxBytes) toSend.add(takeBuffer());
+      }
+    }
+
+    toSend.forEach(this::submit);
+  }
+
+  /** Send any buffered operations, without waiting for the request to complete */
+  void flush() {
+    List<PendingOperation> toSend;
+    synchronized (this) {
+      toSend = takeBuffer();
+    }
+
+    submit(toSend);
+  }
+
+  /** Send any buffered operations, and wait for all in flight requests to complete */
+  @Override
+  public void close() {
+    try {
+      // Wait for a linger flush that's already running to submit its batch, so that it isn't
+      // rejected once the senders have been shut down
+      lingerScheduler.shutdown();
+      if (!lingerScheduler.awaitTermination(5, TimeUnit.MINUTES))
+        log.warn("Timed out waiting for buffered documents to be sent");
+
+      flush();
+
+      senders.shutdown();
+      if (!senders.awaitTermination(5, TimeUnit.MINUTES))
+        log.warn("Timed out waiting for bulk requests to complete");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted whilst waiting for bulk requests to complete");
+    }
+  }
+
+  private void flushIfLingered() {
+    List<PendingOperation> toSend;
+    synchronized (this) {
+      if (buffer.isEmpty() || System.currentTimeMillis() - bufferStarted < lingerMs) return;
+
+      toSend = takeBuffer();
+    }
+
+    submit(toSend);
+  }
+
+  private List<PendingOperation> takeBuffer() {
+    List<PendingOperation> taken = buffer;
+    buffer = new ArrayList<>();
+    bufferBytes = 0;
+
+    return taken;
+  }
+
+  private void submit(List<PendingOperation> batch) {
+    if (batch.isEmpty()) return;
+
+    try {
+      inFlight.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      fail(batch, new ProcessingException("Interrupted whilst waiting to send bulk request", e));
+      return;
+    }
+
+    try {
+      senders.execute(
+          () -> {
+            try {
+              send(batch);
+            } finally {
+              inFlight.release();
+            }
+          });
+    } catch (RuntimeException e) {
+      inFlight.release();
+      fail(batch, e);
+    }
+  }
+
+  private void send(List<PendingOperation> batch) {
+    List<BulkResponseItem> items;
+    try {
+      log.debug("Performing bulk request ({} index requests)", batch.size());
+      items = client.bulk(batch.stream().map(p -> p.operation).collect(Collectors.toList()));
+    } catch (IOException | RuntimeException e) {
+      log.error("Exception thrown whilst performing bulk request: {}", e.getMessage());
+      fail(batch, e);
+      return;
+    }
+
+    for (int i = 0; i < items.size(); i++) {
+      BulkResponseItem item = items.get(i);
+      ErrorCause error = item == null ? null : item.error();
+      if (error != null) {
+        String itemId = batch.get(i).itemId;
+        log.error(
+            "Failed to create/update document {} (from item {}) in index {}: {}",
+            item.id(),
+            itemId,
+            item.index(),
+            error.reason());
+        onFailure.accept(itemId, new ProcessingException(error.reason()));
+      }
+    }
+  }
+
+  private void fail(List<PendingOperation> batch, Exception e) {
+    Set<String> itemIds = new LinkedHashSet<>();
+    batch.forEach(p -> itemIds.add(p.itemId));
+
+    itemIds.forEach(id -> onFailure.accept(id, e));
+  }
+
+  private static long estimateSize(IndexOperation<?> operation) {
+    return estimateSize(operation.document());
+  }
+
+  /**
+   * Estimate the size of a value once serialised as JSON, from the lengths of its strings, without
+   * serialising it
+   */
+  static long estimateSize(Object value) {
+    if (value == null) {
+      return 4;
+    } else if (value instanceof CharSequence) {
+      return ((CharSequence) value).length() + 2L;
+    } else if (value instanceof Number || value instanceof Boolean) {
+      return 8;
+    } else if (value instanceof Map) {
+      long size = 2;
+      for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet())
+        size += estimateSize(String.valueOf(e.getKey())) + 2 + estimateSize(e.getValue());
+      return size;
+    } else if (value instanceof Collection) {
+      long size = 2;
+      for (Object o : (Collection<?>) value) size += estimateSize(o) + 1;
+      return size;
+    } else if (value instanceof Object[]) {
+      long size = 2;
+      for (Object o : (Object[]) value) size += estimateSize(o) + 1;
+      return size;
+    }
+
+    // Other values are serialised by Jackson, so allow a typical size for a short value
+    return 32;
+  }
+
+  private static class PendingOperation {
+    private final String itemId;
+    private final IndexOperation<?> operation;
+
+    private PendingOperation(String itemId, IndexOperation<?> operation) {
+      this.itemId = itemId;
+      this.operation = operation;
+    }
+  }
+}
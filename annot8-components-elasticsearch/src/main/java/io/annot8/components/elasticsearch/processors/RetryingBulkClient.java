@@ -0,0 +1,189 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.elasticsearch.processors;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
+import co.elastic.clients.transport.TransportException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.elasticsearch.client.ResponseException;
+import org.slf4j.Logger;
+
+/**
+ * Performs bulk requests, retrying with exponential backoff when Elasticsearch rejects work because
+ * it is overloaded.
+ *
+ * <p>A whole request is retried if it fails with HTTP 429 (Too Many Requests) or 503 (Service
+ * Unavailable), or if the connection fails without a response (for instance, because a pooled
+ * connection had been closed by the server). Elasticsearch may have indexed some documents before
+ * the connection failed, so a connection failure is only retried if every document has an explicit
+ * ID, and resending it overwrites rather than duplicates the document. Timeouts and interruptions
+ * aren't retried. Otherwise, only the documents rejected with a 429 status or an {@code
+ * es_rejected_execution_exception} are resent. Once the maximum number of retries is reached, the
+ * last response or exception is returned to the caller.
+ */
+class RetryingBulkClient {
+
+  private static final String REJECTED_EXECUTION = "es_rejected_execution_exception";
+
+  private final ElasticsearchClient client;
+  private final int maxRetries;
+  private final long initialBackoff;
+  private final long maxBackoff;
+  private final Logger log;
+
+  RetryingBulkClient(
+      ElasticsearchClient client,
+      int maxRetries,
+      long initialBackoff,
+      long maxBackoff,
+      Logger log) {
+    this.client = client;
+    this.maxRetries = maxRetries;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    this.log = log;
+  }
+
+  /**
+   * Index the documents, returning the final response for each operation in the same order as the
+   * operations were provided
+   */
+  List<BulkResponseItem> bulk(List<IndexOperation<?>> operations) throws IOException {
+    BulkResponseItem[] results = new BulkResponseItem[operations.size()];
+    List<Integer> pending =
+        IntStream.range(0, operations.size()).boxed().collect(Collectors.toList());
+
+    for (int attempt = 0; ; attempt++) {
+      BulkRequest bulkRequest =
+          new BulkRequest.Builder()
+              .operations(
+                  pending.stream()
+                      .map(i -> new BulkOperation.Builder().index(operations.get(i)).build())
+                      .collect(Collectors.toList()))
+              .build();
+
+      BulkResponse response;
+      try {
+        response = client.bulk(bulkRequest);
+      } catch (IOException | RuntimeException e) {
+        int status = status(e);
+        if (attempt < maxRetries && isRetryableStatus(status)) {
+          log.warn(
+              "Bulk request rejected by Elasticsearch (status {}), retrying ({} of {})",
+              status,
+              attempt + 1,
+              maxRetries);
+          backoff(attempt);
+          continue;
+        } else if (attempt < maxRetries
+            && status == -1
+            && isConnectionFailure(e)
+            && pending.stream().allMatch(i -> operations.get(i).id() != null)) {
+          log.warn(
+              "Bulk request failed with connection error ({}), retrying ({} of {})",
+              e.getMessage(),
+              attempt + 1,
+              maxRetries);
+          backoff(attempt);
+          continue;
+        }
+
+        throw e;
+      }
+
+      // Items in the response are in the same order as the operations in the request
+      List<BulkResponseItem> items = response.items();
+      List<Integer> rejected = new ArrayList<>();
+      for (int i = 0; i < items.size() && i < pending.size(); i++) {
+        BulkResponseItem item = items.get(i);
+        results[pending.get(i)] = item;
+
+        if (isRejected(item)) rejected.add(pending.get(i));
+      }
+
+      if (rejected.isEmpty() || attempt >= maxRetries) break;
+
+      log.warn(
+          "{} documents rejected by Elasticsearch, retrying ({} of {})",
+          rejected.size(),
+          attempt + 1,
+          maxRetries);
+      backoff(attempt);
+      pending = rejected;
+    }
+
+    return Arrays.asList(results);
+  }
+
+  /** The backoff before the given retry attempt (starting at 0) */
+  long backoffMillis(int attempt) {
+    // Cap the shift to avoid overflow, the maximum backoff will have been reached long before
+    long backoff = initialBackoff << Math.min(attempt, 30);
+    return Math.min(backoff, maxBackoff);
+  }
+
+  private void backoff(int attempt) throws InterruptedIOException {
+    try {
+      Thread.sleep(backoffMillis(attempt));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted whilst waiting to retry bulk request");
+    }
+  }
+
+  private static boolean isRetryableStatus(int status) {
+    return status == 429 || status == 503;
+  }
+
+  private static boolean isRejected(BulkResponseItem item) {
+    if (item.status() == 429) return true;
+
+    ErrorCause error = item.error();
+    return error != null && REJECTED_EXECUTION.equals(error.type());
+  }
+
+  /**
+   * Whether the exception was caused by an I/O error on the connection, rather than a timeout,
+   * interruption or a response that the client couldn't handle
+   */
+  private static boolean isConnectionFailure(Throwable t) {
+    while (t != null) {
+      if (t instanceof InterruptedIOException) {
+        return false;
+      } else if (t instanceof IOException && !(t instanceof TransportException)) {
+        return true;
+      }
+
+      t = t.getCause();
+    }
+
+    return false;
+  }
+
+  /** Find the HTTP status that caused the exception, or -1 if there isn't one */
+  private static int status(Throwable t) {
+    while (t != null) {
+      if (t instanceof ElasticsearchException) {
+        return ((ElasticsearchException) t).status();
+      } else if (t instanceof ResponseException) {
+        return ((ResponseException) t).getResponse().getStatusLine().getStatusCode();
+      }
+
+      t = t.getCause();
+    }
+
+    return -1;
+  }
+}
@@ -3,6 +3,7 @@ package io.annot8.components.elasticsearch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
 import org.apache.http.HttpHost;
 import org.junit.jupiter.api.Test;
 
@@ -103,4 +104,80 @@ public class ElasticsearchSettingsTest {
     es.setUsername(null);
     assertNull(es.credentials());
   }
+
+  @Test
+  public void testBatching() {
+    ElasticsearchSettings es = new ElasticsearchSettings();
+    assertFalse(es.isBatching());
+
+    es.setBatchSize(0);
+    assertTrue(es.validate());
+
+    es.setBatching(true);
+    assertFalse(es.validate());
+
+    es.setBatchSize(10);
+    assertTrue(es.validate());
+
+    es.setBatchLinger(0);
+    assertFalse(es.validate());
+  }
+
+  @Test
+  public void testHosts() {
+    ElasticsearchSettings es = new ElasticsearchSettings();
+    assertEquals(List.of(new HttpHost("localhost", 9200, "http")), es.hosts());
+
+    es.setScheme("https");
+    es.setHosts(List.of("node1", "node2:9201", "http://node3:9202", "http://node4"));
+    assertTrue(es.validate());
+    assertEquals(
+        List.of(
+            new HttpHost("node1", 9200, "https"),
+            new HttpHost("node2", 9201, "https"),
+            new HttpHost("node3", 9202, "http"),
+            new HttpHost("node4", 9200, "http")),
+        es.hosts());
+
+    es.setHosts(List.of(""));
+    assertFalse(es.validate());
+
+    es.setHosts(List.of("node1:port"));
+    assertFalse(es.validate());
+
+    es.setHosts(List.of("node1:70000"));
+    assertFalse(es.validate());
+  }
+
+  @Test
+  public void testIpv6Hosts() {
+    ElasticsearchSettings es = new ElasticsearchSettings();
+    es.setHosts(List.of("[::1]:9201", "[fe80::1]", "https://[2001:db8::1]:9202"));
+    assertTrue(es.validate());
+    assertEquals(
+        List.of(
+            new HttpHost("[::1]", 9201, "http"),
+            new HttpHost("[fe80::1]", 9200, "http"),
+            new HttpHost("[2001:db8::1]", 9202, "https")),
+        es.hosts());
+    assertEquals("http://[::1]:9201", es.hosts().get(0).toURI());
+
+    es.setHosts(List.of("::1"));
+    assertFalse(es.validate());
+  }
+
+  @Test
+  public void testRetries() {
+    ElasticsearchSettings es = new ElasticsearchSettings();
+    assertEquals(3, es.getMaxRetries());
+
+    es.setMaxBackoff(10);
+    assertFalse(es.validate());
+
+    es.setInitialBackoff(10);
+    assertTrue(es.validate());
+
+    es.setMaxConnections(0);
+    assertFalse(es.validate());
+  }
 }
@@ -0,0 +1,139 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.elasticsearch.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.annot8.api.components.responses.ProcessorResponse;
+import io.annot8.components.elasticsearch.ElasticsearchSettings;
+import io.annot8.testing.testimpl.TestItem;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BatchingElasticsearchSinkTest {
+
+  private StubElasticsearchServer server;
+
+  @BeforeEach
+  public void beforeEach() throws Exception {
+    server = new StubElasticsearchServer();
+  }
+
+  @AfterEach
+  public void afterEach() {
+    server.close();
+  }
+
+  @Test
+  public void testBatchSize() {
+    ElasticsearchSettings settings = settings(3, 60000);
+
+    ItemElasticsearchSink.Processor p = new ItemElasticsearchSink.Processor(settings);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(ProcessorResponse.ok(), p.process(new TestItem()));
+    }
+    p.close();
+
+    // Requests are sent concurrently, so may complete in either order
+    List<Integer> sizes = server.getBulkRequestSizes();
+    sizes.sort(Comparator.naturalOrder());
+    assertEquals(List.of(2, 3), sizes);
+  }
+
+  @Test
+  public void testLinger() throws Exception {
+    ElasticsearchSettings settings = settings(100, 50);
+
+    ItemElasticsearchSink.Processor p = new ItemElasticsearchSink.Processor(settings);
+    p.process(new TestItem());
+    p.process(new TestItem());
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (server.getBulkRequestSizes().isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(List.of(2), server.getBulkRequestSizes());
+
+    p.close();
+    assertEquals(List.of(2), server.getBulkRequestSizes());
+  }
+
+  @Test
+  public void testFailuresMappedToItem() {
+    TestItem good = new TestItem();
+    TestItem bad = new TestItem();
+    server.failId(bad.getId());
+
+    ElasticsearchSettings settings = settings(10, 60000);
+
+    List<String> failed = new CopyOnWriteArrayList<>();
+    ItemElasticsearchSink.Processor p =
+        new ItemElasticsearchSink.Processor(settings) {
+          @Override
+          protected void onBatchedFailure(String itemId, Exception e) {
+            failed.add(itemId);
+          }
+        };
+
+    p.process(good);
+    p.process(bad);
+    p.close();
+
+    assertEquals(List.of(bad.getId()), failed);
+    assertTrue(server.getBulkRequestSizes().contains(2));
+  }
+
+  @Test
+  public void testCloseWhilstLingering() {
+    // Linger flushes run continually, so close is likely to race with one
+    ElasticsearchSettings settings = settings(100, 1);
+
+    List<String> failed = new CopyOnWriteArrayList<>();
+    ItemElasticsearchSink.Processor p =
+        new ItemElasticsearchSink.Processor(settings) {
+          @Override
+          protected void onBatchedFailure(String itemId, Exception e) {
+            failed.add(itemId);
+          }
+        };
+
+    for (int i = 0; i < 200; i++) p.process(new TestItem());
+    p.close();
+
+    assertEquals(List.of(), failed);
+    assertEquals(200, server.getBulkRequestSizes().stream().mapToInt(Integer::intValue).sum());
+  }
+
+  @Test
+  public void testEstimateSize() throws Exception {
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put("id", "0f8fad5b-d9cb-469f-a165-70867728950e");
+    document.put("count", 42);
+    document.put("tags", List.of("one", "two", "three"));
+    document.put("properties", Map.of("title", "A title for the document", "pages", 12));
+    document.put("missing", null);
+
+    long actual = new ObjectMapper().writeValueAsBytes(document).length;
+    long estimate = BulkBatcher.estimateSize(document);
+    assertTrue(estimate > actual / 2 && estimate < actual * 2, estimate + " vs " + actual);
+  }
+
+  private ElasticsearchSettings settings(int batchSize, long batchLinger) {
+    ElasticsearchSettings settings = new ElasticsearchSettings();
+    settings.setPort(server.getPort());
+    settings.setIndex("test");
+    settings.setBatching(true);
+    settings.setBatchSize(batchSize);
+    settings.setBatchLinger(batchLinger);
+
+    return settings;
+  }
+}
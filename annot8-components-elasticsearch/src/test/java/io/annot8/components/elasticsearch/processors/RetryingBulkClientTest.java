@@ -0,0 +1,131 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.elasticsearch.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import io.annot8.api.components.responses.ProcessorResponse;
+import io.annot8.components.elasticsearch.ElasticsearchSettings;
+import io.annot8.testing.testimpl.TestItem;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+public class RetryingBulkClientTest {
+
+  private StubElasticsearchServer server;
+
+  @BeforeEach
+  public void beforeEach() throws Exception {
+    server = new StubElasticsearchServer();
+  }
+
+  @AfterEach
+  public void afterEach() {
+    server.close();
+  }
+
+  @Test
+  public void testRetryOverloadedRequest() {
+    ItemElasticsearchSink.Processor p = new ItemElasticsearchSink.Processor(settings(3));
+    server.overloadRequests(2);
+
+    assertEquals(ProcessorResponse.ok(), p.process(new TestItem()));
+    assertEquals(List.of(1), server.getBulkRequestSizes());
+
+    p.close();
+  }
+
+  @Test
+  public void testRetryDroppedConnection() {
+    ItemElasticsearchSink.Processor p = new ItemElasticsearchSink.Processor(settings(3));
+    server.dropRequests(2);
+
+    assertEquals(ProcessorResponse.ok(), p.process(new TestItem()));
+    assertEquals(List.of(1), server.getBulkRequestSizes());
+
+    p.close();
+  }
+
+  @Test
+  public void testDroppedConnectionNotRetriedWithoutIds() throws IOException {
+    RestClient restClient = RestClient.builder(new HttpHost("localhost", server.getPort())).build();
+    ElasticsearchClient client =
+        new ElasticsearchClient(new RestClientTransport(restClient, new JacksonJsonpMapper()));
+    RetryingBulkClient bulkClient =
+        new RetryingBulkClient(client, 3, 1, 10, LoggerFactory.getLogger(getClass()));
+    server.dropRequests(1);
+
+    // The document may have been indexed before the connection dropped, and without an ID
+    // resending it would index it again
+    IndexOperation<Map<String, Object>> operation =
+        new IndexOperation.Builder<Map<String, Object>>()
+            .index("test")
+            .document(Map.of("key", "value"))
+            .build();
+    assertThrows(IOException.class, () -> bulkClient.bulk(List.of(operation)));
+    assertTrue(server.getBulkRequestSizes().isEmpty());
+
+    restClient.close();
+  }
+
+  @Test
+  public void testRetryRejectedDocumentOnly() {
+    TestItem item = new TestItem();
+    server.rejectId(item.getId(), 2);
+
+    ItemElasticsearchSink.Processor p = new ItemElasticsearchSink.Processor(settings(3));
+
+    assertEquals(ProcessorResponse.ok(), p.process(item));
+    assertEquals(List.of(1, 1, 1), server.getBulkRequestSizes());
+
+    p.close();
+  }
+
+  @Test
+  public void testRetriesExhausted() {
+    TestItem item = new TestItem();
+    server.rejectId(item.getId(), 5);
+
+    ItemElasticsearchSink.Processor p = new ItemElasticsearchSink.Processor(settings(2));
+
+    assertEquals(ProcessorResponse.Status.ITEM_ERROR, p.process(item).getStatus());
+    assertEquals(3, server.getBulkRequestSizes().size());
+
+    p.close();
+  }
+
+  @Test
+  public void testBackoff() {
+    RetryingBulkClient client =
+        new RetryingBulkClient(null, 10, 100, 1000, LoggerFactory.getLogger(getClass()));
+
+    assertEquals(100, client.backoffMillis(0));
+    assertEquals(200, client.backoffMillis(1));
+    assertEquals(800, client.backoffMillis(3));
+    assertEquals(1000, client.backoffMillis(4));
+    assertEquals(1000, client.backoffMillis(100));
+  }
+
+  private ElasticsearchSettings settings(int maxRetries) {
+    ElasticsearchSettings settings = new ElasticsearchSettings();
+    settings.setHosts(List.of("localhost:" + server.getPort()));
+    settings.setIndex("test");
+    settings.setMaxRetries(maxRetries);
+    settings.setInitialBackoff(1);
+    settings.setMaxBackoff(10);
+
+    return settings;
+  }
+}
@@ -0,0 +1,158 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.elasticsearch.processors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal stub of the Elasticsearch HTTP API, sufficient for the sinks to ping, check an index
+ * exists and send bulk requests. Documents whose ID has been marked as failing are rejected.
+ *
+ * <p>Every request body is read in full and every connection is closed after its response, so that
+ * the client never reuses a connection which the server has since closed.
+ */
+public class StubElasticsearchServer implements AutoCloseable {
+
+  private final HttpServer server;
+  private final List<Integer> bulkRequestSizes = Collections.synchronizedList(new ArrayList<>());
+  private final Set<String> failingIds = new CopyOnWriteArraySet<>();
+  private final Map<String, AtomicInteger> rejectedIds = new ConcurrentHashMap<>();
+  private final AtomicInteger overloadedRequests = new AtomicInteger();
+  private final AtomicInteger droppedRequests = new AtomicInteger();
+
+  public StubElasticsearchServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  public List<Integer> getBulkRequestSizes() {
+    synchronized (bulkRequestSizes) {
+      return new ArrayList<>(bulkRequestSizes);
+    }
+  }
+
+  public void failId(String id) {
+    failingIds.add(id);
+  }
+
+  /**
+   * Reject the document with the given ID as if the cluster were overloaded, the given number of
+   * times
+   */
+  public void rejectId(String id, int times) {
+    rejectedIds.put(id, new AtomicInteger(times));
+  }
+
+  /** Respond to the next bulk requests with a 429 status */
+  public void overloadRequests(int requests) {
+    overloadedRequests.set(requests);
+  }
+
+  /** Close the connection without responding to the next bulk requests */
+  public void dropRequests(int requests) {
+    droppedRequests.set(requests);
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+    if (path.endsWith("/_bulk")) {
+      if (droppedRequests.getAndDecrement() > 0) {
+        exchange.close();
+        return;
+      }
+
+      if (overloadedRequests.getAndDecrement() > 0) {
+        respond(
+            exchange,
+            429,
+            "{\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected\"},\"status\":429}");
+        return;
+      }
+
+      respond(exchange, 200, bulkResponse(body));
+    } else if ("HEAD".equals(exchange.getRequestMethod())) {
+      respond(exchange, 200, null);
+    } else {
+      respond(exchange, 200, "{\"acknowledged\":true}");
+    }
+  }
+
+  private String bulkResponse(String body) {
+    List<String> items = new ArrayList<>();
+
+    String[] lines = body.split("\n");
+    for (int i = 0; i < lines.length; i += 2) {
+      String action = lines[i];
+      int idStart = action.indexOf("\"_id\":\"") + 7;
+      String id = action.substring(idStart, action.indexOf('"', idStart));
+
+      AtomicInteger rejections = rejectedIds.get(id);
+      if (rejections != null && rejections.getAndDecrement() > 0) {
+        items.add(
+            "{\"index\":{\"_index\":\"test\",\"_id\":\""
+                + id
+                + "\",\"status\":429,\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected execution\"}}}");
+      } else if (failingIds.contains(id)) {
+        items.add(
+            "{\"index\":{\"_index\":\"test\",\"_id\":\""
+                + id
+                + "\",\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\",\"reason\":\"failed to parse\"}}}");
+      } else {
+        items.add(
+            "{\"index\":{\"_index\":\"test\",\"_id\":\""
+                + id
+                + "\",\"status\":201,\"result\":\"created\"}}");
+      }
+    }
+
+    bulkRequestSizes.add(items.size());
+
+    return "{\"took\":1,\"errors\":"
+        + items.stream().anyMatch(i -> i.contains("\"error\""))
+        + ",\"items\":["
+        + String.join(",", items)
+        + "]}";
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    exchange.getResponseHeaders().add("X-Elastic-Product", "Elasticsearch");
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.getResponseHeaders().add("Connection", "close");
+
+    if (body == null) {
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+      return;
+    }
+
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(bytes);
+    }
+  }
+}
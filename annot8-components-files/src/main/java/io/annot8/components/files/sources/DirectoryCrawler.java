@@ -0,0 +1,111 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.files.sources;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+
+/**
+ * Crawls a folder in the background, visiting directories in parallel and making accepted files
+ * available through {@link #poll()} as they are found.
+ *
+ * <p>Found files are held in a bounded queue, and the crawl pauses while the queue is full so that
+ * memory use doesn't depend on the size of the tree. Symbolic links to directories aren't followed.
+ */
+class DirectoryCrawler implements AutoCloseable {
+
+  /** Called for each directory before it is listed */
+  interface DirectoryVisitor {
+    void visit(Path dir) throws IOException;
+  }
+
+  private final boolean recursive;
+  private final Predicate<Path> accept;
+  private final DirectoryVisitor visitor;
+  private final Logger log;
+
+  private final ExecutorService crawlers;
+  private final BlockingQueue<Path> found;
+  private final AtomicInteger outstanding = new AtomicInteger();
+  private final AtomicInteger files = new AtomicInteger();
+
+  DirectoryCrawler(
+      Path root,
+      boolean recursive,
+      int threads,
+      int queueSize,
+      Predicate<Path> accept,
+      DirectoryVisitor visitor,
+      Logger log) {
+    this.recursive = recursive;
+    this.accept = accept;
+    this.visitor = visitor;
+    this.log = log;
+
+    found = new ArrayBlockingQueue<>(queueSize);
+    crawlers = Executors.newFixedThreadPool(threads);
+
+    submit(root);
+  }
+
+  /** Get the next file found, or null if there are none available at the moment */
+  Path poll() {
+    return found.poll();
+  }
+
+  /** Whether the crawl has finished, and all files found have been polled */
+  boolean isFinished() {
+    return outstanding.get() == 0 && found.isEmpty();
+  }
+
+  @Override
+  public void close() {
+    crawlers.shutdownNow();
+  }
+
+  private void submit(Path dir) {
+    outstanding.incrementAndGet();
+    try {
+      crawlers.execute(() -> crawl(dir));
+    } catch (RejectedExecutionException e) {
+      // Crawler has been closed
+      outstanding.decrementAndGet();
+    }
+  }
+
+  private void crawl(Path dir) {
+    try {
+      visitor.visit(dir);
+
+      try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+        for (Path entry : entries) {
+          if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+            if (recursive) submit(entry);
+          } else if (Files.isRegularFile(entry) && accept.test(entry)) {
+            found.put(entry);
+            files.incrementAndGet();
+          }
+        }
+      }
+    } catch (IOException e) {
+      log.error("Unable to read folder {}", dir, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (outstanding.decrementAndGet() == 0) {
+        log.info("Finished crawling folders, {} files identified for initial processing", files);
+        crawlers.shutdown();
+      }
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.files.sources;
+
+import io.annot8.api.exceptions.Annot8RuntimeException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+
+/**
+ * Persistent record of the files that have already been processed, so that they can be skipped when
+ * a source is restarted.
+ *
+ * <p>Each file is recorded with its size, last modified time and a hash of its content. A file is
+ * unchanged if its size and modified time match, or failing that if its content hash matches. The
+ * content is therefore only read for files that appear to have changed, and the state found when
+ * checking a file can be recorded later without reading it again. Files recorded without a known
+ * state are hashed in the background, so that recording never waits on the file content.
+ *
+ * <p>The index is stored as a text file with one tab separated line per file, appended to as files
+ * are recorded, and compacted when it is opened. Backslashes, tabs and line breaks in paths are
+ * escaped so that each record stays on a single line.
+ */
+class FileIndex implements AutoCloseable {
+
+  private static final int FLUSH_EVERY = 100;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final BufferedWriter writer;
+  private final ExecutorService hasher = Executors.newSingleThreadExecutor();
+  private final Logger log;
+  private int unflushed = 0;
+
+  FileIndex(Path indexFile, Logger log) throws IOException {
+    this.log = log;
+
+    if (Files.exists(indexFile)) {
+      for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+        String[] parts = line.split("\t", 4);
+        if (parts.length == 4) {
+          entries.put(
+              unescape(parts[3]),
+              new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]));
+        }
+      }
+    }
+
+    // Rewrite the index, keeping only the latest entry for each file
+    Path parent = indexFile.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temp = Files.createTempFile(parent, indexFile.getFileName().toString(), ".tmp");
+    try (BufferedWriter w = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      for (Map.Entry<String, Entry> e : entries.entrySet()) write(w, e.getKey(), e.getValue());
+    }
+    Files.move(
+        temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+  }
+
+  /** The number of files in the index */
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * Check whether the file has changed since it was recorded.
+   *
+   * @return null if the file has been recorded and hasn't changed since, otherwise its current
+   *     state to pass to {@link #record(Path, Entry)}
+   */
+  Entry changed(Path file) throws IOException {
+    String key = key(file);
+    Entry entry = entries.get(key);
+
+    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+    long modified = attrs.lastModifiedTime().toMillis();
+    if (entry != null && entry.size == attrs.size() && entry.modified == modified) return null;
+
+    Entry current = new Entry(attrs.size(), modified, hash(file));
+
+    // Modified time has changed but the content hasn't
+    if (entry != null && entry.size == current.size && entry.hash.equals(current.hash)) {
+      record(key, current);
+      return null;
+    }
+
+    return current;
+  }
+
+  /** Record the state of the file, as returned by {@link #changed(Path)} */
+  void record(Path file, Entry state) throws IOException {
+    record(key(file), state);
+  }
+
+  /** Record the current state of the file, hashing it in the background */
+  void record(Path file) {
+    hasher.execute(
+        () -> {
+          try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            record(
+                key(file),
+                new Entry(attrs.size(), attrs.lastModifiedTime().toMillis(), hash(file)));
+          } catch (IOException e) {
+            log.warn("Unable to record {} in index", file, e);
+          }
+        });
+  }
+
+  @Override
+  public void close() throws IOException {
+    // Let files already waiting to be hashed be recorded
+    hasher.shutdown();
+    try {
+      if (!hasher.awaitTermination(1, TimeUnit.MINUTES))
+        log.warn("Timed out waiting for files to be recorded in index");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (this) {
+      writer.close();
+    }
+  }
+
+  private synchronized void record(String key, Entry entry) throws IOException {
+    entries.put(key, entry);
+    write(writer, key, entry);
+
+    if (++unflushed >= FLUSH_EVERY) {
+      writer.flush();
+      unflushed = 0;
+    }
+  }
+
+  private static void write(BufferedWriter w, String key, Entry entry) throws IOException {
+    w.write(entry.size + "\t" + entry.modified + "\t" + entry.hash + "\t" + escape(key));
+    w.newLine();
+  }
+
+  private static String key(Path file) {
+    return file.toAbsolutePath().normalize().toString();
+  }
+
+  static String escape(String s) {
+    StringBuilder sb = new StringBuilder(s.length());
+    for (char c : s.toCharArray()) {
+      switch (c) {
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        default:
+          sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  static String unescape(String s) {
+    StringBuilder sb = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c != '\\' || i == s.length() - 1) {
+        sb.append(c);
+        continue;
+      }
+
+      char next = s.charAt(++i);
+      switch (next) {
+        case 't':
+          sb.append('\t');
+          break;
+        case 'n':
+          sb.append('\n');
+          break;
+        case 'r':
+          sb.append('\r');
+          break;
+        default:
+          sb.append(next);
+      }
+    }
+    return sb.toString();
+  }
+
+  static String hash(Path file) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new Annot8RuntimeException("SHA-256 is not available", e);
+    }
+
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream is = Files.newInputStream(file)) {
+      int read;
+      while ((read = is.read(buffer)) != -1) digest.update(buffer, 0, read);
+    }
+
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest()) sb.append(String.format("%02x", b));
+    return sb.toString();
+  }
+
+  /** The recorded state of a file */
+  static class Entry {
+    private final long size;
+    private final long modified;
+    private final String hash;
+
+    private Entry(long size, long modified, String hash) {
+      this.size = size;
+      this.modified = modified;
+      this.hash = Objects.requireNonNull(hash);
+    }
+  }
+}
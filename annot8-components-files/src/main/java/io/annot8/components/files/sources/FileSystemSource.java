@@ -23,25 +23,23 @@ import io.annot8.conventions.PropertyKeys;
 import jakarta.json.bind.annotation.JsonbCreator;
 import java.io.IOException;
 import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 @ComponentName("File System Source")
 @ComponentDescription("Provides items from the local file system")
@@ -63,8 +61,15 @@ public class FileSystemSource
     private final WatchService watchService;
     private final Settings settings;
 
-    private final Set<Path> initialFiles = new HashSet<>();
-    private final Set<Path> queue = Collections.synchronizedSet(new HashSet<>());
+    private final DirectoryCrawler initialFiles;
+    private final FileIndex index;
+
+    // Files waiting for their delay to expire, and the same files for quick look up
+    private final DelayQueue<PendingFile> pending = new DelayQueue<>();
+    private final Set<Path> queue = new HashSet<>();
+
+    // State of crawled files, found by the crawler threads, to be recorded in the index
+    private final Map<Path, FileIndex.Entry> crawled = new ConcurrentHashMap<>();
 
     public Source(Settings settings) {
       this.settings = settings;
@@ -80,50 +85,48 @@ public class FileSystemSource
         watchService = null;
       }
 
-      // Register folders for watch service and add initial files
-      try {
-        Path p = settings.getRootFolder();
-
-        if (settings.isRecursive()) {
-          Files.walkFileTree(
-              p,
-              new SimpleFileVisitor<>() {
-                // Watch directory
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attr)
-                    throws IOException {
-                  registerDirectory(dir);
-                  return FileVisitResult.CONTINUE;
-                }
-
-                // Add file to list
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                  if (acceptFile(file, settings)) initialFiles.add(file);
+      Path root = settings.getRootFolder();
+      if (!Files.isDirectory(root))
+        throw new BadConfigurationException("Root folder " + root + " is not a folder");
 
-                  return FileVisitResult.CONTINUE;
-                }
-              });
-        } else {
-          // Watch directory
-          registerDirectory(p);
-
-          // Add files to list
-          try (Stream<Path> lines = Files.list(p)) {
-            lines
-                .filter(Files::isRegularFile)
-                .filter(file -> acceptFile(file, settings))
-                .forEach(initialFiles::add);
-          }
+      if (settings.getIndexFile() != null) {
+        try {
+          index = new FileIndex(settings.getIndexFile(), log());
+        } catch (IOException e) {
+          throw new BadConfigurationException("Unable to open index file", e);
         }
-
-      } catch (IOException ioe) {
-        throw new BadConfigurationException(
-            "Unable to register folder or sub-folder with watch service or list initial files",
-            ioe);
+        log().info("{} files previously processed", index.size());
+      } else {
+        index = null;
       }
 
-      log().info("{} files identified for initial processing", initialFiles.size());
+      // Register folders for watch service and find initial files in the background, so that
+      // items can be created before the crawl has finished
+      initialFiles =
+          new DirectoryCrawler(
+              root,
+              settings.isRecursive(),
+              settings.getCrawlThreads(),
+              settings.getMaxQueueSize(),
+              file -> acceptFile(file, settings) && isChanged(file),
+              this::registerDirectory,
+              log());
+    }
+
+    private boolean isChanged(Path file) {
+      if (index == null) return true;
+
+      try {
+        // Called on the crawler threads, so hash the file here rather than when it is recorded
+        FileIndex.Entry state = index.changed(file);
+        if (state == null) return false;
+
+        crawled.put(file, state);
+        return true;
+      } catch (IOException e) {
+        log().warn("Unable to check whether {} has changed", file, e);
+        return true;
+      }
     }
 
     private void registerDirectory(Path path) throws IOException {
@@ -154,64 +157,53 @@ public class FileSystemSource
 
     @Override
     public SourceResponse read(ItemFactory itemFactory) {
-      long read = 0;
-
-      // Process any initial files
-      if (!initialFiles.isEmpty()) {
-        read +=
-            initialFiles.stream()
-                .filter(queue::add)
-                .mapToLong(
-                    file -> {
-                      createItem(itemFactory, file, settings.getDelay());
-                      return 1L;
-                    })
-                .sum();
-
-        initialFiles.clear();
+      // Queue initial files for processing, as space allows
+      Path file;
+      while (pending.size() < settings.getMaxQueueSize() && (file = initialFiles.poll()) != null) {
+        if (queue.add(file)) schedule(file);
       }
 
-      // Not watching, so we don't need to check the watch keys and can return DONE at this point if
-      // queue is empty
-      if (watchService == null || !settings.isWatching()) {
-        return queue.isEmpty() ? SourceResponse.done() : SourceResponse.empty();
-      }
+      // Watching, so check the watch keys for more files. Events are left with the watch service
+      // if the queue is full.
+      if (watchService != null && settings.isWatching()) {
+        WatchKey key;
+        while (pending.size() < settings.getMaxQueueSize() && (key = watchService.poll()) != null) {
+          Path dir = (Path) key.watchable();
+          List<WatchEvent<?>> events = key.pollEvents();
 
-      // Watching, so check the watch keys for more files
-      WatchKey key;
-      while ((key = watchService.poll()) != null) {
-        Path dir = (Path) key.watchable();
-        List<WatchEvent<?>> events = key.pollEvents();
+          watchNewDirectories(dir, events);
 
-        watchNewDirectories(dir, events);
+          // Queue each file for processing
+          processEvents(dir, events);
 
-        // Process each event and create an Item from it
-        read = processEvents(itemFactory, read, dir, events);
+          key.reset();
+        }
+      }
+
+      long read = createItems(itemFactory);
 
-        key.reset();
+      // If we (successfully) read any files, then return OK
+      if (read > 0) return SourceResponse.ok();
+
+      // Not watching, so we can return DONE at this point if there is nothing left to process
+      if ((watchService == null || !settings.isWatching())
+          && queue.isEmpty()
+          && initialFiles.isFinished()) {
+        return SourceResponse.done();
       }
 
-      // If we (successfully) read any files, then return OK. Otherwise EMPTY
-      return read > 0 ? SourceResponse.ok() : SourceResponse.empty();
+      return SourceResponse.empty();
     }
 
     @SuppressWarnings("unchecked")
-    private long processEvents(
-        ItemFactory itemFactory, long read, Path dir, List<WatchEvent<?>> events) {
-      read +=
-          events.stream()
-              .map(event -> dir.resolve(((WatchEvent<Path>) event).context()))
-              .filter(Files::isRegularFile)
-              .filter(file -> acceptFile(file, settings))
-              .filter(queue::add) // Check that we're not already about to process this, as we may
-              // receive multiple events for the same file
-              .mapToLong(
-                  file -> {
-                    createItem(itemFactory, file, settings.getDelay());
-                    return 1L;
-                  })
-              .sum();
-      return read;
+    private void processEvents(Path dir, List<WatchEvent<?>> events) {
+      events.stream()
+          .map(event -> dir.resolve(((WatchEvent<Path>) event).context()))
+          .filter(Files::isRegularFile)
+          .filter(file -> acceptFile(file, settings))
+          .filter(queue::add) // Check that we're not already about to process this, as we may
+          // receive multiple events for the same file
+          .forEach(this::schedule);
     }
 
     @SuppressWarnings("unchecked")
@@ -230,22 +222,70 @@ public class FileSystemSource
               });
     }
 
-    private void createItem(ItemFactory itemFactory, Path path, long delay) {
-      log().debug("Scheduling item creation for {} after delay of {} milliseconds", path, delay);
+    private void schedule(Path path) {
+      log()
+          .debug(
+              "Scheduling item creation for {} after delay of {} milliseconds",
+              path,
+              settings.getDelay());
 
-      // Create an item, after a delay as required
+      pending.add(new PendingFile(path, System.nanoTime() + settings.getDelay() * 1_000_000L));
+    }
 
-      new Timer()
-          .schedule(
-              new TimerTask() {
-                @Override
-                public void run() {
-                  log().debug("Creating item from {}", path);
-                  itemFactory.create(i -> createFileContent(i, path));
-                  queue.remove(path);
-                }
-              },
-              delay);
+    private long createItems(ItemFactory itemFactory) {
+      long read = 0;
+
+      // Create items for files whose delay has expired
+      PendingFile pendingFile;
+      while (read < settings.getMaxItemsPerRead() && (pendingFile = pending.poll()) != null) {
+        Path path = pendingFile.path;
+        FileIndex.Entry state = crawled.remove(path);
+        log().debug("Creating item from {}", path);
+
+        try {
+          itemFactory.create(i -> createFileContent(i, path));
+          read++;
+
+          if (index != null) {
+            if (state != null) {
+              index.record(path, state);
+            } else {
+              index.record(path);
+            }
+          }
+        } catch (IOException e) {
+          log().warn("Unable to record {} in index", path, e);
+        } catch (RuntimeException e) {
+          log().error("Unable to create item from {}", path, e);
+        } finally {
+          queue.remove(path);
+        }
+      }
+
+      return read;
+    }
+
+    @Override
+    public void close() {
+      initialFiles.close();
+
+      if (index != null) {
+        try {
+          index.close();
+        } catch (IOException e) {
+          log().warn("Unable to close index", e);
+        }
+      }
+
+      if (watchService != null) {
+        try {
+          watchService.close();
+        } catch (IOException e) {
+          log().warn("Unable to close WatchService", e);
+        }
+      }
+
+      super.close();
     }
 
     private void createFileContent(Item item, Path path) {
@@ -258,6 +298,27 @@ public class FileSystemSource
           .withData(path.toFile())
           .save();
     }
+
+    /** A file waiting to be processed, which becomes available once its delay has expired */
+    private static class PendingFile implements Delayed {
+      private final Path path;
+      private final long dueNanos;
+
+      private PendingFile(Path path, long dueNanos) {
+        this.path = path;
+        this.dueNanos = dueNanos;
+      }
+
+      @Override
+      public long getDelay(TimeUnit unit) {
+        return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+      }
+
+      @Override
+      public int compareTo(Delayed o) {
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+      }
+    }
   }
 
   public static class Settings implements io.annot8.api.settings.Settings {
@@ -268,6 +329,10 @@ public class FileSystemSource
     private Set<Pattern> acceptedFileNamePatterns = new HashSet<>();
     private boolean negateAcceptedFileNamePatterns = false;
     private long delay = 0L;
+    private int maxItemsPerRead = 100;
+    private int maxQueueSize = 10000;
+    private int crawlThreads = 4;
+    private Path indexFile = null;
 
     @JsonbCreator
     public Settings() {
@@ -349,9 +414,58 @@ public class FileSystemSource
       this.delay = delay;
     }
 
+    @Description(
+        value = "The maximum number of items to create each time the source is read",
+        defaultValue = "100")
+    public int getMaxItemsPerRead() {
+      return maxItemsPerRead;
+    }
+
+    public void setMaxItemsPerRead(int maxItemsPerRead) {
+      this.maxItemsPerRead = maxItemsPerRead;
+    }
+
+    @Description(
+        value =
+            "The maximum number of files waiting to be processed, after which no more files are queued until there is space",
+        defaultValue = "10000")
+    public int getMaxQueueSize() {
+      return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+      this.maxQueueSize = maxQueueSize;
+    }
+
+    @Description(
+        value = "The number of threads to use to crawl the root folder for initial files",
+        defaultValue = "4")
+    public int getCrawlThreads() {
+      return crawlThreads;
+    }
+
+    public void setCrawlThreads(int crawlThreads) {
+      this.crawlThreads = crawlThreads;
+    }
+
+    @Description(
+        "File in which to record the files that have been processed, so that unchanged files are skipped when restarted. If not set, all files are processed on start up")
+    public Path getIndexFile() {
+      return indexFile;
+    }
+
+    public void setIndexFile(Path indexFile) {
+      this.indexFile = indexFile;
+    }
+
     @Override
     public boolean validate() {
-      return rootFolder != null && acceptedFileNamePatterns != null && delay >= 0;
+      return rootFolder != null
+          && crawlThreads > 0
+          && acceptedFileNamePatterns != null
+          && delay >= 0
+          && maxItemsPerRead > 0
+          && maxQueueSize > 0;
     }
   }
 }
@@ -3,13 +3,153 @@ package io.annot8.components.files.sources;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import io.annot8.api.components.responses.SourceResponse;
+import io.annot8.conventions.PropertyKeys;
+import io.annot8.testing.testimpl.TestItemFactory;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class FileSystemSourceTest {
 
+  @Test
+  public void testBatchedRead(@TempDir Path root) throws Exception {
+    createFiles(root, 250);
+    Files.createDirectories(root.resolve("a/b"));
+    createFiles(root.resolve("a"), 20);
+    createFiles(root.resolve("a/b"), 30);
+
+    FileSystemSource.Settings s = new FileSystemSource.Settings(root);
+    s.setWatching(false);
+    s.setMaxItemsPerRead(100);
+    s.setMaxQueueSize(150);
+
+    int threads = Thread.activeCount();
+
+    try (FileSystemSource.Source source = new FileSystemSource.Source(s)) {
+      TestItemFactory tif = new TestItemFactory();
+
+      List<Integer> reads = readAll(source, tif);
+      assertEquals(300, tif.getCreatedItems().size());
+      assertTrue(reads.stream().allMatch(r -> r <= 100));
+
+      // Items are created on the calling thread, rather than a thread per file
+      assertTrue(Thread.activeCount() <= threads + s.getCrawlThreads());
+    }
+  }
+
+  @Test
+  public void testNotRecursive(@TempDir Path root) throws Exception {
+    createFiles(root, 5);
+    Files.createDirectories(root.resolve("a"));
+    createFiles(root.resolve("a"), 5);
+
+    FileSystemSource.Settings s = new FileSystemSource.Settings(root);
+    s.setWatching(false);
+    s.setRecursive(false);
+
+    try (FileSystemSource.Source source = new FileSystemSource.Source(s)) {
+      TestItemFactory tif = new TestItemFactory();
+
+      readAll(source, tif);
+      assertEquals(5, tif.getCreatedItems().size());
+    }
+  }
+
+  @Test
+  public void testDelay(@TempDir Path root) throws Exception {
+    createFiles(root, 3);
+
+    FileSystemSource.Settings s = new FileSystemSource.Settings(root);
+    s.setWatching(false);
+    s.setDelay(200);
+
+    try (FileSystemSource.Source source = new FileSystemSource.Source(s)) {
+      TestItemFactory tif = new TestItemFactory();
+
+      assertEquals(SourceResponse.Status.EMPTY, source.read(tif).getStatus());
+      assertEquals(0, tif.getCreatedItems().size());
+
+      long start = System.currentTimeMillis();
+      readAll(source, tif);
+      assertEquals(3, tif.getCreatedItems().size());
+      assertTrue(System.currentTimeMillis() - start >= 150);
+    }
+  }
+
+  @Test
+  public void testIndex(@TempDir Path root, @TempDir Path indexFolder) throws Exception {
+    createFiles(root, 10);
+
+    FileSystemSource.Settings s = new FileSystemSource.Settings(root);
+    s.setWatching(false);
+    s.setIndexFile(indexFolder.resolve("index.tsv"));
+
+    try (FileSystemSource.Source source = new FileSystemSource.Source(s)) {
+      TestItemFactory tif = new TestItemFactory();
+      readAll(source, tif);
+      assertEquals(10, tif.getCreatedItems().size());
+    }
+
+    // Change one file, touch another without changing it, and add a new one
+    Files.writeString(root.resolve("file0.txt"), "Changed content");
+    Files.setLastModifiedTime(
+        root.resolve("file1.txt"), FileTime.fromMillis(System.currentTimeMillis() + 60000));
+    Files.writeString(root.resolve("new.txt"), "New file");
+
+    try (FileSystemSource.Source source = new FileSystemSource.Source(s)) {
+      TestItemFactory tif = new TestItemFactory();
+      readAll(source, tif);
+
+      Set<Object> sources =
+          tif.getCreatedItems().stream()
+              .map(i -> i.getProperties().get(PropertyKeys.PROPERTY_KEY_SOURCE).orElseThrow())
+              .collect(Collectors.toSet());
+      assertEquals(Set.of(root.resolve("file0.txt"), root.resolve("new.txt")), sources);
+    }
+
+    // Nothing has changed since the last run
+    try (FileSystemSource.Source source = new FileSystemSource.Source(s)) {
+      TestItemFactory tif = new TestItemFactory();
+      readAll(source, tif);
+      assertEquals(0, tif.getCreatedItems().size());
+    }
+  }
+
+  @Test
+  public void testIndexUnusualPaths(@TempDir Path root, @TempDir Path indexFolder)
+      throws Exception {
+    Files.writeString(root.resolve("tab\tname.txt"), "Tab");
+    Files.writeString(root.resolve("line\nbreak.txt"), "Line break");
+    Files.writeString(root.resolve("back\\slash.txt"), "Backslash");
+
+    FileSystemSource.Settings s = new FileSystemSource.Settings(root);
+    s.setWatching(false);
+    s.setIndexFile(indexFolder.resolve("index.tsv"));
+
+    try (FileSystemSource.Source source = new FileSystemSource.Source(s)) {
+      TestItemFactory tif = new TestItemFactory();
+      readAll(source, tif);
+      assertEquals(3, tif.getCreatedItems().size());
+    }
+
+    try (FileSystemSource.Source source = new FileSystemSource.Source(s)) {
+      TestItemFactory tif = new TestItemFactory();
+      readAll(source, tif);
+      assertEquals(0, tif.getCreatedItems().size());
+    }
+
+    assertEquals("a\tb\nc\\d", FileIndex.unescape(FileIndex.escape("a\tb\nc\\d")));
+  }
+
   @Test
   public void testAcceptFile() {
     FileSystemSource.Settings s = new FileSystemSource.Settings();
@@ -61,5 +201,49 @@ public class FileSystemSourceTest {
     Set<Pattern> patterns = Set.of(Pattern.compile(".*\\.jpg"));
     s.setAcceptedFileNamePatterns(patterns);
     assertEquals(patterns, s.getAcceptedFileNamePatterns());
+
+    s.setMaxItemsPerRead(10);
+    assertEquals(10, s.getMaxItemsPerRead());
+    s.setMaxQueueSize(20);
+    assertEquals(20, s.getMaxQueueSize());
+    assertTrue(s.validate());
+
+    s.setMaxQueueSize(0);
+    assertFalse(s.validate());
+    s.setMaxQueueSize(20);
+
+    s.setCrawlThreads(0);
+    assertFalse(s.validate());
+    s.setCrawlThreads(2);
+    assertEquals(2, s.getCrawlThreads());
+    assertTrue(s.validate());
+
+    s.setIndexFile(Path.of("index.tsv"));
+    assertEquals(Path.of("index.tsv"), s.getIndexFile());
+  }
+
+  /** Read until the source is done, returning the number of items created by each read */
+  private static List<Integer> readAll(FileSystemSource.Source source, TestItemFactory tif)
+      throws InterruptedException {
+    List<Integer> reads = new ArrayList<>();
+    long deadline = System.currentTimeMillis() + 10000;
+
+    SourceResponse.Status status;
+    do {
+      int before = tif.getCreatedItems().size();
+      status = source.read(tif).getStatus();
+      reads.add(tif.getCreatedItems().size() - before);
+
+      if (status == SourceResponse.Status.EMPTY) Thread.sleep(10);
+    } while (status != SourceResponse.Status.DONE && System.currentTimeMillis() < deadline);
+
+    assertEquals(SourceResponse.Status.DONE, status);
+    return reads;
+  }
+
+  private static void createFiles(Path root, int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      Files.writeString(root.resolve("file" + i + ".txt"), "File " + i);
+    }
   }
 }
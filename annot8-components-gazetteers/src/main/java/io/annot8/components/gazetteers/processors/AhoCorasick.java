@@ -4,17 +4,24 @@ package io.annot8.components.gazetteers.processors;
 import io.annot8.api.annotations.Annotation;
 import io.annot8.api.annotations.Group;
 import io.annot8.api.capabilities.Capabilities;
+import io.annot8.api.exceptions.BadConfigurationException;
 import io.annot8.api.settings.Description;
 import io.annot8.common.components.AbstractProcessorDescriptor;
 import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractTextProcessor;
+import io.annot8.components.gazetteers.processors.impl.CompiledGazetteer;
+import io.annot8.components.gazetteers.processors.impl.CompiledGazetteerWriter;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.GroupTypes;
 import io.annot8.conventions.PropertyKeys;
 import io.annot8.utils.text.PluralUtils;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.ahocorasick.trie.Emit;
 import org.ahocorasick.trie.Trie;
@@ -32,16 +39,70 @@ public abstract class AhoCorasick<S extends AhoCorasick.Settings>
   }
 
   public static class Processor extends AbstractTextProcessor {
-    private final Trie trie;
+    private final Function<CharSequence, Collection<Emit>> matcher;
 
     private final Gazetteer gazetteer;
     private final Settings settings;
 
+    private TrieCache.Entry cacheEntry = null;
+
     public Processor(Gazetteer gazetteer, Settings settings) {
       this.gazetteer = gazetteer;
       this.settings = settings;
 
-      trie = buildTrie(gazetteer, settings);
+      matcher = buildTrie(gazetteer, settings)::parseText;
+    }
+
+    /**
+     * Create a processor which shares its gazetteer and trie, via the {@link TrieCache}, with any
+     * other processor of the same class created from the same source with the same case sensitivity
+     * and plural settings. The gazetteer is only loaded if it isn't already cached, and the shared
+     * copy is released when the processor is closed.
+     *
+     * @param source a unique identifier for the gazetteer source, including any settings that
+     *     affect the contents of the gazetteer
+     * @param gazetteerLoader supplier of the gazetteer
+     * @param settings the processor settings
+     */
+    public Processor(String source, Supplier<Gazetteer> gazetteerLoader, Settings settings) {
+      this.settings = settings;
+
+      cacheEntry =
+          TrieCache.acquire(
+              getClass(),
+              source,
+              settings.isCaseSensitive(),
+              settings.isPlurals(),
+              gazetteerLoader,
+              g -> buildTrie(g, settings));
+
+      gazetteer = cacheEntry.getGazetteer();
+      matcher = cacheEntry.getTrie()::parseText;
+    }
+
+    /**
+     * Create a processor from a gazetteer file written by {@link CompiledGazetteerWriter}. The file
+     * is memory mapped rather than loaded into memory, so the processor is created almost instantly
+     * and the file is shared between processors through the operating system's page cache.
+     *
+     * <p>Case sensitivity and plurals are fixed when the gazetteer is compiled, and so the values
+     * in the settings are ignored.
+     *
+     * @param compiledGazetteer the compiled gazetteer file
+     * @param settings the processor settings
+     */
+    public Processor(Path compiledGazetteer, Settings settings) {
+      this.settings = settings;
+
+      CompiledGazetteer compiled;
+      try {
+        compiled = CompiledGazetteer.open(compiledGazetteer);
+      } catch (IOException e) {
+        throw new BadConfigurationException("Could not read compiled gazetteer", e);
+      }
+
+      gazetteer = compiled;
+      matcher = compiled::parseText;
     }
 
     protected Trie buildTrie(Gazetteer gazetteer, Settings settings) {
@@ -67,13 +128,13 @@ public abstract class AhoCorasick<S extends AhoCorasick.Settings>
           settings.isExactWhitespace()
               ? noopString(content.getData())
               : normaliseString(content.getData());
-      Collection<Emit> emits = trie.parseText(norm.getTransformedString());
+      Collection<Emit> emits = matcher.apply(norm.getTransformedString());
 
       Map<String, List<Annotation>> aliasGroups = new HashMap<>();
 
       for (Emit emit : emits) {
-        Integer start = norm.getMapping().get(emit.getStart());
-        Integer end = norm.getMapping().get(emit.getEnd() + 1);
+        int start = norm.getOriginalOffset(emit.getStart());
+        int end = norm.getOriginalOffset(emit.getEnd() + 1);
 
         Annotation.Builder builder =
             content
@@ -110,16 +171,22 @@ public abstract class AhoCorasick<S extends AhoCorasick.Settings>
       }
     }
 
+    @Override
+    public synchronized void close() {
+      if (cacheEntry != null) {
+        TrieCache.release(cacheEntry);
+        cacheEntry = null;
+      }
+
+      super.close();
+    }
+
     private String generateKey(Collection<String> aliases) {
       return aliases.stream().map(String::toLowerCase).sorted().collect(Collectors.joining("|"));
     }
 
     protected static TransformedString noopString(String s) {
-      Map<Integer, Integer> indexMap = new HashMap<>();
-
-      for (int i = 0; i < s.length(); i++) indexMap.put(i, i);
-
-      return new TransformedString(s, s, indexMap);
+      return TransformedString.identity(s);
     }
 
     /**
@@ -130,34 +197,55 @@ public abstract class AhoCorasick<S extends AhoCorasick.Settings>
      * @return A TransformedString mapping between the original and normalised text
      */
     protected static TransformedString normaliseString(String s) {
-      String remaining = s;
-      StringBuilder builder = new StringBuilder();
-
-      String previousChar = "";
-      Map<Integer, Integer> indexMap = new HashMap<>();
+      StringBuilder builder = new StringBuilder(s.length());
+      TransformedString.OffsetsBuilder offsets = new TransformedString.OffsetsBuilder();
 
-      Integer index = 0;
+      boolean changed = false;
+      boolean previousWhitespace = false;
+      int shift = 0;
 
-      while (!remaining.isEmpty()) {
-        indexMap.put(builder.length(), index);
-        index++;
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        boolean whitespace = isHorizontalWhitespace(c);
 
-        String character = remaining.substring(0, 1);
-        remaining = remaining.substring(1);
-
-        if (!(character.matches("\\h") && previousChar.matches("\\h"))) {
-          if (character.matches("\\h")) {
-            character = " ";
-          }
+        if (whitespace && previousWhitespace) {
+          shift++;
+          changed = true;
+          continue;
+        }
 
-          builder.append(character);
+        offsets.shift(builder.length(), shift);
+        if (whitespace && c != ' ') {
+          builder.append(' ');
+          changed = true;
+        } else {
+          builder.append(c);
         }
 
-        previousChar = character;
+        previousWhitespace = whitespace;
       }
-      indexMap.put(builder.length(), index);
 
-      return new TransformedString(s, builder.toString(), indexMap);
+      if (!changed) return TransformedString.identity(s);
+
+      offsets.shift(builder.length(), shift);
+      return offsets.build(s, builder.toString());
+    }
+
+    /** Equivalent to matching the character against the regular expression {@code \h} */
+    private static boolean isHorizontalWhitespace(char c) {
+      switch (c) {
+        case ' ':
+        case '\t':
+        case '\u00A0':
+        case '\u1680':
+        case '\u180E':
+        case '\u202F':
+        case '\u205F':
+        case '\u3000':
+          return true;
+        default:
+          return c >= '\u2000' && c <= '\u200A';
+      }
     }
   }
 
@@ -233,18 +321,37 @@ public abstract class AhoCorasick<S extends AhoCorasick.Settings>
   /**
    * A simple class to hold two strings and the mapping between them. Used for when a string has
    * been transformed by some function.
+   *
+   * <p>The mapping is stored as a run-length table of the offsets in the transformed string at
+   * which the difference between transformed and original offsets changes, so memory use is
+   * proportional to the number of changes rather than to the length of the string.
    */
   protected static class TransformedString {
     private final String original;
     private final String transformed;
-    private final Map<Integer, Integer> map;
+    private final int[] positions;
+    private final int[] shifts;
 
-    /** Create a new TransformedString */
+    /**
+     * Create a new TransformedString
+     *
+     * @param originalString the original string
+     * @param transformedString the transformed string
+     * @param positions the transformed offsets at which the shift changes, in ascending order
+     * @param shifts the amount to add to any transformed offset at or beyond the corresponding
+     *     position to get the original offset
+     */
     public TransformedString(
-        String originalString, String transformedString, Map<Integer, Integer> mapping) {
+        String originalString, String transformedString, int[] positions, int[] shifts) {
       original = originalString;
       transformed = transformedString;
-      map = mapping;
+      this.positions = positions;
+      this.shifts = shifts;
+    }
+
+    /** Create a TransformedString where the transformed string is identical to the original */
+    public static TransformedString identity(String s) {
+      return new TransformedString(s, s, new int[0], new int[0]);
     }
 
     /** Get the original string */
@@ -257,9 +364,42 @@ public abstract class AhoCorasick<S extends AhoCorasick.Settings>
       return transformed;
     }
 
-    /** Get the mapping from the transformed string back to the original string */
-    public Map<Integer, Integer> getMapping() {
-      return map;
+    /** Map an offset in the transformed string back to the corresponding original offset */
+    public int getOriginalOffset(int transformedOffset) {
+      int idx = Arrays.binarySearch(positions, transformedOffset);
+      if (idx < 0) idx = -idx - 2;
+
+      return idx < 0 ? transformedOffset : transformedOffset + shifts[idx];
+    }
+
+    /** Accumulates the run-length offset table for a {@link TransformedString} */
+    protected static class OffsetsBuilder {
+      private int[] positions = new int[16];
+      private int[] shifts = new int[16];
+      private int size = 0;
+
+      /**
+       * Record that the shift at the given transformed offset (and beyond) is {@code shift}. Calls
+       * must be made in ascending order of offset, and unchanged shifts are ignored.
+       */
+      public void shift(int transformedOffset, int shift) {
+        int current = size == 0 ? 0 : shifts[size - 1];
+        if (shift == current) return;
+
+        if (size == positions.length) {
+          positions = Arrays.copyOf(positions, size * 2);
+          shifts = Arrays.copyOf(shifts, size * 2);
+        }
+
+        positions[size] = transformedOffset;
+        shifts[size] = shift;
+        size++;
+      }
+
+      public TransformedString build(String original, String transformed) {
+        return new TransformedString(
+            original, transformed, Arrays.copyOf(positions, size), Arrays.copyOf(shifts, size));
+      }
     }
   }
 }
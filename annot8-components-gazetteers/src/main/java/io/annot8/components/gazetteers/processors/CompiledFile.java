@@ -0,0 +1,61 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.gazetteers.processors;
+
+import io.annot8.api.components.annotations.ComponentDescription;
+import io.annot8.api.components.annotations.ComponentName;
+import io.annot8.api.components.annotations.ComponentTags;
+import io.annot8.api.components.annotations.SettingsClass;
+import io.annot8.api.context.Context;
+import io.annot8.api.settings.Description;
+import java.nio.file.Path;
+
+@ComponentName("Compiled Gazetteer")
+@ComponentDescription(
+    "Annotate terms within Text using a gazetteer file previously compiled by CompiledGazetteerWriter")
+@ComponentTags({"gazetteer", "file"})
+@SettingsClass(CompiledFile.Settings.class)
+public class CompiledFile extends AhoCorasick<CompiledFile.Settings> {
+
+  @Override
+  protected Processor createComponent(Context context, Settings settings) {
+    return new Processor(settings.getPath(), settings);
+  }
+
+  /**
+   * Settings for {@link CompiledFile}.
+   *
+   * <p>Case sensitivity and plurals are fixed when the gazetteer is compiled, so must be chosen
+   * when running {@link io.annot8.components.gazetteers.processors.impl.CompiledGazetteerWriter}.
+   * As setting them here would have no effect, {@link #validate()} rejects any values other than
+   * the defaults.
+   */
+  public static class Settings extends AhoCorasick.Settings {
+    private Path path;
+
+    @Description("The compiled gazetteer file")
+    public Path getPath() {
+      return path;
+    }
+
+    public void setPath(Path path) {
+      this.path = path;
+    }
+
+    @Override
+    @Description("Not supported, as case sensitivity is fixed when the gazetteer is compiled")
+    public boolean isCaseSensitive() {
+      return super.isCaseSensitive();
+    }
+
+    @Override
+    @Description("Not supported, as plurals are fixed when the gazetteer is compiled")
+    public boolean isPlurals() {
+      return super.isPlurals();
+    }
+
+    @Override
+    public boolean validate() {
+      return super.validate() && path != null && !isCaseSensitive() && isPlurals();
+    }
+  }
+}
@@ -26,6 +26,13 @@ public class CsvFile extends AhoCorasick<CsvFile.Settings> {
 
   @Override
   protected Processor createComponent(Context context, Settings settings) {
+    return new Processor(
+        "csv:" + settings.getPath().toAbsolutePath() + ":" + settings.getValueColumns(),
+        () -> loadGazetteer(settings),
+        settings);
+  }
+
+  private static MapGazetteer loadGazetteer(Settings settings) {
     Map<Set<String>, Map<String, Object>> termsAndData = new HashMap<>();
     try {
       NamedCsvReader reader = NamedCsvReader.builder().build(settings.getPath());
@@ -49,7 +56,7 @@ public class CsvFile extends AhoCorasick<CsvFile.Settings> {
       throw new Annot8RuntimeException("Could not read CSV", e);
     }
 
-    return new Processor(new MapGazetteer(termsAndData), settings);
+    return new MapGazetteer(termsAndData);
   }
 
   public static class Settings extends AhoCorasick.Settings {
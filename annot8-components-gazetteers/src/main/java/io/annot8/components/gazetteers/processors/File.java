@@ -18,7 +18,10 @@ public class File extends AhoCorasick<File.Settings> {
 
   @Override
   protected Processor createComponent(Context context, Settings settings) {
-    return new Processor(new FileGazetteer(settings.getPath(), settings.getSeparator()), settings);
+    return new Processor(
+        "file:" + settings.getPath().toAbsolutePath() + ":" + settings.getSeparator(),
+        () -> new FileGazetteer(settings.getPath(), settings.getSeparator()),
+        settings);
   }
 
   public static class Settings extends AhoCorasick.Settings {
@@ -20,7 +20,10 @@ public class Terms extends AhoCorasick<Terms.Settings> {
 
   @Override
   protected Processor createComponent(Context context, Settings settings) {
-    return new Processor(new CollectionGazetteer(settings.getTerms()), settings);
+    return new Processor(
+        "terms:" + String.join("\n", settings.getTerms()),
+        () -> new CollectionGazetteer(settings.getTerms()),
+        settings);
   }
 
   public static class Settings extends AhoCorasick.Settings {
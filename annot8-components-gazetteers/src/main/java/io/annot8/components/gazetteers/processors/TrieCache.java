@@ -0,0 +1,149 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.gazetteers.processors;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.ahocorasick.trie.Trie;
+
+/**
+ * Process-wide cache of gazetteers and their compiled {@link Trie}, so that processors configured
+ * with the same gazetteer source and matching settings share a single copy rather than each loading
+ * and building their own. Entries are also keyed by the class that builds the trie, as a processor
+ * which builds its trie differently mustn't be given a trie built by another class.
+ *
+ * <p>Entries are reference counted. Each call to {@link #acquire(Class, String, boolean, boolean,
+ * Supplier, Function)} must be matched by a call to {@link #release(Entry)}, and the entry is
+ * removed from the cache once it is no longer referenced.
+ */
+public final class TrieCache {
+
+  private static final Map<Key, Entry> CACHE = new HashMap<>();
+
+  private TrieCache() {
+    // Static utility class
+  }
+
+  /**
+   * Get the cached entry for the given source and settings, loading it if it isn't already cached.
+   *
+   * <p>The gazetteer is loaded at most once per entry, and other entries can be acquired while it
+   * is loading.
+   *
+   * @param builder the class building the trie, usually the processor class
+   * @param source a unique identifier for the gazetteer source, including any settings that affect
+   *     the contents of the gazetteer
+   * @param caseSensitive whether the trie is case sensitive
+   * @param plurals whether the trie includes plurals
+   * @param gazetteerLoader supplier of the gazetteer, only called if there is no existing entry
+   * @param trieBuilder function to build the trie from the gazetteer
+   * @return the cached entry
+   */
+  public static Entry acquire(
+      Class<?> builder,
+      String source,
+      boolean caseSensitive,
+      boolean plurals,
+      Supplier<Gazetteer> gazetteerLoader,
+      Function<Gazetteer, Trie> trieBuilder) {
+    Key key = new Key(builder, source, caseSensitive, plurals);
+
+    Entry entry;
+    synchronized (CACHE) {
+      entry = CACHE.computeIfAbsent(key, Entry::new);
+      entry.references++;
+    }
+
+    try {
+      entry.load(gazetteerLoader, trieBuilder);
+    } catch (RuntimeException e) {
+      release(entry);
+      throw e;
+    }
+
+    return entry;
+  }
+
+  /**
+   * Release a previously acquired entry, removing it from the cache if it is no longer referenced
+   *
+   * @param entry the entry to release
+   */
+  public static void release(Entry entry) {
+    synchronized (CACHE) {
+      entry.references--;
+      if (entry.references <= 0) {
+        CACHE.remove(entry.key, entry);
+      }
+    }
+  }
+
+  /** The number of entries currently held in the cache */
+  public static int size() {
+    synchronized (CACHE) {
+      return CACHE.size();
+    }
+  }
+
+  /** A cached gazetteer and its compiled trie */
+  public static final class Entry {
+    private final Key key;
+    private int references = 0;
+
+    private Gazetteer gazetteer;
+    private Trie trie;
+
+    private Entry(Key key) {
+      this.key = key;
+    }
+
+    private synchronized void load(
+        Supplier<Gazetteer> gazetteerLoader, Function<Gazetteer, Trie> trieBuilder) {
+      if (gazetteer != null) return;
+
+      Gazetteer g = gazetteerLoader.get();
+      trie = trieBuilder.apply(g);
+      gazetteer = g;
+    }
+
+    public synchronized Gazetteer getGazetteer() {
+      return gazetteer;
+    }
+
+    public synchronized Trie getTrie() {
+      return trie;
+    }
+  }
+
+  private static final class Key {
+    private final Class<?> builder;
+    private final String source;
+    private final boolean caseSensitive;
+    private final boolean plurals;
+
+    private Key(Class<?> builder, String source, boolean caseSensitive, boolean plurals) {
+      this.builder = builder;
+      this.source = source;
+      this.caseSensitive = caseSensitive;
+      this.plurals = plurals;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return caseSensitive == key.caseSensitive
+          && plurals == key.plurals
+          && builder.equals(key.builder)
+          && source.equals(key.source);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(builder, source, caseSensitive, plurals);
+    }
+  }
+}
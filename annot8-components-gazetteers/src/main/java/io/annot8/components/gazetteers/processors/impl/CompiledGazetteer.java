@@ -0,0 +1,391 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.gazetteers.processors.impl;
+
+import io.annot8.api.exceptions.Annot8RuntimeException;
+import io.annot8.api.exceptions.BadConfigurationException;
+import io.annot8.components.gazetteers.processors.Gazetteer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.ahocorasick.trie.Emit;
+
+/**
+ * A {@link Gazetteer} backed by a file written by {@link CompiledGazetteerWriter}, which also acts
+ * as the automaton for matching the gazetteer against text.
+ *
+ * <p>The file is memory mapped rather than read into the heap, so opening it is near instant and
+ * the pages are shared, through the operating system's page cache, between all processes and
+ * processors using the same file. Matching follows the same rules as a {@link
+ * org.ahocorasick.trie.Trie} built with {@code onlyWholeWords()}, and {@code ignoreCase()} if the
+ * gazetteer was compiled case-insensitively.
+ */
+public class CompiledGazetteer implements Gazetteer {
+
+  static final int MAGIC = 0x41384754;
+  static final int VERSION = 3;
+  static final int FLAG_CASE_SENSITIVE = 1;
+
+  static final int SECTION_EDGE_OFFSETS = 0;
+  static final int SECTION_EDGE_CHARS = 1;
+  static final int SECTION_EDGE_TARGETS = 2;
+  static final int SECTION_FAILURES = 3;
+  static final int SECTION_OUTPUT_LINKS = 4;
+  static final int SECTION_NODE_KEYWORD_OFFSETS = 5;
+  static final int SECTION_NODE_KEYWORDS = 6;
+  static final int SECTION_KEYWORD_STRINGS = 7;
+  static final int SECTION_KEYWORD_ENTRIES = 8;
+  static final int SECTION_ENTRY_ALIAS_OFFSETS = 9;
+  static final int SECTION_ENTRY_ALIASES = 10;
+  static final int SECTION_ENTRY_DATA_OFFSETS = 11;
+  static final int SECTION_ENTRY_DATA = 12;
+  static final int SECTION_STRING_OFFSETS = 13;
+  static final int SECTION_STRING_CHARS = 14;
+  static final int SECTION_COUNT = 15;
+
+  static final int FINGERPRINT_SIZE = 32;
+
+  static final int HEADER_SIZE =
+      4 * Integer.BYTES + FINGERPRINT_SIZE + SECTION_COUNT * 2 * Long.BYTES;
+
+  static final byte TYPE_NULL = 0;
+  static final byte TYPE_STRING = 1;
+  static final byte TYPE_BOOLEAN = 2;
+  static final byte TYPE_INTEGER = 3;
+  static final byte TYPE_LONG = 4;
+  static final byte TYPE_FLOAT = 5;
+  static final byte TYPE_DOUBLE = 6;
+  static final byte TYPE_LIST = 7;
+  static final byte TYPE_MAP = 8;
+  static final byte TYPE_LOCAL_DATE = 9;
+  static final byte TYPE_INSTANT = 10;
+
+  private final boolean caseSensitive;
+
+  private final IntBuffer edgeOffsets;
+  private final CharBuffer edgeChars;
+  private final IntBuffer edgeTargets;
+  private final IntBuffer failures;
+  private final IntBuffer outputLinks;
+  private final IntBuffer nodeKeywordOffsets;
+  private final IntBuffer nodeKeywords;
+  private final IntBuffer keywordStrings;
+  private final IntBuffer keywordEntries;
+  private final IntBuffer entryAliasOffsets;
+  private final IntBuffer entryAliases;
+  private final IntBuffer entryDataOffsets;
+  private final ByteBuffer entryData;
+  private final IntBuffer stringOffsets;
+  private final CharBuffer stringChars;
+
+  private CompiledGazetteer(boolean caseSensitive, ByteBuffer[] sections) {
+    this.caseSensitive = caseSensitive;
+
+    edgeOffsets = sections[SECTION_EDGE_OFFSETS].asIntBuffer();
+    edgeChars = sections[SECTION_EDGE_CHARS].asCharBuffer();
+    edgeTargets = sections[SECTION_EDGE_TARGETS].asIntBuffer();
+    failures = sections[SECTION_FAILURES].asIntBuffer();
+    outputLinks = sections[SECTION_OUTPUT_LINKS].asIntBuffer();
+    nodeKeywordOffsets = sections[SECTION_NODE_KEYWORD_OFFSETS].asIntBuffer();
+    nodeKeywords = sections[SECTION_NODE_KEYWORDS].asIntBuffer();
+    keywordStrings = sections[SECTION_KEYWORD_STRINGS].asIntBuffer();
+    keywordEntries = sections[SECTION_KEYWORD_ENTRIES].asIntBuffer();
+    entryAliasOffsets = sections[SECTION_ENTRY_ALIAS_OFFSETS].asIntBuffer();
+    entryAliases = sections[SECTION_ENTRY_ALIASES].asIntBuffer();
+    entryDataOffsets = sections[SECTION_ENTRY_DATA_OFFSETS].asIntBuffer();
+    entryData = sections[SECTION_ENTRY_DATA];
+    stringOffsets = sections[SECTION_STRING_OFFSETS].asIntBuffer();
+    stringChars = sections[SECTION_STRING_CHARS].asCharBuffer();
+  }
+
+  /**
+   * Open a compiled gazetteer by memory mapping the file
+   *
+   * @param path the file written by {@link CompiledGazetteerWriter}
+   * @return the compiled gazetteer
+   * @throws IOException if the file can't be read
+   */
+  public static CompiledGazetteer open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = readHeader(channel);
+
+      int flags = header.getInt();
+      if (header.getInt() != SECTION_COUNT)
+        throw new BadConfigurationException("Unexpected number of sections in compiled gazetteer");
+      header.position(header.position() + FINGERPRINT_SIZE);
+
+      // Sections are mapped individually, as a single mapping is limited to 2 GB
+      ByteBuffer[] sections = new ByteBuffer[SECTION_COUNT];
+      for (int i = 0; i < SECTION_COUNT; i++) {
+        long offset = header.getLong();
+        long length = header.getLong();
+        if (length > Integer.MAX_VALUE)
+          throw new BadConfigurationException("Compiled gazetteer section is too large to map");
+
+        sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+      }
+
+      return new CompiledGazetteer((flags & FLAG_CASE_SENSITIVE) != 0, sections);
+    }
+  }
+
+  /**
+   * Check whether a compiled gazetteer file exists, and was compiled from the given source with the
+   * given settings
+   *
+   * @param path the compiled gazetteer file
+   * @param source the source passed to {@link CompiledGazetteerWriter} when the file was written
+   * @param caseSensitive should the compiled gazetteer match case-sensitively
+   * @param plurals should the plural of each value also be matched
+   * @return true if the file is a compiled gazetteer with a matching fingerprint
+   */
+  public static boolean isCompiledFrom(
+      Path path, String source, boolean caseSensitive, boolean plurals) {
+    if (!Files.isRegularFile(path)) return false;
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = readHeader(channel);
+      header.position(header.position() + 2 * Integer.BYTES);
+
+      byte[] fingerprint = new byte[FINGERPRINT_SIZE];
+      header.get(fingerprint);
+
+      return Arrays.equals(fingerprint, fingerprint(source, caseSensitive, plurals));
+    } catch (IOException | BadConfigurationException e) {
+      return false;
+    }
+  }
+
+  /** Read and check the header, returning it positioned after the version */
+  private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0)
+        throw new BadConfigurationException("Compiled gazetteer file is truncated");
+    }
+    header.flip();
+
+    if (header.getInt() != MAGIC)
+      throw new BadConfigurationException("File is not a compiled gazetteer");
+
+    int version = header.getInt();
+    if (version != VERSION)
+      throw new BadConfigurationException(
+          "Unsupported compiled gazetteer version " + version + ", expected " + VERSION);
+
+    return header;
+  }
+
+  /** The fingerprint stored in the header for the given source and settings */
+  static byte[] fingerprint(String source, boolean caseSensitive, boolean plurals) {
+    if (source == null) return new byte[FINGERPRINT_SIZE];
+
+    try {
+      return MessageDigest.getInstance("SHA-256")
+          .digest(
+              String.join(":", source, String.valueOf(caseSensitive), String.valueOf(plurals))
+                  .getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /** Was the gazetteer compiled to match case-sensitively? */
+  public boolean isCaseSensitive() {
+    return caseSensitive;
+  }
+
+  /**
+   * Find all whole word occurrences of the gazetteer's keywords within the text
+   *
+   * @param text the text to search
+   * @return the matches, in the order in which they end within the text
+   */
+  public Collection<Emit> parseText(CharSequence text) {
+    List<Emit> emits = new ArrayList<>();
+
+    int node = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = caseSensitive ? text.charAt(i) : Character.toLowerCase(text.charAt(i));
+
+      int next = transition(node, c);
+      while (next < 0 && node != 0) {
+        node = failures.get(node);
+        next = transition(node, c);
+      }
+      node = Math.max(next, 0);
+
+      for (int n = node; n > 0; n = outputLinks.get(n)) {
+        for (int k = nodeKeywordOffsets.get(n); k < nodeKeywordOffsets.get(n + 1); k++) {
+          int keyword = keywordStrings.get(nodeKeywords.get(k));
+          int start = i - (stringOffsets.get(keyword + 1) - stringOffsets.get(keyword)) + 1;
+          if (isWholeWord(text, start, i)) emits.add(new Emit(start, i, string(keyword)));
+        }
+      }
+    }
+
+    return emits;
+  }
+
+  @Override
+  public Collection<String> getValues() {
+    return new AbstractList<>() {
+      @Override
+      public String get(int index) {
+        return string(keywordStrings.get(index));
+      }
+
+      @Override
+      public int size() {
+        return keywordStrings.limit();
+      }
+    };
+  }
+
+  @Override
+  public Collection<String> getAliases(String key) {
+    int entry = findEntry(key);
+    if (entry < 0) return Collections.emptySet();
+
+    List<String> aliases = new ArrayList<>();
+    for (int i = entryAliasOffsets.get(entry); i < entryAliasOffsets.get(entry + 1); i++) {
+      aliases.add(string(entryAliases.get(i)));
+    }
+
+    return aliases;
+  }
+
+  @Override
+  public Map<String, Object> getAdditionalData(String key) {
+    int entry = findEntry(key);
+    if (entry < 0) return Collections.emptyMap();
+
+    ByteBuffer data = entryData.duplicate();
+    data.position(entryDataOffsets.get(entry));
+    return readMap(data);
+  }
+
+  /**
+   * Find the entry for a keyword by following its path through the automaton. If the gazetteer is
+   * case-insensitive, the keyword can be given in any case.
+   */
+  private int findEntry(String key) {
+    int node = 0;
+    for (int i = 0; i < key.length() && node >= 0; i++) {
+      char c = key.charAt(i);
+      node = transition(node, caseSensitive ? c : Character.toLowerCase(c));
+    }
+
+    if (node <= 0) return -1;
+
+    for (int k = nodeKeywordOffsets.get(node); k < nodeKeywordOffsets.get(node + 1); k++) {
+      int keyword = nodeKeywords.get(k);
+      if (!caseSensitive || string(keywordStrings.get(keyword)).equals(key))
+        return keywordEntries.get(keyword);
+    }
+
+    return -1;
+  }
+
+  private int transition(int node, char c) {
+    int low = edgeOffsets.get(node);
+    int high = edgeOffsets.get(node + 1) - 1;
+
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char m = edgeChars.get(mid);
+
+      if (m < c) {
+        low = mid + 1;
+      } else if (m > c) {
+        high = mid - 1;
+      } else {
+        return edgeTargets.get(mid);
+      }
+    }
+
+    return -1;
+  }
+
+  private String string(int id) {
+    return stringChars.subSequence(stringOffsets.get(id), stringOffsets.get(id + 1)).toString();
+  }
+
+  private static boolean isWholeWord(CharSequence text, int start, int end) {
+    return (start == 0 || !Character.isAlphabetic(text.charAt(start - 1)))
+        && (end + 1 == text.length() || !Character.isAlphabetic(text.charAt(end + 1)));
+  }
+
+  static String toLowerCase(String s) {
+    char[] chars = s.toCharArray();
+    for (int i = 0; i < chars.length; i++) chars[i] = Character.toLowerCase(chars[i]);
+    return new String(chars);
+  }
+
+  private static Map<String, Object> readMap(ByteBuffer data) {
+    int size = data.getInt();
+    Map<String, Object> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      String key = new String(readBytes(data), StandardCharsets.UTF_8);
+      map.put(key, readValue(data));
+    }
+    return map;
+  }
+
+  private static Object readValue(ByteBuffer data) {
+    byte type = data.get();
+    switch (type) {
+      case TYPE_NULL:
+        return null;
+      case TYPE_STRING:
+        return new String(readBytes(data), StandardCharsets.UTF_8);
+      case TYPE_BOOLEAN:
+        return data.get() != 0;
+      case TYPE_INTEGER:
+        return data.getInt();
+      case TYPE_LONG:
+        return data.getLong();
+      case TYPE_FLOAT:
+        return data.getFloat();
+      case TYPE_DOUBLE:
+        return data.getDouble();
+      case TYPE_LIST:
+        int size = data.getInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(readValue(data));
+        return list;
+      case TYPE_MAP:
+        return readMap(data);
+      case TYPE_LOCAL_DATE:
+        return LocalDate.ofEpochDay(data.getLong());
+      case TYPE_INSTANT:
+        long seconds = data.getLong();
+        return Instant.ofEpochSecond(seconds, data.getInt());
+      default:
+        throw new Annot8RuntimeException("Unknown additional data type " + type);
+    }
+  }
+
+  private static byte[] readBytes(ByteBuffer data) {
+    byte[] bytes = new byte[data.getInt()];
+    data.get(bytes);
+    return bytes;
+  }
+}
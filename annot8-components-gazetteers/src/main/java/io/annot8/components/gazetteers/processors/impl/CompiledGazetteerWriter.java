@@ -0,0 +1,587 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.gazetteers.processors.impl;
+
+import io.annot8.api.exceptions.BadConfigurationException;
+import io.annot8.components.gazetteers.processors.Gazetteer;
+import io.annot8.utils.text.PluralUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Compiles a {@link Gazetteer} into the on-disk format read by {@link CompiledGazetteer}.
+ *
+ * <p>The file contains an Aho-Corasick automaton, stored as sorted edge arrays with failure and
+ * output links, along with a string table holding the keywords and aliases, and the additional data
+ * for each gazetteer entry. All sections are stored as flat arrays of primitives so that they can
+ * be memory mapped and used without any further parsing. Additional data is limited to strings,
+ * booleans, numbers, dates, and lists and maps of these, each stored in an explicit binary form
+ * rather than by Java serialisation.
+ *
+ * <p>The file is written to a temporary file alongside the target, and then moved into place, so
+ * that readers never see a partially written file. The header records a fingerprint of the source
+ * of the gazetteer and the settings it was compiled with, so that {@link #writeIfChanged(Supplier,
+ * boolean, boolean, Path, String)} can tell whether an existing file needs to be recompiled.
+ *
+ * <p>Gazetteer files in the format read by {@link FileGazetteer} can be compiled ahead of time from
+ * the command line, using {@link #main(String[])}.
+ */
+public class CompiledGazetteerWriter {
+
+  private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+  private CompiledGazetteerWriter() {
+    // Static utility class
+  }
+
+  /**
+   * Compile a gazetteer file, in the format read by {@link FileGazetteer}, from the command line.
+   *
+   * <pre>
+   * CompiledGazetteerWriter [--case-sensitive] [--no-plurals] [--separator C] GAZETTEER OUTPUT
+   * </pre>
+   *
+   * @param args the command line arguments
+   * @throws IOException if the compiled file can't be written
+   */
+  public static void main(String[] args) throws IOException {
+    boolean caseSensitive = false;
+    boolean plurals = true;
+    char separator = ',';
+    List<String> paths = new ArrayList<>();
+
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--case-sensitive":
+          caseSensitive = true;
+          break;
+        case "--no-plurals":
+          plurals = false;
+          break;
+        case "--separator":
+          if (i + 1 == args.length || args[i + 1].length() != 1) usage();
+          separator = args[++i].charAt(0);
+          break;
+        default:
+          if (args[i].startsWith("--")) usage();
+          paths.add(args[i]);
+      }
+    }
+
+    if (paths.size() != 2) usage();
+
+    Path output = Path.of(paths.get(1));
+    write(new FileGazetteer(Path.of(paths.get(0)), separator), caseSensitive, plurals, output);
+    System.out.println("Compiled gazetteer written to " + output.toAbsolutePath());
+  }
+
+  private static void usage() {
+    System.err.println(
+        "Usage: CompiledGazetteerWriter [--case-sensitive] [--no-plurals] [--separator C]"
+            + " GAZETTEER OUTPUT");
+    System.exit(1);
+  }
+
+  /**
+   * Compile the gazetteer and write it to the given path
+   *
+   * @param gazetteer the gazetteer to compile
+   * @param caseSensitive should the compiled gazetteer match case-sensitively
+   * @param plurals should the plural of each value also be matched
+   * @param path the file to write
+   * @throws IOException if the file can't be written
+   */
+  public static void write(Gazetteer gazetteer, boolean caseSensitive, boolean plurals, Path path)
+      throws IOException {
+    write(gazetteer, caseSensitive, plurals, path, null);
+  }
+
+  /**
+   * Compile the gazetteer and write it to the given path, recording the source of the gazetteer
+   *
+   * @param gazetteer the gazetteer to compile
+   * @param caseSensitive should the compiled gazetteer match case-sensitively
+   * @param plurals should the plural of each value also be matched
+   * @param path the file to write
+   * @param source identifies the source of the gazetteer, including any settings that affect its
+   *     contents (e.g. the path, size and modification time of the file it was read from), or null
+   * @throws IOException if the file can't be written
+   */
+  public static void write(
+      Gazetteer gazetteer, boolean caseSensitive, boolean plurals, Path path, String source)
+      throws IOException {
+    Path target = path.toAbsolutePath();
+    Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+    try {
+      writeFile(
+          gazetteer,
+          caseSensitive,
+          CompiledGazetteer.fingerprint(source, caseSensitive, plurals),
+          plurals,
+          temp);
+
+      try {
+        Files.move(
+            temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Compile the gazetteer and write it to the given path, unless the file already exists and was
+   * compiled from the same source with the same settings.
+   *
+   * <p>Checking and writing the file is done under a lock, both within this JVM and through a lock
+   * file alongside the compiled file, so that processors compiling the same gazetteer at the same
+   * time only write it once.
+   *
+   * @param gazetteer supplier of the gazetteer to compile, only called if the file is written
+   * @param caseSensitive should the compiled gazetteer match case-sensitively
+   * @param plurals should the plural of each value also be matched
+   * @param path the file to write
+   * @param source identifies the source of the gazetteer, including any settings that affect its
+   *     contents (e.g. the path, size and modification time of the file it was read from)
+   * @return true if the file was written, or false if it was already up to date
+   * @throws IOException if the file can't be written
+   */
+  public static boolean writeIfChanged(
+      Supplier<Gazetteer> gazetteer,
+      boolean caseSensitive,
+      boolean plurals,
+      Path path,
+      String source)
+      throws IOException {
+    Path target = path.toAbsolutePath().normalize();
+    Path lockFile = target.resolveSibling(target.getFileName() + ".lock");
+
+    synchronized (LOCKS.computeIfAbsent(target, k -> new Object())) {
+      try (FileChannel channel =
+              FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+          FileLock lock = channel.lock()) {
+        if (CompiledGazetteer.isCompiledFrom(target, source, caseSensitive, plurals)) return false;
+
+        write(gazetteer.get(), caseSensitive, plurals, target, source);
+        return true;
+      }
+    }
+  }
+
+  private static void writeFile(
+      Gazetteer gazetteer, boolean caseSensitive, byte[] fingerprint, boolean plurals, Path path)
+      throws IOException {
+    // Keywords with the same matched form are indistinguishable in the automaton, so only the first
+    // is kept to avoid matching the same text more than once
+    Map<String, String> keywordMap = new LinkedHashMap<>();
+    for (String s : gazetteer.getValues()) {
+      if (s.isEmpty()) continue;
+
+      keywordMap.putIfAbsent(normalise(s, caseSensitive), s);
+      if (plurals) {
+        String plural = PluralUtils.pluralise(s);
+        keywordMap.putIfAbsent(normalise(plural, caseSensitive), plural);
+      }
+    }
+    String[] keywords = keywordMap.values().toArray(new String[0]);
+
+    StringTable strings = new StringTable();
+    int[] keywordStrings = new int[keywords.length];
+    int[] keywordEntries = new int[keywords.length];
+
+    List<Collection<String>> entryAliases = new ArrayList<>();
+    List<Map<String, Object>> entryData = new ArrayList<>();
+    Map<Collection<String>, Map<Map<String, Object>, Integer>> entryIds = new IdentityHashMap<>();
+
+    for (int i = 0; i < keywords.length; i++) {
+      keywordStrings[i] = strings.add(keywords[i]);
+
+      Collection<String> aliases = gazetteer.getAliases(keywords[i]);
+      Map<String, Object> data = gazetteer.getAdditionalData(keywords[i]);
+      if (aliases == null) aliases = Collections.emptySet();
+      if (data == null) data = Collections.emptyMap();
+
+      Collection<String> a = aliases;
+      Map<String, Object> d = data;
+      keywordEntries[i] =
+          entryIds
+              .computeIfAbsent(a, k -> new IdentityHashMap<>())
+              .computeIfAbsent(
+                  d,
+                  k -> {
+                    entryAliases.add(a);
+                    entryData.add(d);
+                    return entryAliases.size() - 1;
+                  });
+    }
+
+    Automaton automaton = new Automaton(keywords, caseSensitive);
+
+    try (FileChannel channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      SectionWriter out = new SectionWriter(channel, CompiledGazetteer.HEADER_SIZE);
+      long[][] sections = new long[CompiledGazetteer.SECTION_COUNT][];
+
+      sections[CompiledGazetteer.SECTION_EDGE_OFFSETS] = out.writeInts(automaton.edgeOffsets);
+      sections[CompiledGazetteer.SECTION_EDGE_CHARS] = out.writeChars(automaton.edgeChars);
+      sections[CompiledGazetteer.SECTION_EDGE_TARGETS] = out.writeInts(automaton.edgeTargets);
+      sections[CompiledGazetteer.SECTION_FAILURES] = out.writeInts(automaton.failures);
+      sections[CompiledGazetteer.SECTION_OUTPUT_LINKS] = out.writeInts(automaton.outputLinks);
+      sections[CompiledGazetteer.SECTION_NODE_KEYWORD_OFFSETS] =
+          out.writeInts(automaton.nodeKeywordOffsets);
+      sections[CompiledGazetteer.SECTION_NODE_KEYWORDS] = out.writeInts(automaton.nodeKeywords);
+      sections[CompiledGazetteer.SECTION_KEYWORD_STRINGS] = out.writeInts(keywordStrings);
+      sections[CompiledGazetteer.SECTION_KEYWORD_ENTRIES] = out.writeInts(keywordEntries);
+
+      int[] aliasOffsets = new int[entryAliases.size() + 1];
+      List<Integer> aliasIds = new ArrayList<>();
+      for (int i = 0; i < entryAliases.size(); i++) {
+        aliasOffsets[i] = aliasIds.size();
+        for (String alias : entryAliases.get(i)) aliasIds.add(strings.add(alias));
+      }
+      aliasOffsets[entryAliases.size()] = aliasIds.size();
+
+      sections[CompiledGazetteer.SECTION_ENTRY_ALIAS_OFFSETS] = out.writeInts(aliasOffsets);
+      sections[CompiledGazetteer.SECTION_ENTRY_ALIASES] =
+          out.writeInts(aliasIds.stream().mapToInt(Integer::intValue).toArray());
+
+      int[] dataOffsets = new int[entryData.size() + 1];
+      long dataStart = out.position();
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      for (int i = 0; i < entryData.size(); i++) {
+        dataOffsets[i] = checkedInt(out.position() - dataStart);
+
+        baos.reset();
+        writeMap(new DataOutputStream(baos), entryData.get(i));
+        out.writeBytes(baos.toByteArray());
+      }
+      dataOffsets[entryData.size()] = checkedInt(out.position() - dataStart);
+      sections[CompiledGazetteer.SECTION_ENTRY_DATA] =
+          new long[] {dataStart, out.position() - dataStart};
+      sections[CompiledGazetteer.SECTION_ENTRY_DATA_OFFSETS] = out.writeInts(dataOffsets);
+
+      sections[CompiledGazetteer.SECTION_STRING_OFFSETS] = out.writeInts(strings.offsets());
+      sections[CompiledGazetteer.SECTION_STRING_CHARS] = out.writeChars(strings.chars());
+
+      out.flush();
+
+      ByteBuffer header = ByteBuffer.allocate(CompiledGazetteer.HEADER_SIZE);
+      header.putInt(CompiledGazetteer.MAGIC);
+      header.putInt(CompiledGazetteer.VERSION);
+      header.putInt(caseSensitive ? CompiledGazetteer.FLAG_CASE_SENSITIVE : 0);
+      header.putInt(CompiledGazetteer.SECTION_COUNT);
+      header.put(fingerprint);
+      for (long[] section : sections) {
+        header.putLong(section[0]);
+        header.putLong(section[1]);
+      }
+      header.flip();
+      channel.write(header, 0);
+    }
+  }
+
+  private static String normalise(String s, boolean caseSensitive) {
+    return caseSensitive ? s : CompiledGazetteer.toLowerCase(s);
+  }
+
+  private static void writeMap(DataOutputStream out, Map<String, Object> map) throws IOException {
+    out.writeInt(map.size());
+    for (Map.Entry<String, Object> e : map.entrySet()) {
+      writeString(out, e.getKey());
+      writeValue(out, e.getValue());
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(CompiledGazetteer.TYPE_NULL);
+    } else if (value instanceof String) {
+      out.writeByte(CompiledGazetteer.TYPE_STRING);
+      writeString(out, (String) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(CompiledGazetteer.TYPE_BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(CompiledGazetteer.TYPE_INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(CompiledGazetteer.TYPE_LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      out.writeByte(CompiledGazetteer.TYPE_FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      out.writeByte(CompiledGazetteer.TYPE_DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof List) {
+      List<Object> list = (List<Object>) value;
+      out.writeByte(CompiledGazetteer.TYPE_LIST);
+      out.writeInt(list.size());
+      for (Object o : list) writeValue(out, o);
+    } else if (value instanceof Map) {
+      out.writeByte(CompiledGazetteer.TYPE_MAP);
+      writeMap(out, (Map<String, Object>) value);
+    } else if (value instanceof LocalDate) {
+      out.writeByte(CompiledGazetteer.TYPE_LOCAL_DATE);
+      out.writeLong(((LocalDate) value).toEpochDay());
+    } else if (value instanceof Instant) {
+      Instant instant = (Instant) value;
+      out.writeByte(CompiledGazetteer.TYPE_INSTANT);
+      out.writeLong(instant.getEpochSecond());
+      out.writeInt(instant.getNano());
+    } else {
+      throw new BadConfigurationException(
+          "Unable to compile additional data of type " + value.getClass().getName());
+    }
+  }
+
+  private static int checkedInt(long l) {
+    if (l > Integer.MAX_VALUE)
+      throw new BadConfigurationException("Gazetteer is too large to be compiled");
+    return (int) l;
+  }
+
+  /** Builds the automaton as flat arrays, from the keywords sorted by their matched form */
+  private static class Automaton {
+    private final int[] edgeOffsets;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] failures;
+    private final int[] outputLinks;
+    private final int[] nodeKeywordOffsets;
+    private final int[] nodeKeywords;
+
+    private Automaton(String[] keywords, boolean caseSensitive) {
+      String[] normalised = new String[keywords.length];
+      long totalLength = 0;
+      for (int i = 0; i < keywords.length; i++) {
+        normalised[i] = normalise(keywords[i], caseSensitive);
+        totalLength += keywords[i].length();
+      }
+      int maxNodes = checkedInt(totalLength + 1);
+
+      Integer[] order = new Integer[keywords.length];
+      for (int i = 0; i < order.length; i++) order[i] = i;
+      Arrays.sort(order, (a, b) -> normalised[a].compareTo(normalised[b]));
+
+      // Insert keywords in sorted order, so that nodes are created depth first and the children of
+      // each node are created in ascending order of their label
+      int[] parents = new int[maxNodes];
+      char[] labels = new char[maxNodes];
+      int[] terminals = new int[keywords.length];
+      int nodeCount = 1;
+      parents[0] = -1;
+
+      int[] path = new int[1];
+      String previous = "";
+      for (int k : order) {
+        String s = normalised[k];
+        if (path.length < s.length() + 1) path = Arrays.copyOf(path, s.length() + 1);
+
+        int common = 0;
+        while (common < s.length()
+            && common < previous.length()
+            && s.charAt(common) == previous.charAt(common)) common++;
+
+        for (int i = common; i < s.length(); i++) {
+          parents[nodeCount] = path[i];
+          labels[nodeCount] = s.charAt(i);
+          path[i + 1] = nodeCount;
+          nodeCount++;
+        }
+
+        terminals[k] = path[s.length()];
+        previous = s;
+      }
+
+      edgeOffsets = new int[nodeCount + 1];
+      for (int n = 1; n < nodeCount; n++) edgeOffsets[parents[n] + 1]++;
+      for (int n = 0; n < nodeCount; n++) edgeOffsets[n + 1] += edgeOffsets[n];
+
+      edgeChars = new char[nodeCount - 1];
+      edgeTargets = new int[nodeCount - 1];
+      int[] next = Arrays.copyOf(edgeOffsets, nodeCount);
+      for (int n = 1; n < nodeCount; n++) {
+        int e = next[parents[n]]++;
+        edgeChars[e] = labels[n];
+        edgeTargets[e] = n;
+      }
+
+      nodeKeywordOffsets = new int[nodeCount + 1];
+      for (int t : terminals) nodeKeywordOffsets[t + 1]++;
+      for (int n = 0; n < nodeCount; n++) nodeKeywordOffsets[n + 1] += nodeKeywordOffsets[n];
+
+      nodeKeywords = new int[keywords.length];
+      next = Arrays.copyOf(nodeKeywordOffsets, nodeCount);
+      for (int k : order) nodeKeywords[next[terminals[k]]++] = k;
+
+      failures = new int[nodeCount];
+      outputLinks = new int[nodeCount];
+      Arrays.fill(outputLinks, -1);
+
+      int[] queue = new int[nodeCount];
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = 0;
+
+      while (head < tail) {
+        int n = queue[head++];
+        for (int e = edgeOffsets[n]; e < edgeOffsets[n + 1]; e++) {
+          int child = edgeTargets[e];
+          queue[tail++] = child;
+
+          if (n == 0) {
+            failures[child] = 0;
+          } else {
+            int f = failures[n];
+            int target = transition(f, edgeChars[e]);
+            while (target < 0 && f != 0) {
+              f = failures[f];
+              target = transition(f, edgeChars[e]);
+            }
+            failures[child] = Math.max(target, 0);
+          }
+
+          int f = failures[child];
+          outputLinks[child] =
+              nodeKeywordOffsets[f + 1] > nodeKeywordOffsets[f] ? f : outputLinks[f];
+        }
+      }
+    }
+
+    private int transition(int node, char c) {
+      int idx = Arrays.binarySearch(edgeChars, edgeOffsets[node], edgeOffsets[node + 1], c);
+      return idx < 0 ? -1 : edgeTargets[idx];
+    }
+  }
+
+  /** De-duplicated table of strings, stored as offsets into a single char array */
+  private static class StringTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private long length = 0;
+
+    private int add(String s) {
+      return ids.computeIfAbsent(
+          s,
+          k -> {
+            strings.add(k);
+            length += k.length();
+            return strings.size() - 1;
+          });
+    }
+
+    private int[] offsets() {
+      int[] offsets = new int[strings.size() + 1];
+      long offset = 0;
+      for (int i = 0; i < strings.size(); i++) {
+        offsets[i] = checkedInt(offset);
+        offset += strings.get(i).length();
+      }
+      offsets[strings.size()] = checkedInt(offset);
+      return offsets;
+    }
+
+    private char[] chars() {
+      char[] chars = new char[checkedInt(length)];
+      int offset = 0;
+      for (String s : strings) {
+        s.getChars(0, s.length(), chars, offset);
+        offset += s.length();
+      }
+      return chars;
+    }
+  }
+
+  /** Buffered, position tracking writer for the sections of the file */
+  private static class SectionWriter {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+    private long position;
+
+    private SectionWriter(FileChannel channel, long position) {
+      this.channel = channel;
+      this.position = position;
+    }
+
+    private long position() {
+      return position + buffer.position();
+    }
+
+    private long[] writeInts(int[] values) throws IOException {
+      long start = position();
+      for (int v : values) {
+        ensure(Integer.BYTES);
+        buffer.putInt(v);
+      }
+      return new long[] {start, position() - start};
+    }
+
+    private long[] writeChars(char[] values) throws IOException {
+      long start = position();
+      for (char c : values) {
+        ensure(Character.BYTES);
+        buffer.putChar(c);
+      }
+      return new long[] {start, position() - start};
+    }
+
+    private void writeBytes(byte[] values) throws IOException {
+      int offset = 0;
+      while (offset < values.length) {
+        ensure(1);
+        int length = Math.min(buffer.remaining(), values.length - offset);
+        buffer.put(values, offset, length);
+        offset += length;
+      }
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) flush();
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      buffer.clear();
+    }
+  }
+}
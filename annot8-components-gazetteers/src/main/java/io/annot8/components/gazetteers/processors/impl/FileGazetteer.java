@@ -13,7 +13,7 @@ import java.util.stream.Stream;
 
 public class FileGazetteer implements Gazetteer {
 
-  private final List<Set<String>> terms = new ArrayList<>();
+  private final Map<String, Set<String>> index = new HashMap<>();
 
   public FileGazetteer(Path path, char separator) {
     try {
@@ -24,7 +24,7 @@ public class FileGazetteer implements Gazetteer {
                   Stream.of(l.split(Pattern.quote(String.valueOf(separator))))
                       .map(String::strip)
                       .collect(Collectors.toSet()))
-          .forEach(terms::add);
+          .forEach(s -> s.forEach(t -> index.putIfAbsent(t, s)));
     } catch (IOException e) {
       throw new BadConfigurationException("Could not read file gazetteer", e);
     }
@@ -32,15 +32,12 @@ public class FileGazetteer implements Gazetteer {
 
   @Override
   public Collection<String> getValues() {
-    return terms.stream().flatMap(Set::stream).collect(Collectors.toSet());
+    return Collections.unmodifiableSet(index.keySet());
   }
 
   @Override
   public Collection<String> getAliases(String key) {
-    for (Set<String> s : terms) {
-      if (s.contains(key)) return s;
-    }
-    return Collections.emptySet();
+    return index.getOrDefault(key, Collections.emptySet());
   }
 
   @Override
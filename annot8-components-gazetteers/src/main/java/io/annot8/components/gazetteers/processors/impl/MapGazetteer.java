@@ -4,33 +4,39 @@ package io.annot8.components.gazetteers.processors.impl;
 import io.annot8.components.gazetteers.processors.Gazetteer;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class MapGazetteer implements Gazetteer {
 
-  private final Map<Set<String>, Map<String, Object>> termsAndData;
+  private final Map<String, Map.Entry<Set<String>, Map<String, Object>>> index;
 
   public MapGazetteer(Map<Set<String>, Map<String, Object>> termsAndData) {
-    this.termsAndData = termsAndData;
+    index = new HashMap<>();
+
+    // Index each term against its entry, so that lookups don't need to scan every entry
+    for (Map.Entry<Set<String>, Map<String, Object>> e : termsAndData.entrySet()) {
+      for (String term : e.getKey()) {
+        index.putIfAbsent(term, e);
+      }
+    }
   }
 
   @Override
   public Collection<String> getValues() {
-    return termsAndData.keySet().stream().flatMap(Set::stream).collect(Collectors.toSet());
+    return Collections.unmodifiableSet(index.keySet());
   }
 
   @Override
   public Collection<String> getAliases(String key) {
-    for (Set<String> s : termsAndData.keySet()) {
-      if (s.contains(key)) return s;
-    }
-    return Collections.emptyList();
+    Map.Entry<Set<String>, Map<String, Object>> e = index.get(key);
+    return e == null ? Collections.emptyList() : e.getKey();
   }
 
   @Override
   public Map<String, Object> getAdditionalData(String key) {
-    return termsAndData.get(getAliases(key));
+    Map.Entry<Set<String>, Map<String, Object>> e = index.get(key);
+    return e == null ? Collections.emptyMap() : e.getValue();
   }
 }
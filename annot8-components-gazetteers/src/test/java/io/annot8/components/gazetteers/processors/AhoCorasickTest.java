@@ -0,0 +1,50 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.gazetteers.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class AhoCorasickTest {
+
+  @Test
+  public void testNormaliseString() {
+    String s = "James \t went  to  London \t";
+
+    AhoCorasick.TransformedString ts = AhoCorasick.Processor.normaliseString(s);
+
+    assertEquals(s, ts.getOriginalString());
+    assertEquals("James went to London ", ts.getTransformedString());
+
+    assertEquals(0, ts.getOriginalOffset(0));
+    assertEquals(5, ts.getOriginalOffset(5));
+    assertEquals(8, ts.getOriginalOffset(6));
+    assertEquals(12, ts.getOriginalOffset(10));
+    assertEquals(14, ts.getOriginalOffset(11));
+    assertEquals(16, ts.getOriginalOffset(13));
+    assertEquals(18, ts.getOriginalOffset(14));
+    assertEquals(24, ts.getOriginalOffset(20));
+    assertEquals(s.length(), ts.getOriginalOffset(ts.getTransformedString().length()));
+  }
+
+  @Test
+  public void testNormaliseStringUnchanged() {
+    String s = "James went to London";
+
+    AhoCorasick.TransformedString ts = AhoCorasick.Processor.normaliseString(s);
+
+    assertSame(s, ts.getTransformedString());
+    for (int i = 0; i <= s.length(); i++) assertEquals(i, ts.getOriginalOffset(i));
+  }
+
+  @Test
+  public void testNoopString() {
+    String s = "James  went to London";
+
+    AhoCorasick.TransformedString ts = AhoCorasick.Processor.noopString(s);
+
+    assertSame(s, ts.getTransformedString());
+    for (int i = 0; i <= s.length(); i++) assertEquals(i, ts.getOriginalOffset(i));
+  }
+}
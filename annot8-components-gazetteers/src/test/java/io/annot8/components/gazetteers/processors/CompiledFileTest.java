@@ -0,0 +1,79 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.gazetteers.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.annot8.api.components.Processor;
+import io.annot8.api.data.Item;
+import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.common.data.content.Text;
+import io.annot8.common.data.utils.SortUtils;
+import io.annot8.components.gazetteers.processors.impl.CompiledGazetteerWriter;
+import io.annot8.components.gazetteers.processors.impl.FileGazetteer;
+import io.annot8.conventions.AnnotationTypes;
+import io.annot8.testing.testimpl.TestItem;
+import io.annot8.testing.testimpl.content.TestStringContent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class CompiledFileTest {
+  @Test
+  public void test() throws IOException {
+    Path source =
+        new java.io.File(FileGazetteer.class.getResource("gazetteer.txt").getFile()).toPath();
+    Path compiled = Files.createTempFile("compiled-gazetteer", ".bin");
+    compiled.toFile().deleteOnExit();
+
+    CompiledGazetteerWriter.write(new FileGazetteer(source, ','), false, true, compiled);
+
+    CompiledFile.Settings settings = new CompiledFile.Settings();
+    settings.setPath(compiled);
+    settings.setType(AnnotationTypes.ANNOTATION_TYPE_PERSON);
+
+    CompiledFile f = new CompiledFile();
+    Processor p = f.createComponent(null, settings);
+
+    Item item = new TestItem();
+
+    Text content =
+        item.createContent(TestStringContent.class)
+            .withData("James went to visit Tom (also known as TOMMY), in London. Tommy is aged 32.")
+            .save();
+
+    p.process(item);
+
+    assertEquals(1, item.getGroups().getAll().count());
+
+    List<String> annotations =
+        content
+            .getAnnotations()
+            .getByBoundsAndType(SpanBounds.class, AnnotationTypes.ANNOTATION_TYPE_PERSON)
+            .sorted(SortUtils.SORT_BY_SPANBOUNDS)
+            .map(a -> content.getText(a).get())
+            .collect(Collectors.toList());
+
+    assertEquals(List.of("James", "Tom", "TOMMY", "Tommy"), annotations);
+
+    p.close();
+  }
+
+  @Test
+  public void testSettingsFixedAtCompileTime() {
+    CompiledFile.Settings settings = new CompiledFile.Settings();
+    settings.setPath(Path.of("gazetteer.bin"));
+    assertTrue(settings.validate());
+
+    settings.setCaseSensitive(true);
+    assertFalse(settings.validate());
+
+    settings.setCaseSensitive(false);
+    settings.setPlurals(false);
+    assertFalse(settings.validate());
+  }
+}
@@ -0,0 +1,115 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.gazetteers.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.annot8.components.gazetteers.processors.impl.CollectionGazetteer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.ahocorasick.trie.Trie;
+import org.junit.jupiter.api.Test;
+
+public class TrieCacheTest {
+
+  @Test
+  public void testShared() {
+    AhoCorasick.Settings settings = new AhoCorasick.Settings();
+    AtomicInteger loads = new AtomicInteger();
+    int initialSize = TrieCache.size();
+
+    AhoCorasick.Processor p1 =
+        new AhoCorasick.Processor(
+            "test:shared", () -> load(loads, List.of("James", "Tom")), settings);
+    AhoCorasick.Processor p2 =
+        new AhoCorasick.Processor(
+            "test:shared", () -> load(loads, List.of("James", "Tom")), settings);
+
+    assertEquals(1, loads.get());
+    assertEquals(initialSize + 1, TrieCache.size());
+
+    p1.close();
+    assertEquals(initialSize + 1, TrieCache.size());
+
+    p2.close();
+    p2.close();
+    assertEquals(initialSize, TrieCache.size());
+
+    AhoCorasick.Processor p3 =
+        new AhoCorasick.Processor(
+            "test:shared", () -> load(loads, List.of("James", "Tom")), settings);
+    assertEquals(2, loads.get());
+
+    p3.close();
+    assertEquals(initialSize, TrieCache.size());
+  }
+
+  @Test
+  public void testKeyedBySettings() {
+    int initialSize = TrieCache.size();
+
+    TrieCache.Entry e1 =
+        TrieCache.acquire(
+            TrieCacheTest.class,
+            "test:keys",
+            true,
+            false,
+            () -> new CollectionGazetteer(List.of("a")),
+            g -> null);
+    TrieCache.Entry e2 =
+        TrieCache.acquire(
+            TrieCacheTest.class,
+            "test:keys",
+            false,
+            false,
+            () -> new CollectionGazetteer(List.of("a")),
+            g -> null);
+    TrieCache.Entry e3 =
+        TrieCache.acquire(
+            TrieCacheTest.class,
+            "test:keys",
+            true,
+            false,
+            () -> new CollectionGazetteer(List.of("a")),
+            g -> null);
+
+    assertNotSame(e1, e2);
+    assertSame(e1, e3);
+    assertEquals(initialSize + 2, TrieCache.size());
+
+    TrieCache.release(e1);
+    TrieCache.release(e2);
+    TrieCache.release(e3);
+    assertEquals(initialSize, TrieCache.size());
+  }
+
+  @Test
+  public void testKeyedByClass() {
+    AhoCorasick.Settings settings = new AhoCorasick.Settings();
+    AtomicInteger loads = new AtomicInteger();
+    int initialSize = TrieCache.size();
+
+    AhoCorasick.Processor p1 =
+        new AhoCorasick.Processor("test:class", () -> load(loads, List.of("James")), settings);
+    AhoCorasick.Processor p2 =
+        new AhoCorasick.Processor("test:class", () -> load(loads, List.of("James")), settings) {
+          @Override
+          protected Trie buildTrie(Gazetteer gazetteer, AhoCorasick.Settings settings) {
+            return Trie.builder().addKeyword("Tom").build();
+          }
+        };
+
+    assertEquals(2, loads.get());
+    assertEquals(initialSize + 2, TrieCache.size());
+
+    p1.close();
+    p2.close();
+    assertEquals(initialSize, TrieCache.size());
+  }
+
+  private static Gazetteer load(AtomicInteger loads, List<String> terms) {
+    loads.incrementAndGet();
+    return new CollectionGazetteer(terms);
+  }
+}
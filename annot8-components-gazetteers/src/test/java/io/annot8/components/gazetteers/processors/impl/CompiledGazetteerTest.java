@@ -0,0 +1,239 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.gazetteers.processors.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.annot8.api.exceptions.BadConfigurationException;
+import io.annot8.components.gazetteers.processors.Gazetteer;
+import io.annot8.utils.text.PluralUtils;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.ahocorasick.trie.Emit;
+import org.ahocorasick.trie.Trie;
+import org.junit.jupiter.api.Test;
+
+public class CompiledGazetteerTest {
+
+  private static final List<String> TEXTS =
+      List.of(
+          "Alice drove her Fabia to visit Bob, who owns two Clios and a Twingo.",
+          "ALICE and alice and Alicea and xAlice, Bob's fabias",
+          "Octavia Octavias OctaviaOctavia Octavia-Superb superb Superbs",
+          "Bobby Bob Bobb Bo Bob",
+          "");
+
+  @Test
+  public void testCaseInsensitive() throws IOException {
+    testMatchesTrie(false, true);
+  }
+
+  @Test
+  public void testCaseSensitive() throws IOException {
+    testMatchesTrie(true, false);
+  }
+
+  @Test
+  public void testAliasesAndData() throws IOException {
+    Gazetteer g = createGazetteer();
+    CompiledGazetteer cg = compile(g, true, false);
+
+    assertEquals(g.getValues().size(), cg.getValues().size());
+    assertTrue(cg.getValues().containsAll(g.getValues()));
+
+    assertArrayEquals(
+        Arrays.stream(new String[] {"Fabia", "Superb", "Octavia"}).sorted().toArray(),
+        cg.getAliases("Octavia").stream().sorted().toArray());
+    assertTrue(cg.getAliases("Focus").isEmpty());
+    assertTrue(cg.getAliases("octavia").isEmpty());
+
+    assertEquals(g.getAdditionalData("Scenic"), cg.getAdditionalData("Scenic"));
+    assertEquals(g.getAdditionalData("Alice"), cg.getAdditionalData("Alice"));
+    assertTrue(cg.getAdditionalData("Focus").isEmpty());
+  }
+
+  @Test
+  public void testCaseInsensitiveDuplicates() throws IOException {
+    CompiledGazetteer cg =
+        compile(new CollectionGazetteer(List.of("Paris", "PARIS", "London")), false, false);
+
+    assertEquals(2, cg.getValues().size());
+    assertEquals(Set.of("0:4:Paris", "10:14:Paris"), toStrings(cg.parseText("paris and PARIS")));
+  }
+
+  @Test
+  public void testUnsupportedData() throws IOException {
+    Map<Set<String>, Map<String, Object>> terms = new HashMap<>();
+    terms.put(Set.of("Paris"), Map.of("population", new BigDecimal("2.1e6")));
+
+    assertThrows(
+        BadConfigurationException.class, () -> compile(new MapGazetteer(terms), false, false));
+  }
+
+  @Test
+  public void testMain() throws IOException {
+    Path dir = Files.createTempDirectory("compiled-gazetteer");
+    Path source = dir.resolve("gazetteer.txt");
+    Path output = dir.resolve("gazetteer.bin");
+    Files.writeString(source, "Paris|City of Light\nLondon\n");
+
+    CompiledGazetteerWriter.main(
+        new String[] {
+          "--case-sensitive",
+          "--no-plurals",
+          "--separator",
+          "|",
+          source.toString(),
+          output.toString()
+        });
+
+    CompiledGazetteer cg = CompiledGazetteer.open(output);
+    assertTrue(cg.isCaseSensitive());
+    assertEquals(Set.of("Paris", "City of Light", "London"), Set.copyOf(cg.getValues()));
+    assertEquals(Set.of("Paris", "City of Light"), Set.copyOf(cg.getAliases("Paris")));
+
+    Files.delete(output);
+    Files.delete(source);
+    Files.delete(dir);
+  }
+
+  @Test
+  public void testWriteIfChanged() throws IOException {
+    Path dir = Files.createTempDirectory("compiled-gazetteer");
+    Path path = dir.resolve("gazetteer.bin");
+    AtomicInteger loads = new AtomicInteger();
+    Supplier<Gazetteer> loader =
+        () -> {
+          loads.incrementAndGet();
+          return createGazetteer();
+        };
+
+    assertTrue(CompiledGazetteerWriter.writeIfChanged(loader, true, false, path, "a"));
+    assertTrue(CompiledGazetteer.isCompiledFrom(path, "a", true, false));
+    assertFalse(CompiledGazetteerWriter.writeIfChanged(loader, true, false, path, "a"));
+    assertEquals(1, loads.get());
+
+    assertTrue(CompiledGazetteerWriter.writeIfChanged(loader, true, false, path, "b"));
+    assertTrue(CompiledGazetteerWriter.writeIfChanged(loader, false, false, path, "b"));
+    assertTrue(CompiledGazetteerWriter.writeIfChanged(loader, false, true, path, "b"));
+    assertEquals(4, loads.get());
+
+    assertFalse(CompiledGazetteer.isCompiledFrom(path, "a", true, false));
+    assertFalse(CompiledGazetteer.isCompiledFrom(dir.resolve("missing.bin"), "a", true, false));
+
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(
+          Set.of("gazetteer.bin", "gazetteer.bin.lock"),
+          files.map(p -> p.getFileName().toString()).collect(Collectors.toSet()));
+    }
+  }
+
+  @Test
+  public void testConcurrentWriteIfChanged() throws Exception {
+    Path path = Files.createTempDirectory("compiled-gazetteer").resolve("gazetteer.bin");
+    AtomicInteger loads = new AtomicInteger();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<CompiledGazetteer>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  CompiledGazetteerWriter.writeIfChanged(
+                      () -> {
+                        loads.incrementAndGet();
+                        return createGazetteer();
+                      },
+                      true,
+                      false,
+                      path,
+                      "source");
+                  return CompiledGazetteer.open(path);
+                }));
+      }
+
+      for (Future<CompiledGazetteer> f : futures) {
+        assertEquals(createGazetteer().getValues().size(), f.get().getValues().size());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(1, loads.get());
+  }
+
+  private void testMatchesTrie(boolean caseSensitive, boolean plurals) throws IOException {
+    Gazetteer g = createGazetteer();
+    CompiledGazetteer cg = compile(g, caseSensitive, plurals);
+
+    assertEquals(caseSensitive, cg.isCaseSensitive());
+
+    Trie.TrieBuilder builder = Trie.builder().onlyWholeWords();
+    if (!caseSensitive) builder = builder.ignoreCase();
+    for (String s : g.getValues()) {
+      builder = builder.addKeyword(s);
+      if (plurals) builder = builder.addKeyword(PluralUtils.pluralise(s));
+    }
+    Trie trie = builder.build();
+
+    for (String text : TEXTS) {
+      assertEquals(toStrings(trie.parseText(text)), toStrings(cg.parseText(text)), text);
+    }
+  }
+
+  private static Set<String> toStrings(Collection<Emit> emits) {
+    return emits.stream()
+        .map(e -> e.getStart() + ":" + e.getEnd() + ":" + e.getKeyword())
+        .collect(Collectors.toSet());
+  }
+
+  private static CompiledGazetteer compile(Gazetteer g, boolean caseSensitive, boolean plurals)
+      throws IOException {
+    Path path = Files.createTempFile("compiled-gazetteer", ".bin");
+    path.toFile().deleteOnExit();
+
+    CompiledGazetteerWriter.write(g, caseSensitive, plurals, path);
+    return CompiledGazetteer.open(path);
+  }
+
+  private static Gazetteer createGazetteer() {
+    Map<String, Object> skodaData = new HashMap<>();
+    skodaData.put("manufacturer", "Skoda");
+    skodaData.put("models", 3);
+    skodaData.put("founded", LocalDate.of(1895, 12, 18));
+
+    Map<String, Object> renaultData = new HashMap<>();
+    renaultData.put("manufacturer", "Renault");
+    renaultData.put("models", List.of("Clio", "Scenic"));
+    renaultData.put("location", Map.of("lat", 48.8, "lon", 2.2));
+
+    Map<String, Object> peopleData = new HashMap<>();
+    peopleData.put("person", true);
+    peopleData.put("age", 27L);
+    peopleData.put("missing", null);
+
+    Map<Set<String>, Map<String, Object>> terms = new HashMap<>();
+    terms.put(Set.of("Fabia", "Superb", "Octavia"), skodaData);
+    terms.put(Set.of("Clio", "Scenic", "Captur", "Twingo"), renaultData);
+    terms.put(Set.of("Alice", "Bob", "Octavia Superb", "Bo"), peopleData);
+
+    return new MapGazetteer(terms);
+  }
+}
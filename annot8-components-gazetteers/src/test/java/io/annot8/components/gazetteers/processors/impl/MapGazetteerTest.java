@@ -38,5 +38,8 @@ public class MapGazetteerTest {
         g.getAliases("Octavia").stream().sorted().toArray());
 
     assertEquals(renaultData, g.getAdditionalData("Scenic"));
+
+    assertTrue(g.getAliases("Focus").isEmpty());
+    assertTrue(g.getAdditionalData("Focus").isEmpty());
   }
 }
@@ -44,7 +44,15 @@ public class CountryGazetteer
     s.setSubType(settings.getSubType());
     s.setType(AnnotationTypes.ANNOTATION_TYPE_LOCATION);
 
-    return new AhoCorasick.Processor(new MapGazetteer(getCountryData(settings)), s);
+    String source =
+        String.join(
+            ":",
+            "countries",
+            String.valueOf(settings.isGeoJson()),
+            String.valueOf(settings.isMetadata()),
+            String.valueOf(settings.isIncludeCountryCodes()));
+
+    return new AhoCorasick.Processor(source, () -> new MapGazetteer(getCountryData(settings)), s);
   }
 
   @Override
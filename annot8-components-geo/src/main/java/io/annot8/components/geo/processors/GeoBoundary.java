@@ -18,10 +18,10 @@ import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractTextProcessor;
+import io.annot8.components.base.text.utils.SpanIndex;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.PropertyKeys;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
@@ -53,11 +53,8 @@ public class GeoBoundary extends AbstractProcessorDescriptor<GeoBoundary.Process
     @Override
     protected void process(Text content) {
       List<Annotation> coordinates =
-          content
-              .getAnnotations()
-              .getByBoundsAndType(SpanBounds.class, AnnotationTypes.ANNOTATION_TYPE_COORDINATE)
-              .sorted(
-                  Comparator.comparing(a -> a.getBounds(SpanBounds.class).orElseThrow().getBegin()))
+          SpanIndex.forType(content, AnnotationTypes.ANNOTATION_TYPE_COORDINATE)
+              .getAll()
               .collect(Collectors.toList());
 
       if (coordinates.size() < 2) return;
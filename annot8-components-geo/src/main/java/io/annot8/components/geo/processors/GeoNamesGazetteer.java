@@ -13,6 +13,7 @@ import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.components.gazetteers.processors.AhoCorasick;
+import io.annot8.components.gazetteers.processors.impl.CompiledGazetteerWriter;
 import io.annot8.components.gazetteers.processors.impl.MapGazetteer;
 import io.annot8.components.geo.processors.geonames.GeoNamesAdditionalProperties;
 import io.annot8.components.geo.processors.geonames.GeoNamesUtils;
@@ -36,15 +37,49 @@ public class GeoNamesGazetteer
     s.setSubType(settings.getSubType());
     s.setType(AnnotationTypes.ANNOTATION_TYPE_LOCATION);
 
+    String source =
+        String.join(
+            ":",
+            "geonames",
+            settings.getGeonamesFile().getAbsolutePath(),
+            settings.getAdditionalProperties().name(),
+            String.valueOf(settings.isGeoJson()),
+            String.valueOf(settings.getMinimumPopulation()));
+
+    if (settings.getCompiledFile() != null) {
+      // Recompile if the GeoNames file has been modified since the gazetteer was compiled
+      String fingerprint =
+          String.join(
+              ":",
+              source,
+              String.valueOf(settings.getGeonamesFile().length()),
+              String.valueOf(settings.getGeonamesFile().lastModified()));
+
+      try {
+        CompiledGazetteerWriter.writeIfChanged(
+            () -> loadGazetteer(settings),
+            settings.isCaseSensitive(),
+            false,
+            settings.getCompiledFile().toPath(),
+            fingerprint);
+      } catch (IOException e) {
+        throw new Annot8RuntimeException("Unable to write compiled GeoNames gazetteer", e);
+      }
+
+      return new AhoCorasick.Processor(settings.getCompiledFile().toPath(), s);
+    }
+
+    return new AhoCorasick.Processor(source, () -> loadGazetteer(settings), s);
+  }
+
+  private static MapGazetteer loadGazetteer(Settings settings) {
     try {
-      return new AhoCorasick.Processor(
-          new MapGazetteer(
-              GeoNamesUtils.loadGazetteer(
-                  settings.getGeonamesFile(),
-                  settings.getAdditionalProperties(),
-                  settings.isGeoJson(),
-                  settings.getMinimumPopulation())),
-          s);
+      return new MapGazetteer(
+          GeoNamesUtils.loadGazetteer(
+              settings.getGeonamesFile(),
+              settings.getAdditionalProperties(),
+              settings.isGeoJson(),
+              settings.getMinimumPopulation()));
     } catch (IOException e) {
       throw new Annot8RuntimeException("Unable to read GeoNames file into gazetteer", e);
     }
@@ -65,11 +100,14 @@ public class GeoNamesGazetteer
     private boolean caseSensitive = true;
     private boolean geoJson = true;
     private File geonamesFile = null;
+    private File compiledFile = null;
     private String subType = null;
     private int minimumPopulation = 0;
 
     @Override
     public boolean validate() {
+      if (compiledFile != null && compiledFile.isDirectory()) return false;
+
       return geonamesFile != null
           && geonamesFile.exists()
           && geonamesFile.isFile()
@@ -116,6 +154,16 @@ public class GeoNamesGazetteer
       this.geonamesFile = geonamesFile;
     }
 
+    @Description(
+        "Location of the compiled gazetteer, which is created from the GeoNames data file if it doesn't exist or is out of date, or null to build the gazetteer in memory")
+    public File getCompiledFile() {
+      return compiledFile;
+    }
+
+    public void setCompiledFile(File compiledFile) {
+      this.compiledFile = compiledFile;
+    }
+
     @Description("Sub-type to assign to annotations, or null")
     public String getSubType() {
       return subType;
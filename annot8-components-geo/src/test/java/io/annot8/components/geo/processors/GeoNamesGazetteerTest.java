@@ -12,7 +12,9 @@ import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.PropertyKeys;
 import io.annot8.testing.testimpl.TestItem;
 import io.annot8.testing.testimpl.content.TestStringContent;
+import java.io.File;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import org.junit.jupiter.api.Test;
 
@@ -52,4 +54,35 @@ public class GeoNamesGazetteerTest {
 
     p.close();
   }
+
+  @Test
+  public void testCompiledFile() throws Exception {
+    File compiled = Files.createTempDirectory("geonames").resolve("AI.bin").toFile();
+
+    GeoNamesGazetteer.Settings s = new GeoNamesGazetteer.Settings();
+    s.setCompiledFile(compiled);
+    assertFalse(s.validate());
+
+    s.setGeonamesFile(
+        Paths.get(GeoNamesGazetteerTest.class.getResource("AI.txt").toURI()).toFile());
+    assertTrue(s.validate());
+
+    assertEquals(0, countLocations(s, "Visiting shoal bay"));
+    assertTrue(compiled.exists());
+
+    // Changing the settings should recompile the file, rather than reuse the existing one
+    s.setCaseSensitive(false);
+    assertEquals(1, countLocations(s, "Visiting shoal bay"));
+  }
+
+  private static long countLocations(GeoNamesGazetteer.Settings s, String text) {
+    Item item = new TestItem();
+    Text content = item.createContent(TestStringContent.class).withData(text).save();
+
+    try (Processor p = new GeoNamesGazetteer().createComponent(null, s)) {
+      p.process(item);
+    }
+
+    return content.getAnnotations().getAll().count();
+  }
 }
@@ -16,10 +16,11 @@ import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.content.Image;
 import io.annot8.common.data.properties.EmptyImmutableProperties;
 import io.annot8.conventions.PropertyKeys;
-import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 @ComponentName("Binarize Image")
 @ComponentDescription("Binarize an image to black and white")
@@ -46,6 +47,14 @@ public class BinarizeImage
   public static class Processor extends AbstractProcessor {
 
     private static final String PROPERTY_KEY_BINARY_METHOD = "binary-method";
+
+    // Pixel values as stored in a TYPE_INT_RGB image
+    private static final int WHITE = 0xFFFFFF;
+    private static final int BLACK = 0x000000;
+
+    private static final int BAND_HEIGHT = 64;
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+
     private final Settings settings;
 
     public Processor(Settings settings) {
@@ -95,61 +104,72 @@ public class BinarizeImage
       }
     }
 
-    private BufferedImage greyscale(BufferedImage image, int width, int height) {
-
-      BufferedImage greyscale = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-      for (int i = 0; i < width; i++) {
-        for (int j = 0; j < height; j++) {
-
-          Color color = new Color(image.getRGB(i, j));
-          int alpha = color.getAlpha();
-          int red = color.getRed();
-          int green = color.getGreen();
-          int blue = color.getBlue();
-
-          // https://en.wikipedia.org/wiki/Grayscale
-          int grey = (int) (0.2126 * red + 0.7152 * green + 0.0722 * blue);
-
-          new Color(grey, grey, grey, alpha).getRGB();
-
-          greyscale.setRGB(i, j, new Color(grey, grey, grey, alpha).getRGB());
-        }
-      }
-      return greyscale;
-    }
-
-    private BufferedImage binarizeImageByLuminosity(BufferedImage image, int width, int height) {
-
+    private static BufferedImage binarizeImageByLuminosity(
+        BufferedImage image, int width, int height) {
       BufferedImage binaryImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      int[] out = ((DataBufferInt) binaryImage.getRaster().getDataBuffer()).getData();
+
+      forEachBand(
+          height,
+          width,
+          (from, to) -> {
+            PixelRows rows = new PixelRows(image);
+            int[] row = rows.createRow();
+
+            for (int y = from; y < to; y++) {
+              rows.read(y, row);
+
+              int offset = y * width;
+              for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int m = ((rgb >> 16) & 0xFF) + ((rgb >> 8) & 0xFF) + (rgb & 0xFF);
+                out[offset + x] = m >= 383 ? WHITE : BLACK;
+              }
+            }
+          });
 
-      for (int i = 0; i < width; i++) {
-        for (int j = 0; j < height; j++) {
-          Color color = new Color(image.getRGB(i, j));
-          int red = color.getRed();
-          int green = color.getGreen();
-          int blue = color.getBlue();
-          int m = (red + green + blue);
-          if (m >= 383) {
-            binaryImage.setRGB(i, j, Color.WHITE.getRGB());
-          } else {
-            binaryImage.setRGB(i, j, Color.BLACK.getRGB());
-          }
-        }
-      }
       return binaryImage;
     }
 
-    private static int[] getHistogram(BufferedImage image, int width, int height) {
-      final int[] histogram = new int[256];
-
-      for (int i = 0; i < histogram.length; i++) histogram[i] = 0;
-
-      for (int y = 0; y < height; y++) {
-        for (int x = 0; x < width; x++) {
-          final int value = image.getRGB(x, y) & 0xFF;
-          histogram[value]++;
-        }
+    /**
+     * Convert the image to greyscale, storing the grey level of each pixel in row-major order in
+     * grey, and return the histogram of grey levels
+     */
+    private static int[] greyscale(BufferedImage image, int width, int height, byte[] grey) {
+      int bands = bandCount(height);
+      int[][] histograms = new int[bands][256];
+
+      forEachBand(
+          height,
+          width,
+          (from, to) -> {
+            PixelRows rows = new PixelRows(image);
+            int[] row = rows.createRow();
+            int[] histogram = histograms[from / BAND_HEIGHT];
+
+            for (int y = from; y < to; y++) {
+              rows.read(y, row);
+
+              int offset = y * width;
+              for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+
+                // https://en.wikipedia.org/wiki/Grayscale
+                int g =
+                    (int)
+                        (0.2126 * ((rgb >> 16) & 0xFF)
+                            + 0.7152 * ((rgb >> 8) & 0xFF)
+                            + 0.0722 * (rgb & 0xFF));
+
+                grey[offset + x] = (byte) g;
+                histogram[g]++;
+              }
+            }
+          });
+
+      int[] histogram = histograms[0];
+      for (int b = 1; b < bands; b++) {
+        for (int i = 0; i < 256; i++) histogram[i] += histograms[b][i];
       }
 
       return histogram;
@@ -157,16 +177,17 @@ public class BinarizeImage
 
     private static int getOtsuThreshold(int[] histogram, int noOfPixels) {
 
-      int sum = 0;
+      // Weighted sums overflow an int, and lose precision as a float, on page sized images
+      long sum = 0;
       for (int i = 0; i < histogram.length; i++) {
-        sum += i * histogram[i];
+        sum += (long) i * histogram[i];
       }
 
-      float sumB = 0;
+      long sumB = 0;
       int wB = 0;
       int wF = 0;
 
-      float varMax = 0;
+      double varMax = 0;
       int threshold = 0;
 
       for (int i = 0; i < 256; i++) {
@@ -182,11 +203,11 @@ public class BinarizeImage
           break;
         }
 
-        sumB += i * histogram[i];
-        float mB = sumB / wB;
-        float mF = (sum - sumB) / wF;
+        sumB += (long) i * histogram[i];
+        double mB = (double) sumB / wB;
+        double mF = (double) (sum - sumB) / wF;
 
-        float varBetween = (float) wB * (float) wF * (mB - mF) * (mB - mF);
+        double varBetween = (double) wB * (double) wF * (mB - mF) * (mB - mF);
 
         if (varBetween > varMax) {
           varMax = varBetween;
@@ -197,26 +218,42 @@ public class BinarizeImage
       return threshold;
     }
 
-    private BufferedImage binarizeImageUsingOtsu(BufferedImage image, int width, int height) {
-      BufferedImage greyscale = greyscale(image, width, height);
-      int[] histogram = getHistogram(greyscale, width, height);
+    private static BufferedImage binarizeImageUsingOtsu(
+        BufferedImage image, int width, int height) {
+      byte[] grey = new byte[width * height];
+      int[] histogram = greyscale(image, width, height, grey);
       int threshold = getOtsuThreshold(histogram, width * height);
 
       BufferedImage binaryImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      int[] out = ((DataBufferInt) binaryImage.getRaster().getDataBuffer()).getData();
+
+      forEachBand(
+          height,
+          width,
+          (from, to) -> {
+            for (int i = from * width; i < to * width; i++) {
+              out[i] = (grey[i] & 0xFF) > threshold ? WHITE : BLACK;
+            }
+          });
 
-      for (int i = 0; i < width; i++) {
-        for (int j = 0; j < height; j++) {
-          final int value = greyscale.getRGB(i, j) & 0xFF;
-          if (value > threshold) {
-            binaryImage.setRGB(i, j, Color.WHITE.getRGB());
-          } else {
-            binaryImage.setRGB(i, j, Color.BLACK.getRGB());
-          }
-        }
-      }
       return binaryImage;
     }
 
+    private static int bandCount(int height) {
+      return (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+    }
+
+    /**
+     * Split the rows of the image into bands of {@link #BAND_HEIGHT} rows, and process each band.
+     * Bands are processed in parallel if the image is large enough for it to be worthwhile.
+     */
+    private static void forEachBand(int height, int width, BandConsumer consumer) {
+      IntStream bands = IntStream.range(0, bandCount(height));
+      if ((long) width * height >= PARALLEL_THRESHOLD) bands = bands.parallel();
+
+      bands.forEach(b -> consumer.accept(b * BAND_HEIGHT, Math.min(height, (b + 1) * BAND_HEIGHT)));
+    }
+
     private void addImage(Item item, Image original, BufferedImage image) {
       item.createContent(Image.class)
           .withId(original.getId() + "-binary")
@@ -233,6 +270,12 @@ public class BinarizeImage
           .withProperty(PropertyKeys.PROPERTY_KEY_TYPE, image.getType())
           .save();
     }
+
+    @FunctionalInterface
+    private interface BandConsumer {
+      /** Process the rows from (inclusive) to (exclusive) */
+      void accept(int from, int to);
+    }
   }
 
   public static class Settings implements io.annot8.api.settings.Settings {
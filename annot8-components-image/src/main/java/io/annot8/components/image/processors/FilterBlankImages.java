@@ -13,6 +13,7 @@ import io.annot8.common.components.AbstractProcessor;
 import io.annot8.common.components.AbstractProcessorDescriptor;
 import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.content.Image;
+import java.awt.image.BufferedImage;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -37,23 +38,28 @@ public class FilterBlankImages
     public ProcessorResponse process(Item item) {
       List<Image> toRemove =
           item.getContents(Image.class)
-              .filter(
-                  i -> {
-                    int colour = i.getData().getRGB(0, 0);
-
-                    for (int x = 0; x < i.getWidth(); x++) {
-                      for (int y = 0; y < i.getHeight(); y++) {
-                        if (colour != i.getData().getRGB(x, y)) return false;
-                      }
-                    }
-
-                    return true;
-                  })
+              .filter(i -> isBlank(i.getData()))
               .collect(Collectors.toList());
 
       for (Image i : toRemove) item.removeContent(i);
 
       return ProcessorResponse.ok();
     }
+
+    /** Whether every pixel in the image is the same colour, reading the image a row at a time */
+    private static boolean isBlank(BufferedImage image) {
+      PixelRows rows = new PixelRows(image);
+      int[] row = rows.createRow();
+      int colour = image.getRGB(0, 0);
+
+      for (int y = 0; y < image.getHeight(); y++) {
+        rows.read(y, row);
+        for (int rgb : row) {
+          if (rgb != colour) return false;
+        }
+      }
+
+      return true;
+    }
   }
 }
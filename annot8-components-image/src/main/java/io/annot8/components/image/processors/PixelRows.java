@@ -0,0 +1,71 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.image.processors;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+
+/**
+ * Reads rows of pixels from a {@link BufferedImage} as packed ARGB values, identical to those
+ * returned by {@link BufferedImage#getRGB(int, int)}.
+ *
+ * <p>For the common image types, the values are read directly from the raster rather than being
+ * converted pixel by pixel through the colour model. Other types fall back to reading the row with
+ * {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+ *
+ * <p>Instances hold buffers for a single row, and so shouldn't be shared between threads.
+ */
+class PixelRows {
+
+  private final BufferedImage image;
+  private final WritableRaster raster;
+  private final int width;
+  private final int[] samples;
+
+  PixelRows(BufferedImage image) {
+    this.image = image;
+    this.raster = image.getRaster();
+    this.width = image.getWidth();
+
+    switch (image.getType()) {
+      case BufferedImage.TYPE_3BYTE_BGR:
+        samples = new int[width * 3];
+        break;
+      case BufferedImage.TYPE_4BYTE_ABGR:
+        samples = new int[width * 4];
+        break;
+      default:
+        samples = null;
+    }
+  }
+
+  /** Create an array large enough to hold a row of the image */
+  int[] createRow() {
+    return new int[width];
+  }
+
+  /** Read row y of the image into row, as packed ARGB values */
+  void read(int y, int[] row) {
+    switch (image.getType()) {
+      case BufferedImage.TYPE_INT_RGB:
+        raster.getDataElements(0, y, width, 1, row);
+        for (int x = 0; x < width; x++) row[x] |= 0xFF000000;
+        break;
+      case BufferedImage.TYPE_INT_ARGB:
+        raster.getDataElements(0, y, width, 1, row);
+        break;
+      case BufferedImage.TYPE_3BYTE_BGR:
+        // Samples are returned in band order, which is red, green, blue
+        raster.getPixels(0, y, width, 1, samples);
+        for (int x = 0, s = 0; x < width; x++, s += 3)
+          row[x] = 0xFF000000 | samples[s] << 16 | samples[s + 1] << 8 | samples[s + 2];
+        break;
+      case BufferedImage.TYPE_4BYTE_ABGR:
+        raster.getPixels(0, y, width, 1, samples);
+        for (int x = 0, s = 0; x < width; x++, s += 4)
+          row[x] = samples[s + 3] << 24 | samples[s] << 16 | samples[s + 1] << 8 | samples[s + 2];
+        break;
+      default:
+        image.getRGB(0, y, width, 1, row, 0, width);
+    }
+  }
+}
@@ -13,7 +13,9 @@ import io.annot8.components.image.processors.BinarizeImage.Method;
 import io.annot8.testing.testimpl.TestItem;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 import java.io.IOException;
+import java.util.Random;
 import javax.imageio.ImageIO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -116,4 +118,84 @@ public class BinarizeImageTest {
       testQuads(img, Color.WHITE, Color.WHITE, Color.BLACK, Color.BLACK);
     }
   }
+
+  @Test
+  public void testLargeImage() throws Exception {
+    // Large enough for the image to be processed in parallel bands
+    Random random = new Random(20);
+    BufferedImage image = new BufferedImage(1100, 1000, BufferedImage.TYPE_3BYTE_BGR);
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        // Light top half and dark bottom half, with noise
+        int base = y < image.getHeight() / 2 ? 160 : 0;
+        image.setRGB(x, y, new Color(base + random.nextInt(96), base, base).getRGB());
+      }
+    }
+
+    Item large = new TestItem();
+    large.createContent(Image.class).withData(image).save();
+
+    for (Method method : Method.values()) {
+      BinarizeImage.Settings s =
+          BinarizeImage.Settings.builder().withDiscardOriginal(false).withMethod(method).build();
+
+      try (BinarizeImage.Processor p = new BinarizeImage.Processor(s)) {
+        p.process(large);
+      }
+    }
+
+    large
+        .getContents(Image.class)
+        .filter(i -> i.getProperties().has("binary-method"))
+        .forEach(
+            i -> {
+              BufferedImage binary = i.getData();
+              Method method = i.getProperties().get("binary-method", Method.class).orElseThrow();
+
+              for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                  Color c = new Color(image.getRGB(x, y));
+                  boolean white;
+                  if (method == Method.LUMINOSITY) {
+                    white = c.getRed() + c.getGreen() + c.getBlue() >= 383;
+                  } else {
+                    white = y < image.getHeight() / 2;
+                  }
+
+                  assertEquals(white ? Color.WHITE : Color.BLACK, new Color(binary.getRGB(x, y)));
+                }
+              }
+            });
+  }
+
+  @Test
+  public void testOtsuPageSizedImage() throws Exception {
+    // A4 at 300 dpi, with an off-white background and a band of grey text, which is large enough
+    // that the weighted sum of the histogram doesn't fit in an int
+    BufferedImage image = new BufferedImage(2480, 3508, BufferedImage.TYPE_3BYTE_BGR);
+    byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    for (int y = 0, i = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        byte v = (byte) (y >= 1000 && y < 1040 ? 100 : 248 + x % 8);
+        data[i++] = v;
+        data[i++] = v;
+        data[i++] = v;
+      }
+    }
+
+    Item page = new TestItem();
+    page.createContent(Image.class).withData(image).save();
+
+    BinarizeImage.Settings s =
+        BinarizeImage.Settings.builder().withDiscardOriginal(true).withMethod(Method.OTSU).build();
+    try (BinarizeImage.Processor p = new BinarizeImage.Processor(s)) {
+      p.process(page);
+    }
+
+    BufferedImage binary = page.getContents(Image.class).findFirst().orElseThrow().getData();
+    for (int y = 0; y < binary.getHeight(); y += 5) {
+      Color expected = y >= 1000 && y < 1040 ? Color.BLACK : Color.WHITE;
+      for (int x = 0; x < 8; x++) assertEquals(expected, new Color(binary.getRGB(x, y)));
+    }
+  }
 }
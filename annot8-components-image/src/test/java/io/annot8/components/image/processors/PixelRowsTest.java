@@ -0,0 +1,47 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.image.processors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class PixelRowsTest {
+
+  @Test
+  public void testMatchesGetRGB() {
+    Random random = new Random(20);
+
+    for (int type :
+        new int[] {
+          BufferedImage.TYPE_INT_RGB,
+          BufferedImage.TYPE_INT_ARGB,
+          BufferedImage.TYPE_INT_ARGB_PRE,
+          BufferedImage.TYPE_3BYTE_BGR,
+          BufferedImage.TYPE_4BYTE_ABGR,
+          BufferedImage.TYPE_BYTE_GRAY,
+          BufferedImage.TYPE_BYTE_BINARY
+        }) {
+      BufferedImage image = new BufferedImage(37, 23, type);
+      for (int y = 0; y < image.getHeight(); y++) {
+        for (int x = 0; x < image.getWidth(); x++) image.setRGB(x, y, random.nextInt());
+      }
+
+      assertRowsMatch(image);
+      assertRowsMatch(image.getSubimage(5, 3, 20, 11));
+    }
+  }
+
+  private static void assertRowsMatch(BufferedImage image) {
+    PixelRows rows = new PixelRows(image);
+    int[] row = rows.createRow();
+
+    for (int y = 0; y < image.getHeight(); y++) {
+      rows.read(y, row);
+      for (int x = 0; x < image.getWidth(); x++) {
+        assertEquals(image.getRGB(x, y), row[x], "Type " + image.getType() + " at " + x + "," + y);
+      }
+    }
+  }
+}
@@ -21,13 +21,19 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.record.TimestampType;
 
 @ComponentName("Apache Kafka")
@@ -48,44 +54,151 @@ public class KafkaSource
     return new Source(settings);
   }
 
+  /**
+   * Reads records from Kafka and creates an item for each.
+   *
+   * <p>Offsets are committed manually, giving at-least-once delivery. The offsets of records turned
+   * into items by one read are committed at the start of the next read, once the pipeline has
+   * accepted those items, and when the source is closed.
+   *
+   * <p>At most {@link Settings#getMaxItemsPerRead()} items are created per read. Records fetched
+   * beyond that are held until later reads, and whilst any are held the assigned partitions are
+   * paused so that no more records are fetched until the pipeline has caught up.
+   */
   public static class Source extends AbstractSource {
 
     private final Consumer<Object, Object> consumer;
     private static final String CONTENT_DESCRIPTION = "Value of Apache Kafka record";
 
+    private final Duration pollTimeout;
+    private final int maxItemsPerRead;
+
+    private final Deque<ConsumerRecord<Object, Object>> pending = new ArrayDeque<>();
+    private final Map<TopicPartition, OffsetAndMetadata> toCommit = new HashMap<>();
+
     public Source(Settings settings) {
       Map<String, Object> props = new HashMap<>();
 
       props.put("bootstrap.servers", String.join(",", settings.getServers()));
       props.put("group.id", settings.getGroupId());
-      props.put("enable.auto.commit", "true");
-      props.put("auto.commit.interval.ms", "1000");
+      props.put("enable.auto.commit", "false");
+      props.put("max.poll.records", settings.getMaxPollRecords());
       props.put("key.deserializer", settings.getKeyDeserializer());
       props.put("value.deserializer", settings.getValueDeserializer());
 
       props.putAll(settings.getOverrideProperties());
 
-      consumer = new KafkaConsumer<>(props);
-      consumer.subscribe(settings.getTopics());
+      this.consumer = new KafkaConsumer<>(props);
+      this.pollTimeout = Duration.ofMillis(settings.getPollTimeout());
+      this.maxItemsPerRead = settings.getMaxItemsPerRead();
+
+      consumer.subscribe(settings.getTopics(), new RebalanceListener());
     }
 
     // Primarily for testing
     protected Source(Consumer<Object, Object> consumer, List<String> topics) {
+      this(consumer, settingsForTopics(topics));
+    }
+
+    // Primarily for testing
+    protected Source(Consumer<Object, Object> consumer, Settings settings) {
       this.consumer = consumer;
-      this.consumer.subscribe(topics);
+      this.pollTimeout = Duration.ofMillis(settings.getPollTimeout());
+      this.maxItemsPerRead = settings.getMaxItemsPerRead();
+
+      this.consumer.subscribe(settings.getTopics(), new RebalanceListener());
     }
 
     @Override
     public SourceResponse read(ItemFactory itemFactory) {
-      ConsumerRecords<Object, Object> records = consumer.poll(Duration.ofMillis(100));
+      commitAccepted();
+
+      if (pending.isEmpty()) {
+        consumer.resume(consumer.paused());
+        consumer.poll(pollTimeout).forEach(pending::add);
+      } else {
+        // Still working through earlier records, so stop fetching more but keep polling so that
+        // we remain part of the consumer group. Newly assigned partitions may still return records.
+        consumer.pause(consumer.assignment());
+        consumer.poll(Duration.ZERO).forEach(pending::add);
+      }
 
-      if (records.isEmpty()) return SourceResponse.empty();
+      if (pending.isEmpty()) return SourceResponse.empty();
 
-      records.forEach(record -> createItemFromRecord(itemFactory, record));
+      for (int i = 0; i < maxItemsPerRead && !pending.isEmpty(); i++) {
+        ConsumerRecord<Object, Object> record = pending.poll();
+        createItemFromRecord(itemFactory, record);
+
+        toCommit.put(
+            new TopicPartition(record.topic(), record.partition()),
+            new OffsetAndMetadata(record.offset() + 1));
+      }
 
       return SourceResponse.ok();
     }
 
+    @Override
+    public void close() {
+      try {
+        if (!toCommit.isEmpty()) {
+          consumer.commitSync(toCommit);
+          toCommit.clear();
+        }
+      } catch (KafkaException e) {
+        log().warn("Unable to commit offsets on close", e);
+      }
+
+      consumer.close();
+      super.close();
+    }
+
+    private void commitAccepted() {
+      if (toCommit.isEmpty()) return;
+
+      consumer.commitAsync(
+          new HashMap<>(toCommit),
+          (offsets, e) -> {
+            if (e != null) log().warn("Unable to commit offsets {}", offsets, e);
+          });
+      toCommit.clear();
+    }
+
+    private static Settings settingsForTopics(List<String> topics) {
+      Settings settings = new Settings();
+      settings.setTopics(topics);
+      return settings;
+    }
+
+    /**
+     * On rebalance, commit what has been read from the revoked partitions and drop any records
+     * still held for them, as they will be delivered to the partitions' new owner.
+     */
+    private class RebalanceListener implements ConsumerRebalanceListener {
+      @Override
+      public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> revoked = new HashMap<>();
+        for (TopicPartition tp : partitions) {
+          OffsetAndMetadata offset = toCommit.remove(tp);
+          if (offset != null) revoked.put(tp, offset);
+        }
+
+        if (!revoked.isEmpty()) {
+          try {
+            consumer.commitSync(revoked);
+          } catch (KafkaException e) {
+            log().warn("Unable to commit offsets for revoked partitions", e);
+          }
+        }
+
+        pending.removeIf(r -> partitions.contains(new TopicPartition(r.topic(), r.partition())));
+      }
+
+      @Override
+      public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        // Do nothing - committed offsets are used
+      }
+    }
+
     public static Item createItemFromRecord(
         ItemFactory itemFactory, ConsumerRecord<Object, Object> record) {
       Item item = itemFactory.create();
@@ -111,13 +224,16 @@ public class KafkaSource
             .withDescription(CONTENT_DESCRIPTION)
             .save();
       } else if (value instanceof byte[]) {
+        byte[] bytes = (byte[]) value;
         item.createContent(InputStreamContent.class)
-            .withData(new ByteArrayInputStream((byte[]) value))
+            .withData(() -> new ByteArrayInputStream(bytes))
             .withDescription(CONTENT_DESCRIPTION)
             .save();
       } else if (value instanceof ByteBuffer) {
+        // Wrap the buffer rather than copying it, and only expose its remaining bytes
+        ByteBuffer buffer = (ByteBuffer) value;
         item.createContent(InputStreamContent.class)
-            .withData(new ByteArrayInputStream(((ByteBuffer) value).array()))
+            .withData(() -> new ByteBufferInputStream(buffer))
             .withDescription(CONTENT_DESCRIPTION)
             .save();
       }
@@ -152,6 +268,9 @@ public class KafkaSource
     private String valueDeserializer = "org.apache.kafka.common.serialization.StringDeserializer";
     private String groupId = "annot8";
     private Map<String, Object> overrideProperties = new HashMap<>();
+    private int maxPollRecords = 500;
+    private long pollTimeout = 100;
+    private int maxItemsPerRead = 100;
 
     @Override
     public boolean validate() {
@@ -169,7 +288,10 @@ public class KafkaSource
           && servers != null
           && !servers.isEmpty()
           && groupId != null
-          && overrideProperties != null;
+          && overrideProperties != null
+          && maxPollRecords > 0
+          && pollTimeout >= 0
+          && maxItemsPerRead > 0;
     }
 
     @Description("The Apache Kafka topics to subscribe to")
@@ -231,5 +353,39 @@ public class KafkaSource
     public void setOverrideProperties(Map<String, Object> overrideProperties) {
       this.overrideProperties = overrideProperties;
     }
+
+    @Description(
+        value = "The maximum number of records to fetch from Apache Kafka in each poll",
+        defaultValue = "500")
+    public int getMaxPollRecords() {
+      return maxPollRecords;
+    }
+
+    public void setMaxPollRecords(int maxPollRecords) {
+      this.maxPollRecords = maxPollRecords;
+    }
+
+    @Description(
+        value = "The time in milliseconds to wait for records when polling Apache Kafka",
+        defaultValue = "100")
+    public long getPollTimeout() {
+      return pollTimeout;
+    }
+
+    public void setPollTimeout(long pollTimeout) {
+      this.pollTimeout = pollTimeout;
+    }
+
+    @Description(
+        value =
+            "The maximum number of items to create in each read, with any further records held until the next read",
+        defaultValue = "100")
+    public int getMaxItemsPerRead() {
+      return maxItemsPerRead;
+    }
+
+    public void setMaxItemsPerRead(int maxItemsPerRead) {
+      this.maxItemsPerRead = maxItemsPerRead;
+    }
   }
 }
@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.MockConsumer;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
@@ -72,6 +73,75 @@ public class KafkaSourceTest {
     }
   }
 
+  @Test
+  public void testManualCommit() {
+    // Don't close, so that the committed offsets can be checked after the source is closed
+    MockConsumer<Object, Object> mockConsumer =
+        new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+          @Override
+          public synchronized void close() {
+            // Do nothing
+          }
+        };
+    TopicPartition tp = new TopicPartition("en", 0);
+    mockConsumer.updateBeginningOffsets(Map.of(tp, 0L));
+
+    try (KafkaSource.Source source = new KafkaSource.Source(mockConsumer, List.of("en"))) {
+      mockConsumer.rebalance(List.of(tp));
+      mockConsumer.addRecord(new ConsumerRecord<>("en", 0, 0, "greeting", "Hello"));
+      mockConsumer.addRecord(new ConsumerRecord<>("en", 0, 1, "greeting", "Hi"));
+
+      TestItemFactory tif = new TestItemFactory();
+      assertEquals(SourceResponse.ok(), source.read(tif));
+
+      // Not committed until the next read, once the items have been accepted
+      assertNull(mockConsumer.committed(Set.of(tp)).get(tp));
+
+      assertEquals(SourceResponse.empty(), source.read(tif));
+      assertEquals(2L, mockConsumer.committed(Set.of(tp)).get(tp).offset());
+
+      mockConsumer.addRecord(new ConsumerRecord<>("en", 0, 2, "greeting", "Hey"));
+      assertEquals(SourceResponse.ok(), source.read(tif));
+    }
+
+    // Committed on close
+    assertEquals(3L, mockConsumer.committed(Set.of(tp)).get(tp).offset());
+  }
+
+  @Test
+  public void testPauseWhilstBehind() {
+    MockConsumer<Object, Object> mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    TopicPartition tp = new TopicPartition("en", 0);
+    mockConsumer.updateBeginningOffsets(Map.of(tp, 0L));
+
+    KafkaSource.Settings settings = new KafkaSource.Settings();
+    settings.setTopics(List.of("en"));
+    settings.setMaxItemsPerRead(2);
+
+    try (KafkaSource.Source source = new KafkaSource.Source(mockConsumer, settings)) {
+      mockConsumer.rebalance(List.of(tp));
+      for (int i = 0; i < 5; i++) {
+        mockConsumer.addRecord(new ConsumerRecord<>("en", 0, i, "greeting", "Hello " + i));
+      }
+
+      TestItemFactory tif = new TestItemFactory();
+
+      assertEquals(SourceResponse.ok(), source.read(tif));
+      assertEquals(2, tif.getCreatedItems().size());
+      assertTrue(mockConsumer.paused().isEmpty());
+
+      assertEquals(SourceResponse.ok(), source.read(tif));
+      assertEquals(4, tif.getCreatedItems().size());
+      assertEquals(Set.of(tp), mockConsumer.paused());
+
+      assertEquals(SourceResponse.ok(), source.read(tif));
+      assertEquals(5, tif.getCreatedItems().size());
+
+      assertEquals(SourceResponse.empty(), source.read(tif));
+      assertTrue(mockConsumer.paused().isEmpty());
+    }
+  }
+
   @Test
   public void testCreateItemFromRecordText() {
     TestItemFactory tif = new TestItemFactory();
@@ -151,6 +221,22 @@ public class KafkaSourceTest {
     assertNotNull(content.getDescription());
   }
 
+  @Test
+  public void testCreateItemFromRecordByteBufferSlice() throws IOException {
+    TestItemFactory tif = new TestItemFactory();
+
+    ByteBuffer buffer = ByteBuffer.wrap("<<Hello>>".getBytes(StandardCharsets.UTF_8), 2, 5);
+    Item item =
+        KafkaSource.Source.createItemFromRecord(
+            tif, new ConsumerRecord<>("en", 0, 0L, "greeting", buffer));
+
+    InputStream is = ((InputStreamContent) item.getContents().findFirst().orElseThrow()).getData();
+    assertArrayEquals("Hello".getBytes(StandardCharsets.UTF_8), is.readAllBytes());
+
+    // The original buffer isn't consumed
+    assertEquals(5, buffer.remaining());
+  }
+
   @Test
   public void testAddTimestampToItemNoTimestamp() {
     Item item = new TestItem();
@@ -219,6 +305,21 @@ public class KafkaSourceTest {
 
     assertTrue(settings.validate());
 
+    settings.setMaxPollRecords(50);
+    assertEquals(50, settings.getMaxPollRecords());
+
+    settings.setPollTimeout(250);
+    assertEquals(250, settings.getPollTimeout());
+
+    settings.setMaxItemsPerRead(10);
+    assertEquals(10, settings.getMaxItemsPerRead());
+
+    assertTrue(settings.validate());
+
+    settings.setMaxItemsPerRead(0);
+    assertFalse(settings.validate());
+    settings.setMaxItemsPerRead(10);
+
     settings.setKeyDeserializer("foobarbaz");
     assertFalse(settings.validate());
 
@@ -0,0 +1,52 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.codecs;
+
+import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.components.mongo.data.AnnotationDto;
+import org.bson.BsonWriter;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+
+/** Encoder writing an {@link AnnotationDto} directly to BSON */
+public class AnnotationDtoEncoder implements Encoder<AnnotationDto> {
+
+  private final ValueEncoder values;
+
+  public AnnotationDtoEncoder(ValueEncoder values) {
+    this.values = values;
+  }
+
+  @Override
+  public void encode(BsonWriter writer, AnnotationDto value, EncoderContext context) {
+    writer.writeStartDocument();
+    DtoEncoders.writeString(writer, "id", value.getId());
+    DtoEncoders.writeString(writer, "contentId", value.getContentId());
+    DtoEncoders.writeString(writer, "itemId", value.getItemId());
+    DtoEncoders.writeString(writer, "type", value.getType());
+
+    writer.writeName("properties");
+    values.encode(writer, value.getProperties(), context);
+
+    writer.writeName("bounds");
+    if (value.getBounds() instanceof SpanBounds) {
+      // By far the most common bounds, so write them directly rather than via Jackson
+      SpanBounds sb = (SpanBounds) value.getBounds();
+      writer.writeStartDocument();
+      writer.writeInt32("begin", sb.getBegin());
+      writer.writeInt32("end", sb.getEnd());
+      writer.writeInt32("length", sb.getLength());
+      writer.writeEndDocument();
+    } else {
+      values.encode(writer, value.getBounds(), context);
+    }
+
+    writer.writeName("data");
+    values.encode(writer, value.getData(), context);
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Class<AnnotationDto> getEncoderClass() {
+    return AnnotationDto.class;
+  }
+}
@@ -0,0 +1,52 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.codecs;
+
+import io.annot8.components.mongo.data.AnnotationDto;
+import io.annot8.components.mongo.data.ContentDto;
+import org.bson.BsonWriter;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+
+/** Encoder writing a {@link ContentDto}, and any nested annotations, directly to BSON */
+public class ContentDtoEncoder implements Encoder<ContentDto> {
+
+  private final ValueEncoder values;
+  private final AnnotationDtoEncoder annotationEncoder;
+
+  public ContentDtoEncoder(ValueEncoder values, AnnotationDtoEncoder annotationEncoder) {
+    this.values = values;
+    this.annotationEncoder = annotationEncoder;
+  }
+
+  @Override
+  public void encode(BsonWriter writer, ContentDto value, EncoderContext context) {
+    writer.writeStartDocument();
+    DtoEncoders.writeString(writer, "id", value.getId());
+    DtoEncoders.writeString(writer, "itemId", value.getItemId());
+    DtoEncoders.writeString(writer, "description", value.getDescription());
+    DtoEncoders.writeString(writer, "type", value.getType());
+
+    writer.writeName("data");
+    values.encode(writer, value.getData(), context);
+
+    writer.writeName("properties");
+    values.encode(writer, value.getProperties(), context);
+
+    writer.writeName("annotations");
+    if (value.getAnnotations() == null) {
+      writer.writeNull();
+    } else {
+      writer.writeStartArray();
+      for (AnnotationDto annotation : value.getAnnotations()) {
+        context.encodeWithChildContext(annotationEncoder, writer, annotation);
+      }
+      writer.writeEndArray();
+    }
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Class<ContentDto> getEncoderClass() {
+    return ContentDto.class;
+  }
+}
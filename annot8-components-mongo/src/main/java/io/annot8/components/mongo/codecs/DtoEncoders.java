@@ -0,0 +1,89 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.codecs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import io.annot8.components.mongo.data.AnnotationDto;
+import io.annot8.components.mongo.data.ContentDto;
+import io.annot8.components.mongo.data.ItemDto;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * Encoders which write {@link ItemDto}, {@link ContentDto} and {@link AnnotationDto} directly to
+ * BSON, without first serialising them to JSON.
+ *
+ * <p>The DTOs are only ever written, so these are {@link Encoder}s rather than codecs, and aren't
+ * registered with a {@link CodecRegistry}. Values within the DTOs are written using the codecs in
+ * the registry where one exists.
+ */
+public class DtoEncoders {
+
+  private final AnnotationDtoEncoder annotationEncoder;
+  private final ContentDtoEncoder contentEncoder;
+  private final ItemDtoEncoder itemEncoder;
+
+  public DtoEncoders() {
+    this(new ObjectMapper());
+  }
+
+  public DtoEncoders(ObjectMapper mapper) {
+    this(MongoClientSettings.getDefaultCodecRegistry(), mapper);
+  }
+
+  public DtoEncoders(CodecRegistry registry, ObjectMapper mapper) {
+    ValueEncoder values = new ValueEncoder(registry, mapper);
+    annotationEncoder = new AnnotationDtoEncoder(values);
+    contentEncoder = new ContentDtoEncoder(values, annotationEncoder);
+    itemEncoder = new ItemDtoEncoder(values, contentEncoder);
+  }
+
+  /** Get the encoder for the given DTO class, or null if it isn't a DTO */
+  @SuppressWarnings("unchecked")
+  public <T> Encoder<T> get(Class<T> clazz) {
+    if (clazz == ItemDto.class) {
+      return (Encoder<T>) itemEncoder;
+    } else if (clazz == ContentDto.class) {
+      return (Encoder<T>) contentEncoder;
+    } else if (clazz == AnnotationDto.class) {
+      return (Encoder<T>) annotationEncoder;
+    }
+
+    return null;
+  }
+
+  /**
+   * Encode the DTO as a BSON document
+   *
+   * @throws CodecConfigurationException if the object isn't a DTO
+   * @throws org.bson.BsonSerializationException if a value within the DTO can't be encoded
+   */
+  @SuppressWarnings("unchecked")
+  public <T> RawBsonDocument encode(T value) {
+    Encoder<T> encoder = get((Class<T>) value.getClass());
+    if (encoder == null)
+      throw new CodecConfigurationException("No encoder for " + value.getClass().getName());
+
+    BasicOutputBuffer buffer = new BasicOutputBuffer();
+    try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+      encoder.encode(
+          writer, value, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+    }
+
+    return new RawBsonDocument(buffer.getInternalBuffer(), 0, buffer.getPosition());
+  }
+
+  static void writeString(BsonWriter writer, String name, String value) {
+    if (value == null) {
+      writer.writeNull(name);
+    } else {
+      writer.writeString(name, value);
+    }
+  }
+}
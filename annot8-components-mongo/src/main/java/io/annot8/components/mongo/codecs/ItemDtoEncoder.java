@@ -0,0 +1,47 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.codecs;
+
+import io.annot8.components.mongo.data.ContentDto;
+import io.annot8.components.mongo.data.ItemDto;
+import org.bson.BsonWriter;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+
+/** Encoder writing an {@link ItemDto}, and any nested contents, directly to BSON */
+public class ItemDtoEncoder implements Encoder<ItemDto> {
+
+  private final ValueEncoder values;
+  private final ContentDtoEncoder contentEncoder;
+
+  public ItemDtoEncoder(ValueEncoder values, ContentDtoEncoder contentEncoder) {
+    this.values = values;
+    this.contentEncoder = contentEncoder;
+  }
+
+  @Override
+  public void encode(BsonWriter writer, ItemDto value, EncoderContext context) {
+    writer.writeStartDocument();
+    DtoEncoders.writeString(writer, "id", value.getId());
+    DtoEncoders.writeString(writer, "parentId", value.getParentId());
+
+    writer.writeName("properties");
+    values.encode(writer, value.getProperties(), context);
+
+    writer.writeName("contents");
+    if (value.getContents() == null) {
+      writer.writeNull();
+    } else {
+      writer.writeStartArray();
+      for (ContentDto content : value.getContents()) {
+        context.encodeWithChildContext(contentEncoder, writer, content);
+      }
+      writer.writeEndArray();
+    }
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Class<ItemDto> getEncoderClass() {
+    return ItemDto.class;
+  }
+}
@@ -0,0 +1,113 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.codecs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Array;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bson.BsonSerializationException;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Encodes arbitrary property, data and bounds values to BSON.
+ *
+ * <p>Maps, collections and arrays are written as documents and arrays, and common primitive types
+ * are written directly. Any other type with a codec in the registry (for example dates, {@link
+ * org.bson.types.ObjectId} and {@link org.bson.Document}) is written using that codec. As a last
+ * resort, objects are converted into maps and lists with Jackson and then written, which gives the
+ * same structure as serialising them to JSON.
+ */
+public class ValueEncoder {
+
+  private final CodecRegistry registry;
+  private final ObjectMapper mapper;
+  private final Map<Class<?>, Optional<Codec<Object>>> codecs = new ConcurrentHashMap<>();
+
+  public ValueEncoder(CodecRegistry registry, ObjectMapper mapper) {
+    this.registry = registry;
+    this.mapper = mapper;
+  }
+
+  /** Write the value to the writer, which should be positioned at a value (e.g. after a name) */
+  public void encode(BsonWriter writer, Object value, EncoderContext context) {
+    if (value == null) {
+      writer.writeNull();
+    } else if (value instanceof String) {
+      writer.writeString((String) value);
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      writer.writeInt32(((Number) value).intValue());
+    } else if (value instanceof Long) {
+      writer.writeInt64((Long) value);
+    } else if (value instanceof Double || value instanceof Float) {
+      writer.writeDouble(((Number) value).doubleValue());
+    } else if (value instanceof Boolean) {
+      writer.writeBoolean((Boolean) value);
+    } else if (value instanceof Character || value instanceof Enum) {
+      writer.writeString(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+    } else if (value instanceof Map) {
+      encodeMap(writer, (Map<?, ?>) value, context);
+    } else if (value instanceof Iterable) {
+      writer.writeStartArray();
+      for (Object o : (Iterable<?>) value) {
+        encode(writer, o, context);
+      }
+      writer.writeEndArray();
+    } else if (value.getClass().isArray() && !(value instanceof byte[])) {
+      writer.writeStartArray();
+      int length = Array.getLength(value);
+      for (int i = 0; i < length; i++) {
+        encode(writer, Array.get(value, i), context);
+      }
+      writer.writeEndArray();
+    } else {
+      Optional<Codec<Object>> codec = codecs.computeIfAbsent(value.getClass(), this::findCodec);
+      if (codec.isPresent()) {
+        context.encodeWithChildContext(codec.get(), writer, value);
+      } else {
+        encodeObject(writer, value, context);
+      }
+    }
+  }
+
+  /** Write the map as a document, using the string representation of the keys as the names */
+  public void encodeMap(BsonWriter writer, Map<?, ?> map, EncoderContext context) {
+    writer.writeStartDocument();
+    for (Map.Entry<?, ?> e : map.entrySet()) {
+      writer.writeName(String.valueOf(e.getKey()));
+      encode(writer, e.getValue(), context);
+    }
+    writer.writeEndDocument();
+  }
+
+  private void encodeObject(BsonWriter writer, Object value, EncoderContext context) {
+    Object converted;
+    try {
+      converted = mapper.convertValue(value, Object.class);
+    } catch (IllegalArgumentException e) {
+      throw new BsonSerializationException(
+          "Unable to encode object of type " + value.getClass().getName() + ": " + e.getMessage());
+    }
+
+    if (converted != null && converted.getClass() == value.getClass()) {
+      // Jackson couldn't break the object down any further, so avoid recursing forever
+      throw new BsonSerializationException(
+          "Unable to encode object of type " + value.getClass().getName());
+    }
+
+    encode(writer, converted, context);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Optional<Codec<Object>> findCodec(Class<?> clazz) {
+    try {
+      return Optional.of((Codec<Object>) registry.get(clazz));
+    } catch (CodecConfigurationException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -12,6 +12,8 @@ public class MongoConnectionSettings implements Settings {
   private String connection;
   private String database;
   private String collection;
+  private int shardIndex = 0;
+  private int shardCount = 1;
 
   @Description("Connection string")
   public String getConnection() {
@@ -40,13 +42,41 @@ public class MongoConnectionSettings implements Settings {
     this.collection = collection;
   }
 
+  @Description(
+      value =
+          "When reading with several processes, the index (from 0) of this process. Each process reads a distinct subset of the documents",
+      defaultValue = "0")
+  public int getShardIndex() {
+    return shardIndex;
+  }
+
+  public void setShardIndex(int shardIndex) {
+    this.shardIndex = shardIndex;
+  }
+
+  @Description(
+      value = "When reading with several processes, the total number of processes",
+      defaultValue = "1")
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  public void setShardCount(int shardCount) {
+    this.shardCount = shardCount;
+  }
+
   @Override
   public boolean validate() {
     return validateConnection()
         && database != null
         && !database.isEmpty()
         && collection != null
-        && !collection.isEmpty();
+        && !collection.isEmpty()
+        && validateShard();
+  }
+
+  public boolean validateShard() {
+    return shardCount > 0 && shardIndex >= 0 && shardIndex < shardCount;
   }
 
   public boolean validateConnection() {
@@ -0,0 +1,64 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.resources;
+
+import io.annot8.api.settings.Description;
+
+/** Connection settings for the Mongo sinks, along with settings to control batching of writes */
+public class MongoSinkSettings extends MongoConnectionSettings {
+
+  private boolean batching = false;
+  private int batchSize = 1000;
+  private long batchBytes = 8L * 1024 * 1024;
+  private long batchLinger = 1000;
+
+  @Description(
+      value =
+          "Should documents be batched across items and written with unordered bulk writes, rather than written once per item?",
+      defaultValue = "false")
+  public boolean isBatching() {
+    return batching;
+  }
+
+  public void setBatching(boolean batching) {
+    this.batching = batching;
+  }
+
+  @Description(
+      value = "If batching, the maximum number of documents to buffer before writing",
+      defaultValue = "1000")
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  @Description(
+      value = "If batching, the maximum size in bytes of the documents to buffer before writing",
+      defaultValue = "8388608")
+  public long getBatchBytes() {
+    return batchBytes;
+  }
+
+  public void setBatchBytes(long batchBytes) {
+    this.batchBytes = batchBytes;
+  }
+
+  @Description(
+      value =
+          "If batching, the maximum time in milliseconds that a document will be buffered before being written",
+      defaultValue = "1000")
+  public long getBatchLinger() {
+    return batchLinger;
+  }
+
+  public void setBatchLinger(long batchLinger) {
+    this.batchLinger = batchLinger;
+  }
+
+  @Override
+  public boolean validate() {
+    return super.validate() && (!batching || (batchSize > 0 && batchBytes > 0 && batchLinger > 0));
+  }
+}
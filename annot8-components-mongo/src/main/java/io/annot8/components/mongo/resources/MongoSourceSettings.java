@@ -0,0 +1,101 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.resources;
+
+import com.google.common.base.Strings;
+import io.annot8.api.settings.Description;
+import java.nio.file.Path;
+import org.bson.Document;
+
+/** Connection settings for the Mongo source, along with settings to control the query */
+public class MongoSourceSettings extends MongoConnectionSettings {
+
+  private int batchSize = 100;
+  private int maxItemsPerRead = 100;
+  private String filter = null;
+  private String projection = null;
+  private String sort = null;
+  private Path checkpointFile = null;
+
+  @Description(
+      value = "The number of documents to fetch from Mongo in each round trip",
+      defaultValue = "100")
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  @Description(
+      value =
+          "The maximum number of items to create in each read, limited to the documents already fetched from Mongo",
+      defaultValue = "100")
+  public int getMaxItemsPerRead() {
+    return maxItemsPerRead;
+  }
+
+  public void setMaxItemsPerRead(int maxItemsPerRead) {
+    this.maxItemsPerRead = maxItemsPerRead;
+  }
+
+  @Description("Query filter, as JSON, to select which documents are read")
+  public String getFilter() {
+    return filter;
+  }
+
+  public void setFilter(String filter) {
+    this.filter = filter;
+  }
+
+  @Description("Projection, as JSON, to select which fields of each document are read")
+  public String getProjection() {
+    return projection;
+  }
+
+  public void setProjection(String projection) {
+    this.projection = projection;
+  }
+
+  @Description(
+      "Sort order, as JSON, in which to read documents. Can't be used with a checkpoint file, as documents are then always read in _id order")
+  public String getSort() {
+    return sort;
+  }
+
+  public void setSort(String sort) {
+    this.sort = sort;
+  }
+
+  @Description(
+      "If set, the _id of the last document handed to the pipeline is saved to this file when the source next reads, and reading resumes after that document when the source is restarted")
+  public Path getCheckpointFile() {
+    return checkpointFile;
+  }
+
+  public void setCheckpointFile(Path checkpointFile) {
+    this.checkpointFile = checkpointFile;
+  }
+
+  @Override
+  public boolean validate() {
+    return super.validate()
+        && batchSize > 0
+        && maxItemsPerRead > 0
+        && isValidJson(filter)
+        && isValidJson(projection)
+        && isValidJson(sort)
+        && (checkpointFile == null || Strings.isNullOrEmpty(sort));
+  }
+
+  private static boolean isValidJson(String json) {
+    if (Strings.isNullOrEmpty(json)) return true;
+
+    try {
+      Document.parse(json);
+      return true;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+}
@@ -3,33 +3,65 @@ package io.annot8.components.mongo.sinks;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoCollection;
 import io.annot8.api.components.Processor;
 import io.annot8.api.components.responses.ProcessorResponse;
 import io.annot8.api.data.Item;
 import io.annot8.api.exceptions.Annot8Exception;
 import io.annot8.api.properties.Properties;
 import io.annot8.components.mongo.AbstractMongoComponent;
+import io.annot8.components.mongo.codecs.DtoEncoders;
 import io.annot8.components.mongo.resources.MongoConnectionSettings;
+import io.annot8.components.mongo.resources.MongoSinkSettings;
 import io.annot8.components.mongo.utils.MongoConnection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.bson.BsonSerializationException;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.configuration.CodecConfigurationException;
 
 public abstract class AbstractMongoSink extends AbstractMongoComponent implements Processor {
 
   private ObjectMapper mapper = new ObjectMapper();
+  private final DtoEncoders encoders = new DtoEncoders();
+  private WriteBatcher batcher = null;
 
   protected AbstractMongoSink(MongoConnectionSettings settings) {
     super(settings);
 
+    configureBatching(settings);
     configureMongo(getConnection());
   }
 
   protected AbstractMongoSink(MongoConnection<Document> connection) {
+    this(connection, null);
+  }
+
+  protected AbstractMongoSink(
+      MongoConnection<Document> connection, MongoConnectionSettings settings) {
     super(connection);
+
+    configureBatching(settings);
     configureMongo(getConnection());
   }
 
+  private void configureBatching(MongoConnectionSettings settings) {
+    if (!(settings instanceof MongoSinkSettings)) return;
+
+    MongoSinkSettings sinkSettings = (MongoSinkSettings) settings;
+    if (sinkSettings.isBatching()) {
+      batcher =
+          new WriteBatcher(
+              sinkSettings.getBatchSize(),
+              sinkSettings.getBatchBytes(),
+              sinkSettings.getBatchLinger(),
+              log(),
+              this::onBatchedFailure);
+    }
+  }
+
   protected abstract void storeItem(Item item) throws Annot8Exception;
 
   protected abstract void configureMongo(MongoConnection<Document> connection);
@@ -45,6 +77,73 @@ public abstract class AbstractMongoSink extends AbstractMongoComponent implement
     return ProcessorResponse.ok();
   }
 
+  /**
+   * Insert a document created from an item into the collection. If batching is enabled, the
+   * document is added to the batch and may not have been written when this method returns.
+   */
+  protected void insert(
+      Item item, MongoCollection<RawBsonDocument> collection, RawBsonDocument document) {
+    if (batcher != null) {
+      batcher.add(item.getId(), collection, List.of(document));
+    } else {
+      collection.insertOne(document);
+    }
+  }
+
+  /**
+   * Insert documents created from an item into the collection. If batching is enabled, the
+   * documents are added to the batch and may not have been written when this method returns.
+   */
+  protected void insert(
+      Item item, MongoCollection<RawBsonDocument> collection, List<RawBsonDocument> documents) {
+    if (documents.isEmpty()) return;
+
+    if (batcher != null) {
+      batcher.add(item.getId(), collection, documents);
+    } else {
+      collection.insertMany(documents);
+    }
+  }
+
+  /**
+   * Called when batching is enabled and a document fails to be written, with the ID of the item
+   * that the document was created from. This may be called from a background thread.
+   *
+   * <p>By default, failures are counted in the metrics as they have already been logged.
+   */
+  protected void onBatchedFailure(String itemId, Exception e) {
+    metrics().counter("batchedFailures").increment();
+  }
+
+  @Override
+  public void close() {
+    if (batcher != null) {
+      batcher.close();
+      batcher = null;
+    }
+
+    super.close();
+  }
+
+  /**
+   * Encode the object (typically an {@link io.annot8.components.mongo.data.ItemDto}, {@link
+   * io.annot8.components.mongo.data.ContentDto} or {@link
+   * io.annot8.components.mongo.data.AnnotationDto}) directly to BSON, ready to be inserted into a
+   * collection of {@link RawBsonDocument}.
+   */
+  protected <T> RawBsonDocument toBsonDocument(T object) throws Annot8Exception {
+    try {
+      return encoders.encode(object);
+    } catch (BsonSerializationException | CodecConfigurationException e) {
+      throw new Annot8Exception("Unable to encode object as BSON", e);
+    }
+  }
+
+  /**
+   * Convert the object to a {@link Document} by serialising it to JSON and parsing the result.
+   *
+   * <p>Prefer {@link #toBsonDocument(Object)}, which avoids the intermediate JSON.
+   */
   protected Document toMongoDocument(Object object) throws JsonProcessingException {
     String json = mapper.writeValueAsString(object);
     return Document.parse(json);
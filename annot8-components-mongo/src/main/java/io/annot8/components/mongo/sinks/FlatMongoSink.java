@@ -1,7 +1,6 @@
 /* Annot8 (annot8.io) - Licensed under Apache-2.0. */
 package io.annot8.components.mongo.sinks;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import io.annot8.api.annotations.Annotation;
@@ -20,6 +19,7 @@ import io.annot8.components.mongo.data.AnnotationDto;
 import io.annot8.components.mongo.data.ContentDto;
 import io.annot8.components.mongo.data.ItemDto;
 import io.annot8.components.mongo.resources.MongoConnectionSettings;
+import io.annot8.components.mongo.resources.MongoSinkSettings;
 import io.annot8.components.mongo.utils.MongoConnection;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,15 +28,16 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 
 @ComponentName("Mongo Sink (Flat)")
 @ComponentDescription("Created a flat representation of an item and persist to Mongo")
-@SettingsClass(MongoConnectionSettings.class)
+@SettingsClass(MongoSinkSettings.class)
 public class FlatMongoSink
-    implements ProcessorDescriptor<FlatMongoSink.Processor, MongoConnectionSettings> {
+    implements ProcessorDescriptor<FlatMongoSink.Processor, MongoSinkSettings> {
 
   private String name;
-  private MongoConnectionSettings settings;
+  private MongoSinkSettings settings;
 
   @Override
   public void setName(String name) {
@@ -49,12 +50,12 @@ public class FlatMongoSink
   }
 
   @Override
-  public void setSettings(MongoConnectionSettings settings) {
+  public void setSettings(MongoSinkSettings settings) {
     this.settings = settings;
   }
 
   @Override
-  public MongoConnectionSettings getSettings() {
+  public MongoSinkSettings getSettings() {
     return settings;
   }
 
@@ -76,14 +77,18 @@ public class FlatMongoSink
     private static final String ITEM = "item";
     private static final String CONTENT = "content";
     private static final String ANNOTATION = "annotation";
-    private MongoCollection<Document> itemCollection;
-    private MongoCollection<Document> contentsCollection;
-    private MongoCollection<Document> annotationsCollection;
+    private MongoCollection<RawBsonDocument> itemCollection;
+    private MongoCollection<RawBsonDocument> contentsCollection;
+    private MongoCollection<RawBsonDocument> annotationsCollection;
 
     public Processor(MongoConnection<Document> connection) {
       super(connection);
     }
 
+    public Processor(MongoConnection<Document> connection, MongoConnectionSettings settings) {
+      super(connection, settings);
+    }
+
     public Processor(MongoConnectionSettings settings) {
       super(settings);
     }
@@ -116,31 +121,19 @@ public class FlatMongoSink
               .flatMap(c -> this.getAnnotations(c, item))
               .collect(Collectors.toList());
 
-      Document itemDocument = null;
-      List<Document> contentDocuments = null;
-      List<Document> annotationDocuments = null;
-      try {
-        itemDocument = toMongoDocument(itemDto);
-        contentDocuments = new ArrayList<>();
-        annotationDocuments = new ArrayList<>();
-        for (ContentDto content : contents) {
-          contentDocuments.add(toMongoDocument(content));
-        }
-        for (AnnotationDto annotation : annotations) {
-          annotationDocuments.add(toMongoDocument(annotation));
-        }
-      } catch (JsonProcessingException e) {
-        log().error("Error converting object to document", e);
-        throw new Annot8Exception("Error storing item", e);
+      RawBsonDocument itemDocument = toBsonDocument(itemDto);
+      List<RawBsonDocument> contentDocuments = new ArrayList<>();
+      List<RawBsonDocument> annotationDocuments = new ArrayList<>();
+      for (ContentDto content : contents) {
+        contentDocuments.add(toBsonDocument(content));
       }
-
-      itemCollection.insertOne(itemDocument);
-      if (!contentDocuments.isEmpty()) {
-        contentsCollection.insertMany(contentDocuments);
-      }
-      if (!annotationDocuments.isEmpty()) {
-        annotationsCollection.insertMany(annotationDocuments);
+      for (AnnotationDto annotation : annotations) {
+        annotationDocuments.add(toBsonDocument(annotation));
       }
+
+      insert(item, itemCollection, itemDocument);
+      insert(item, contentsCollection, contentDocuments);
+      insert(item, annotationsCollection, annotationDocuments);
     }
 
     @SuppressWarnings("rawtypes")
@@ -169,9 +162,9 @@ public class FlatMongoSink
     @Override
     protected void configureMongo(MongoConnection<Document> connection) {
       MongoDatabase database = connection.getDatabase();
-      itemCollection = database.getCollection(ITEM);
-      contentsCollection = database.getCollection(CONTENT);
-      annotationsCollection = database.getCollection(ANNOTATION);
+      itemCollection = database.getCollection(ITEM, RawBsonDocument.class);
+      contentsCollection = database.getCollection(CONTENT, RawBsonDocument.class);
+      annotationsCollection = database.getCollection(ANNOTATION, RawBsonDocument.class);
 
       itemCollection.createIndex(new Document("id", 1));
       contentsCollection.createIndex(new Document("id", 1));
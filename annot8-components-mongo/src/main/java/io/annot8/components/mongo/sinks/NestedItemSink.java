@@ -1,7 +1,6 @@
 /* Annot8 (annot8.io) - Licensed under Apache-2.0. */
 package io.annot8.components.mongo.sinks;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.mongodb.client.MongoCollection;
 import io.annot8.api.annotations.Annotation;
 import io.annot8.api.bounds.Bounds;
@@ -19,20 +18,22 @@ import io.annot8.components.mongo.data.AnnotationDto;
 import io.annot8.components.mongo.data.ContentDto;
 import io.annot8.components.mongo.data.ItemDto;
 import io.annot8.components.mongo.resources.MongoConnectionSettings;
+import io.annot8.components.mongo.resources.MongoSinkSettings;
 import io.annot8.components.mongo.utils.MongoConnection;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 
 @ComponentName("Mongo Sink (Nested)")
 @ComponentDescription("Created a nested representation of an item and persist to Mongo")
-@SettingsClass(MongoConnectionSettings.class)
+@SettingsClass(MongoSinkSettings.class)
 public class NestedItemSink
-    implements ProcessorDescriptor<FlatMongoSink.Processor, MongoConnectionSettings> {
+    implements ProcessorDescriptor<FlatMongoSink.Processor, MongoSinkSettings> {
 
   private String name;
-  private MongoConnectionSettings settings;
+  private MongoSinkSettings settings;
 
   @Override
   public void setName(String name) {
@@ -45,12 +46,12 @@ public class NestedItemSink
   }
 
   @Override
-  public void setSettings(MongoConnectionSettings settings) {
+  public void setSettings(MongoSinkSettings settings) {
     this.settings = settings;
   }
 
   @Override
-  public MongoConnectionSettings getSettings() {
+  public MongoSinkSettings getSettings() {
     return settings;
   }
 
@@ -70,12 +71,16 @@ public class NestedItemSink
   @SuppressWarnings({"rawtypes", "unchecked"})
   public static class Processor extends AbstractMongoSink {
 
-    private MongoCollection<Document> itemCollection;
+    private MongoCollection<RawBsonDocument> itemCollection;
 
     public Processor(MongoConnection connection) {
       super(connection);
     }
 
+    public Processor(MongoConnection connection, MongoConnectionSettings settings) {
+      super(connection, settings);
+    }
+
     public Processor(MongoConnectionSettings settings) {
       super(settings);
     }
@@ -83,17 +88,12 @@ public class NestedItemSink
     @Override
     public void storeItem(Item item) throws Annot8Exception {
       ItemDto itemDto = toDto(item);
-      try {
-        itemCollection.insertOne(toMongoDocument(itemDto));
-      } catch (JsonProcessingException e) {
-        log().error("Error converting item to mongo document", e);
-        throw new Annot8Exception("Error storing item", e);
-      }
+      insert(item, itemCollection, toBsonDocument(itemDto));
     }
 
     @Override
     protected void configureMongo(MongoConnection connection) {
-      itemCollection = connection.getCollection();
+      itemCollection = connection.getCollection(RawBsonDocument.class);
 
       itemCollection.createIndex(new Document("id", 1));
     }
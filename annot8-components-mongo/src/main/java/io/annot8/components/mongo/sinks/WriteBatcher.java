@@ -0,0 +1,161 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.sinks;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import io.annot8.api.exceptions.ProcessingException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+
+/**
+ * Buffers documents across items, and writes them to their collections with unordered bulk writes.
+ *
+ * <p>The buffer is written when it reaches the configured number of documents or size, when the
+ * oldest buffered document has waited for the linger time, and on close. Writes triggered by the
+ * size of the buffer are performed on the calling thread, and so provide back-pressure.
+ *
+ * <p>As the item has already been accepted by the time its documents are written, failures are
+ * reported through a callback along with the ID of the item that created the failed document.
+ */
+class WriteBatcher implements AutoCloseable {
+
+  private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+  private final int maxDocuments;
+  private final long maxBytes;
+  private final long lingerMs;
+  private final Logger log;
+  private final BiConsumer<String, Exception> onFailure;
+  private final ScheduledExecutorService lingerScheduler;
+
+  private Map<MongoCollection<RawBsonDocument>, Batch> buffer = new IdentityHashMap<>();
+  private int bufferDocuments = 0;
+  private long bufferBytes = 0;
+  private long bufferStarted = 0;
+
+  WriteBatcher(
+      int maxDocuments,
+      long maxBytes,
+      long lingerMs,
+      Logger log,
+      BiConsumer<String, Exception> onFailure) {
+    this.maxDocuments = maxDocuments;
+    this.maxBytes = maxBytes;
+    this.lingerMs = lingerMs;
+    this.log = log;
+    this.onFailure = onFailure;
+
+    lingerScheduler = Executors.newSingleThreadScheduledExecutor();
+    long period = Math.max(1, lingerMs / 2);
+    lingerScheduler.scheduleAtFixedRate(
+        this::flushIfLingered, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /** Add documents created from an item to the buffer, writing the buffer if it is full */
+  void add(
+      String itemId, MongoCollection<RawBsonDocument> collection, List<RawBsonDocument> documents) {
+    if (documents.isEmpty()) return;
+
+    Map<MongoCollection<RawBsonDocument>, Batch> toWrite = null;
+    synchronized (this) {
+      if (bufferDocuments == 0) bufferStarted = System.currentTimeMillis();
+
+      Batch batch = buffer.computeIfAbsent(collection, c -> new Batch());
+      for (RawBsonDocument document : documents) {
+        batch.models.add(new InsertOneModel<>(document));
+        batch.itemIds.add(itemId);
+        bufferBytes += document.getByteBuffer().remaining();
+      }
+      bufferDocuments += documents.size();
+
+      if (bufferDocuments >= maxDocuments || bufferBytes >= maxBytes) toWrite = takeBuffer();
+    }
+
+    if (toWrite != null) write(toWrite);
+  }
+
+  /** Write any buffered documents */
+  void flush() {
+    Map<MongoCollection<RawBsonDocument>, Batch> toWrite;
+    synchronized (this) {
+      toWrite = takeBuffer();
+    }
+
+    write(toWrite);
+  }
+
+  /** Stop the linger timer and write any buffered documents */
+  @Override
+  public void close() {
+    lingerScheduler.shutdown();
+    try {
+      lingerScheduler.awaitTermination(lingerMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    flush();
+  }
+
+  private void flushIfLingered() {
+    Map<MongoCollection<RawBsonDocument>, Batch> toWrite;
+    synchronized (this) {
+      if (bufferDocuments == 0 || System.currentTimeMillis() - bufferStarted < lingerMs) return;
+
+      toWrite = takeBuffer();
+    }
+
+    write(toWrite);
+  }
+
+  private Map<MongoCollection<RawBsonDocument>, Batch> takeBuffer() {
+    Map<MongoCollection<RawBsonDocument>, Batch> taken = buffer;
+    buffer = new IdentityHashMap<>();
+    bufferDocuments = 0;
+    bufferBytes = 0;
+
+    return taken;
+  }
+
+  private void write(Map<MongoCollection<RawBsonDocument>, Batch> toWrite) {
+    toWrite.forEach(this::write);
+  }
+
+  private void write(MongoCollection<RawBsonDocument> collection, Batch batch) {
+    try {
+      log.debug("Performing bulk write of {} documents", batch.models.size());
+      collection.bulkWrite(batch.models, UNORDERED);
+    } catch (MongoBulkWriteException e) {
+      // With an unordered write, all documents without an error have been written
+      for (BulkWriteError error : e.getWriteErrors()) {
+        String itemId = batch.itemIds.get(error.getIndex());
+        log.error("Failed to write document from item {}: {}", itemId, error.getMessage());
+        onFailure.accept(itemId, new ProcessingException(error.getMessage()));
+      }
+    } catch (MongoException | IllegalStateException e) {
+      log.error("Exception thrown whilst performing bulk write: {}", e.getMessage());
+
+      Set<String> itemIds = new LinkedHashSet<>(batch.itemIds);
+      itemIds.forEach(id -> onFailure.accept(id, e));
+    }
+  }
+
+  private static class Batch {
+    private final List<InsertOneModel<RawBsonDocument>> models = new ArrayList<>();
+    private final List<String> itemIds = new ArrayList<>();
+  }
+}
@@ -1,7 +1,12 @@
 /* Annot8 (annot8.io) - Licensed under Apache-2.0. */
 package io.annot8.components.mongo.sources;
 
+import com.google.common.base.Strings;
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 import io.annot8.api.capabilities.Capabilities;
 import io.annot8.api.components.SourceDescriptor;
 import io.annot8.api.components.annotations.ComponentDescription;
@@ -17,23 +22,51 @@ import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.components.mongo.AbstractMongoComponent;
 import io.annot8.components.mongo.data.MongoDocument;
 import io.annot8.components.mongo.resources.MongoConnectionSettings;
+import io.annot8.components.mongo.resources.MongoSourceSettings;
+import io.annot8.components.mongo.utils.MongoConnection;
+import io.annot8.components.mongo.utils.MongoShards;
 import io.annot8.conventions.PropertyKeys;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
 
 /**
  * Reads the contents of a Mongo collection into items.
  *
  * <p>Note that this source will only run the query once, and once it has exhausted those results it
  * will return SourceResponse.done().
+ *
+ * <p>Each read creates items from the documents that have already been fetched from Mongo, up to a
+ * configurable maximum. If a checkpoint file is configured, documents are read in _id order and the
+ * _id of the last document read is saved, so that a restarted source continues where it stopped
+ * rather than reading the collection again.
+ *
+ * <p>A source can't tell when its items have been processed, so the checkpoint for a read is only
+ * saved when the pipeline next calls read, or when the collection is exhausted. Pipelines which
+ * process the items from a read before reading again will therefore see each document at least
+ * once, and a restarted source may repeat the documents from the last read. Pipelines which queue
+ * items ahead of processing them may lose the queued items if they stop unexpectedly.
+ *
+ * <p>To split a collection between several processes, give each the same shard count and a
+ * different shard index. Each process then reads a distinct subset of the documents.
  */
 @ComponentName("Mongo Source")
 @ComponentDescription("Reads the contents of a Mongo collection into items")
-@SettingsClass(MongoConnectionSettings.class)
-public class MongoSource implements SourceDescriptor<MongoSource.Source, MongoConnectionSettings> {
+@SettingsClass(MongoSourceSettings.class)
+public class MongoSource implements SourceDescriptor<MongoSource.Source, MongoSourceSettings> {
 
   private String name;
-  private MongoConnectionSettings settings;
+  private MongoSourceSettings settings;
 
   @Override
   public void setName(String name) {
@@ -46,12 +79,12 @@ public class MongoSource implements SourceDescriptor<MongoSource.Source, MongoCo
   }
 
   @Override
-  public void setSettings(MongoConnectionSettings settings) {
+  public void setSettings(MongoSourceSettings settings) {
     this.settings = settings;
   }
 
   @Override
-  public MongoConnectionSettings getSettings() {
+  public MongoSourceSettings getSettings() {
     return settings;
   }
 
@@ -68,17 +101,37 @@ public class MongoSource implements SourceDescriptor<MongoSource.Source, MongoCo
   public static class Source extends AbstractMongoComponent
       implements io.annot8.api.components.Source {
 
+    private static final String ID = "_id";
+    private static final JsonWriterSettings EXTENDED_JSON =
+        JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final MongoSourceSettings settings;
     private MongoCursor<Document> cursor = null;
+    private Object pendingCheckpoint = null;
 
     public Source(MongoConnectionSettings settings) {
       super(settings);
+      this.settings = asSourceSettings(settings);
+    }
+
+    public Source(MongoConnection<Document> connection, MongoConnectionSettings settings) {
+      super(connection);
+      this.settings = asSourceSettings(settings);
     }
 
     @Override
     public SourceResponse read(ItemFactory itemFactory) {
+      // The pipeline has asked for more, so the items from the previous read have been handed off
+      saveCheckpoint(pendingCheckpoint);
+      pendingCheckpoint = null;
+
       if (cursor == null) {
-        cursor = getConnection().getCollection().find().iterator();
-        return SourceResponse.sourceError();
+        try {
+          cursor = query().iterator();
+        } catch (MongoException | IOException e) {
+          log().error("Unable to query Mongo", e);
+          return SourceResponse.sourceError();
+        }
       }
 
       if (!cursor.hasNext()) {
@@ -86,8 +139,70 @@ public class MongoSource implements SourceDescriptor<MongoSource.Source, MongoCo
         return SourceResponse.done();
       }
 
-      Document doc = cursor.next();
+      // Create items from the documents we already have, without waiting for another batch
+      Object lastId = null;
+      int count = 0;
+      do {
+        Document doc = cursor.next();
+        if (!createItem(itemFactory, doc)) {
+          pendingCheckpoint = lastId;
+          return SourceResponse.sourceError();
+        }
+
+        lastId = doc.get(ID);
+        count++;
+      } while (count < settings.getMaxItemsPerRead() && cursor.available() > 0);
+
+      pendingCheckpoint = lastId;
+
+      return SourceResponse.ok();
+    }
+
+    private FindIterable<Document> query() throws IOException {
+      List<Bson> filters = new ArrayList<>();
+      if (!Strings.isNullOrEmpty(settings.getFilter()))
+        filters.add(Document.parse(settings.getFilter()));
+
+      MongoShards.filter(settings.getShardIndex(), settings.getShardCount())
+          .ifPresent(filters::add);
+
+      Optional<Object> checkpoint = loadCheckpoint();
+      if (checkpoint.isPresent()) {
+        log().info("Resuming from document with _id {}", checkpoint.get());
+        filters.add(Filters.gt(ID, checkpoint.get()));
+      }
+
+      Bson filter;
+      if (filters.isEmpty()) {
+        filter = new Document();
+      } else if (filters.size() == 1) {
+        filter = filters.get(0);
+      } else {
+        filter = Filters.and(filters);
+      }
+
+      FindIterable<Document> find =
+          getConnection().getCollection().find(filter).batchSize(settings.getBatchSize());
 
+      if (!Strings.isNullOrEmpty(settings.getProjection()))
+        find = find.projection(Document.parse(settings.getProjection()));
+
+      // A checkpoint is only meaningful if documents are read in _id order
+      if (settings.getCheckpointFile() != null) {
+        if (!Strings.isNullOrEmpty(settings.getSort()))
+          log()
+              .warn(
+                  "Sort is ignored when a checkpoint file is set, documents are read in _id order");
+
+        find = find.sort(Sorts.ascending(ID));
+      } else if (!Strings.isNullOrEmpty(settings.getSort())) {
+        find = find.sort(Document.parse(settings.getSort()));
+      }
+
+      return find;
+    }
+
+    private boolean createItem(ItemFactory itemFactory, Document doc) {
       Item item = itemFactory.create();
 
       try {
@@ -102,10 +217,53 @@ public class MongoSource implements SourceDescriptor<MongoSource.Source, MongoCo
       } catch (UnsupportedContentException | IncompleteException e) {
         log().warn("Couldn't create item", e);
         item.discard();
-        return SourceResponse.sourceError();
+        return false;
       }
 
-      return SourceResponse.ok();
+      return true;
+    }
+
+    private Optional<Object> loadCheckpoint() throws IOException {
+      Path checkpointFile = settings.getCheckpointFile();
+      if (checkpointFile == null || !Files.exists(checkpointFile)) return Optional.empty();
+
+      String json = Files.readString(checkpointFile, StandardCharsets.UTF_8);
+      return Optional.ofNullable(Document.parse(json).get(ID));
+    }
+
+    private void saveCheckpoint(Object lastId) {
+      Path checkpointFile = settings.getCheckpointFile();
+      if (checkpointFile == null || lastId == null) return;
+
+      // Write to a temporary file and move it into place, so a crash never leaves a partial file.
+      // The _id is written as extended JSON so that its type is preserved.
+      String json = new Document(ID, lastId).toJson(EXTENDED_JSON);
+      try {
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.writeString(tmp, json, StandardCharsets.UTF_8);
+        Files.move(
+            tmp,
+            checkpointFile,
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        log().warn("Unable to save checkpoint to {}", checkpointFile, e);
+      }
+    }
+
+    private static MongoSourceSettings asSourceSettings(MongoConnectionSettings settings) {
+      if (settings instanceof MongoSourceSettings) return (MongoSourceSettings) settings;
+
+      // Plain connection settings read the whole collection, as before
+      MongoSourceSettings sourceSettings = new MongoSourceSettings();
+      if (settings != null) {
+        sourceSettings.setConnection(settings.getConnection());
+        sourceSettings.setDatabase(settings.getDatabase());
+        sourceSettings.setCollection(settings.getCollection());
+        sourceSettings.setShardIndex(settings.getShardIndex());
+        sourceSettings.setShardCount(settings.getShardCount());
+      }
+      return sourceSettings;
     }
 
     @Override
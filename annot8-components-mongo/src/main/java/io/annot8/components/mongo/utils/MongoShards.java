@@ -0,0 +1,65 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.utils;
+
+import java.util.List;
+import java.util.Optional;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * Splits a collection between several processes, without any coordination between them, by
+ * filtering on a bucket computed on the server from each document's {@code _id}.
+ *
+ * <p>The bucket is taken from the last three characters of the string form of the {@code _id}, read
+ * as hexadecimal digits. For an ObjectId these are the low bits of an incrementing counter, so
+ * documents are spread evenly. Other {@code _id} types are still assigned to exactly one shard,
+ * though not necessarily as evenly. Requires MongoDB 4.0 or later, and an {@code _id} that can be
+ * converted to a string.
+ */
+public final class MongoShards {
+
+  private static final String HEX = "0123456789abcdef";
+  private static final int DIGITS = 3;
+
+  private MongoShards() {
+    // Static utility class
+  }
+
+  /**
+   * Create a filter selecting the documents in the given shard, or an empty optional if there is
+   * only a single shard
+   *
+   * @param shardIndex the index of the shard, from 0 to shardCount - 1
+   * @param shardCount the total number of shards
+   */
+  public static Optional<Bson> filter(int shardIndex, int shardCount) {
+    if (shardCount <= 1) return Optional.empty();
+
+    Document id = new Document("$toLower", new Document("$toString", "$_id"));
+
+    Object bucket = 0;
+    for (int i = DIGITS; i >= 1; i--) {
+      bucket =
+          new Document(
+              "$add",
+              List.of(new Document("$multiply", List.of(bucket, HEX.length())), digit(id, i)));
+    }
+
+    // Characters which aren't hex digits give -1, so take the absolute value to keep the bucket
+    // non-negative and ensure every document is in exactly one shard
+    Document shard = new Document("$mod", List.of(new Document("$abs", bucket), shardCount));
+
+    return Optional.of(new Document("$expr", new Document("$eq", List.of(shard, shardIndex))));
+  }
+
+  /** The value of the i-th character from the end of the string, as a hex digit */
+  private static Document digit(Document s, int i) {
+    Document position =
+        new Document(
+            "$max",
+            List.of(0, new Document("$subtract", List.of(new Document("$strLenCP", s), i))));
+
+    return new Document(
+        "$indexOfCP", List.of(HEX, new Document("$substrCP", List.of(s, position, 1))));
+  }
+}
@@ -13,6 +13,7 @@ module io.annot8.components.mongo {
   requires org.mongodb.driver.sync.client;
 
   exports io.annot8.components.mongo;
+  exports io.annot8.components.mongo.codecs;
   exports io.annot8.components.mongo.data;
   exports io.annot8.components.mongo.processors;
   exports io.annot8.components.mongo.resources;
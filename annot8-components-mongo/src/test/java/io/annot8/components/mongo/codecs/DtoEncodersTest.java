@@ -0,0 +1,101 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.codecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.components.mongo.data.AnnotationDto;
+import io.annot8.components.mongo.data.ContentDto;
+import io.annot8.components.mongo.data.ItemDto;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonSerializationException;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.junit.jupiter.api.Test;
+
+public class DtoEncodersTest {
+
+  private static final DtoEncoders ENCODERS = new DtoEncoders();
+
+  @Test
+  public void testNotDto() {
+    assertNull(ENCODERS.get(Document.class));
+    assertThrows(CodecConfigurationException.class, () -> ENCODERS.encode(new Document()));
+  }
+
+  @Test
+  public void testMatchesJson() throws Exception {
+    ItemDto item = createItem(Map.of("source", "test", "nested", Map.of("a", List.of(1, 2, 3.5))));
+
+    Document expected = Document.parse(new ObjectMapper().writeValueAsString(item));
+
+    assertEquals(expected, decode(encode(item, ItemDto.class)));
+  }
+
+  @Test
+  public void testFlatDtos() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    AnnotationDto annotation =
+        new AnnotationDto(
+            "a1", "type", new SpanBounds(0, 4), "test", Map.of("flag", true), "c1", "i1");
+    ContentDto content = new ContentDto("c1", "desc", "test data", Map.of(), null, "i1", "Text");
+
+    assertEquals(
+        Document.parse(mapper.writeValueAsString(annotation)),
+        decode(encode(annotation, AnnotationDto.class)));
+    assertEquals(
+        Document.parse(mapper.writeValueAsString(content)),
+        decode(encode(content, ContentDto.class)));
+  }
+
+  @Test
+  public void testNativeTypes() {
+    Date date = new Date(1234567890L);
+    ItemDto item =
+        new ItemDto("i1", null, Map.of("date", date, "bytes", new byte[] {1, 2}, "long", 2L), null);
+
+    Document decoded = decode(encode(item, ItemDto.class));
+    Document properties = decoded.get("properties", Document.class);
+
+    assertEquals(date, properties.getDate("date"));
+    assertTrue(properties.get("bytes") instanceof org.bson.types.Binary);
+    assertEquals(2L, properties.get("long"));
+  }
+
+  @Test
+  public void testUnserializable() {
+    ItemDto item = new ItemDto("i1", null, Map.of("bad", new Object()), null);
+
+    assertThrows(BsonSerializationException.class, () -> encode(item, ItemDto.class));
+  }
+
+  static ItemDto createItem(Map<String, Object> properties) {
+    AnnotationDto annotation =
+        new AnnotationDto(
+            "a1", "type", new SpanBounds(0, 4), "test", Map.of("confidence", 0.5), "c1", "i1");
+    ContentDto content =
+        new ContentDto(
+            "c1", "desc", "test data", Map.of("language", "en"), List.of(annotation), "i1", "Text");
+
+    return new ItemDto("i1", "p1", properties, List.of(content));
+  }
+
+  private static <T> RawBsonDocument encode(T value, Class<T> clazz) {
+    assertNotNull(ENCODERS.get(clazz));
+    return ENCODERS.encode(value);
+  }
+
+  private static Document decode(RawBsonDocument document) {
+    return new DocumentCodec().decode(document.asBsonReader(), DecoderContext.builder().build());
+  }
+}
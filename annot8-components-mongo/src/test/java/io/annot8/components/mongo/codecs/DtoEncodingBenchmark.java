@@ -0,0 +1,107 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.codecs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.annot8.common.data.bounds.SpanBounds;
+import io.annot8.components.mongo.data.AnnotationDto;
+import io.annot8.components.mongo.data.ContentDto;
+import io.annot8.components.mongo.data.ItemDto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares encoding an item to BSON via JSON (the previous approach, where the sink produced a
+ * {@link Document} which the driver then encoded) against encoding it directly with the DTO
+ * encoders in {@link DtoEncoders}.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.annot8.components.mongo.codecs.DtoEncodingBenchmark}, or directly from an
+ * IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoEncodingBenchmark {
+
+  @Param({"10", "1000"})
+  private int annotationsPerContent;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final DocumentCodec documentCodec = new DocumentCodec();
+  private final DtoEncoders encoders = new DtoEncoders(mapper);
+
+  private ItemDto item;
+
+  @Setup
+  public void setup() {
+    StringBuilder text = new StringBuilder();
+    while (text.length() < 100_000) text.append("The quick brown fox jumps over the lazy dog. ");
+
+    List<ContentDto> contents = new ArrayList<>();
+    for (int c = 0; c < 5; c++) {
+      List<AnnotationDto> annotations = new ArrayList<>();
+      for (int a = 0; a < annotationsPerContent; a++) {
+        annotations.add(
+            new AnnotationDto(
+                "a" + c + "-" + a,
+                "entity/person",
+                new SpanBounds(a, a + 5),
+                "quick",
+                Map.of("confidence", 0.9, "source", "benchmark", "tags", List.of("x", "y")),
+                "c" + c,
+                "item"));
+      }
+
+      contents.add(
+          new ContentDto(
+              "c" + c,
+              "content " + c,
+              text.toString(),
+              Map.of("language", "en", "length", text.length()),
+              annotations,
+              "item",
+              "Text"));
+    }
+
+    item = new ItemDto("item", null, Map.of("source", "benchmark"), contents);
+  }
+
+  @Benchmark
+  public RawBsonDocument viaJson() throws JsonProcessingException {
+    Document document = Document.parse(mapper.writeValueAsString(item));
+    return new RawBsonDocument(document, documentCodec);
+  }
+
+  @Benchmark
+  public RawBsonDocument direct() {
+    return encoders.encode(item);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(DtoEncodingBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,143 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.sinks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import io.annot8.api.components.responses.ProcessorResponse;
+import io.annot8.api.data.Content;
+import io.annot8.components.mongo.resources.MongoSinkSettings;
+import io.annot8.components.mongo.utils.MongoConnection;
+import io.annot8.testing.testimpl.TestItem;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class BatchingSinkTest extends AbstractSinkTest {
+
+  private MongoConnection<Document> connection;
+  private MongoCollection<RawBsonDocument> itemStore;
+  private MongoCollection<RawBsonDocument> contentStore;
+  private MongoCollection<RawBsonDocument> annotationStore;
+
+  @BeforeEach
+  public void beforeEach() {
+    connection = mock(MongoConnection.class);
+    MongoDatabase database = mock(MongoDatabase.class);
+    itemStore = mock(MongoCollection.class);
+    contentStore = mock(MongoCollection.class);
+    annotationStore = mock(MongoCollection.class);
+
+    when(connection.getDatabase()).thenReturn(database);
+    when(connection.getCollection(RawBsonDocument.class)).thenReturn(itemStore);
+    when(database.getCollection("item", RawBsonDocument.class)).thenReturn(itemStore);
+    when(database.getCollection("content", RawBsonDocument.class)).thenReturn(contentStore);
+    when(database.getCollection("annotation", RawBsonDocument.class)).thenReturn(annotationStore);
+  }
+
+  @Test
+  public void testFlushOnCount() {
+    FlatMongoSink.Processor sink = new FlatMongoSink.Processor(connection, settings(4, 60000));
+
+    TestItem item = new TestItem();
+    Content<String> content = addContent(item, "test", "testing");
+    addAnnotation(content, "test", 0, 1);
+    addAnnotation(content, "test2", 1, 2);
+
+    assertEquals(ProcessorResponse.ok(), sink.process(item));
+
+    verify(itemStore, times(1)).bulkWrite(argThat(l -> l.size() == 1), any(BulkWriteOptions.class));
+    verify(contentStore, times(1))
+        .bulkWrite(argThat(l -> l.size() == 1), any(BulkWriteOptions.class));
+    verify(annotationStore, times(1))
+        .bulkWrite(argThat(l -> l.size() == 2), any(BulkWriteOptions.class));
+    verify(itemStore, never()).insertOne(any());
+    verify(annotationStore, never()).insertMany(anyList());
+
+    sink.close();
+  }
+
+  @Test
+  public void testFlushOnClose() {
+    NestedItemSink.Processor sink = new NestedItemSink.Processor(connection, settings(100, 60000));
+
+    sink.process(new TestItem());
+    sink.process(new TestItem());
+    verify(itemStore, never()).bulkWrite(anyList(), any(BulkWriteOptions.class));
+
+    sink.close();
+    verify(itemStore, times(1)).bulkWrite(argThat(l -> l.size() == 2), any(BulkWriteOptions.class));
+  }
+
+  @Test
+  public void testFlushOnLinger() {
+    NestedItemSink.Processor sink = new NestedItemSink.Processor(connection, settings(100, 50));
+
+    sink.process(new TestItem());
+    verify(itemStore, timeout(5000).times(1))
+        .bulkWrite(argThat(l -> l.size() == 1), any(BulkWriteOptions.class));
+
+    sink.close();
+    verify(itemStore, times(1)).bulkWrite(anyList(), any(BulkWriteOptions.class));
+  }
+
+  @Test
+  public void testFailuresMappedToItem() {
+    TestItem good = new TestItem();
+    TestItem bad = new TestItem();
+
+    when(itemStore.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+        .thenThrow(
+            new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)),
+                null,
+                new ServerAddress(),
+                Set.of()));
+
+    List<String> failed = new CopyOnWriteArrayList<>();
+    NestedItemSink.Processor sink =
+        new NestedItemSink.Processor(connection, settings(100, 60000)) {
+          @Override
+          protected void onBatchedFailure(String itemId, Exception e) {
+            failed.add(itemId);
+          }
+        };
+
+    sink.process(good);
+    sink.process(bad);
+    sink.close();
+
+    assertEquals(List.of(bad.getId()), failed);
+  }
+
+  private static MongoSinkSettings settings(int batchSize, long batchLinger) {
+    MongoSinkSettings settings = new MongoSinkSettings();
+    settings.setBatching(true);
+    settings.setBatchSize(batchSize);
+    settings.setBatchLinger(batchLinger);
+
+    return settings;
+  }
+}
@@ -23,7 +23,7 @@ import io.annot8.testing.testimpl.TestAnnotationStore;
 import io.annot8.testing.testimpl.TestItem;
 import io.annot8.testing.testimpl.TestProperties;
 import java.util.Collections;
-import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -32,9 +32,9 @@ public class FlatItemSinkTest extends AbstractSinkTest {
 
   private MongoConnection connection;
   private MongoDatabase database;
-  private MongoCollection<Document> itemStore;
-  private MongoCollection<Document> contentStore;
-  private MongoCollection<Document> annotationStore;
+  private MongoCollection<RawBsonDocument> itemStore;
+  private MongoCollection<RawBsonDocument> contentStore;
+  private MongoCollection<RawBsonDocument> annotationStore;
 
   @BeforeEach
   public void beforeEach() {
@@ -45,17 +45,23 @@ public class FlatItemSinkTest extends AbstractSinkTest {
     annotationStore = mock(MongoCollection.class);
 
     when(connection.getDatabase()).thenReturn(database);
-    when(database.getCollection("item")).thenReturn((MongoCollection) itemStore);
-    when(database.getCollection("content")).thenReturn((MongoCollection) contentStore);
-    when(database.getCollection("annotation")).thenReturn((MongoCollection) annotationStore);
+    when(database.getCollection("item", RawBsonDocument.class))
+        .thenReturn((MongoCollection) itemStore);
+    when(database.getCollection("content", RawBsonDocument.class))
+        .thenReturn((MongoCollection) contentStore);
+    when(database.getCollection("annotation", RawBsonDocument.class))
+        .thenReturn((MongoCollection) annotationStore);
   }
 
   @Test
   public void testStore() {
     when(connection.getDatabase()).thenReturn(database);
-    when(database.getCollection("item")).thenReturn((MongoCollection) itemStore);
-    when(database.getCollection("content")).thenReturn((MongoCollection) contentStore);
-    when(database.getCollection("annotation")).thenReturn((MongoCollection) annotationStore);
+    when(database.getCollection("item", RawBsonDocument.class))
+        .thenReturn((MongoCollection) itemStore);
+    when(database.getCollection("content", RawBsonDocument.class))
+        .thenReturn((MongoCollection) contentStore);
+    when(database.getCollection("annotation", RawBsonDocument.class))
+        .thenReturn((MongoCollection) annotationStore);
 
     try (Processor store = new FlatMongoSink.Processor(connection)) {
       Item item = new TestItem();
@@ -66,7 +72,7 @@ public class FlatItemSinkTest extends AbstractSinkTest {
       ProcessorResponse response = store.process(item);
       assertEquals(ProcessorResponse.Status.OK, response.getStatus());
 
-      verify(itemStore, times(1)).insertOne(any(Document.class));
+      verify(itemStore, times(1)).insertOne(any(RawBsonDocument.class));
       verify(contentStore, times(1)).insertMany(anyList());
       verify(annotationStore, times(1)).insertMany(anyList());
     }
@@ -75,9 +81,9 @@ public class FlatItemSinkTest extends AbstractSinkTest {
   @Test
   public void testProcessNonSerializableData() {
     when(connection.getDatabase()).thenReturn(database);
-    when(database.getCollection("item")).thenReturn(itemStore);
-    when(database.getCollection("content")).thenReturn(contentStore);
-    when(database.getCollection("annotation")).thenReturn(annotationStore);
+    when(database.getCollection("item", RawBsonDocument.class)).thenReturn(itemStore);
+    when(database.getCollection("content", RawBsonDocument.class)).thenReturn(contentStore);
+    when(database.getCollection("annotation", RawBsonDocument.class)).thenReturn(annotationStore);
 
     try (Processor store = new FlatMongoSink.Processor(connection)) {
 
@@ -93,7 +99,7 @@ public class FlatItemSinkTest extends AbstractSinkTest {
 
       ProcessorResponse response = store.process(item);
       assertEquals(Status.ITEM_ERROR, response.getStatus());
-      verify(itemStore, times(0)).insertOne(any(Document.class));
+      verify(itemStore, times(0)).insertOne(any(RawBsonDocument.class));
       verify(annotationStore, times(0)).insertMany(anyList());
       verify(contentStore, times(0)).insertMany(anyList());
     }
@@ -102,16 +108,16 @@ public class FlatItemSinkTest extends AbstractSinkTest {
   @Test
   public void testProcessNoContent() {
     when(connection.getDatabase()).thenReturn(database);
-    when(database.getCollection("item")).thenReturn(itemStore);
-    when(database.getCollection("content")).thenReturn(contentStore);
-    when(database.getCollection("annotation")).thenReturn(annotationStore);
+    when(database.getCollection("item", RawBsonDocument.class)).thenReturn(itemStore);
+    when(database.getCollection("content", RawBsonDocument.class)).thenReturn(contentStore);
+    when(database.getCollection("annotation", RawBsonDocument.class)).thenReturn(annotationStore);
 
     try (Processor store = new FlatMongoSink.Processor(connection)) {
 
       TestItem item = new TestItem();
       ProcessorResponse processorResponse = store.process(item);
       assertEquals(Status.OK, processorResponse.getStatus());
-      verify(itemStore, times(1)).insertOne(any(Document.class));
+      verify(itemStore, times(1)).insertOne(any(RawBsonDocument.class));
       verify(contentStore, times(0)).insertMany(any());
       verify(annotationStore, times(0)).insertMany(any());
     }
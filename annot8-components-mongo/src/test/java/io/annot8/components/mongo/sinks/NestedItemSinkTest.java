@@ -18,6 +18,7 @@ import io.annot8.testing.testimpl.TestItem;
 import io.annot8.testing.testimpl.TestProperties;
 import java.util.Collections;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -25,14 +26,14 @@ import org.mockito.Mockito;
 public class NestedItemSinkTest extends AbstractSinkTest {
 
   private MongoConnection<Document> connection;
-  private MongoCollection<Document> collection;
+  private MongoCollection<RawBsonDocument> collection;
 
   @BeforeEach
   @SuppressWarnings({"unchecked", "rawtypes"})
   public void beforeEach() {
     connection = mock(MongoConnection.class);
     collection = mock(MongoCollection.class);
-    when(connection.getCollection()).thenReturn((MongoCollection) collection);
+    when(connection.getCollection(RawBsonDocument.class)).thenReturn(collection);
   }
 
   @Test
@@ -48,7 +49,7 @@ public class NestedItemSinkTest extends AbstractSinkTest {
 
       ProcessorResponse response = store.process(item);
       assertEquals(Status.OK, response.getStatus());
-      verify(collection, times(1)).insertOne(any(Document.class));
+      verify(collection, times(1)).insertOne(any(RawBsonDocument.class));
     }
   }
 
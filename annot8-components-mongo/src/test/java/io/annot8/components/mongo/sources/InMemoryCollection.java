@@ -0,0 +1,136 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.sources;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+/**
+ * Stand-in for a Mongo collection held in memory, which evaluates the filters passed to {@link
+ * MongoCollection#find(Bson)} itself.
+ *
+ * <p>Only the query and aggregation operators used by {@link MongoSource} are supported, and an
+ * {@link UnsupportedOperationException} is thrown for any others.
+ */
+public class InMemoryCollection {
+
+  private final List<Document> documents;
+
+  public InMemoryCollection(List<Document> documents) {
+    this.documents = documents;
+  }
+
+  /** Create a mock collection which returns the documents matching each filter */
+  @SuppressWarnings("unchecked")
+  public MongoCollection<Document> asCollection() {
+    MongoCollection<Document> collection = mock(MongoCollection.class);
+
+    when(collection.find(any(Bson.class)))
+        .thenAnswer(
+            inv -> {
+              List<Document> results = find(inv.getArgument(0));
+              FindIterable<Document> find = mock(FindIterable.class, RETURNS_SELF);
+              when(find.iterator()).thenAnswer(i -> new ListCursor<>(results, 10));
+              return find;
+            });
+
+    return collection;
+  }
+
+  public List<Document> find(Bson filter) {
+    BsonDocument query =
+        filter.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+
+    return documents.stream().filter(d -> matches(query, d)).collect(Collectors.toList());
+  }
+
+  private boolean matches(BsonDocument query, Document doc) {
+    for (Map.Entry<String, BsonValue> e : query.entrySet()) {
+      boolean match;
+      switch (e.getKey()) {
+        case "$and":
+          match = e.getValue().asArray().stream().allMatch(v -> matches(v.asDocument(), doc));
+          break;
+        case "$expr":
+          match = Boolean.TRUE.equals(evaluate(e.getValue(), doc));
+          break;
+        default:
+          throw new UnsupportedOperationException("Unsupported query on " + e.getKey());
+      }
+
+      if (!match) return false;
+    }
+
+    return true;
+  }
+
+  private Object evaluate(BsonValue expression, Document doc) {
+    if (expression.isString()) {
+      String s = expression.asString().getValue();
+      return s.startsWith("$") ? doc.get(s.substring(1)) : s;
+    } else if (expression.isNumber()) {
+      return expression.asNumber().longValue();
+    } else if (!expression.isDocument()) {
+      throw new UnsupportedOperationException("Unsupported expression " + expression);
+    }
+
+    BsonDocument operation = expression.asDocument();
+    String operator = operation.getFirstKey();
+    BsonValue operands = operation.get(operator);
+
+    List<Object> args = new ArrayList<>();
+    if (operands.isArray()) {
+      for (BsonValue v : (BsonArray) operands) args.add(evaluate(v, doc));
+    } else {
+      args.add(evaluate(operands, doc));
+    }
+
+    switch (operator) {
+      case "$toString":
+        Object o = args.get(0);
+        return o instanceof ObjectId ? ((ObjectId) o).toHexString() : o.toString();
+      case "$toLower":
+        return ((String) args.get(0)).toLowerCase();
+      case "$strLenCP":
+        return (long) ((String) args.get(0)).codePointCount(0, ((String) args.get(0)).length());
+      case "$substrCP":
+        String s = (String) args.get(0);
+        int start = (int) (long) args.get(1);
+        int end = Math.min(s.length(), start + (int) (long) args.get(2));
+        return start >= s.length() ? "" : s.substring(start, end);
+      case "$indexOfCP":
+        return (long) ((String) args.get(0)).indexOf((String) args.get(1));
+      case "$add":
+        return args.stream().mapToLong(a -> (long) a).sum();
+      case "$subtract":
+        return (long) args.get(0) - (long) args.get(1);
+      case "$multiply":
+        return args.stream().mapToLong(a -> (long) a).reduce(1, (a, b) -> a * b);
+      case "$max":
+        return args.stream().mapToLong(a -> (long) a).max().orElseThrow();
+      case "$abs":
+        return Math.abs((long) args.get(0));
+      case "$mod":
+        return (long) args.get(0) % (long) args.get(1);
+      case "$eq":
+        return args.get(0).equals(args.get(1));
+      default:
+        throw new UnsupportedOperationException("Unsupported operator " + operator);
+    }
+  }
+}
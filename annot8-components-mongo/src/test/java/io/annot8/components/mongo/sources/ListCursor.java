@@ -0,0 +1,67 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.sources;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/** Cursor over a list of results, which are made available in batches as by a real cursor */
+public class ListCursor<T> implements MongoCursor<T> {
+
+  private final List<T> results;
+  private final int batchSize;
+  private int position = 0;
+  private int batchEnd = 0;
+  private boolean closed = false;
+
+  public ListCursor(List<T> results, int batchSize) {
+    this.results = results;
+    this.batchSize = batchSize;
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return position < results.size();
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) throw new NoSuchElementException();
+
+    // Fetch the next batch if the current one has been used up
+    if (position == batchEnd) batchEnd = Math.min(results.size(), batchEnd + batchSize);
+
+    return results.get(position++);
+  }
+
+  @Override
+  public int available() {
+    return batchEnd - position;
+  }
+
+  @Override
+  public T tryNext() {
+    return hasNext() ? next() : null;
+  }
+
+  @Override
+  public ServerCursor getServerCursor() {
+    return null;
+  }
+
+  @Override
+  public ServerAddress getServerAddress() {
+    return null;
+  }
+}
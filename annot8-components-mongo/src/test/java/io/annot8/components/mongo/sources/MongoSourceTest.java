@@ -0,0 +1,261 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.mongo.sources;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import io.annot8.api.components.responses.SourceResponse;
+import io.annot8.api.data.Item;
+import io.annot8.api.data.ItemFactory;
+import io.annot8.components.mongo.data.MongoDocument;
+import io.annot8.components.mongo.resources.MongoSourceSettings;
+import io.annot8.components.mongo.utils.MongoConnection;
+import io.annot8.testing.testimpl.TestAnnotationStore;
+import io.annot8.testing.testimpl.TestContentBuilderFactoryRegistry;
+import io.annot8.testing.testimpl.TestItem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+@SuppressWarnings("unchecked")
+public class MongoSourceTest {
+
+  private MongoConnection<Document> connection;
+  private MongoCollection<Document> collection;
+  private FindIterable<Document> find;
+
+  private final List<Item> created = new ArrayList<>();
+  private ItemFactory itemFactory;
+
+  @BeforeEach
+  public void beforeEach() {
+    connection = mock(MongoConnection.class);
+    collection = mock(MongoCollection.class);
+    find = mock(FindIterable.class, RETURNS_SELF);
+
+    when(connection.getCollection()).thenReturn(collection);
+    when(collection.find(any(Bson.class))).thenReturn(find);
+
+    TestContentBuilderFactoryRegistry registry = new TestContentBuilderFactoryRegistry();
+    registry.register(
+        MongoDocument.class, new MongoDocument.BuilderFactory(TestAnnotationStore::new));
+
+    itemFactory =
+        (parent, id) -> {
+          TestItem item = new TestItem();
+          item.setContentBuilderFactoryRegistry(registry);
+          created.add(item);
+          return item;
+        };
+  }
+
+  @Test
+  public void testMultipleItemsPerRead() {
+    ListCursor<Document> cursor = new ListCursor<>(documents(1, 5), 3);
+    when(find.iterator()).thenReturn(cursor);
+
+    MongoSourceSettings settings = new MongoSourceSettings();
+    settings.setBatchSize(3);
+    settings.setMaxItemsPerRead(10);
+
+    try (MongoSource.Source source = new MongoSource.Source(connection, settings)) {
+      assertEquals(SourceResponse.ok(), source.read(itemFactory));
+      assertEquals(3, created.size());
+
+      assertEquals(SourceResponse.ok(), source.read(itemFactory));
+      assertEquals(5, created.size());
+
+      assertEquals(SourceResponse.done(), source.read(itemFactory));
+      assertTrue(cursor.isClosed());
+    }
+
+    verify(find).batchSize(3);
+  }
+
+  @Test
+  public void testMaxItemsPerRead() {
+    when(find.iterator()).thenReturn(new ListCursor<>(documents(1, 5), 5));
+
+    MongoSourceSettings settings = new MongoSourceSettings();
+    settings.setMaxItemsPerRead(2);
+
+    try (MongoSource.Source source = new MongoSource.Source(connection, settings)) {
+      source.read(itemFactory);
+      assertEquals(2, created.size());
+    }
+  }
+
+  @Test
+  public void testQuery() {
+    when(find.iterator()).thenReturn(new ListCursor<>(List.of(), 1));
+
+    MongoSourceSettings settings = new MongoSourceSettings();
+    settings.setFilter("{\"type\": \"report\"}");
+    settings.setProjection("{\"body\": 1}");
+    settings.setSort("{\"date\": -1}");
+
+    try (MongoSource.Source source = new MongoSource.Source(connection, settings)) {
+      assertEquals(SourceResponse.done(), source.read(itemFactory));
+    }
+
+    assertEquals(Document.parse("{\"type\": \"report\"}"), captureFilter());
+    verify(find).projection(Document.parse("{\"body\": 1}"));
+    verify(find).sort(Document.parse("{\"date\": -1}"));
+  }
+
+  @Test
+  public void testCheckpoint(@TempDir Path tempDir) throws Exception {
+    Path checkpoint = tempDir.resolve("checkpoint.json");
+
+    MongoSourceSettings settings = new MongoSourceSettings();
+    settings.setCheckpointFile(checkpoint);
+
+    when(find.iterator()).thenReturn(new ListCursor<>(documents(1, 3), 10));
+    try (MongoSource.Source source = new MongoSource.Source(connection, settings)) {
+      assertEquals(SourceResponse.ok(), source.read(itemFactory));
+
+      // Not saved until the pipeline asks for more
+      assertFalse(Files.exists(checkpoint));
+      assertEquals(SourceResponse.done(), source.read(itemFactory));
+    }
+
+    assertTrue(Files.exists(checkpoint));
+    assertEquals(BsonDocument.parse("{}"), toBson(captureFilter()));
+
+    // A new source should continue after the last document read
+    when(find.iterator()).thenReturn(new ListCursor<>(documents(4, 5), 10));
+    try (MongoSource.Source source = new MongoSource.Source(connection, settings)) {
+      assertEquals(SourceResponse.ok(), source.read(itemFactory));
+    }
+
+    // The unacknowledged read wasn't saved, so would be read again
+    assertEquals(3, Document.parse(Files.readString(checkpoint)).get("_id"));
+
+    ArgumentCaptor<Bson> captor = ArgumentCaptor.forClass(Bson.class);
+    verify(collection, times(2)).find(captor.capture());
+    assertEquals(
+        BsonDocument.parse("{\"_id\": {\"$gt\": 3}}"), toBson(captor.getAllValues().get(1)));
+  }
+
+  @Test
+  public void testValidate() {
+    MongoSourceSettings settings = new MongoSourceSettings();
+    settings.setConnection("mongodb://localhost");
+    settings.setDatabase("db");
+    settings.setCollection("collection");
+    assertTrue(settings.validate());
+
+    settings.setFilter("{not json");
+    assertFalse(settings.validate());
+
+    settings.setFilter(null);
+    settings.setSort("{\"date\": 1}");
+    settings.setCheckpointFile(Path.of("checkpoint.json"));
+    assertFalse(settings.validate());
+
+    settings.setCheckpointFile(null);
+    settings.setShardCount(2);
+    settings.setShardIndex(1);
+    assertTrue(settings.validate());
+
+    settings.setShardIndex(2);
+    assertFalse(settings.validate());
+  }
+
+  @Test
+  public void testShards() {
+    List<Document> documents = new ArrayList<>();
+    for (int i = 0; i < 500; i++) documents.add(new Document("_id", new ObjectId()));
+    documents.addAll(documents(1, 50));
+    for (String id : List.of("a", "bb", "xyz", "document-42", "")) {
+      documents.add(new Document("_id", id));
+    }
+
+    InMemoryCollection inMemory = new InMemoryCollection(documents);
+    when(connection.getCollection()).thenAnswer(inv -> inMemory.asCollection());
+
+    int shardCount = 3;
+    Set<Object> read = new HashSet<>();
+    for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+      MongoSourceSettings settings = new MongoSourceSettings();
+      settings.setShardIndex(shardIndex);
+      settings.setShardCount(shardCount);
+      settings.setMaxItemsPerRead(1000);
+
+      created.clear();
+      try (MongoSource.Source source = new MongoSource.Source(connection, settings)) {
+        while (source.read(itemFactory).getStatus() == SourceResponse.Status.OK) {
+          // Read until the shard is exhausted
+        }
+      }
+
+      List<Object> ids =
+          created.stream()
+              .map(i -> i.getContents(MongoDocument.class).findFirst().orElseThrow())
+              .map(c -> c.getData().get("_id"))
+              .collect(Collectors.toList());
+
+      // ObjectIds should be split roughly evenly
+      long objectIds = ids.stream().filter(ObjectId.class::isInstance).count();
+      assertTrue(objectIds > 100 && objectIds < 240, "Uneven shard: " + objectIds);
+
+      for (Object id : ids) {
+        assertTrue(read.add(id), "Document " + id + " read by more than one shard");
+      }
+    }
+
+    assertEquals(documents.size(), read.size());
+  }
+
+  @Test
+  public void testSingleShardHasNoFilter() {
+    ListCursor<Document> cursor = new ListCursor<>(documents(1, 1), 1);
+    when(find.iterator()).thenReturn(cursor);
+
+    try (MongoSource.Source source =
+        new MongoSource.Source(connection, new MongoSourceSettings())) {
+      source.read(itemFactory);
+    }
+
+    assertEquals(new BsonDocument(), toBson(captureFilter()));
+  }
+
+  private Bson captureFilter() {
+    ArgumentCaptor<Bson> captor = ArgumentCaptor.forClass(Bson.class);
+    verify(collection).find(captor.capture());
+    return captor.getValue();
+  }
+
+  private static BsonDocument toBson(Bson bson) {
+    return bson.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+  }
+
+  private static List<Document> documents(int from, int to) {
+    return IntStream.rangeClosed(from, to)
+        .mapToObj(i -> new Document("_id", i).append("value", "document " + i))
+        .collect(Collectors.toList());
+  }
+}
@@ -13,6 +13,7 @@ import io.annot8.common.components.AbstractProcessor;
 import io.annot8.common.components.AbstractProcessorDescriptor;
 import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.content.Image;
+import io.annot8.components.base.utils.InstancePool;
 import io.annot8.components.opencv.utils.OpenCVUtils;
 import io.annot8.conventions.PropertyKeys;
 import java.awt.*;
@@ -20,9 +21,13 @@ import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.opencv.core.CvType;
@@ -61,8 +66,12 @@ public class TextDetection
   }
 
   public static class Processor extends AbstractProcessor {
+    private static final List<String> OUTPUT_NAMES =
+        List.of("feature_fusion/Conv_7/Sigmoid", "feature_fusion/concat_3");
+
     private final Settings settings;
-    private final Net eastNet;
+    private final InstancePool<Net> eastNets;
+    private ForkJoinPool pool = null;
 
     static {
       nu.pattern.OpenCV.loadLocally();
@@ -70,7 +79,17 @@ public class TextDetection
 
     public Processor(Settings settings) {
       this.settings = settings;
-      eastNet = Dnn.readNetFromTensorflow(settings.getEastModel().toString());
+      eastNets =
+          new InstancePool<>(
+              settings.getPoolSize(),
+              () -> Dnn.readNetFromTensorflow(settings.getEastModel().toString()));
+
+      // Load the first network now, so that problems with the model are reported straight away
+      try {
+        eastNets.release(eastNets.acquire());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
     }
 
     @Override
@@ -80,103 +99,202 @@ public class TextDetection
       // Snapshot the Image content, so we don't recursively end up processing images
       List<Image> images = item.getContents(Image.class).collect(Collectors.toList());
 
-      images.forEach(
-          img -> {
-            try {
-              // Process image
-              log().debug("Processing image {}", img.getId());
-
-              long start = System.currentTimeMillis();
-              processImage(item, img);
-              metrics()
-                  .timer("processImage")
-                  .record(System.currentTimeMillis() - start, TimeUnit.MILLISECONDS);
-            } catch (Exception e) {
-              exceptions.add(e);
-              return;
-            }
+      List<List<Image>> batches = new ArrayList<>();
+      for (int i = 0; i < images.size(); i += settings.getBatchSize()) {
+        batches.add(images.subList(i, Math.min(images.size(), i + settings.getBatchSize())));
+      }
 
-            // Discard original according to settings
-            if (settings.isDiscardOriginal()) {
-              log().debug("Discarding image {}", img.getId());
-              item.removeContent(img);
-            }
-          });
+      // Detection is thread safe, but creating content is left to this thread. Only as many
+      // batches as there are networks are detected at once, and the output for each batch is
+      // created and its frames released as it completes, so that the frames for every image in
+      // the item aren't held in memory at the same time.
+      if (eastNets.getMaxSize() > 1 && batches.size() > 1) {
+        Deque<ForkJoinTask<Batch>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        while (next < batches.size() || !inFlight.isEmpty()) {
+          while (next < batches.size() && inFlight.size() < eastNets.getMaxSize()) {
+            List<Image> batch = batches.get(next++);
+            inFlight.add(getPool().submit(() -> detect(batch)));
+          }
+
+          output(item, inFlight.remove().join(), exceptions);
+        }
+      } else {
+        for (List<Image> batch : batches) output(item, detect(batch), exceptions);
+      }
 
       if (exceptions.isEmpty()) return ProcessorResponse.ok();
 
       return ProcessorResponse.itemError(exceptions);
     }
 
-    private void processImage(Item item, Image img) throws IOException {
-      // Based on code from: https://gist.github.com/berak/788da80d1dd5bade3f878210f45d6742
-      long start = System.currentTimeMillis();
+    /** Create the output for each detection in the batch, releasing each frame once it's done */
+    private void output(Item item, Batch batch, List<Exception> exceptions) {
+      if (batch.exception != null) {
+        exceptions.add(batch.exception);
+        return;
+      }
+
+      for (Detection detection : batch.detections) {
+        Image img = detection.image;
+        try {
+          long start = System.currentTimeMillis();
+          outputDetection(item, detection);
+          long end = System.currentTimeMillis();
+
+          metrics().timer("output").record(end - start, TimeUnit.MILLISECONDS);
+          metrics()
+              .timer("processImage")
+              .record(
+                  end - start + batch.duration / batch.detections.size(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+          exceptions.add(e);
+          continue;
+        } finally {
+          detection.frame.release();
+        }
 
-      Mat frame = OpenCVUtils.bufferedImageToMat(img.getData());
+        // Discard original according to settings
+        if (settings.isDiscardOriginal()) {
+          log().debug("Discarding image {}", img.getId());
+          item.removeContent(img);
+        }
+      }
+    }
 
-      // Convert to 3-channel RGB
-      Imgproc.cvtColor(frame, frame, Imgproc.COLOR_RGBA2RGB);
+    private Batch detect(List<Image> images) {
+      long start = System.currentTimeMillis();
+      try {
+        List<Detection> detections = detectText(images);
+        return new Batch(detections, System.currentTimeMillis() - start, null);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return new Batch(List.of(), 0, e);
+      } catch (Exception e) {
+        return new Batch(List.of(), 0, e);
+      }
+    }
 
-      // Calculate mean RGB values
-      Scalar meanRGB = OpenCVUtils.meanRGB(img.getData());
+    /**
+     * Pass the images through EAST as a single batch, and decode the text found in each. The frame
+     * in each detection must be released by the caller once it has been output.
+     */
+    private List<Detection> detectText(List<Image> images)
+        throws IOException, InterruptedException {
+      // Based on code from: https://gist.github.com/berak/788da80d1dd5bade3f878210f45d6742
+      long start = System.currentTimeMillis();
 
-      // Convert to blob
       Size size = new Size(settings.getSize(), settings.getSize());
       int height = (int) (size.height / 4);
-      Mat blob = Dnn.blobFromImage(frame, 1.0, size, meanRGB, true, false);
 
-      long end = System.currentTimeMillis();
-      metrics().timer("preprocessing").record(end - start, TimeUnit.MILLISECONDS);
-      start = end;
-
-      // Pass blob through to EAST and get outputs
-      eastNet.setInput(blob);
+      List<Mat> frames = new ArrayList<>(images.size());
+      List<Mat> blobs = new ArrayList<>(images.size());
       List<Mat> outs = new ArrayList<>(2);
-      List<String> outNames = new ArrayList<>();
-      outNames.add("feature_fusion/Conv_7/Sigmoid");
-      outNames.add("feature_fusion/concat_3");
-      eastNet.forward(outs, outNames);
-
-      end = System.currentTimeMillis();
-      metrics().timer("east").record(end - start, TimeUnit.MILLISECONDS);
-      start = end;
-
-      // Read results from EAST, and decode into RotatedRect
-      Mat scores = outs.get(0).reshape(1, height);
-      Mat geometry = outs.get(1).reshape(1, 5 * height);
-      List<Float> confidencesList = new ArrayList<>();
-      List<RotatedRect> boxesList =
-          decode(scores, geometry, confidencesList, settings.getScoreThreshold());
-
-      if (boxesList.isEmpty()) {
-        log().debug("No text found in image {}", img.getId());
-        return;
-      }
+      Mat blob = null;
+      boolean detected = false;
+      try {
+        for (Image img : images) {
+          log().debug("Processing image {}", img.getId());
+
+          Mat frame = OpenCVUtils.bufferedImageToMat(img.getData());
+          frames.add(frame);
+
+          // Convert to 3-channel RGB
+          Imgproc.cvtColor(frame, frame, Imgproc.COLOR_RGBA2RGB);
+
+          // Calculate mean RGB values
+          Scalar meanRGB = OpenCVUtils.meanRGB(img.getData());
+
+          // Convert to blob, each with its own mean, and then stack them into a single batch
+          blobs.add(Dnn.blobFromImage(frame, 1.0, size, meanRGB, true, false));
+        }
+        blob = OpenCVUtils.stackBlobs(blobs);
+
+        long end = System.currentTimeMillis();
+        metrics().timer("preprocessing").record(end - start, TimeUnit.MILLISECONDS);
+        start = end;
+
+        // Pass blob through to EAST and get outputs
+        Net eastNet = eastNets.acquire();
+        try {
+          eastNet.setInput(blob);
+          eastNet.forward(outs, OUTPUT_NAMES);
+        } finally {
+          eastNets.release(eastNet);
+        }
+
+        end = System.currentTimeMillis();
+        metrics().timer("east").record(end - start, TimeUnit.MILLISECONDS);
+        start = end;
+
+        List<Detection> detections = new ArrayList<>(images.size());
+        for (int i = 0; i < images.size(); i++) {
+          Image img = images.get(i);
+          Mat frame = frames.get(i);
+
+          // Read results from EAST, and decode into RotatedRect
+          Mat scores = OpenCVUtils.sliceBlob(outs.get(0), i, height);
+          Mat geometry = OpenCVUtils.sliceBlob(outs.get(1), i, 5 * height);
+          List<Float> confidencesList = new ArrayList<>();
+          List<RotatedRect> boxesList =
+              decode(scores, geometry, confidencesList, settings.getScoreThreshold());
+
+          List<RotatedRect> rotatedRects;
+          if (boxesList.isEmpty()) {
+            log().debug("No text found in image {}", img.getId());
+            rotatedRects = List.of();
+          } else {
+            // Suppress non-maximal boxes
+            MatOfFloat confidences =
+                new MatOfFloat(Converters.vector_float_to_Mat(confidencesList));
+            RotatedRect[] boxesArray = boxesList.toArray(new RotatedRect[0]);
+            MatOfRotatedRect boxes = new MatOfRotatedRect(boxesArray);
+            MatOfInt indices = new MatOfInt();
+            Dnn.NMSBoxesRotated(
+                boxes,
+                confidences,
+                settings.getScoreThreshold(),
+                settings.getNmsThreshold(),
+                indices);
+
+            // Convert model output into RotatedRect
+            rotatedRects =
+                Arrays.stream(indices.toArray())
+                    .mapToObj(j -> boxesArray[j])
+                    .map(rr -> OpenCVUtils.padRotatedRect(rr, settings.getPadding()))
+                    .collect(Collectors.toList());
+
+            log().debug("{} text segments found in image {}", rotatedRects.size(), img.getId());
+          }
 
-      // Suppress non-maximal boxes
-      MatOfFloat confidences = new MatOfFloat(Converters.vector_float_to_Mat(confidencesList));
-      RotatedRect[] boxesArray = boxesList.toArray(new RotatedRect[0]);
-      MatOfRotatedRect boxes = new MatOfRotatedRect(boxesArray);
-      MatOfInt indices = new MatOfInt();
-      Dnn.NMSBoxesRotated(
-          boxes, confidences, settings.getScoreThreshold(), settings.getNmsThreshold(), indices);
+          // Calculate the scaling ratio we need to apply
+          Point ratio =
+              new Point((float) frame.cols() / size.width, (float) frame.rows() / size.height);
 
-      // Convert model output into RotatedRect
-      List<RotatedRect> rotatedRects =
-          Arrays.stream(indices.toArray())
-              .mapToObj(i -> boxesArray[i])
-              .map(rr -> OpenCVUtils.padRotatedRect(rr, settings.getPadding()))
-              .collect(Collectors.toList());
+          detections.add(new Detection(img, frame, rotatedRects, ratio));
+        }
 
-      log().debug("{} text segments found in image {}", rotatedRects.size(), img.getId());
+        end = System.currentTimeMillis();
+        metrics().timer("decode").record(end - start, TimeUnit.MILLISECONDS);
+
+        detected = true;
+        return detections;
+      } finally {
+        // The frames are handed on with the detections, everything else can be released now
+        if (!detected) frames.forEach(Mat::release);
+        blobs.forEach(Mat::release);
+        if (blob != null) blob.release();
+        outs.forEach(Mat::release);
+      }
+    }
 
-      end = System.currentTimeMillis();
-      metrics().timer("decode").record(end - start, TimeUnit.MILLISECONDS);
-      start = end;
+    private void outputDetection(Item item, Detection detection) throws IOException {
+      Image img = detection.image;
+      Mat frame = detection.frame;
+      List<RotatedRect> rotatedRects = detection.rotatedRects;
+      Point ratio = detection.ratio;
 
-      // Calculate the scaling ratio we need to apply
-      Point ratio =
-          new Point((float) frame.cols() / size.width, (float) frame.rows() / size.height);
+      if (rotatedRects.isEmpty()) return;
 
       switch (settings.getOutputMode()) {
         case BOX:
@@ -260,6 +378,7 @@ public class TextDetection
 
           Imgproc.cvtColor(mask, mask, Imgproc.COLOR_GRAY2BGR, 3);
           frame.setTo(OpenCVUtils.BLACK, mask);
+          mask.release();
 
           // Save frame to new Image Content
           item.createContent(Image.class)
@@ -288,6 +407,7 @@ public class TextDetection
 
           Imgproc.cvtColor(inverseMask, inverseMask, Imgproc.COLOR_GRAY2BGR, 3);
           frame.setTo(OpenCVUtils.BLACK, inverseMask);
+          inverseMask.release();
 
           // Save frame to new Image Content
           item.createContent(Image.class)
@@ -298,9 +418,25 @@ public class TextDetection
 
           break;
       }
+    }
+
+    private synchronized ForkJoinPool getPool() {
+      if (pool == null) pool = new ForkJoinPool(eastNets.getMaxSize());
+
+      return pool;
+    }
+
+    @Override
+    public void close() {
+      synchronized (this) {
+        if (pool != null) {
+          pool.shutdown();
+          pool = null;
+        }
+      }
 
-      end = System.currentTimeMillis();
-      metrics().timer("output").record(end - start, TimeUnit.MILLISECONDS);
+      eastNets.close();
+      super.close();
     }
 
     private static BufferedImage rotateImageByDegrees(BufferedImage img, double angle) {
@@ -372,6 +508,34 @@ public class TextDetection
       }
       return detections;
     }
+
+    /** The results of passing a batch of images through EAST */
+    private static class Batch {
+      private final List<Detection> detections;
+      private final long duration;
+      private final Exception exception;
+
+      private Batch(List<Detection> detections, long duration, Exception exception) {
+        this.detections = detections;
+        this.duration = duration;
+        this.exception = exception;
+      }
+    }
+
+    /** The text found in a single image */
+    private static class Detection {
+      private final Image image;
+      private final Mat frame;
+      private final List<RotatedRect> rotatedRects;
+      private final Point ratio;
+
+      private Detection(Image image, Mat frame, List<RotatedRect> rotatedRects, Point ratio) {
+        this.image = image;
+        this.frame = frame;
+        this.rotatedRects = rotatedRects;
+        this.ratio = ratio;
+      }
+    }
   }
 
   public static class Settings implements io.annot8.api.settings.Settings {
@@ -382,10 +546,12 @@ public class TextDetection
     private Path eastModel;
     private OutputMode outputMode = OutputMode.MASK;
     private int padding = 0;
+    private int batchSize = 1;
+    private int poolSize = 1;
 
     @Override
     public boolean validate() {
-      return true;
+      return batchSize >= 1 && poolSize >= 1;
     }
 
     @Description("Should the original Content be discarded when an image is extracted?")
@@ -450,6 +616,26 @@ public class TextDetection
     public void setPadding(int padding) {
       this.padding = padding;
     }
+
+    @Description(
+        "The maximum number of images from an item to pass through the EAST model together as a single batch")
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    @Description(
+        "The number of copies of the EAST model to load, allowing batches to be processed concurrently")
+    public int getPoolSize() {
+      return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+      this.poolSize = poolSize;
+    }
   }
 
   public enum OutputMode {
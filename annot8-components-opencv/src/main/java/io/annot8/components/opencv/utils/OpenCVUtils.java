@@ -1,19 +1,27 @@
 /* Annot8 (annot8.io) - Licensed under Apache-2.0. */
 package io.annot8.components.opencv.utils;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import javax.imageio.ImageIO;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
 import org.opencv.core.Point;
 import org.opencv.core.RotatedRect;
 import org.opencv.core.Scalar;
 import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
 
 public class OpenCVUtils {
   private OpenCVUtils() {
@@ -42,38 +50,219 @@ public class OpenCVUtils {
     return vertices;
   }
 
+  /**
+   * Convert a {@link BufferedImage} to a {@link Mat}, with the channels that OpenCV would use when
+   * reading the image from a file: BGR for colour images, BGRA for colour images with an alpha
+   * channel, and a single channel for greyscale images.
+   *
+   * <p>Images of type {@link BufferedImage#TYPE_3BYTE_BGR}, {@link BufferedImage#TYPE_INT_RGB} and
+   * {@link BufferedImage#TYPE_BYTE_GRAY} are copied directly from the raster. Other types are
+   * converted by encoding them as PNG and decoding the result.
+   */
   public static Mat bufferedImageToMat(BufferedImage image) throws IOException {
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-    ImageIO.write(image, "png", byteArrayOutputStream);
-    byteArrayOutputStream.flush();
-    return Imgcodecs.imdecode(
-        new MatOfByte(byteArrayOutputStream.toByteArray()), Imgcodecs.IMREAD_UNCHANGED);
+    int width = image.getWidth();
+    int height = image.getHeight();
+    WritableRaster raster = image.getRaster();
+
+    switch (image.getType()) {
+      case BufferedImage.TYPE_3BYTE_BGR:
+        {
+          Mat mat = new Mat(height, width, CvType.CV_8UC3);
+
+          byte[] bgr = rasterBytes(raster, width * height * 3);
+          if (bgr != null) {
+            mat.put(0, 0, bgr);
+          } else {
+            // Samples are read in band order, which is RGB, so the channels need swapping
+            byte[] data = BUFFER.get().bytes(width * height * 3);
+            raster.getDataElements(0, 0, width, height, data);
+            mat.put(0, 0, data, 0, width * height * 3);
+            Imgproc.cvtColor(mat, mat, Imgproc.COLOR_RGB2BGR);
+          }
+
+          return mat;
+        }
+      case BufferedImage.TYPE_INT_RGB:
+        {
+          byte[] data = BUFFER.get().bytes(width * height * 3);
+          int[] row = new int[width];
+
+          for (int y = 0, i = 0; y < height; y++) {
+            raster.getDataElements(0, y, width, 1, row);
+            for (int x = 0; x < width; x++, i += 3) {
+              int rgb = row[x];
+              data[i] = (byte) rgb;
+              data[i + 1] = (byte) (rgb >> 8);
+              data[i + 2] = (byte) (rgb >> 16);
+            }
+          }
+
+          Mat mat = new Mat(height, width, CvType.CV_8UC3);
+          mat.put(0, 0, data, 0, width * height * 3);
+          return mat;
+        }
+      case BufferedImage.TYPE_BYTE_GRAY:
+        {
+          byte[] data = rasterBytes(raster, width * height);
+          if (data == null) {
+            data = BUFFER.get().bytes(width * height);
+            raster.getDataElements(0, 0, width, height, data);
+          }
+
+          Mat mat = new Mat(height, width, CvType.CV_8UC1);
+          mat.put(0, 0, data, 0, width * height);
+          return mat;
+        }
+      default:
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", byteArrayOutputStream);
+        byteArrayOutputStream.flush();
+        return Imgcodecs.imdecode(
+            new MatOfByte(byteArrayOutputStream.toByteArray()), Imgcodecs.IMREAD_UNCHANGED);
+    }
   }
 
+  /**
+   * Convert a {@link Mat} to a {@link BufferedImage}.
+   *
+   * <p>8-bit Mats with one, three (BGR) or four (BGRA) channels are copied directly into an image
+   * of type {@link BufferedImage#TYPE_BYTE_GRAY}, {@link BufferedImage#TYPE_3BYTE_BGR} or {@link
+   * BufferedImage#TYPE_4BYTE_ABGR} respectively. Other Mats are converted by encoding them as PNG
+   * and decoding the result.
+   */
   public static BufferedImage matToBufferedImage(Mat matrix) throws IOException {
-    MatOfByte mob = new MatOfByte();
-    Imgcodecs.imencode(".png", matrix, mob);
-    return ImageIO.read(new ByteArrayInputStream(mob.toArray()));
+    int width = matrix.cols();
+    int height = matrix.rows();
+
+    // Only 8-bit Mats can be copied directly
+    int channels = matrix.depth() == CvType.CV_8U ? matrix.channels() : 0;
+
+    switch (channels) {
+      case 1:
+        {
+          BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+          matrix.get(0, 0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+          return image;
+        }
+      case 3:
+        {
+          BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+          matrix.get(0, 0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+          return image;
+        }
+      case 4:
+        {
+          // Reorder the channels from BGRA to ABGR, and then copy straight into the image
+          Mat abgr = new Mat(height, width, CvType.CV_8UC4);
+          Core.mixChannels(List.of(matrix), List.of(abgr), new MatOfInt(3, 0, 0, 1, 1, 2, 2, 3));
+
+          BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+          abgr.get(0, 0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+          abgr.release();
+
+          return image;
+        }
+      default:
+        MatOfByte mob = new MatOfByte();
+        Imgcodecs.imencode(".png", matrix, mob);
+        return ImageIO.read(new ByteArrayInputStream(mob.toArray()));
+    }
   }
 
   public static Scalar meanRGB(BufferedImage img) {
-    double meanRed = 0.0;
-    double meanGreen = 0.0;
-    double meanBlue = 0.0;
+    long sumRed = 0;
+    long sumGreen = 0;
+    long sumBlue = 0;
 
+    int[] row = new int[img.getWidth()];
     for (int y = 0; y < img.getHeight(); ++y) {
-      for (int x = 0; x < img.getWidth(); ++x) {
-        Color r = new Color(img.getRGB(x, y));
-        meanRed += r.getRed();
-        meanGreen += r.getGreen();
-        meanBlue += r.getBlue();
+      img.getRGB(0, y, row.length, 1, row, 0, row.length);
+      for (int rgb : row) {
+        sumRed += (rgb >> 16) & 0xFF;
+        sumGreen += (rgb >> 8) & 0xFF;
+        sumBlue += rgb & 0xFF;
       }
     }
 
-    meanRed = meanRed / (img.getWidth() * img.getHeight());
-    meanGreen = meanGreen / (img.getWidth() * img.getHeight());
-    meanBlue = meanBlue / (img.getWidth() * img.getHeight());
+    double meanRed = (double) sumRed / (img.getWidth() * img.getHeight());
+    double meanGreen = (double) sumGreen / (img.getWidth() * img.getHeight());
+    double meanBlue = (double) sumBlue / (img.getWidth() * img.getHeight());
 
     return new Scalar(meanRed, meanGreen, meanBlue);
   }
+
+  /**
+   * Stack blobs, each holding a single image (e.g. from {@link
+   * org.opencv.dnn.Dnn#blobFromImage(Mat)}), into a single 4-D blob that can be passed through a
+   * network as one batch. Unlike {@link org.opencv.dnn.Dnn#blobFromImages(List)}, each image can
+   * have been preprocessed with different parameters, such as its own mean.
+   *
+   * <p>The blobs must all have the same shape.
+   */
+  public static Mat stackBlobs(List<Mat> blobs) {
+    if (blobs.size() == 1) return blobs.get(0);
+
+    Mat first = blobs.get(0);
+    int[] shape = new int[first.dims()];
+    for (int d = 0; d < shape.length; d++) shape[d] = first.size(d);
+    shape[0] = blobs.size();
+
+    List<Mat> rows = new ArrayList<>(blobs.size());
+    for (Mat blob : blobs) rows.add(blob.reshape(1, 1));
+
+    Mat stacked = new Mat();
+    Core.vconcat(rows, stacked);
+
+    return stacked.reshape(1, shape);
+  }
+
+  /**
+   * Get the part of a batched blob (e.g. the output of a network run on a blob from {@link
+   * #stackBlobs(List)}) corresponding to a single image, as a 2-D single channel Mat with the given
+   * number of rows
+   */
+  public static Mat sliceBlob(Mat blob, int index, int rows) {
+    return blob.reshape(1, blob.size(0)).row(index).reshape(1, rows);
+  }
+
+  /**
+   * The bytes backing the raster, if they are laid out exactly as OpenCV expects them (i.e. the
+   * raster isn't a window onto a larger image), or null otherwise
+   */
+  private static byte[] rasterBytes(WritableRaster raster, int length) {
+    DataBuffer buffer = raster.getDataBuffer();
+    if (raster.getParent() != null
+        || !(buffer instanceof DataBufferByte)
+        || buffer.getNumBanks() != 1
+        || buffer.getOffset() != 0
+        || buffer.getSize() != length) return null;
+
+    return ((DataBufferByte) buffer).getData();
+  }
+
+  /**
+   * The largest buffer kept for reuse by each thread, enough for an RGB image of around 1.4
+   * megapixels. Larger images are staged in an array allocated for the call, so that threads which
+   * once converted a large image don't hold on to a buffer of that size.
+   */
+  static final int MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+
+  /**
+   * A per-thread buffer for staging pixel data on its way into a {@link Mat}, which grows to fit
+   * the largest image seen up to {@link #MAX_BUFFER_SIZE}, so that converting a series of pages
+   * doesn't allocate a new array for each one. The data is always copied out of the buffer before
+   * it is reused.
+   */
+  private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+  static class Buffer {
+    private byte[] bytes = new byte[0];
+
+    byte[] bytes(int length) {
+      if (length > MAX_BUFFER_SIZE) return new byte[length];
+
+      if (bytes.length < length) bytes = new byte[length];
+      return bytes;
+    }
+  }
 }
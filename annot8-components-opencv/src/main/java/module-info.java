@@ -3,6 +3,7 @@ module io.annot8.components.opencv {
   requires transitive io.annot8.common.data;
   requires io.annot8.conventions;
   requires io.annot8.common.components;
+  requires io.annot8.components.base;
   requires java.desktop;
   requires opencv;
 
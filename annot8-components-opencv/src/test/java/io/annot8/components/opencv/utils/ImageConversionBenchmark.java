@@ -0,0 +1,123 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.opencv.utils;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares converting a scanned page between {@link BufferedImage} and {@link Mat} by encoding and
+ * decoding PNG with converting it directly with {@link OpenCVUtils}.
+ *
+ * <p>Not run as part of the tests. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageConversionBenchmark {
+
+  @Param({"3BYTE_BGR", "INT_RGB", "BYTE_GRAY"})
+  private String type;
+
+  // An A4 page scanned at 300 DPI
+  @Param({"2480x3508"})
+  private String dimensions;
+
+  private BufferedImage image;
+  private Mat mat;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    nu.pattern.OpenCV.loadLocally();
+
+    String[] wh = dimensions.split("x");
+    int width = Integer.parseInt(wh[0]);
+    int height = Integer.parseInt(wh[1]);
+
+    image = new BufferedImage(width, height, imageType(type));
+
+    // Black text-like marks on a white page, so that PNG compresses it as it would a real scan
+    Random random = new Random(21);
+    Graphics2D g = image.createGraphics();
+    g.setColor(Color.WHITE);
+    g.fillRect(0, 0, width, height);
+    g.setColor(Color.BLACK);
+    for (int y = 200; y < height - 200; y += 50) {
+      for (int x = 200; x < width - 200; x += 30 + random.nextInt(30)) {
+        g.fillRect(x, y, 10 + random.nextInt(15), 25);
+      }
+    }
+    g.dispose();
+
+    mat = OpenCVUtils.bufferedImageToMat(image);
+  }
+
+  @Benchmark
+  public Mat toMatPng() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", baos);
+    return Imgcodecs.imdecode(new MatOfByte(baos.toByteArray()), Imgcodecs.IMREAD_UNCHANGED);
+  }
+
+  @Benchmark
+  public Mat toMatDirect() throws IOException {
+    return OpenCVUtils.bufferedImageToMat(image);
+  }
+
+  @Benchmark
+  public BufferedImage fromMatPng() throws IOException {
+    MatOfByte mob = new MatOfByte();
+    Imgcodecs.imencode(".png", mat, mob);
+    return ImageIO.read(new ByteArrayInputStream(mob.toArray()));
+  }
+
+  @Benchmark
+  public BufferedImage fromMatDirect() throws IOException {
+    return OpenCVUtils.matToBufferedImage(mat);
+  }
+
+  private static int imageType(String type) {
+    switch (type) {
+      case "3BYTE_BGR":
+        return BufferedImage.TYPE_3BYTE_BGR;
+      case "INT_RGB":
+        return BufferedImage.TYPE_INT_RGB;
+      case "BYTE_GRAY":
+        return BufferedImage.TYPE_BYTE_GRAY;
+      default:
+        throw new IllegalArgumentException("Unknown image type " + type);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ImageConversionBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,169 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.opencv.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.dnn.Dnn;
+import org.opencv.imgcodecs.Imgcodecs;
+
+public class OpenCVUtilsTest {
+
+  @BeforeAll
+  public static void loadOpenCV() {
+    nu.pattern.OpenCV.loadLocally();
+  }
+
+  @Test
+  public void testBufferSizeIsCapped() {
+    OpenCVUtils.Buffer buffer = new OpenCVUtils.Buffer();
+
+    byte[] small = buffer.bytes(1024);
+    assertSame(small, buffer.bytes(512));
+
+    byte[] large = buffer.bytes(OpenCVUtils.MAX_BUFFER_SIZE + 1);
+    assertEquals(OpenCVUtils.MAX_BUFFER_SIZE + 1, large.length);
+    assertNotSame(large, buffer.bytes(OpenCVUtils.MAX_BUFFER_SIZE + 1));
+    assertSame(small, buffer.bytes(1024));
+  }
+
+  @Test
+  public void testBufferedImageToMatMatchesPng() throws IOException {
+    for (int type :
+        new int[] {
+          BufferedImage.TYPE_3BYTE_BGR,
+          BufferedImage.TYPE_INT_RGB,
+          BufferedImage.TYPE_BYTE_GRAY,
+          BufferedImage.TYPE_INT_ARGB
+        }) {
+      BufferedImage image = randomImage(41, 29, type);
+
+      assertMatEquals(viaPng(image), OpenCVUtils.bufferedImageToMat(image));
+
+      BufferedImage subimage = image.getSubimage(3, 5, 30, 17);
+      assertMatEquals(viaPng(subimage), OpenCVUtils.bufferedImageToMat(subimage));
+    }
+  }
+
+  @Test
+  public void testMatToBufferedImageMatchesPng() throws IOException {
+    Random random = new Random(21);
+
+    for (int type : new int[] {CvType.CV_8UC1, CvType.CV_8UC3, CvType.CV_8UC4}) {
+      Mat mat = new Mat(23, 37, type);
+      byte[] data = new byte[(int) mat.total() * mat.channels()];
+      random.nextBytes(data);
+      mat.put(0, 0, data);
+
+      MatOfByte mob = new MatOfByte();
+      Imgcodecs.imencode(".png", mat, mob);
+      BufferedImage expected = ImageIO.read(new ByteArrayInputStream(mob.toArray()));
+
+      BufferedImage actual = OpenCVUtils.matToBufferedImage(mat);
+      assertEquals(expected.getType(), actual.getType());
+      assertArrayEquals(
+          expected.getRGB(0, 0, 37, 23, null, 0, 37), actual.getRGB(0, 0, 37, 23, null, 0, 37));
+
+      // A submat isn't continuous, so has to be copied row by row
+      Mat submat = mat.submat(2, 20, 4, 30);
+      assertMatEquals(
+          submat, OpenCVUtils.bufferedImageToMat(OpenCVUtils.matToBufferedImage(submat)));
+    }
+  }
+
+  @Test
+  public void testStackAndSliceBlobs() {
+    Random random = new Random(22);
+    Size size = new Size(16, 16);
+
+    List<Mat> images = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Mat image = new Mat(20 + i, 30, CvType.CV_8UC3);
+      byte[] data = new byte[(int) image.total() * 3];
+      random.nextBytes(data);
+      image.put(0, 0, data);
+      images.add(image);
+    }
+
+    // With the same mean for every image, stacking should match OpenCV's own batching
+    Scalar mean = new Scalar(100, 110, 120);
+    List<Mat> blobs = new ArrayList<>();
+    for (Mat image : images) blobs.add(Dnn.blobFromImage(image, 1.0, size, mean, true, false));
+
+    Mat stacked = OpenCVUtils.stackBlobs(blobs);
+    assertMatEquals(Dnn.blobFromImages(images, 1.0, size, mean, true, false), stacked);
+
+    for (int i = 0; i < 3; i++) {
+      assertMatEquals(blobs.get(i).reshape(1, 48), OpenCVUtils.sliceBlob(stacked, i, 48));
+    }
+
+    assertSame(blobs.get(0), OpenCVUtils.stackBlobs(List.of(blobs.get(0))));
+  }
+
+  @Test
+  public void testMeanRGB() {
+    BufferedImage image = new BufferedImage(2, 2, BufferedImage.TYPE_INT_RGB);
+    image.setRGB(0, 0, new Color(10, 20, 30).getRGB());
+    image.setRGB(1, 0, new Color(20, 40, 60).getRGB());
+    image.setRGB(0, 1, new Color(30, 60, 90).getRGB());
+    image.setRGB(1, 1, new Color(40, 80, 120).getRGB());
+
+    Scalar mean = OpenCVUtils.meanRGB(image);
+    assertArrayEquals(new double[] {25.0, 50.0, 75.0, 0.0}, mean.val);
+  }
+
+  private static BufferedImage randomImage(int width, int height, int type) {
+    Random random = new Random(type);
+    BufferedImage image = new BufferedImage(width, height, type);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) image.setRGB(x, y, random.nextInt());
+    }
+
+    return image;
+  }
+
+  private static Mat viaPng(BufferedImage image) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", baos);
+    return Imgcodecs.imdecode(new MatOfByte(baos.toByteArray()), Imgcodecs.IMREAD_UNCHANGED);
+  }
+
+  private static void assertMatEquals(Mat expected, Mat actual) {
+    assertEquals(expected.type(), actual.type());
+
+    assertEquals(expected.dims(), actual.dims());
+    for (int d = 0; d < expected.dims(); d++) assertEquals(expected.size(d), actual.size(d));
+
+    if (expected.depth() == CvType.CV_32F) {
+      float[] e = new float[(int) expected.total() * expected.channels()];
+      float[] a = new float[(int) actual.total() * actual.channels()];
+      expected.reshape(1, 1).get(0, 0, e);
+      actual.reshape(1, 1).get(0, 0, a);
+      assertArrayEquals(e, a);
+    } else {
+      byte[] e = new byte[(int) expected.total() * expected.channels()];
+      byte[] a = new byte[(int) actual.total() * actual.channels()];
+      expected.get(0, 0, e);
+      actual.get(0, 0, a);
+      assertArrayEquals(e, a);
+    }
+  }
+}
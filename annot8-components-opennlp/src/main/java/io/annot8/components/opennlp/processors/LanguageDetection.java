@@ -44,7 +44,7 @@ public class LanguageDetection
       }
     }
 
-    return new Processor(model);
+    return new Processor(model, settings.getConcurrency());
   }
 
   @Override
@@ -56,11 +56,17 @@ public class LanguageDetection
   }
 
   public static class Processor extends AbstractTextProcessor {
-    private LanguageDetector detector;
+    private ThreadLocal<LanguageDetector> detector;
 
     public Processor(InputStream model) {
+      this(model, 1);
+    }
+
+    public Processor(InputStream model, int concurrency) {
+      super(concurrency);
       try {
-        detector = new LanguageDetectorME(new LanguageDetectorModel(model));
+        LanguageDetectorModel m = new LanguageDetectorModel(model);
+        detector = ThreadLocal.withInitial(() -> new LanguageDetectorME(m));
       } catch (IOException ioe) {
         throw new BadConfigurationException("Cannot read Language Detection model", ioe);
       }
@@ -68,7 +74,7 @@ public class LanguageDetection
 
     @Override
     protected void process(Text content) {
-      Language l = detector.predictLanguage(content.getData());
+      Language l = detector.get().predictLanguage(content.getData());
 
       content
           .getAnnotations()
@@ -83,15 +89,17 @@ public class LanguageDetection
     @Override
     public void close() {
       detector = null;
+      super.close();
     }
   }
 
   public static class Settings implements io.annot8.api.settings.Settings {
     private File model;
+    private int concurrency = 1;
 
     @Override
     public boolean validate() {
-      return true;
+      return concurrency > 0;
     }
 
     @Description("OpenNLP Language Detection Model (or null to use default)")
@@ -102,5 +110,16 @@ public class LanguageDetection
     public void setModel(File model) {
       this.model = model;
     }
+
+    @Description(
+        value = "The maximum number of Text content from a single item to process at once",
+        defaultValue = "1")
+    public int getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+    }
   }
 }
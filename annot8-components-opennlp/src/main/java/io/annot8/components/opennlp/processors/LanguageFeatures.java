@@ -70,6 +70,7 @@ public class LanguageFeatures
       tokens.close();
       pos.close();
       chunks.close();
+      super.close();
     }
   }
 }
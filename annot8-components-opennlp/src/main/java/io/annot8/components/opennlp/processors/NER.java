@@ -15,13 +15,13 @@ import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractTextProcessor;
+import io.annot8.components.base.text.utils.SpanIndex;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.PropertyKeys;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Stream;
 import opennlp.tools.namefind.NameFinderME;
@@ -37,7 +37,7 @@ public class NER extends AbstractProcessorDescriptor<NER.Processor, NER.Settings
 
   @Override
   protected Processor createComponent(Context context, Settings settings) {
-    return new Processor(settings.getModel(), settings.getType());
+    return new Processor(settings.getModel(), settings.getType(), settings.getConcurrency());
   }
 
   @Override
@@ -51,22 +51,35 @@ public class NER extends AbstractProcessorDescriptor<NER.Processor, NER.Settings
   }
 
   public static class Processor extends AbstractTextProcessor {
-    private NameFinderME nameFinder;
+    // NameFinderME keeps adaptive data between calls, so each thread needs its own
+    private ThreadLocal<NameFinderME> nameFinder;
     private String type;
 
     public Processor(File model, String type) {
+      this(model, type, 1);
+    }
+
+    public Processor(File model, String type, int concurrency) {
+      super(concurrency);
       this.type = type;
       try {
-        nameFinder = new NameFinderME(new TokenNameFinderModel(model));
+        TokenNameFinderModel m = new TokenNameFinderModel(model);
+        nameFinder = ThreadLocal.withInitial(() -> new NameFinderME(m));
       } catch (IOException ioe) {
         throw new BadConfigurationException("Cannot read NER model", ioe);
       }
     }
 
     public Processor(InputStream model, String type) {
+      this(model, type, 1);
+    }
+
+    public Processor(InputStream model, String type, int concurrency) {
+      super(concurrency);
       this.type = type;
       try {
-        nameFinder = new NameFinderME(new TokenNameFinderModel(model));
+        TokenNameFinderModel m = new TokenNameFinderModel(model);
+        nameFinder = ThreadLocal.withInitial(() -> new NameFinderME(m));
       } catch (IOException ioe) {
         throw new BadConfigurationException("Cannot read NER model", ioe);
       }
@@ -74,6 +87,9 @@ public class NER extends AbstractProcessorDescriptor<NER.Processor, NER.Settings
 
     @Override
     protected void process(Text content) {
+      NameFinderME nameFinder = this.nameFinder.get();
+      SpanIndex tokenIndex = SpanIndex.forType(content, AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN);
+
       Stream<Annotation> sentences =
           content
               .getAnnotations()
@@ -84,11 +100,8 @@ public class NER extends AbstractProcessorDescriptor<NER.Processor, NER.Settings
             SpanBounds bounds = (SpanBounds) s.getBounds();
 
             List<SpanBounds> tokens = new ArrayList<>();
-            content
+            tokenIndex
                 .getBetween(bounds.getBegin(), bounds.getEnd())
-                .filter(a -> AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN.equals(a.getType()))
-                .filter(a -> a.getBounds() instanceof SpanBounds)
-                .sorted(Comparator.comparingInt(a -> ((SpanBounds) a.getBounds()).getBegin()))
                 .forEach(a -> tokens.add((SpanBounds) a.getBounds()));
 
             Span[] spans =
@@ -115,16 +128,18 @@ public class NER extends AbstractProcessorDescriptor<NER.Processor, NER.Settings
     @Override
     public void close() {
       nameFinder = null;
+      super.close();
     }
   }
 
   public static class Settings implements io.annot8.api.settings.Settings {
     private File model;
     private String type;
+    private int concurrency = 1;
 
     @Override
     public boolean validate() {
-      return model != null;
+      return model != null && concurrency > 0;
     }
 
     @Description("OpenNLP NER Model File")
@@ -144,5 +159,16 @@ public class NER extends AbstractProcessorDescriptor<NER.Processor, NER.Settings
     public void setType(String type) {
       this.type = type;
     }
+
+    @Description(
+        value = "The maximum number of Text content from a single item to process at once",
+        defaultValue = "1")
+    public int getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+    }
   }
 }
@@ -14,8 +14,8 @@ import io.annot8.common.components.AbstractProcessorDescriptor;
 import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
-import io.annot8.common.data.utils.SortUtils;
 import io.annot8.components.base.text.processors.AbstractTextProcessor;
+import io.annot8.components.base.text.utils.SpanIndex;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.PropertyKeys;
 import java.io.File;
@@ -45,7 +45,7 @@ public class POS extends AbstractProcessorDescriptor<POS.Processor, POS.Settings
       }
     }
 
-    return new Processor(model);
+    return new Processor(model, settings.getConcurrency());
   }
 
   @Override
@@ -61,11 +61,17 @@ public class POS extends AbstractProcessorDescriptor<POS.Processor, POS.Settings
   }
 
   public static class Processor extends AbstractTextProcessor {
-    private POSTaggerME detector;
+    private ThreadLocal<POSTaggerME> detector;
 
     public Processor(InputStream model) {
+      this(model, 1);
+    }
+
+    public Processor(InputStream model, int concurrency) {
+      super(concurrency);
       try {
-        detector = new POSTaggerME(new POSModel(model));
+        POSModel m = new POSModel(model);
+        detector = ThreadLocal.withInitial(() -> new POSTaggerME(m));
       } catch (IOException ioe) {
         throw new BadConfigurationException("Cannot read POS model", ioe);
       }
@@ -73,6 +79,8 @@ public class POS extends AbstractProcessorDescriptor<POS.Processor, POS.Settings
 
     @Override
     protected void process(Text content) {
+      SpanIndex tokenIndex = SpanIndex.forType(content, AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN);
+
       content
           .getAnnotations()
           .getByBoundsAndType(SpanBounds.class, AnnotationTypes.ANNOTATION_TYPE_SENTENCE)
@@ -81,19 +89,19 @@ public class POS extends AbstractProcessorDescriptor<POS.Processor, POS.Settings
                 SpanBounds sentenceBounds = (SpanBounds) s.getBounds();
                 // Get tokens for sentence
                 List<Annotation> tokens = new ArrayList<>();
-                content
+                tokenIndex
                     .getBetween(sentenceBounds.getBegin(), sentenceBounds.getEnd())
-                    .filter(a -> AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN.equals(a.getType()))
-                    .filter(a -> a.getBounds() instanceof SpanBounds)
-                    .sorted(SortUtils.SORT_BY_SPANBOUNDS)
                     .forEach(tokens::add);
 
                 // Get POS for tokens
                 String[] pos =
-                    detector.tag(
-                        tokens.stream()
-                            .map(b -> b.getBounds(SpanBounds.class).get().getData(content).get())
-                            .toArray(String[]::new));
+                    detector
+                        .get()
+                        .tag(
+                            tokens.stream()
+                                .map(
+                                    b -> b.getBounds(SpanBounds.class).get().getData(content).get())
+                                .toArray(String[]::new));
 
                 // Update each token
                 for (int i = 0; i < pos.length; i++) {
@@ -114,15 +122,17 @@ public class POS extends AbstractProcessorDescriptor<POS.Processor, POS.Settings
     @Override
     public void close() {
       detector = null;
+      super.close();
     }
   }
 
   public static class Settings implements io.annot8.api.settings.Settings {
     private File model;
+    private int concurrency = 1;
 
     @Override
     public boolean validate() {
-      return true;
+      return concurrency > 0;
     }
 
     @Description("OpenNLP Part of Speech Model (or null to use default)")
@@ -133,5 +143,16 @@ public class POS extends AbstractProcessorDescriptor<POS.Processor, POS.Settings
     public void setModel(File model) {
       this.model = model;
     }
+
+    @Description(
+        value = "The maximum number of Text content from a single item to process at once",
+        defaultValue = "1")
+    public int getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+    }
   }
 }
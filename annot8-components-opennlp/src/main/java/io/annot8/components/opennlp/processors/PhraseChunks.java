@@ -15,8 +15,8 @@ import io.annot8.common.components.AbstractProcessorDescriptor;
 import io.annot8.common.components.capabilities.SimpleCapabilities;
 import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
-import io.annot8.common.data.utils.SortUtils;
 import io.annot8.components.base.text.processors.AbstractTextProcessor;
+import io.annot8.components.base.text.utils.SpanIndex;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.GroupRoles;
 import io.annot8.conventions.GroupTypes;
@@ -121,6 +121,8 @@ public class PhraseChunks
 
     @Override
     protected void process(Text content) {
+      SpanIndex tokenIndex = SpanIndex.forType(content, AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN);
+
       content
           .getAnnotations()
           .getByBoundsAndType(SpanBounds.class, AnnotationTypes.ANNOTATION_TYPE_SENTENCE)
@@ -129,11 +131,8 @@ public class PhraseChunks
                 SpanBounds sentenceBounds = (SpanBounds) s.getBounds();
                 // Get tokens for sentence
                 List<Annotation> tokens = new ArrayList<>();
-                content
+                tokenIndex
                     .getBetween(sentenceBounds.getBegin(), sentenceBounds.getEnd())
-                    .filter(a -> AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN.equals(a.getType()))
-                    .filter(a -> a.getBounds() instanceof SpanBounds)
-                    .sorted(SortUtils.SORT_BY_SPANBOUNDS)
                     .forEach(tokens::add);
 
                 String[] words = new String[tokens.size()];
@@ -156,7 +155,7 @@ public class PhraseChunks
 
                 for (Span span : spans) {
                   List<Annotation> constituentWords =
-                      content
+                      tokenIndex
                           .getBetween(
                               tokens
                                   .get(span.getStart())
@@ -168,8 +167,6 @@ public class PhraseChunks
                                   .getBounds(SpanBounds.class)
                                   .get()
                                   .getEnd())
-                          .filter(
-                              a -> AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN.equals(a.getType()))
                           .collect(Collectors.toList());
 
                   int headWordId = constituentWords.size() - 1;
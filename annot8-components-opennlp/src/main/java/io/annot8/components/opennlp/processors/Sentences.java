@@ -43,7 +43,7 @@ public class Sentences
       }
     }
 
-    return new Processor(model);
+    return new Processor(model, settings.getConcurrency());
   }
 
   @Override
@@ -55,11 +55,17 @@ public class Sentences
   }
 
   public static class Processor extends AbstractTextProcessor {
-    private SentenceDetectorME detector;
+    private ThreadLocal<SentenceDetectorME> detector;
 
     public Processor(InputStream model) {
+      this(model, 1);
+    }
+
+    public Processor(InputStream model, int concurrency) {
+      super(concurrency);
       try {
-        detector = new SentenceDetectorME(new SentenceModel(model));
+        SentenceModel m = new SentenceModel(model);
+        detector = ThreadLocal.withInitial(() -> new SentenceDetectorME(m));
       } catch (IOException ioe) {
         throw new BadConfigurationException("Cannot read Sentence model", ioe);
       }
@@ -67,7 +73,7 @@ public class Sentences
 
     @Override
     protected void process(Text content) {
-      Span[] sentences = detector.sentPosDetect(lowerIfUpperCase(content.getData()));
+      Span[] sentences = detector.get().sentPosDetect(lowerIfUpperCase(content.getData()));
 
       for (Span s : sentences) {
         content
@@ -83,6 +89,7 @@ public class Sentences
     @Override
     public void close() {
       detector = null;
+      super.close();
     }
 
     private String lowerIfUpperCase(String original) {
@@ -94,10 +101,11 @@ public class Sentences
 
   public static class Settings implements io.annot8.api.settings.Settings {
     private File model;
+    private int concurrency = 1;
 
     @Override
     public boolean validate() {
-      return true;
+      return concurrency > 0;
     }
 
     @Description("OpenNLP Sentence Model (or null to use default)")
@@ -108,5 +116,16 @@ public class Sentences
     public void setModel(File model) {
       this.model = model;
     }
+
+    @Description(
+        value = "The maximum number of Text content from a single item to process at once",
+        defaultValue = "1")
+    public int getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+    }
   }
 }
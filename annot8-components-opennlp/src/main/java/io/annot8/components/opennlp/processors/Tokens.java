@@ -46,7 +46,7 @@ public class Tokens extends AbstractProcessorDescriptor<Tokens.Processor, Tokens
       }
     }
 
-    return new Processor(model);
+    return new Processor(model, settings.getConcurrency());
   }
 
   @Override
@@ -58,11 +58,17 @@ public class Tokens extends AbstractProcessorDescriptor<Tokens.Processor, Tokens
   }
 
   public static class Processor extends AbstractTextProcessor {
-    private TokenizerME detector;
+    private ThreadLocal<TokenizerME> detector;
 
     public Processor(InputStream model) {
+      this(model, 1);
+    }
+
+    public Processor(InputStream model, int concurrency) {
+      super(concurrency);
       try {
-        detector = new TokenizerME(new TokenizerModel(model));
+        TokenizerModel m = new TokenizerModel(model);
+        detector = ThreadLocal.withInitial(() -> new TokenizerME(m));
       } catch (IOException ioe) {
         throw new BadConfigurationException("Cannot read Token model", ioe);
       }
@@ -77,7 +83,7 @@ public class Tokens extends AbstractProcessorDescriptor<Tokens.Processor, Tokens
               .collect(Collectors.toList());
       if (sentences.isEmpty()) {
         // Run over whole text
-        createTokens(content, detector.tokenizePos(content.getData()), 0);
+        createTokens(content, detector.get().tokenizePos(content.getData()), 0);
       } else {
         // Run over each sentence in turn
         for (Annotation sentence : sentences) {
@@ -86,7 +92,8 @@ public class Tokens extends AbstractProcessorDescriptor<Tokens.Processor, Tokens
 
           content
               .getText(sentence)
-              .ifPresent(s -> createTokens(content, detector.tokenizePos(s), sb.get().getBegin()));
+              .ifPresent(
+                  s -> createTokens(content, detector.get().tokenizePos(s), sb.get().getBegin()));
         }
       }
     }
@@ -106,15 +113,17 @@ public class Tokens extends AbstractProcessorDescriptor<Tokens.Processor, Tokens
     @Override
     public void close() {
       detector = null;
+      super.close();
     }
   }
 
   public static class Settings implements io.annot8.api.settings.Settings {
     private File model;
+    private int concurrency = 1;
 
     @Override
     public boolean validate() {
-      return true;
+      return concurrency > 0;
     }
 
     @Description("OpenNLP Token Model (or null to use default)")
@@ -125,5 +134,16 @@ public class Tokens extends AbstractProcessorDescriptor<Tokens.Processor, Tokens
     public void setModel(File model) {
       this.model = model;
     }
+
+    @Description(
+        value = "The maximum number of Text content from a single item to process at once",
+        defaultValue = "1")
+    public int getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+    }
   }
 }
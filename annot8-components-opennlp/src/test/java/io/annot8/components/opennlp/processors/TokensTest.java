@@ -2,6 +2,7 @@
 package io.annot8.components.opennlp.processors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.annot8.api.components.Processor;
 import io.annot8.api.data.Item;
@@ -74,4 +75,31 @@ public class TokensTest {
 
     p.close();
   }
+
+  @Test
+  public void testConcurrency() {
+    Item item = new TestItem();
+    List<TestStringContent> contents = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      contents.add(
+          item.createContent(TestStringContent.class)
+              .withData(
+                  "Last week, Joe Bloggs was in London. Joe was seen talking to Dr. Jane Doe.")
+              .save());
+    }
+
+    Tokens.Settings settings = new Tokens.Settings();
+    settings.setConcurrency(4);
+    assertTrue(settings.validate());
+
+    Processor p = new Tokens().createComponent(null, settings);
+    p.process(item);
+    p.close();
+
+    for (TestStringContent content : contents) {
+      assertEquals(
+          18,
+          content.getAnnotations().getByType(AnnotationTypes.ANNOTATION_TYPE_WORDTOKEN).count());
+    }
+  }
 }
@@ -13,6 +13,7 @@ import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractRegexProcessor;
 import io.annot8.conventions.AnnotationTypes;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 @ComponentName("Hashtag")
@@ -42,5 +43,15 @@ public class HashTag extends AbstractProcessorDescriptor<HashTag.Processor, NoSe
           0,
           AnnotationTypes.ANNOTATION_TYPE_HASHTAG);
     }
+
+    @Override
+    protected Set<String> getAnchors() {
+      return Set.of("#");
+    }
+
+    @Override
+    protected boolean isWithinToken() {
+      return true;
+    }
   }
 }
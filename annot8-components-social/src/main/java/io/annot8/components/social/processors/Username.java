@@ -13,6 +13,7 @@ import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractRegexProcessor;
 import io.annot8.conventions.AnnotationTypes;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 @ComponentName("Usernames")
@@ -42,5 +43,15 @@ public class Username extends AbstractProcessorDescriptor<Username.Processor, No
           0,
           AnnotationTypes.ANNOTATION_TYPE_USERNAME);
     }
+
+    @Override
+    protected Set<String> getAnchors() {
+      return Set.of("@");
+    }
+
+    @Override
+    protected boolean isWithinToken() {
+      return true;
+    }
   }
 }
@@ -52,6 +52,9 @@ public abstract class SpacyServerProcessor extends AbstractTextProcessor {
     apiClient.setHttpClientBuilder(builder);
 
     client = new NlpApi(apiClient);
+
+    // Requests for different content are independent, so can be sent concurrently
+    setConcurrency(settings.getConcurrency());
   }
 
   protected static org.openapi.spacy.model.Text fromTextContent(Text content) {
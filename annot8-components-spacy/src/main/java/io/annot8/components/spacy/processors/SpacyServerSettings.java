@@ -7,10 +7,11 @@ import java.net.URI;
 
 public class SpacyServerSettings implements Settings {
   private String baseUri = "http://localhost:8000";
+  private int concurrency = 1;
 
   @Override
   public boolean validate() {
-    if (baseUri == null || baseUri.isEmpty()) return false;
+    if (baseUri == null || baseUri.isEmpty() || concurrency < 1) return false;
 
     try {
       URI.create(baseUri);
@@ -29,4 +30,16 @@ public class SpacyServerSettings implements Settings {
   public void setBaseUri(String baseUri) {
     this.baseUri = baseUri;
   }
+
+  @Description(
+      value =
+          "The maximum number of Text content from a single item to send to the SpaCy Server at once",
+      defaultValue = "1")
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public void setConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+  }
 }
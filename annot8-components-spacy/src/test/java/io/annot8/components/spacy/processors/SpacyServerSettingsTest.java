@@ -21,5 +21,14 @@ public class SpacyServerSettingsTest {
 
     s.setBaseUri(null);
     assertFalse(s.validate());
+
+    s.setBaseUri("https://example.com:1234/root/");
+    assertEquals(1, s.getConcurrency());
+    s.setConcurrency(4);
+    assertEquals(4, s.getConcurrency());
+    assertTrue(s.validate());
+
+    s.setConcurrency(0);
+    assertFalse(s.validate());
   }
 }
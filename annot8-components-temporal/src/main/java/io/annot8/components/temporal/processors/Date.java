@@ -13,15 +13,13 @@ import io.annot8.common.data.bounds.SpanBounds;
 import io.annot8.common.data.content.Text;
 import io.annot8.components.base.text.processors.AbstractTextProcessor;
 import io.annot8.components.temporal.processors.utils.DateTimeUtils;
+import io.annot8.components.temporal.processors.utils.ExtractedSpans;
 import io.annot8.conventions.AnnotationTypes;
 import io.annot8.conventions.PropertyKeys;
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.Year;
 import java.time.YearMonth;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -87,6 +85,106 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
     private static final String YEAR = "\\s+(\\d{4}|'?\\d{2})\\b";
     private static final String SPACER = "\\s+";
 
+    private static final Pattern LONG_YEAR_SHORT_YEAR =
+        Pattern.compile("\\b(\\d{2})(\\d{2})-(\\d{2})\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern LONG_YEAR_LONG_YEAR =
+        Pattern.compile("\\b(\\d{4})\\s*(-|to|and)\\s*(\\d{4})\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern MONTH_RANGE_SAME_YEAR =
+        Pattern.compile(
+            "\\b" + MONTHS + "\\s*(-|to|and)\\s*" + MONTHS + YEAR, Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern MONTH_RANGE_DIFF_YEAR =
+        Pattern.compile(
+            "\\b" + MONTHS + "\\s+(\\d{4}|'?\\d{2})\\s*(-|to|and)\\s*" + MONTHS + YEAR,
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern DAY_RANGE_SAME_MONTH =
+        Pattern.compile(
+            "\\b"
+                + DAYS
+                + DATES_ALT
+                + DATE_SUFFIXES
+                + "\\s*(-|to|and|\\\\|/)\\s*"
+                + DAYS
+                + DATES_ALT
+                + DATE_SUFFIXES
+                + SPACER
+                + MONTHS
+                + YEAR,
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern DAY_RANGE_SAME_YEAR =
+        Pattern.compile(
+            "\\b"
+                + DAYS
+                + DATES
+                + DATE_SUFFIXES
+                + SPACER
+                + MONTHS
+                + "\\s*(-|to|and)\\s*"
+                + DAYS
+                + DATES
+                + DATE_SUFFIXES
+                + SPACER
+                + MONTHS
+                + YEAR,
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern DAY_RANGE_FULL_DATES =
+        Pattern.compile(
+            "\\b"
+                + DAYS
+                + DATES_ALT
+                + DATE_SUFFIXES
+                + SPACER
+                + MONTHS
+                + "\\s+(\\d{4}|'?\\d{2})\\s*(-|to|and)\\s*"
+                + DAYS
+                + DATES_ALT
+                + DATE_SUFFIXES
+                + SPACER
+                + MONTHS
+                + YEAR,
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern FULL_DATE_DAY_MONTH =
+        Pattern.compile(
+            "\\b" + DAYS + DATES + DATE_SUFFIXES + SPACER + MONTHS + ",?\\s+(\\d{4}|'?\\d{2}\\b)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern FULL_DATE_MONTH_DAY =
+        Pattern.compile(
+            "\\b"
+                + MONTHS
+                + "\\s+([0-2]?[0-9]|3[01])\\s*"
+                + DATE_SUFFIXES
+                + ",?\\s+(\\d{4}|'?\\d{2}\\b)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SHORT_DATE_YEAR_FIRST =
+        Pattern.compile(
+            "\\b(\\d{4})[-\\\\/.](0?[1-9]|1[0-2])[-\\\\/.]([0-2]?[0-9]|3[01])\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SHORT_DATE =
+        Pattern.compile(
+            "\\b([0-2]?[0-9]|3[01])[-\\\\/.]([0-2]?[0-9]|3[01])[-\\\\/.](\\d{4}|\\d{2})\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern MONTH_YEAR =
+        Pattern.compile(
+            "\\b((beginning of|start of|early|mid|late|end of)[- ])?"
+                + MONTHS
+                + "\\s+(\\d{4}|'?\\d{2}\\b)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern YEAR_ONLY =
+        Pattern.compile("\\b(19[789][0-9]|20[0-9][0-9])\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final String BETWEEN = "between";
+
     private static final String INVALID_DATE_FOUND = "Invalid date found {}";
 
     public Processor(boolean americanDates) {
@@ -95,7 +193,10 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
 
     @Override
     protected void process(Text content) {
-      List<SpanBounds> extracted = new ArrayList<>();
+      // Every pattern requires a digit, so there's nothing to do without one
+      if (content.getData().chars().noneMatch(Character::isDigit)) return;
+
+      ExtractedSpans extracted = new ExtractedSpans();
 
       // Order here is important, as we want to identify the ranges first
       // so that we can ignore things that have already been extracted
@@ -107,13 +208,11 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
       identifyYears(content, extracted);
     }
 
-    private void identifyYearRanges(Text content, List<SpanBounds> extracted) {
+    private void identifyYearRanges(Text content, ExtractedSpans extracted) {
       String text = content.getData();
 
       // e.g. 2017-19
-      Pattern longYearShortYear =
-          Pattern.compile("\\b(\\d{2})(\\d{2})-(\\d{2})\\b", Pattern.CASE_INSENSITIVE);
-      Matcher m = longYearShortYear.matcher(text);
+      Matcher m = LONG_YEAR_SHORT_YEAR.matcher(text);
 
       while (m.find()) {
         if (dateSeparatorSuffix(text, m.end())) {
@@ -127,9 +226,7 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
       }
 
       // e.g. 2017-2019, 2017 to 2019, between 2017 and 2019
-      Pattern longYearLongYear =
-          Pattern.compile("\\b(\\d{4})\\s*(-|to|and)\\s*(\\d{4})\\b", Pattern.CASE_INSENSITIVE);
-      m = longYearLongYear.matcher(text);
+      m = LONG_YEAR_LONG_YEAR.matcher(text);
 
       while (m.find()) {
         if ("and".equalsIgnoreCase(m.group(2)) && !betweenPrefix(text, m.start())) {
@@ -144,13 +241,8 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
     }
 
     private void createYearTimeRange(
-        Text content,
-        int charBegin,
-        int charEnd,
-        Year y1,
-        Year y2,
-        Collection<SpanBounds> extracted) {
-      if (alreadyExtracted(extracted, charBegin, charEnd)) return;
+        Text content, int charBegin, int charEnd, Year y1, Year y2, ExtractedSpans extracted) {
+      if (extracted.contains(charBegin, charEnd)) return;
       if (y1.isAfter(y2)) return;
 
       SpanBounds sb = new SpanBounds(charBegin, charEnd);
@@ -163,17 +255,14 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
           .withProperty(PropertyKeys.PROPERTY_KEY_START, y1)
           .withProperty(PropertyKeys.PROPERTY_KEY_END, y2)
           .save();
-      extracted.add(sb);
+      extracted.add(charBegin, charEnd);
     }
 
-    private void identifyMonthYearRanges(Text content, List<SpanBounds> extracted) {
+    private void identifyMonthYearRanges(Text content, ExtractedSpans extracted) {
       String text = content.getData();
 
       // e.g. Mar-Apr 1997, between March and April 97, March to Apr '97
-      Pattern sameYear =
-          Pattern.compile(
-              "\\b" + MONTHS + "\\s*(-|to|and)\\s*" + MONTHS + YEAR, Pattern.CASE_INSENSITIVE);
-      Matcher m = sameYear.matcher(text);
+      Matcher m = MONTH_RANGE_SAME_YEAR.matcher(text);
 
       while (m.find()) {
         if ("and".equalsIgnoreCase(m.group(14)) && !betweenPrefix(text, m.start())) {
@@ -199,11 +288,7 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
       }
 
       // e.g. March 97 to June 98, between Mar '97 and Jun 1998
-      Pattern diffYear =
-          Pattern.compile(
-              "\\b" + MONTHS + "\\s+(\\d{4}|'?\\d{2})\\s*(-|to|and)\\s*" + MONTHS + YEAR,
-              Pattern.CASE_INSENSITIVE);
-      m = diffYear.matcher(text);
+      m = MONTH_RANGE_DIFF_YEAR.matcher(text);
 
       while (m.find()) {
         if ("and".equalsIgnoreCase(m.group(15)) && !betweenPrefix(text, m.start())) {
@@ -236,8 +321,8 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
         int charEnd,
         YearMonth ym1,
         YearMonth ym2,
-        Collection<SpanBounds> extracted) {
-      if (alreadyExtracted(extracted, charBegin, charEnd)) return;
+        ExtractedSpans extracted) {
+      if (extracted.contains(charBegin, charEnd)) return;
       if (ym1.isAfter(ym2)) return;
 
       SpanBounds sb = new SpanBounds(charBegin, charEnd);
@@ -251,27 +336,13 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
           .withProperty(PropertyKeys.PROPERTY_KEY_END, ym2)
           .save();
 
-      extracted.add(sb);
+      extracted.add(charBegin, charEnd);
     }
 
-    private void identifyDayMonthYearRanges(Text content, List<SpanBounds> extracted) {
+    private void identifyDayMonthYearRanges(Text content, ExtractedSpans extracted) {
       // e.g. Monday 23rd to Thursday 26 Sept '19, 4-12 June 2020
-      Pattern sameMonth =
-          Pattern.compile(
-              "\\b"
-                  + DAYS
-                  + DATES_ALT
-                  + DATE_SUFFIXES
-                  + "\\s*(-|to|and|\\\\|/)\\s*"
-                  + DAYS
-                  + DATES_ALT
-                  + DATE_SUFFIXES
-                  + SPACER
-                  + MONTHS
-                  + YEAR,
-              Pattern.CASE_INSENSITIVE);
       String text = content.getData();
-      Matcher m = sameMonth.matcher(text);
+      Matcher m = DAY_RANGE_SAME_MONTH.matcher(text);
 
       while (m.find()) {
         if (!DateTimeUtils.suffixCorrect(Integer.parseInt(m.group(1)), m.group(2))
@@ -316,23 +387,7 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
       }
 
       // e.g. Monday 26th Aug to Friday 27th September 2019
-      Pattern sameYear =
-          Pattern.compile(
-              "\\b"
-                  + DAYS
-                  + DATES
-                  + DATE_SUFFIXES
-                  + SPACER
-                  + MONTHS
-                  + "\\s*(-|to|and)\\s*"
-                  + DAYS
-                  + DATES
-                  + DATE_SUFFIXES
-                  + SPACER
-                  + MONTHS
-                  + YEAR,
-              Pattern.CASE_INSENSITIVE);
-      m = sameYear.matcher(text);
+      m = DAY_RANGE_SAME_YEAR.matcher(text);
 
       while (m.find()) {
         boolean suffixesCorrect =
@@ -373,23 +428,7 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
       }
 
       // Between 2 January 2018 and 1 January 2019
-      Pattern fullDates =
-          Pattern.compile(
-              "\\b"
-                  + DAYS
-                  + DATES_ALT
-                  + DATE_SUFFIXES
-                  + SPACER
-                  + MONTHS
-                  + "\\s+(\\d{4}|'?\\d{2})\\s*(-|to|and)\\s*"
-                  + DAYS
-                  + DATES_ALT
-                  + DATE_SUFFIXES
-                  + SPACER
-                  + MONTHS
-                  + YEAR,
-              Pattern.CASE_INSENSITIVE);
-      m = fullDates.matcher(text);
+      m = DAY_RANGE_FULL_DATES.matcher(text);
 
       while (m.find()) {
         boolean suffixesCorrect =
@@ -438,8 +477,8 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
         int charEnd,
         LocalDate ld1,
         LocalDate ld2,
-        Collection<SpanBounds> extracted) {
-      if (alreadyExtracted(extracted, charBegin, charEnd)) return;
+        ExtractedSpans extracted) {
+      if (extracted.contains(charBegin, charEnd)) return;
       if (ld1.isAfter(ld2)) return;
 
       SpanBounds sb = new SpanBounds(charBegin, charEnd);
@@ -453,53 +492,33 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
           .withProperty(PropertyKeys.PROPERTY_KEY_END, ld2)
           .save();
 
-      extracted.add(sb);
+      extracted.add(charBegin, charEnd);
     }
 
-    private void identifyDates(Text content, List<SpanBounds> extracted) {
+    private void identifyDates(Text content, ExtractedSpans extracted) {
       // e.g. 4 November 1998, 8th May '01
-      Pattern fullDateDayMonth =
-          Pattern.compile(
-              "\\b" + DAYS + DATES + DATE_SUFFIXES + SPACER + MONTHS + ",?\\s+(\\d{4}|'?\\d{2}\\b)",
-              Pattern.CASE_INSENSITIVE);
       String text = content.getData();
-      Matcher m = fullDateDayMonth.matcher(text);
+      Matcher m = FULL_DATE_DAY_MONTH.matcher(text);
 
       while (m.find()) {
         createDateFromMatcher(content, m, 16, 3, 1, extracted);
       }
 
       // e.g. November 4 1998, May 8th '01
-      Pattern fullDateMonthDay =
-          Pattern.compile(
-              "\\b"
-                  + MONTHS
-                  + "\\s+([0-2]?[0-9]|3[01])\\s*"
-                  + DATE_SUFFIXES
-                  + ",?\\s+(\\d{4}|'?\\d{2}\\b)",
-              Pattern.CASE_INSENSITIVE);
-      m = fullDateMonthDay.matcher(text);
+      m = FULL_DATE_MONTH_DAY.matcher(text);
 
       while (m.find()) {
         createDateFromMatcher(content, m, 16, 1, 14, extracted);
       }
 
-      Pattern shortDateYearFirst =
-          Pattern.compile(
-              "\\b(\\d{4})[-\\\\/.](0?[1-9]|1[0-2])[-\\\\/.]([0-2]?[0-9]|3[01])\\b",
-              Pattern.CASE_INSENSITIVE);
-      m = shortDateYearFirst.matcher(text);
+      m = SHORT_DATE_YEAR_FIRST.matcher(text);
 
       while (m.find()) {
         createDateFromMatcher(content, m, 1, 2, 3, extracted);
       }
 
       // e.g. 4/11/98, 08-05-01
-      Pattern shortDate =
-          Pattern.compile(
-              "\\b([0-2]?[0-9]|3[01])[-\\\\/.]([0-2]?[0-9]|3[01])[-\\\\/.](\\d{4}|\\d{2})\\b",
-              Pattern.CASE_INSENSITIVE);
-      m = shortDate.matcher(text);
+      m = SHORT_DATE.matcher(text);
 
       while (m.find()) {
         Year y = DateTimeUtils.asYear(m.group(3));
@@ -557,8 +576,8 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
     }
 
     private void createDate(
-        Text content, int charBegin, int charEnd, LocalDate ld, Collection<SpanBounds> extracted) {
-      if (alreadyExtracted(extracted, charBegin, charEnd)) return;
+        Text content, int charBegin, int charEnd, LocalDate ld, ExtractedSpans extracted) {
+      if (extracted.contains(charBegin, charEnd)) return;
 
       SpanBounds sb = new SpanBounds(charBegin, charEnd);
 
@@ -570,24 +589,13 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
           .withProperty(PropertyKeys.PROPERTY_KEY_VALUE, ld)
           .save();
 
-      extracted.add(sb);
+      extracted.add(charBegin, charEnd);
     }
 
-    private static boolean alreadyExtracted(
-        Collection<SpanBounds> extracted, Integer begin, Integer end) {
-      return extracted.stream().anyMatch(sb -> sb.getBegin() <= begin && sb.getEnd() >= end);
-    }
-
-    private void identifyMonths(Text content, List<SpanBounds> extracted) {
+    private void identifyMonths(Text content, ExtractedSpans extracted) {
       // e.g. Beginning of May 2012, Mid-April 1997, Late Jun '12
-      Pattern monthYear =
-          Pattern.compile(
-              "\\b((beginning of|start of|early|mid|late|end of)[- ])?"
-                  + MONTHS
-                  + "\\s+(\\d{4}|'?\\d{2}\\b)",
-              Pattern.CASE_INSENSITIVE);
       String text = content.getData();
-      Matcher m = monthYear.matcher(text);
+      Matcher m = MONTH_YEAR.matcher(text);
 
       while (m.find()) {
         Year y = DateTimeUtils.asYear(m.group(16));
@@ -636,8 +644,8 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
     }
 
     private void createMonth(
-        Text content, int charBegin, int charEnd, YearMonth ym, Collection<SpanBounds> extracted) {
-      if (alreadyExtracted(extracted, charBegin, charEnd)) return;
+        Text content, int charBegin, int charEnd, YearMonth ym, ExtractedSpans extracted) {
+      if (extracted.contains(charBegin, charEnd)) return;
 
       SpanBounds sb = new SpanBounds(charBegin, charEnd);
 
@@ -649,15 +657,13 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
           .withProperty(PropertyKeys.PROPERTY_KEY_VALUE, ym)
           .save();
 
-      extracted.add(sb);
+      extracted.add(charBegin, charEnd);
     }
 
-    private void identifyYears(Text content, List<SpanBounds> extracted) {
+    private void identifyYears(Text content, ExtractedSpans extracted) {
       // e.g. 1997, 2012
-      Pattern monthYear =
-          Pattern.compile("\\b(19[789][0-9]|20[0-9][0-9])\\b", Pattern.CASE_INSENSITIVE);
       String text = content.getData();
-      Matcher m = monthYear.matcher(text);
+      Matcher m = YEAR_ONLY.matcher(text);
 
       while (m.find()) {
         Year y = DateTimeUtils.asYear(m.group(1));
@@ -667,8 +673,8 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
     }
 
     private void createYear(
-        Text content, int charBegin, int charEnd, Year y, Collection<SpanBounds> extracted) {
-      if (alreadyExtracted(extracted, charBegin, charEnd)) return;
+        Text content, int charBegin, int charEnd, Year y, ExtractedSpans extracted) {
+      if (extracted.contains(charBegin, charEnd)) return;
 
       SpanBounds sb = new SpanBounds(charBegin, charEnd);
 
@@ -680,11 +686,18 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
           .withProperty(PropertyKeys.PROPERTY_KEY_VALUE, y)
           .save();
 
-      extracted.add(sb);
+      extracted.add(charBegin, charEnd);
     }
 
     private static boolean betweenPrefix(String text, Integer matchStart) {
-      return text.substring(0, matchStart).trim().toLowerCase().endsWith("between");
+      // Equivalent to trimming and lower casing the preceding text, without copying it
+      int end = matchStart;
+      while (end > 0 && text.charAt(end - 1) <= ' ') {
+        end--;
+      }
+
+      int start = end - BETWEEN.length();
+      return start >= 0 && text.regionMatches(true, start, BETWEEN, 0, BETWEEN.length());
     }
 
     private static boolean dateSeparatorSuffix(String text, Integer matchEnd) {
@@ -702,7 +715,7 @@ public class Date extends AbstractProcessorDescriptor<Date.Processor, Date.Setti
         int yearGroup,
         int monthGroup,
         int dayGroup,
-        Collection<SpanBounds> extracted) {
+        ExtractedSpans extracted) {
       Year y = DateTimeUtils.asYear(m.group(yearGroup));
 
       String month = m.group(monthGroup);
@@ -114,6 +114,40 @@ public class RelativeDate
     private static final String MONTHS =
         "(January|Jan|February|Feb|March|Mar|April|Apr|May|June|Jun|July|Jul|August|Aug|September|Sept|Sep|October|Oct|November|Nov|December|Dec)";
 
+    private static final Pattern YESTERDAY =
+        Pattern.compile("\\b(day before )?yesterday\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern TODAY = Pattern.compile("\\btoday\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern TOMORROW =
+        Pattern.compile("\\b(day after )?tomorrow\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern THIS_X =
+        Pattern.compile("\\bthis (week|month|year)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NEXT_LAST_DAY =
+        Pattern.compile("\\b(next|last) " + DAYS + "\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NEXT_LAST_WEEK =
+        Pattern.compile(
+            "\\b((in the|within the|" + DAYS + ") )?(next|last) week\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NEXT_LAST_MONTH =
+        Pattern.compile("\\b((in the|within the) )?(next|last) month\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NEXT_LAST_YEAR =
+        Pattern.compile(
+            "\\b((in the|within the|" + MONTHS + ") )?(next|last) year\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern IN_THE_NEXT_LAST_X =
+        Pattern.compile(
+            "\\b(in|within) the (next|last) (\\d+) (day|week|month|year)s\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NEXT_LAST =
+        Pattern.compile("\\b(next|last)\\b", Pattern.CASE_INSENSITIVE);
+
     public Processor(
         DateTimeFormatter dateTimeFormatter,
         Collection<String> dateProperties,
@@ -131,6 +165,10 @@ public class RelativeDate
       today(content, relativeTo);
       tomorrow(content, relativeTo);
       thisX(content, relativeTo);
+
+      // All of the remaining patterns need next or last, so check for those first
+      if (!NEXT_LAST.matcher(content.getData()).find()) return;
+
       nextLastDay(content, relativeTo);
       nextLastWeek(content, relativeTo);
       nextLastMonth(content, relativeTo);
@@ -172,8 +210,7 @@ public class RelativeDate
     }
 
     private void yesterday(Text content, LocalDate relativeTo) {
-      Pattern p = Pattern.compile("\\b(day before )?yesterday\\b", Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = YESTERDAY.matcher(content.getData());
 
       while (m.find()) {
         if (m.group(1) != null) {
@@ -185,8 +222,7 @@ public class RelativeDate
     }
 
     private void today(Text content, LocalDate relativeTo) {
-      Pattern p = Pattern.compile("\\btoday\\b", Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = TODAY.matcher(content.getData());
 
       while (m.find()) {
         createRelativeDay(content, m.start(), m.end(), 0, relativeTo);
@@ -194,8 +230,7 @@ public class RelativeDate
     }
 
     private void tomorrow(Text content, LocalDate relativeTo) {
-      Pattern p = Pattern.compile("\\b(day after )?tomorrow\\b", Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = TOMORROW.matcher(content.getData());
 
       while (m.find()) {
         if (m.group(1) != null) {
@@ -207,8 +242,7 @@ public class RelativeDate
     }
 
     private void thisX(Text content, LocalDate relativeTo) {
-      Pattern p = Pattern.compile("\\bthis (week|month|year)\\b", Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = THIS_X.matcher(content.getData());
 
       while (m.find()) {
         if ("week".equalsIgnoreCase(m.group(1))) {
@@ -222,8 +256,7 @@ public class RelativeDate
     }
 
     private void nextLastDay(Text content, LocalDate relativeTo) {
-      Pattern p = Pattern.compile("\\b(next|last) " + DAYS + "\\b", Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = NEXT_LAST_DAY.matcher(content.getData());
 
       while (m.find()) {
         Integer offset = null;
@@ -253,11 +286,7 @@ public class RelativeDate
     }
 
     private void nextLastWeek(Text content, LocalDate relativeTo) {
-      Pattern p =
-          Pattern.compile(
-              "\\b((in the|within the|" + DAYS + ") )?(next|last) week\\b",
-              Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = NEXT_LAST_WEEK.matcher(content.getData());
 
       while (m.find()) {
         if (m.group(3) != null) {
@@ -285,10 +314,7 @@ public class RelativeDate
     }
 
     private void nextLastMonth(Text content, LocalDate relativeTo) {
-      Pattern p =
-          Pattern.compile(
-              "\\b((in the|within the) )?(next|last) month\\b", Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = NEXT_LAST_MONTH.matcher(content.getData());
 
       while (m.find()) {
         if (m.group(2) != null) {
@@ -308,11 +334,7 @@ public class RelativeDate
     }
 
     private void nextLastYear(Text content, LocalDate relativeTo) {
-      Pattern p =
-          Pattern.compile(
-              "\\b((in the|within the|" + MONTHS + ") )?(next|last) year\\b",
-              Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = NEXT_LAST_YEAR.matcher(content.getData());
 
       while (m.find()) {
         if (m.group(3) != null) {
@@ -343,11 +365,7 @@ public class RelativeDate
     }
 
     private void inTheNextLastX(Text content, LocalDate relativeTo) {
-      Pattern p =
-          Pattern.compile(
-              "\\b(in|within) the (next|last) (\\d+) (day|week|month|year)s\\b",
-              Pattern.CASE_INSENSITIVE);
-      Matcher m = p.matcher(content.getData());
+      Matcher m = IN_THE_NEXT_LAST_X.matcher(content.getData());
 
       while (m.find()) {
         int offset = Integer.parseInt(m.group(3));
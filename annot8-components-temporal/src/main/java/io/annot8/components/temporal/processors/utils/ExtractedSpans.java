@@ -0,0 +1,43 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.temporal.processors.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records the spans that have already been extracted from a piece of text, so that later (less
+ * specific) matches that fall within them can be ignored.
+ *
+ * <p>Only spans which aren't contained by another span are kept. As none of the kept spans contain
+ * each other, ordering them by begin also orders them by end, and so whether a span is contained
+ * can be answered by looking only at the kept span with the closest begin at or before it. Both
+ * adding and checking spans are therefore O(log n).
+ */
+public class ExtractedSpans {
+
+  private final TreeMap<Integer, Integer> spans = new TreeMap<>();
+
+  /** Returns true if the span from begin to end is within a span that has already been added */
+  public boolean contains(int begin, int end) {
+    Map.Entry<Integer, Integer> floor = spans.floorEntry(begin);
+    return floor != null && floor.getValue() >= end;
+  }
+
+  /** Add the span from begin to end, replacing any existing spans that it contains */
+  public void add(int begin, int end) {
+    if (contains(begin, end)) return;
+
+    Map.Entry<Integer, Integer> next = spans.ceilingEntry(begin);
+    while (next != null && next.getValue() <= end) {
+      spans.remove(next.getKey());
+      next = spans.higherEntry(next.getKey());
+    }
+
+    spans.put(begin, end);
+  }
+
+  /** The number of spans kept, which excludes any spans contained by others */
+  public int size() {
+    return spans.size();
+  }
+}
@@ -0,0 +1,68 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.temporal.processors.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ExtractedSpansTest {
+
+  @Test
+  public void testContains() {
+    ExtractedSpans spans = new ExtractedSpans();
+    assertFalse(spans.contains(0, 1));
+
+    spans.add(10, 20);
+    spans.add(30, 40);
+
+    assertTrue(spans.contains(10, 20));
+    assertTrue(spans.contains(12, 15));
+    assertTrue(spans.contains(30, 30));
+    assertFalse(spans.contains(5, 15));
+    assertFalse(spans.contains(15, 35));
+    assertFalse(spans.contains(25, 28));
+    assertFalse(spans.contains(35, 45));
+  }
+
+  @Test
+  public void testContainedSpansReplaced() {
+    ExtractedSpans spans = new ExtractedSpans();
+    spans.add(10, 12);
+    spans.add(14, 16);
+    spans.add(20, 30);
+    assertEquals(3, spans.size());
+
+    spans.add(11, 12);
+    assertEquals(3, spans.size());
+
+    spans.add(10, 20);
+    assertEquals(2, spans.size());
+    assertTrue(spans.contains(12, 16));
+
+    spans.add(11, 15);
+    assertEquals(2, spans.size());
+  }
+
+  @Test
+  public void testMatchesLinearScan() {
+    Random random = new Random(17);
+    ExtractedSpans spans = new ExtractedSpans();
+    List<int[]> added = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      int begin = random.nextInt(500);
+      int end = begin + random.nextInt(20);
+
+      boolean expected = added.stream().anyMatch(s -> s[0] <= begin && s[1] >= end);
+      assertEquals(expected, spans.contains(begin, end));
+
+      if (random.nextBoolean()) {
+        spans.add(begin, end);
+        added.add(new int[] {begin, end});
+      }
+    }
+  }
+}
@@ -14,15 +14,22 @@ import io.annot8.api.settings.Description;
 import io.annot8.common.components.AbstractProcessor;
 import io.annot8.common.components.AbstractProcessorDescriptor;
 import io.annot8.common.components.capabilities.SimpleCapabilities;
+import io.annot8.common.components.metering.Metrics;
 import io.annot8.common.data.content.FileContent;
 import io.annot8.common.data.content.Image;
 import io.annot8.common.data.content.Text;
+import io.annot8.components.base.utils.InstancePool;
 import io.annot8.conventions.PropertyKeys;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import net.sourceforge.tess4j.ITesseract;
 import net.sourceforge.tess4j.TessAPI;
 import net.sourceforge.tess4j.Tesseract;
@@ -43,17 +50,22 @@ public class OCR extends AbstractProcessorDescriptor<OCR.Processor, OCR.Settings
 
   @Override
   protected Processor createComponent(Context context, Settings settings) {
-    ITesseract instance = new Tesseract();
-
-    if (!settings.getConfigs().isEmpty()) instance.setConfigs(settings.getConfigs());
-
-    instance.setDatapath(settings.getDataPath());
-    instance.setLanguage(settings.getLanguage());
-    instance.setOcrEngineMode(settings.getOcrEngine());
-    instance.setPageSegMode(settings.getPageSegmentation());
-    settings.getVariables().forEach(instance::setVariable);
-
-    return new Processor(settings.getExtensions(), instance);
+    return new Processor(
+        settings.getExtensions(),
+        settings.getPoolSize(),
+        () -> {
+          ITesseract instance = new Tesseract();
+
+          if (!settings.getConfigs().isEmpty()) instance.setConfigs(settings.getConfigs());
+
+          instance.setDatapath(settings.getDataPath());
+          instance.setLanguage(settings.getLanguage());
+          instance.setOcrEngineMode(settings.getOcrEngine());
+          instance.setPageSegMode(settings.getPageSegmentation());
+          settings.getVariables().forEach(instance::setVariable);
+
+          return instance;
+        });
   }
 
   @Override
@@ -65,73 +77,111 @@ public class OCR extends AbstractProcessorDescriptor<OCR.Processor, OCR.Settings
         .build();
   }
 
+  /**
+   * Tesseract instances aren't thread safe, so each thread performing OCR acquires its own from a
+   * bounded pool. If the pool holds more than one instance, the files and images within an item are
+   * OCR'd in parallel, and the resulting Text content is created in the same order as if they had
+   * been processed one at a time.
+   */
   public static class Processor extends AbstractProcessor {
-    private final ITesseract instance;
+    private final InstancePool<ITesseract> instances;
     private final List<String> extensions;
 
-    private Processor(List<String> extensions, ITesseract tesseract) {
+    // The number of files and images waiting to be OCR'd
+    private final AtomicInteger queued = new AtomicInteger();
+    private ForkJoinPool pool = null;
+
+    Processor(List<String> extensions, int poolSize, Supplier<ITesseract> factory) {
       this.extensions = extensions;
-      this.instance = tesseract;
+      this.instances = new InstancePool<>(poolSize, factory);
+
+      metrics().gauge("ocr-queue", queued);
+    }
+
+    @Override
+    public void setMetrics(Metrics metrics) {
+      super.setMetrics(metrics);
+      metrics().gauge("ocr-queue", queued);
     }
 
     @Override
     public ProcessorResponse process(Item item) {
+      List<Page> pages = new ArrayList<>();
 
       item.getContents(FileContent.class)
           .filter(
               fc ->
                   extensions.contains(
                       FilenameUtils.getExtension(fc.getData().getName()).toLowerCase()))
-          .forEach(
-              fc -> {
-                String content =
-                    metrics()
-                        .timer("ocr-file")
-                        .record(
-                            () -> {
-                              try {
-                                return instance.doOCR(fc.getData());
-                              } catch (TesseractException e) {
-                                log()
-                                    .error(
-                                        "Unable to extract text from File content {}",
-                                        fc.getId(),
-                                        e);
-                              }
-
-                              return null;
-                            });
-
-                createTextContent(item, content, fc);
-              });
+          .forEach(fc -> pages.add(new Page(fc, "ocr-file", t -> t.doOCR(fc.getData()))));
 
       item.getContents(Image.class)
-          .forEach(
-              image -> {
-                String content =
-                    metrics()
-                        .timer("ocr-image")
-                        .record(
-                            () -> {
-                              try {
-                                return instance.doOCR(image.getData());
-                              } catch (TesseractException e) {
-                                log()
-                                    .error(
-                                        "Unable to extract text from Image content {}",
-                                        image.getId(),
-                                        e);
-                              }
-
-                              return null;
-                            });
-
-                createTextContent(item, content, image);
-              });
+          .forEach(image -> pages.add(new Page(image, "ocr-image", t -> t.doOCR(image.getData()))));
+
+      // The pages from this item still waiting, so that the queue can be corrected if OCR fails
+      AtomicInteger waiting = new AtomicInteger(pages.size());
+      queued.addAndGet(pages.size());
+
+      String[] results = new String[pages.size()];
+      try {
+        if (instances.getMaxSize() > 1 && pages.size() > 1) {
+          getPool()
+              .submit(
+                  () ->
+                      IntStream.range(0, pages.size())
+                          .parallel()
+                          .forEach(i -> results[i] = ocr(pages.get(i), waiting)))
+              .join();
+        } else {
+          for (int i = 0; i < pages.size(); i++) results[i] = ocr(pages.get(i), waiting);
+        }
+      } finally {
+        queued.addAndGet(-waiting.getAndSet(0));
+      }
+
+      for (int i = 0; i < pages.size(); i++)
+        createTextContent(item, results[i], pages.get(i).source);
 
       return ProcessorResponse.ok();
     }
 
+    private String ocr(Page page, AtomicInteger waiting) {
+      ITesseract instance;
+      long start = System.nanoTime();
+      try {
+        instance = instances.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log().error("Interrupted waiting to extract text from content {}", page.source.getId());
+        return null;
+      } finally {
+        if (waiting.getAndUpdate(w -> Math.max(0, w - 1)) > 0) queued.decrementAndGet();
+      }
+      metrics().timer("ocr-wait").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+      try {
+        return metrics()
+            .timer(page.timer)
+            .record(
+                () -> {
+                  try {
+                    return page.ocr.apply(instance);
+                  } catch (TesseractException e) {
+                    log()
+                        .error(
+                            "Unable to extract text from {} content {}",
+                            page.source instanceof Image ? "Image" : "File",
+                            page.source.getId(),
+                            e);
+                  }
+
+                  return null;
+                });
+      } finally {
+        instances.release(instance);
+      }
+    }
+
     private Text createTextContent(Item item, String textContent, Content<?> sourceContent) {
       if (textContent == null || textContent.isBlank()) return null;
 
@@ -142,6 +192,43 @@ public class OCR extends AbstractProcessorDescriptor<OCR.Processor, OCR.Settings
           .withProperty(PropertyKeys.PROPERTY_KEY_PARENT, sourceContent.getId())
           .save();
     }
+
+    private synchronized ForkJoinPool getPool() {
+      if (pool == null) pool = new ForkJoinPool(instances.getMaxSize());
+
+      return pool;
+    }
+
+    @Override
+    public void close() {
+      synchronized (this) {
+        if (pool != null) {
+          pool.shutdown();
+          pool = null;
+        }
+      }
+
+      instances.close();
+      super.close();
+    }
+
+    @FunctionalInterface
+    private interface TesseractFunction {
+      String apply(ITesseract tesseract) throws TesseractException;
+    }
+
+    /** A file or image to OCR */
+    private static class Page {
+      private final Content<?> source;
+      private final String timer;
+      private final TesseractFunction ocr;
+
+      private Page(Content<?> source, String timer, TesseractFunction ocr) {
+        this.source = source;
+        this.timer = timer;
+        this.ocr = ocr;
+      }
+    }
   }
 
   /** Settings class for {@link OCR} */
@@ -156,6 +243,7 @@ public class OCR extends AbstractProcessorDescriptor<OCR.Processor, OCR.Settings
     private int ocrEngine = TessAPI.TessOcrEngineMode.OEM_DEFAULT;
     private int pageSegmentation = -1;
     private Map<String, String> variables = new HashMap<>();
+    private int poolSize = 1;
 
     @Description("List of file extensions (case insensitive) that will be OCR'd")
     public List<String> getExtensions() {
@@ -220,6 +308,16 @@ public class OCR extends AbstractProcessorDescriptor<OCR.Processor, OCR.Settings
       this.variables = variables;
     }
 
+    @Description(
+        "The number of Tesseract instances to use, and so the number of files and images within an item to OCR in parallel")
+    public int getPoolSize() {
+      return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+      this.poolSize = poolSize;
+    }
+
     @Override
     public boolean validate() {
       return extensions != null
@@ -229,7 +327,8 @@ public class OCR extends AbstractProcessorDescriptor<OCR.Processor, OCR.Settings
           && !dataPath.isEmpty()
           && language != null
           && !language.isEmpty()
-          && variables != null;
+          && variables != null
+          && poolSize >= 1;
     }
   }
 }
@@ -1,6 +1,7 @@
 module io.annot8.components.tesseract {
   requires transitive io.annot8.api;
   requires io.annot8.common.data;
+  requires io.annot8.components.base;
   requires transitive io.annot8.common.components;
   requires org.slf4j;
   requires org.apache.commons.io;
@@ -2,13 +2,27 @@
 package io.annot8.components.tesseract.processors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.annot8.api.components.Processor;
 import io.annot8.api.data.Item;
+import io.annot8.common.components.metering.NamedMetrics;
 import io.annot8.common.data.content.FileContent;
+import io.annot8.common.data.content.Image;
 import io.annot8.common.data.content.Text;
 import io.annot8.testing.testimpl.TestItem;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import net.sourceforge.tess4j.Tesseract;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -34,4 +48,97 @@ public class OCRTest {
             .filter(t -> t.getData().trim().equals("Annot8 Test Image"))
             .count());
   }
+
+  @Test
+  public void testParallelImages() {
+    AtomicInteger created = new AtomicInteger();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    Item item = new TestItem();
+    for (int i = 0; i < 12; i++) {
+      item.createContent(Image.class)
+          .withDescription("Page " + i)
+          .withData(new BufferedImage(i + 1, 1, BufferedImage.TYPE_BYTE_GRAY))
+          .save();
+    }
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    try (OCR.Processor ocr =
+        new OCR.Processor(
+            List.of("tif"),
+            4,
+            () -> {
+              created.incrementAndGet();
+              return new Tesseract() {
+                @Override
+                public String doOCR(BufferedImage image) {
+                  int now = running.incrementAndGet();
+                  maxRunning.accumulateAndGet(now, Math::max);
+                  try {
+                    Thread.sleep(50);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  } finally {
+                    running.decrementAndGet();
+                  }
+
+                  return "Width " + image.getWidth();
+                }
+              };
+            })) {
+      ocr.setMetrics(new NamedMetrics(registry, "test", OCR.Processor.class));
+      ocr.process(item);
+    }
+
+    assertTrue(created.get() <= 4);
+    assertTrue(maxRunning.get() > 1);
+    assertTrue(maxRunning.get() <= 4);
+
+    List<String> texts =
+        item.getContents(Text.class).map(Text::getData).collect(Collectors.toList());
+    assertEquals(12, texts.size());
+    for (int i = 0; i < 12; i++) assertTrue(texts.contains("Width " + (i + 1)));
+
+    assertEquals(12, ((Timer) meter(registry, "ocr-image")).count());
+    assertEquals(12, ((Timer) meter(registry, "ocr-wait")).count());
+    assertEquals(0.0, ((Gauge) meter(registry, "ocr-queue")).value());
+  }
+
+  @Test
+  public void testQueueResetOnFailure() {
+    Item item = new TestItem();
+    for (int i = 0; i < 8; i++) {
+      item.createContent(Image.class)
+          .withData(new BufferedImage(i + 1, 1, BufferedImage.TYPE_BYTE_GRAY))
+          .save();
+    }
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    try (OCR.Processor ocr =
+        new OCR.Processor(
+            List.of("tif"),
+            2,
+            () ->
+                new Tesseract() {
+                  @Override
+                  public String doOCR(BufferedImage image) {
+                    throw new IllegalStateException("Failed");
+                  }
+                })) {
+      ocr.setMetrics(new NamedMetrics(registry, "test", OCR.Processor.class));
+      assertThrows(RuntimeException.class, () -> ocr.process(item));
+    }
+
+    assertEquals(0.0, ((Gauge) meter(registry, "ocr-queue")).value());
+  }
+
+  private static Meter meter(MeterRegistry registry, String name) {
+    return registry.getMeters().stream()
+        .filter(m -> m.getId().getName().endsWith(name))
+        .findFirst()
+        .orElseThrow();
+  }
 }
@@ -6,6 +6,7 @@ import io.annot8.api.components.annotations.ComponentDescription;
 import io.annot8.api.components.annotations.ComponentName;
 import io.annot8.api.components.annotations.SettingsClass;
 import io.annot8.api.context.Context;
+import io.annot8.api.data.Content;
 import io.annot8.api.data.Item;
 import io.annot8.api.properties.Properties;
 import io.annot8.api.settings.Description;
@@ -20,6 +21,12 @@ import io.annot8.components.base.text.processors.AbstractTextProcessor;
 @SettingsClass(Clean.Settings.class)
 public class Clean extends AbstractProcessorDescriptor<Clean.Processor, Clean.Settings> {
 
+  /**
+   * Property set on the cleaned content when offsets are recorded, holding an int array of the
+   * offset in the source content of each character in the cleaned content (plus one for the end)
+   */
+  public static final String PROPERTY_KEY_OFFSETS = "cleanOffsets";
+
   @Override
   protected Processor createComponent(Context context, Settings settings) {
     return new Processor(settings);
@@ -41,49 +48,14 @@ public class Clean extends AbstractProcessorDescriptor<Clean.Processor, Clean.Se
 
     private final Settings settings;
 
-    private static final String TRIM_LINES = "(\\h+\\n\\h+|\\h+\\n|\\n\\h+)";
-
-    private static final String SPLIT_LINES = "-\\n";
-    private static final String SINGLE_NEW_LINES = "(?<=\\S)\\h*\\n\\h*(?=\\S)";
-    private static final String REPEATED_NEW_LINES = "(\\h*\\n\\h*){2,}";
-    private static final String REPEATED_TABS = "([ \t]+\t[ \t]+|[ \t]+\t|\t[ \t]+)";
-
     public Processor(Settings settings) {
       this.settings = settings;
     }
 
     @Override
     protected void process(Text content) {
-      String clean = content.getData().replaceAll("\\r", "");
-
-      if (settings.isTrim()) clean = clean.strip();
-
-      if (settings.isTrimLines()) clean = clean.replaceAll(TRIM_LINES, "\n");
-
-      if (settings.isReplaceSmartCharacters()) {
-        clean =
-            clean
-                .replaceAll("[\u2013\u2014\u2015]", "-")
-                .replaceAll("\u2017", "_")
-                .replaceAll("[\u2018\u2019\u201b\u2032]", "'")
-                .replaceAll("\u201a", ",")
-                .replaceAll("[\u201c\u201d\u201e\u2033]", "\"")
-                .replaceAll("\u2026", "...");
-      }
-
-      if (settings.isRemoveSingleNewLines()) {
-        clean = clean.replaceAll(SPLIT_LINES, "-");
-        clean = clean.replaceAll(SINGLE_NEW_LINES, " ");
-      }
-
-      if (settings.isRemoveRepeatedNewLines()) {
-        clean = clean.replaceAll(REPEATED_NEW_LINES, "\n\n");
-      }
-
-      if (settings.isRemoveRepeatedWhitespace()) {
-        clean = clean.replaceAll(REPEATED_TABS, "\t");
-        clean = clean.replaceAll(" {2,}", " ");
-      }
+      TextCleaner cleaner = new TextCleaner(settings, settings.isRecordOffsets());
+      String clean = cleaner.clean(content.getData());
 
       if (!clean.equalsIgnoreCase(content.getData())) {
         Item item = content.getItem();
@@ -95,11 +67,16 @@ public class Clean extends AbstractProcessorDescriptor<Clean.Processor, Clean.Se
           props = EmptyImmutableProperties.getInstance();
         }
 
-        item.createContent(Text.class)
-            .withDescription("Cleaned content from " + content.getId())
-            .withData(clean)
-            .withProperties(props)
-            .save();
+        Content.Builder<Text, String> builder =
+            item.createContent(Text.class)
+                .withDescription("Cleaned content from " + content.getId())
+                .withData(clean)
+                .withProperties(props);
+
+        if (settings.isRecordOffsets())
+          builder = builder.withProperty(PROPERTY_KEY_OFFSETS, cleaner.getOffsets());
+
+        builder.save();
 
         // Remove source content, but only if we've made changes
         if (settings.isRemoveSourceContent()) item.removeContent(content);
@@ -116,6 +93,7 @@ public class Clean extends AbstractProcessorDescriptor<Clean.Processor, Clean.Se
     private boolean replaceSmartCharacters = true;
     private boolean removeRepeatedWhitespace = true;
     private boolean copyProperties = true;
+    private boolean recordOffsets = false;
 
     @Override
     public boolean validate() {
@@ -211,5 +189,19 @@ public class Clean extends AbstractProcessorDescriptor<Clean.Processor, Clean.Se
     public void setCopyProperties(boolean copyProperties) {
       this.copyProperties = copyProperties;
     }
+
+    @Description(
+        value =
+            "Should the offset in the source Content of each character in the cleaned Content be recorded, in the "
+                + PROPERTY_KEY_OFFSETS
+                + " property?",
+        defaultValue = "false")
+    public boolean isRecordOffsets() {
+      return recordOffsets;
+    }
+
+    public void setRecordOffsets(boolean recordOffsets) {
+      this.recordOffsets = recordOffsets;
+    }
   }
 }
@@ -0,0 +1,321 @@
+/* Annot8 (annot8.io) - Licensed under Apache-2.0. */
+package io.annot8.components.text.processors;
+
+import java.util.Arrays;
+
+/**
+ * Applies the transforms configured in {@link Clean.Settings} to text in a single pass.
+ *
+ * <p>Other than carriage return removal, trimming and smart character replacement, every transform
+ * only affects runs of horizontal whitespace and new lines, and depends only on the run itself and
+ * the characters either side of it. Runs are therefore collected as the text is scanned, and each
+ * transform is applied to the run in turn before it is appended to the output. The result is the
+ * same as applying each transform to the whole text one after another.
+ *
+ * <p>Optionally, the offset in the original text of each character in the cleaned text can be
+ * recorded. Characters that replace a sequence in the original text are given the offset of the
+ * start of that sequence. An extra offset is recorded for the end of the cleaned text, so that a
+ * span from begin to end in the cleaned text corresponds to the span from {@code offsets[begin]} to
+ * {@code offsets[end]} in the original.
+ *
+ * <p>Instances are not thread safe, and should be used for a single piece of text.
+ */
+class TextCleaner {
+
+  private final Clean.Settings settings;
+  private final boolean recordOffsets;
+
+  private StringBuilder out;
+  private int[] offsets;
+
+  // The run currently being transformed, and a buffer to transform it into
+  private char[] runChars = new char[16];
+  private int[] runSources = new int[16];
+  private int runLength;
+
+  private char[] nextChars = new char[16];
+  private int[] nextSources = new int[16];
+  private int nextLength;
+
+  TextCleaner(Clean.Settings settings, boolean recordOffsets) {
+    this.settings = settings;
+    this.recordOffsets = recordOffsets;
+  }
+
+  /** Clean the text, returning the cleaned text */
+  String clean(String text) {
+    int start = 0;
+    int end = text.length();
+
+    if (settings.isTrim()) {
+      // Equivalent to String.strip(), which is applied after carriage returns are removed
+      while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+      while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+    }
+
+    out = new StringBuilder(end - start);
+    offsets = recordOffsets ? new int[end - start + 1] : null;
+
+    int prev = -1;
+    int i = start;
+    while (i < end) {
+      char c = text.charAt(i);
+
+      if (c == '\r') {
+        i++;
+      } else if (isRunCharacter(c)) {
+        runLength = 0;
+        while (i < end) {
+          char r = text.charAt(i);
+          if (r != '\r') {
+            if (!isRunCharacter(r)) break;
+            addToRun(r, i);
+          }
+          i++;
+        }
+
+        boolean nextIsNonSpace = i < end && isNonSpace(text.charAt(i));
+        transformRun(prev, nextIsNonSpace);
+        appendRun();
+      } else {
+        prev = appendCharacter(c, i);
+        i++;
+      }
+    }
+
+    if (recordOffsets) {
+      offsets = Arrays.copyOf(offsets, out.length() + 1);
+      offsets[out.length()] = end;
+    }
+
+    return out.toString();
+  }
+
+  /**
+   * The offset in the original text of each character in the last text cleaned, or null if offsets
+   * weren't recorded
+   */
+  int[] getOffsets() {
+    return offsets;
+  }
+
+  private char appendCharacter(char c, int source) {
+    if (settings.isReplaceSmartCharacters()) {
+      switch (c) {
+        case '\u2013':
+        case '\u2014':
+        case '\u2015':
+          return append('-', source);
+        case '\u2017':
+          return append('_', source);
+        case '\u2018':
+        case '\u2019':
+        case '\u201b':
+        case '\u2032':
+          return append('\'', source);
+        case '\u201a':
+          return append(',', source);
+        case '\u201c':
+        case '\u201d':
+        case '\u201e':
+        case '\u2033':
+          return append('"', source);
+        case '\u2026':
+          append('.', source);
+          append('.', source);
+          return append('.', source);
+        default:
+          break;
+      }
+    }
+
+    return append(c, source);
+  }
+
+  private char append(char c, int source) {
+    if (recordOffsets) {
+      if (out.length() >= offsets.length - 1) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+      offsets[out.length()] = source;
+    }
+    out.append(c);
+
+    return c;
+  }
+
+  private void appendRun() {
+    for (int i = 0; i < runLength; i++) append(runChars[i], runSources[i]);
+  }
+
+  private void transformRun(int prev, boolean nextIsNonSpace) {
+    if (settings.isTrimLines() && countNewLines() > 0) {
+      // Remove all horizontal whitespace around the new lines
+      for (int i = 0; i < runLength; i++) {
+        if (runChars[i] == '\n') addToNext(runChars[i], runSources[i]);
+      }
+      swap();
+    }
+
+    if (settings.isRemoveSingleNewLines()) {
+      // Join lines split by a hyphen
+      if (prev == '-' && runLength > 0 && runChars[0] == '\n') {
+        for (int i = 1; i < runLength; i++) addToNext(runChars[i], runSources[i]);
+        swap();
+      }
+
+      joinSingleNewLines(prev >= 0 && isNonSpace((char) prev), nextIsNonSpace);
+    }
+
+    if (settings.isRemoveRepeatedNewLines() && countNewLines() >= 2) {
+      // The run is entirely horizontal whitespace and new lines, so the whole run is replaced
+      addToNext('\n', runSources[0]);
+      addToNext('\n', runSources[0]);
+      swap();
+    }
+
+    if (settings.isRemoveRepeatedWhitespace()) {
+      collapseSpacesAndTabs();
+    }
+  }
+
+  /**
+   * Replace single new lines between non-space characters, along with any horizontal whitespace
+   * around them, with a space. Horizontal whitespace that isn't a space or tab (e.g. a non-breaking
+   * space) counts as a non-space character either side of the new line.
+   */
+  private void joinSingleNewLines(boolean prevIsNonSpace, boolean nextIsNonSpace) {
+    int copied = 0;
+    int p = 0;
+
+    while (p < runLength) {
+      boolean behind = p == 0 ? prevIsNonSpace : isNonSpace(runChars[p - 1]);
+      if (!behind) {
+        p++;
+        continue;
+      }
+
+      int newLine = p;
+      while (newLine < runLength && runChars[newLine] != '\n') newLine++;
+      if (newLine == runLength) break;
+
+      int after = newLine + 1;
+      while (after < runLength && runChars[after] != '\n') after++;
+
+      // Horizontal whitespace after the new line is matched greedily, backing off until the next
+      // character is a non-space
+      int matchEnd = -1;
+      for (int e = after; e > newLine; e--) {
+        boolean ahead = e == runLength ? nextIsNonSpace : isNonSpace(runChars[e]);
+        if (ahead) {
+          matchEnd = e;
+          break;
+        }
+      }
+
+      if (matchEnd < 0) {
+        // Any match starting before the new line would fail in the same way
+        p = newLine + 1;
+        continue;
+      }
+
+      for (int i = copied; i < p; i++) addToNext(runChars[i], runSources[i]);
+      addToNext(' ', runSources[p]);
+
+      copied = matchEnd;
+      p = matchEnd;
+    }
+
+    if (copied == 0 && nextLength == 0) return;
+
+    for (int i = copied; i < runLength; i++) addToNext(runChars[i], runSources[i]);
+    swap();
+  }
+
+  /** Replace each sequence of spaces and tabs with a tab if it contains one, or else a space */
+  private void collapseSpacesAndTabs() {
+    int i = 0;
+    while (i < runLength) {
+      char c = runChars[i];
+      if (c != ' ' && c != '\t') {
+        addToNext(c, runSources[i]);
+        i++;
+        continue;
+      }
+
+      int source = runSources[i];
+      boolean tab = false;
+      while (i < runLength && (runChars[i] == ' ' || runChars[i] == '\t')) {
+        tab |= runChars[i] == '\t';
+        i++;
+      }
+
+      addToNext(tab ? '\t' : ' ', source);
+    }
+
+    swap();
+  }
+
+  private int countNewLines() {
+    int count = 0;
+    for (int i = 0; i < runLength; i++) {
+      if (runChars[i] == '\n') count++;
+    }
+
+    return count;
+  }
+
+  private void addToRun(char c, int source) {
+    if (runLength == runChars.length) {
+      runChars = Arrays.copyOf(runChars, runLength * 2);
+      runSources = Arrays.copyOf(runSources, runLength * 2);
+    }
+    runChars[runLength] = c;
+    runSources[runLength] = source;
+    runLength++;
+  }
+
+  private void addToNext(char c, int source) {
+    if (nextLength == nextChars.length) {
+      nextChars = Arrays.copyOf(nextChars, nextLength * 2);
+      nextSources = Arrays.copyOf(nextSources, nextLength * 2);
+    }
+    nextChars[nextLength] = c;
+    nextSources[nextLength] = source;
+    nextLength++;
+  }
+
+  /** Make the transformed run the current run, and clear the buffer for the next transform */
+  private void swap() {
+    char[] chars = runChars;
+    int[] sources = runSources;
+
+    runChars = nextChars;
+    runSources = nextSources;
+    runLength = nextLength;
+
+    nextChars = chars;
+    nextSources = sources;
+    nextLength = 0;
+  }
+
+  /** Whether c is horizontal whitespace, as matched by \h in a regular expression */
+  private static boolean isHorizontalWhitespace(char c) {
+    return c == ' '
+        || c == '\t'
+        || c == '\u00a0'
+        || c == '\u1680'
+        || c == '\u180e'
+        || (c >= '\u2000' && c <= '\u200a')
+        || c == '\u202f'
+        || c == '\u205f'
+        || c == '\u3000';
+  }
+
+  private static boolean isRunCharacter(char c) {
+    return c == '\n' || isHorizontalWhitespace(c);
+  }
+
+  /** Whether c is a non-space character, as matched by \S in a regular expression */
+  private static boolean isNonSpace(char c) {
+    return c != ' ' && c != '\t' && c != '\n' && c != '\u000b' && c != '\f' && c != '\r';
+  }
+}
@@ -2,12 +2,14 @@
 package io.annot8.components.text.processors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.annot8.api.components.Processor;
 import io.annot8.api.data.Item;
 import io.annot8.common.data.content.Text;
 import io.annot8.testing.testimpl.TestItem;
 import io.annot8.testing.testimpl.content.TestStringContent;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 public class CleanTest {
@@ -163,4 +165,109 @@ public class CleanTest {
           item.getContents(Text.class).findFirst().get().getData());
     }
   }
+
+  @Test
+  public void testRecordOffsets() {
+    Clean.Settings s = new Clean.Settings();
+    s.setRecordOffsets(true);
+
+    try (Processor p = new Clean.Processor(s)) {
+      Item item = new TestItem();
+
+      String source = "  Hello \r\n  world \u2026  it's me";
+      item.createContent(TestStringContent.class).withData(source).save();
+
+      p.process(item);
+
+      Text clean =
+          item.getContents(Text.class).filter(c -> !source.equals(c.getData())).findFirst().get();
+      assertEquals("Hello world ... it's me", clean.getData());
+
+      int[] offsets = clean.getProperties().get(Clean.PROPERTY_KEY_OFFSETS, int[].class).get();
+      assertEquals(clean.getData().length() + 1, offsets.length);
+
+      // "world" maps back to the same text in the source
+      int begin = clean.getData().indexOf("world");
+      assertEquals("world", source.substring(offsets[begin], offsets[begin + 5]).strip());
+
+      // The ellipsis expands to three characters, all from the same source character
+      int ellipsis = clean.getData().indexOf("...");
+      assertEquals(source.indexOf('\u2026'), offsets[ellipsis]);
+      assertEquals(source.indexOf('\u2026'), offsets[ellipsis + 2]);
+
+      assertEquals(source.length(), offsets[offsets.length - 1]);
+    }
+  }
+
+  @Test
+  public void testMatchesRegularExpressions() {
+    // Characters chosen to exercise the edge cases of each transform, including horizontal
+    // whitespace that isn't matched as whitespace by \s
+    char[] alphabet = {
+      'a', 'b', '-', '.', ' ', ' ', ' ', '\t', '\n', '\n', '\r', '\u00a0', '\u2003', '\f', '\u2013',
+      '\u2026', '\u201c'
+    };
+    Random random = new Random(19);
+
+    for (int flags = 0; flags < 64; flags++) {
+      Clean.Settings s = new Clean.Settings();
+      s.setTrim((flags & 1) != 0);
+      s.setTrimLines((flags & 2) != 0);
+      s.setReplaceSmartCharacters((flags & 4) != 0);
+      s.setRemoveSingleNewLines((flags & 8) != 0);
+      s.setRemoveRepeatedNewLines((flags & 16) != 0);
+      s.setRemoveRepeatedWhitespace((flags & 32) != 0);
+
+      for (int i = 0; i < 500; i++) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(30);
+        for (int j = 0; j < length; j++) sb.append(alphabet[random.nextInt(alphabet.length)]);
+        String text = sb.toString();
+
+        TextCleaner cleaner = new TextCleaner(s, true);
+        String actual = cleaner.clean(text);
+        assertEquals(cleanWithRegularExpressions(s, text), actual, "Cleaning [" + text + "]");
+
+        int[] offsets = cleaner.getOffsets();
+        assertEquals(actual.length() + 1, offsets.length);
+        for (int j = 1; j < offsets.length; j++) assertTrue(offsets[j] >= offsets[j - 1]);
+      }
+    }
+  }
+
+  /** The original implementation of Clean, applying each transform to the whole text in turn */
+  private static String cleanWithRegularExpressions(Clean.Settings settings, String text) {
+    String clean = text.replaceAll("\\r", "");
+
+    if (settings.isTrim()) clean = clean.strip();
+
+    if (settings.isTrimLines()) clean = clean.replaceAll("(\\h+\\n\\h+|\\h+\\n|\\n\\h+)", "\n");
+
+    if (settings.isReplaceSmartCharacters()) {
+      clean =
+          clean
+              .replaceAll("[\u2013\u2014\u2015]", "-")
+              .replaceAll("\u2017", "_")
+              .replaceAll("[\u2018\u2019\u201b\u2032]", "'")
+              .replaceAll("\u201a", ",")
+              .replaceAll("[\u201c\u201d\u201e\u2033]", "\"")
+              .replaceAll("\u2026", "...");
+    }
+
+    if (settings.isRemoveSingleNewLines()) {
+      clean = clean.replaceAll("-\\n", "-");
+      clean = clean.replaceAll("(?<=\\S)\\h*\\n\\h*(?=\\S)", " ");
+    }
+
+    if (settings.isRemoveRepeatedNewLines()) {
+      clean = clean.replaceAll("(\\h*\\n\\h*){2,}", "\n\n");
+    }
+
+    if (settings.isRemoveRepeatedWhitespace()) {
+      clean = clean.replaceAll("([ \t]+\t[ \t]+|[ \t]+\t|\t[ \t]+)", "\t");
+      clean = clean.replaceAll(" {2,}", " ");
+    }
+
+    return clean;
+  }
 }